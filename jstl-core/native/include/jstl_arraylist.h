@@ -4,6 +4,8 @@
 #include <stddef.h>
 #include <stdint.h>
 
+#include "jstl_hashset.h"
+
 #ifdef __cplusplus
 extern "C" {
 #endif
@@ -14,6 +16,9 @@ typedef void* jstl_arraylist_t;
 // Create a new ArrayList
 jstl_arraylist_t jstl_arraylist_create();
 
+// Create a new ArrayList with room for capacity elements
+jstl_arraylist_t jstl_arraylist_create_with_capacity(size_t capacity);
+
 // Destroy an ArrayList and free all memory
 void jstl_arraylist_destroy(jstl_arraylist_t list);
 
@@ -44,6 +49,65 @@ size_t jstl_arraylist_capacity(jstl_arraylist_t list);
 // Reserve capacity
 void jstl_arraylist_reserve(jstl_arraylist_t list, size_t capacity);
 
+// Release capacity beyond the current size (returns 0 on failure)
+int jstl_arraylist_shrink_to_fit(jstl_arraylist_t list);
+
+// Pointer to the element storage (invalidated when the list grows or shrinks)
+int64_t* jstl_arraylist_data(jstl_arraylist_t list);
+
+// Shrink the list to its first size elements
+void jstl_arraylist_truncate(jstl_arraylist_t list, size_t size);
+
+// Remove elements in [from, to)
+void jstl_arraylist_remove_range(jstl_arraylist_t list, size_t from, size_t to);
+
+// Keep only elements in [lo, hi], preserving order (returns number removed)
+size_t jstl_arraylist_retain_between(jstl_arraylist_t list, int64_t lo, int64_t hi);
+
+// Remove every element contained in set, preserving order (returns number removed)
+size_t jstl_arraylist_remove_all_in(jstl_arraylist_t list, jstl_hashset_t set);
+
+// Remove element at index by moving the last element into its place (returns removed value)
+int64_t jstl_arraylist_swap_remove(jstl_arraylist_t list, size_t index);
+
+// Sort elements in [from, to) in ascending order
+void jstl_arraylist_sort(jstl_arraylist_t list, size_t from, size_t to);
+
+// Sort all elements in descending order
+void jstl_arraylist_sort_descending(jstl_arraylist_t list);
+
+// Sort all elements in ascending order using up to threads threads (0 = all cores)
+void jstl_arraylist_parallel_sort(jstl_arraylist_t list, size_t threads);
+
+// Binary search a sorted list (returns index, or -(insertion point) - 1 if absent)
+int64_t jstl_arraylist_binary_search(jstl_arraylist_t list, int64_t value);
+
+// Aggregates below use SIMD kernels picked at runtime and split the work
+// across up to threads threads (0 = all cores, 1 = calling thread only)
+
+// Sum of all elements (wraps on overflow)
+int64_t jstl_arraylist_sum(jstl_arraylist_t list, size_t threads);
+
+// Smallest element (INT64_MAX if empty)
+int64_t jstl_arraylist_min(jstl_arraylist_t list, size_t threads);
+
+// Largest element (INT64_MIN if empty)
+int64_t jstl_arraylist_max(jstl_arraylist_t list, size_t threads);
+
+// Number of elements in [lo, hi]
+size_t jstl_arraylist_count_between(jstl_arraylist_t list, int64_t lo, int64_t hi, size_t threads);
+
+// Arithmetic mean of all elements (NaN if empty)
+double jstl_arraylist_mean(jstl_arraylist_t list, size_t threads);
+
+// Count elements of [lo, hi] into buckets buckets whose widths differ by at
+// most one, the wider ones first; counts must hold buckets entries
+void jstl_arraylist_histogram(jstl_arraylist_t list, int64_t lo, int64_t hi,
+                              size_t buckets, int64_t* counts, size_t threads);
+
+// Dot product over the common prefix of two lists (wraps on overflow)
+int64_t jstl_arraylist_dot(jstl_arraylist_t list, jstl_arraylist_t other, size_t threads);
+
 #ifdef __cplusplus
 }
 #endif
@@ -0,0 +1,95 @@
+#ifndef JSTL_BITSET_H
+#define JSTL_BITSET_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#include "jstl_arraylist.h"
+#include "jstl_hashset.h"
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for BitSet, a compressed bitmap of int64 values.
+// Values are split into 65536-value chunks, each stored as a sorted array,
+// a 8 KB bitmap or a list of runs, whichever suits its contents.
+typedef void* jstl_bitset_t;
+
+// Set operations for jstl_bitset_combine
+typedef enum {
+    JSTL_BITSET_AND = 0,
+    JSTL_BITSET_OR = 1,
+    JSTL_BITSET_AND_NOT = 2,
+    JSTL_BITSET_XOR = 3
+} jstl_bitset_op_t;
+
+// Create a new BitSet
+jstl_bitset_t jstl_bitset_create();
+
+// Destroy a BitSet and free all memory
+void jstl_bitset_destroy(jstl_bitset_t bitset);
+
+// Add a value (returns 1 if added, 0 if already present)
+int jstl_bitset_add(jstl_bitset_t bitset, int64_t value);
+
+// Add every value in [from, to) (returns 0 on failure)
+int jstl_bitset_add_range(jstl_bitset_t bitset, int64_t from, int64_t to);
+
+// Add n values in any order (returns 0 on failure)
+int jstl_bitset_add_all(jstl_bitset_t bitset, const int64_t* values, size_t n);
+
+// Add every element of a HashSet (returns 0 on failure)
+int jstl_bitset_add_hashset(jstl_bitset_t bitset, jstl_hashset_t set);
+
+// Add every element of an ArrayList (returns 0 on failure)
+int jstl_bitset_add_arraylist(jstl_bitset_t bitset, jstl_arraylist_t list);
+
+// Check if contains value
+int jstl_bitset_contains(jstl_bitset_t bitset, int64_t value);
+
+// Remove a value (returns 1 if removed, 0 if absent)
+int jstl_bitset_remove(jstl_bitset_t bitset, int64_t value);
+
+// Get the number of values
+uint64_t jstl_bitset_cardinality(jstl_bitset_t bitset);
+
+// Remove all values
+void jstl_bitset_clear(jstl_bitset_t bitset);
+
+// Number of values <= value
+uint64_t jstl_bitset_rank(jstl_bitset_t bitset, int64_t value);
+
+// Write the value at 0-based position index in ascending order to out
+// (returns 0 if index >= cardinality)
+int jstl_bitset_select(jstl_bitset_t bitset, uint64_t index, int64_t* out);
+
+// New BitSet holding a op b (NULL on failure)
+jstl_bitset_t jstl_bitset_combine(jstl_bitset_t a, jstl_bitset_t b, int op);
+
+// Replace a with a op b (returns 0 on failure, leaving a unchanged)
+int jstl_bitset_combine_in_place(jstl_bitset_t a, jstl_bitset_t b, int op);
+
+// Number of values in both a and b
+uint64_t jstl_bitset_and_cardinality(jstl_bitset_t a, jstl_bitset_t b);
+
+// Re-encode every chunk in its smallest form, using runs where they pay off
+void jstl_bitset_run_optimize(jstl_bitset_t bitset);
+
+// Approximate native memory held by the BitSet
+size_t jstl_bitset_size_in_bytes(jstl_bitset_t bitset);
+
+// Copy up to capacity values in ascending order to out; returns the count copied
+size_t jstl_bitset_to_array(jstl_bitset_t bitset, int64_t* out, size_t capacity);
+
+// Add every value to a HashSet (returns 0 on failure)
+int jstl_bitset_to_hashset(jstl_bitset_t bitset, jstl_hashset_t set);
+
+// Append every value in ascending order to an ArrayList (returns 0 on failure)
+int jstl_bitset_to_arraylist(jstl_bitset_t bitset, jstl_arraylist_t list);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_BITSET_H
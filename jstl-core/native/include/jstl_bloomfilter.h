@@ -0,0 +1,47 @@
+#ifndef JSTL_BLOOMFILTER_H
+#define JSTL_BLOOMFILTER_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for BloomFilter
+typedef void* jstl_bloomfilter_t;
+
+// Create a blocked Bloom filter sized for expected insertions at the given
+// false-positive rate
+jstl_bloomfilter_t jstl_bloomfilter_create(size_t expected, double fpp);
+
+// Destroy a BloomFilter and free all memory
+void jstl_bloomfilter_destroy(jstl_bloomfilter_t filter);
+
+// Add a key
+void jstl_bloomfilter_put(jstl_bloomfilter_t filter, int64_t key);
+
+// Add n keys
+void jstl_bloomfilter_put_all(jstl_bloomfilter_t filter, const int64_t* keys, size_t n);
+
+// Check if key may have been added (0 means definitely not)
+int jstl_bloomfilter_might_contain(jstl_bloomfilter_t filter, int64_t key);
+
+// Check n keys, writing 1 or 0 per key to results; returns the number of 1s
+size_t jstl_bloomfilter_might_contain_all(jstl_bloomfilter_t filter, const int64_t* keys,
+                                          size_t n, uint8_t* results);
+
+// Remove all keys
+void jstl_bloomfilter_clear(jstl_bloomfilter_t filter);
+
+// Get the number of bits in the filter
+size_t jstl_bloomfilter_bit_size(jstl_bloomfilter_t filter);
+
+// Get the number of bits set per key
+int jstl_bloomfilter_hash_count(jstl_bloomfilter_t filter);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_BLOOMFILTER_H
@@ -0,0 +1,71 @@
+#ifndef JSTL_CACHE_H
+#define JSTL_CACHE_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for Cache, a bounded int64 -> int64 map with eviction
+typedef void* jstl_cache_t;
+
+// Eviction policies for jstl_cache_create
+typedef enum {
+    JSTL_CACHE_LRU = 0,
+    JSTL_CACHE_W_TINY_LFU = 1
+} jstl_cache_policy_t;
+
+// Create a cache holding at most capacity entries (NULL on failure)
+jstl_cache_t jstl_cache_create(size_t capacity, int policy);
+
+// Destroy a Cache and free all memory
+void jstl_cache_destroy(jstl_cache_t cache);
+
+// Approximate native bytes used per cached entry
+size_t jstl_cache_entry_bytes();
+
+// Look up key, counting a hit or miss; writes the value and returns 1 on a hit
+int jstl_cache_get(jstl_cache_t cache, int64_t key, int64_t* value);
+
+// Look up key, counting a hit or miss; returns default_value on a miss
+int64_t jstl_cache_get_or_default(jstl_cache_t cache, int64_t key, int64_t default_value);
+
+// Check if key is cached without touching its recency, frequency or the counters
+int jstl_cache_contains_key(jstl_cache_t cache, int64_t key);
+
+// Insert or update an entry, evicting as needed. Returns the number of
+// evictions waiting to be drained (always 0 unless recording), or -1 on failure
+int64_t jstl_cache_put(jstl_cache_t cache, int64_t key, int64_t value);
+
+// Remove an entry (returns 1 if it was cached)
+int jstl_cache_remove(jstl_cache_t cache, int64_t key);
+
+// Remove all entries and any undrained evictions; counters and frequency
+// history are kept
+void jstl_cache_clear(jstl_cache_t cache);
+
+// Get the number of cached entries
+size_t jstl_cache_size(jstl_cache_t cache);
+
+// Get the maximum number of entries
+size_t jstl_cache_capacity(jstl_cache_t cache);
+
+// Statistics
+uint64_t jstl_cache_hit_count(jstl_cache_t cache);
+uint64_t jstl_cache_miss_count(jstl_cache_t cache);
+uint64_t jstl_cache_eviction_count(jstl_cache_t cache);
+
+// Keep evicted entries in a buffer for jstl_cache_drain_evictions (off by default)
+void jstl_cache_record_evictions(jstl_cache_t cache, int enabled);
+
+// Move up to capacity buffered evictions, oldest first, into keys/values;
+// returns the number moved
+size_t jstl_cache_drain_evictions(jstl_cache_t cache, int64_t* keys, int64_t* values, size_t capacity);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_CACHE_H
@@ -0,0 +1,53 @@
+#ifndef JSTL_COMPRESSED_H
+#define JSTL_COMPRESSED_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for CompressedLongList, an append-only list of int64
+// values stored as blocks of 128. Each block keeps its first value and the
+// smallest difference between neighbours; the remaining differences are
+// bit-packed relative to that minimum, at the width of the largest. Sorted
+// or slowly changing values (timestamps, IDs) pack into a few bits each.
+typedef void* jstl_compressed_list_t;
+
+// Create a new CompressedLongList
+jstl_compressed_list_t jstl_compressed_list_create();
+
+// Destroy a CompressedLongList and free all memory
+void jstl_compressed_list_destroy(jstl_compressed_list_t list);
+
+// Append a value (returns 0 on failure)
+int jstl_compressed_list_add(jstl_compressed_list_t list, int64_t value);
+
+// Append count values (returns 0 on failure)
+int jstl_compressed_list_add_all(jstl_compressed_list_t list, const int64_t* values, size_t count);
+
+// Get the value at index, decoding at most one block prefix
+int64_t jstl_compressed_list_get(jstl_compressed_list_t list, size_t index);
+
+// Decode count values starting at index from into out, one block at a time
+// (returns the number of values written, fewer if the list ends first)
+size_t jstl_compressed_list_decode(jstl_compressed_list_t list, size_t from, size_t count, int64_t* out);
+
+// Get size
+size_t jstl_compressed_list_size(jstl_compressed_list_t list);
+
+// Remove all values
+void jstl_compressed_list_clear(jstl_compressed_list_t list);
+
+// Release spare capacity in the packed storage (returns 0 on failure)
+int jstl_compressed_list_trim_to_size(jstl_compressed_list_t list);
+
+// Approximate native memory footprint
+size_t jstl_compressed_list_size_in_bytes(jstl_compressed_list_t list);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_COMPRESSED_H
@@ -0,0 +1,77 @@
+#ifndef JSTL_EXPIRINGMAP_H
+#define JSTL_EXPIRINGMAP_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for ExpiringMap, an int64 -> int64 map whose entries expire
+// after a per-entry time to live. Times are in caller-defined units (the Java
+// wrapper uses milliseconds); every call passes the current time.
+typedef void* jstl_expiringmap_t;
+
+// Create a new ExpiringMap whose clock starts at now
+jstl_expiringmap_t jstl_expiringmap_create(int64_t now);
+
+// Destroy an ExpiringMap and free all memory
+void jstl_expiringmap_destroy(jstl_expiringmap_t map);
+
+// Insert or replace an entry expiring ttl after now; ttl <= 0 removes the key
+// (returns 0 on failure)
+int jstl_expiringmap_put(jstl_expiringmap_t map, int64_t key, int64_t value, int64_t ttl, int64_t now);
+
+// Calls that reclaim expired entries on the way may run out of memory
+// buffering them for jstl_expiringmap_drain_expirations. They then return
+// the failure value given below; the entry that could not be buffered
+// stays in place and is reclaimed by a later call.
+
+// Look up a live key (returns 1 and sets *value, 0 if absent or expired,
+// or -1 on failure)
+int jstl_expiringmap_get(jstl_expiringmap_t map, int64_t key, int64_t* value, int64_t now);
+
+// Check if key is live (returns 1 or 0, or -1 on failure)
+int jstl_expiringmap_contains_key(jstl_expiringmap_t map, int64_t key, int64_t now);
+
+// Remove an entry (returns 1 if it was live, 0 if not, or -1 on failure)
+int jstl_expiringmap_remove(jstl_expiringmap_t map, int64_t key, int64_t now);
+
+// Reset a live entry to expire ttl after now (returns 1 if it was live, 0 if
+// not, or -1 on failure)
+int jstl_expiringmap_set_ttl(jstl_expiringmap_t map, int64_t key, int64_t ttl, int64_t now);
+
+// Time left before key expires, -1 if it is not live, or -2 on failure
+int64_t jstl_expiringmap_time_to_live(jstl_expiringmap_t map, int64_t key, int64_t now);
+
+// Get the number of live entries, reclaiming everything expired first
+// (returns SIZE_MAX on failure)
+size_t jstl_expiringmap_size(jstl_expiringmap_t map, int64_t now);
+
+// Remove all entries, dropping buffered expirations
+void jstl_expiringmap_clear(jstl_expiringmap_t map);
+
+// Number of entries held, counting expired ones not yet reclaimed; does
+// not advance the clock or reclaim anything
+size_t jstl_expiringmap_stored_count(jstl_expiringmap_t map);
+
+// Reclaim every entry expired by now; returns the number reclaimed, or
+// SIZE_MAX on failure
+size_t jstl_expiringmap_clean_up(jstl_expiringmap_t map, int64_t now);
+
+// Total number of entries reclaimed by expiry
+uint64_t jstl_expiringmap_expired_count(jstl_expiringmap_t map);
+
+// Keep reclaimed entries in a buffer for jstl_expiringmap_drain_expirations (off by default)
+void jstl_expiringmap_record_expirations(jstl_expiringmap_t map, int enabled);
+
+// Move up to capacity buffered expirations, oldest first, into keys/values;
+// returns the number moved
+size_t jstl_expiringmap_drain_expirations(jstl_expiringmap_t map, int64_t* keys, int64_t* values, size_t capacity);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_EXPIRINGMAP_H
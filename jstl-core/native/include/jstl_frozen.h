@@ -0,0 +1,66 @@
+#ifndef JSTL_FROZEN_H
+#define JSTL_FROZEN_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#include "jstl_hashmap.h"
+#include "jstl_hashset.h"
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handles for FrozenMap and FrozenSet: immutable snapshots of a
+// HashMap or HashSet indexed by a perfect hash. A lookup reads one bucket
+// pilot and one slot, and never writes, so any number of threads may read
+// concurrently without synchronization.
+typedef void* jstl_frozenmap_t;
+typedef void* jstl_frozenset_t;
+
+// Snapshot a HashMap into a FrozenMap (NULL on failure)
+jstl_frozenmap_t jstl_hashmap_freeze(jstl_hashmap_t map);
+
+// Destroy a FrozenMap and free all memory
+void jstl_frozenmap_destroy(jstl_frozenmap_t map);
+
+// Get value by key, or default_value if not found
+int64_t jstl_frozenmap_get_or_default(jstl_frozenmap_t map, int64_t key, int64_t default_value);
+
+// Check if key exists
+int jstl_frozenmap_contains_key(jstl_frozenmap_t map, int64_t key);
+
+// Look up n keys, writing each value (or default_value) to values;
+// returns the number of keys found
+size_t jstl_frozenmap_get_all(jstl_frozenmap_t map, const int64_t* keys, size_t n,
+                              int64_t default_value, int64_t* values);
+
+// Number of entries
+size_t jstl_frozenmap_size(jstl_frozenmap_t map);
+
+// Approximate native memory footprint
+size_t jstl_frozenmap_size_in_bytes(jstl_frozenmap_t map);
+
+// Snapshot a HashSet into a FrozenSet (NULL on failure)
+jstl_frozenset_t jstl_hashset_freeze(jstl_hashset_t set);
+
+// Destroy a FrozenSet and free all memory
+void jstl_frozenset_destroy(jstl_frozenset_t set);
+
+// Check if value exists
+int jstl_frozenset_contains(jstl_frozenset_t set, int64_t value);
+
+// Check n values, writing 1 or 0 per value to results; returns the number found
+size_t jstl_frozenset_contains_all(jstl_frozenset_t set, const int64_t* values, size_t n, uint8_t* results);
+
+// Number of values
+size_t jstl_frozenset_size(jstl_frozenset_t set);
+
+// Approximate native memory footprint
+size_t jstl_frozenset_size_in_bytes(jstl_frozenset_t set);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_FROZEN_H
@@ -0,0 +1,73 @@
+#ifndef JSTL_GROUPBY_H
+#define JSTL_GROUPBY_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#include "jstl_arraylist.h"
+#include "jstl_hashmap.h"
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for GroupBy: per-key aggregates of (key, value) rows, held
+// in a fixed set of hash partitions so batches of rows can be scattered by
+// partition and aggregated by several threads without locking
+typedef void* jstl_groupby_t;
+
+// Aggregates a GroupBy computes, combined as a bit mask
+typedef enum {
+    JSTL_GROUPBY_COUNT = 1,  // number of rows
+    JSTL_GROUPBY_SUM = 2,    // wrapping sum of values
+    JSTL_GROUPBY_MIN = 4,
+    JSTL_GROUPBY_MAX = 8
+} jstl_groupby_aggregate_t;
+
+// Create a new GroupBy computing the aggregates in the mask
+// (returns NULL if the mask is empty or has unknown bits)
+jstl_groupby_t jstl_groupby_create(int aggregates);
+
+// Destroy a GroupBy and free all memory
+void jstl_groupby_destroy(jstl_groupby_t groupby);
+
+// Aggregate rows (keys[i], values[i]) for i in [0, count) using up to
+// threads threads, 0 meaning all hardware threads (returns 0 on failure;
+// rows may then be partly aggregated)
+int jstl_groupby_add(jstl_groupby_t groupby, const int64_t* keys, const int64_t* values,
+                     size_t count, size_t threads);
+
+// Aggregate the rows of two ArrayLists of equal size, like jstl_groupby_add
+// (returns 0 on failure or if the sizes differ)
+int jstl_groupby_add_lists(jstl_groupby_t groupby, jstl_arraylist_t keys, jstl_arraylist_t values,
+                           size_t threads);
+
+// Copy key's count, sum, min and max into out[0..3], in that order
+// (returns 1 if found, 0 if not)
+int jstl_groupby_find(jstl_groupby_t groupby, int64_t key, int64_t* out);
+
+// Get the number of distinct keys
+size_t jstl_groupby_size(jstl_groupby_t groupby);
+
+// Copy up to count keys into out, in partition order
+void jstl_groupby_keys(jstl_groupby_t groupby, int64_t* out, size_t count);
+
+// Copy up to count values of one jstl_groupby_aggregate_t into out, in the
+// same order as jstl_groupby_keys
+void jstl_groupby_values(jstl_groupby_t groupby, int aggregate, int64_t* out, size_t count);
+
+// Put every key with its value of one jstl_groupby_aggregate_t into a
+// HashMap, replacing existing values (returns 0 on failure)
+int jstl_groupby_to_hashmap(jstl_groupby_t groupby, int aggregate, jstl_hashmap_t map);
+
+// Remove all groups
+void jstl_groupby_clear(jstl_groupby_t groupby);
+
+// Approximate native memory footprint
+size_t jstl_groupby_size_in_bytes(jstl_groupby_t groupby);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_GROUPBY_H
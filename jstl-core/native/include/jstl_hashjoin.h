@@ -0,0 +1,82 @@
+#ifndef JSTL_HASHJOIN_H
+#define JSTL_HASHJOIN_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#include "jstl_arraylist.h"
+#include "jstl_hashmap.h"
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for HashJoin: the build side of an equi-join on long keys.
+// Build rows are radix-partitioned by the top bits of their key hash, with
+// one table of distinct keys per partition and the payloads of each key
+// stored contiguously in build order, so a probe can run partition by
+// partition against tables that fit in cache.
+typedef void* jstl_hashjoin_t;
+
+// What a probe writes for each probe row
+typedef enum {
+    JSTL_JOIN_INNER = 0,  // (probe index, payload) for every matching build row
+    JSTL_JOIN_SEMI = 1,   // probe index of rows with at least one match
+    JSTL_JOIN_ANTI = 2    // probe index of rows with no match
+} jstl_join_type_t;
+
+// Create a new HashJoin with an empty build side
+jstl_hashjoin_t jstl_hashjoin_create();
+
+// Destroy a HashJoin and free all memory
+void jstl_hashjoin_destroy(jstl_hashjoin_t join);
+
+// Replace the build side with rows (keys[i], payloads[i]) for i in
+// [0, count); a NULL payloads uses the row index i as payload. Uses up to
+// threads threads, 0 meaning all hardware threads (returns 0 on failure,
+// leaving the build side empty)
+int jstl_hashjoin_build(jstl_hashjoin_t join, const int64_t* keys, const int64_t* payloads,
+                        size_t count, size_t threads);
+
+// Replace the build side with the rows of ArrayLists, like
+// jstl_hashjoin_build; payloads may be NULL (returns 0 on failure or if
+// the sizes differ)
+int jstl_hashjoin_build_lists(jstl_hashjoin_t join, jstl_arraylist_t keys, jstl_arraylist_t payloads,
+                              size_t threads);
+
+// Replace the build side with the entries of a HashMap, values as payloads
+// (returns 0 on failure)
+int jstl_hashjoin_build_hashmap(jstl_hashjoin_t join, jstl_hashmap_t map, size_t threads);
+
+// Probe keys[0, count) with a jstl_join_type_t, appending probe indexes to
+// out_indexes and, for inner joins, the matching payloads to out_payloads.
+// Unless partitioned, results keep probe order, and for one probe row
+// build order; a partitioned probe first scatters the probe rows by
+// partition and emits results partition by partition (returns the number
+// of results appended, or -1 on failure)
+int64_t jstl_hashjoin_probe(jstl_hashjoin_t join, int type, const int64_t* keys, size_t count,
+                            jstl_arraylist_t out_indexes, jstl_arraylist_t out_payloads,
+                            int partitioned, size_t threads);
+
+// Probe with the keys of an ArrayList, like jstl_hashjoin_probe
+int64_t jstl_hashjoin_probe_list(jstl_hashjoin_t join, int type, jstl_arraylist_t keys,
+                                 jstl_arraylist_t out_indexes, jstl_arraylist_t out_payloads,
+                                 int partitioned, size_t threads);
+
+// Get the number of build rows
+size_t jstl_hashjoin_build_size(jstl_hashjoin_t join);
+
+// Get the number of distinct build keys
+size_t jstl_hashjoin_distinct_keys(jstl_hashjoin_t join);
+
+// Get the number of build partitions
+size_t jstl_hashjoin_partitions(jstl_hashjoin_t join);
+
+// Approximate native memory footprint
+size_t jstl_hashjoin_size_in_bytes(jstl_hashjoin_t join);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_HASHJOIN_H
@@ -20,9 +20,31 @@ typedef struct {
     int64_t value;
 } jstl_hashmap_entry_t;
 
+// How jstl_hashmap_merge combines an existing value with a new one
+typedef enum {
+    JSTL_HASHMAP_SUM = 0,  // wrapping addition
+    JSTL_HASHMAP_MIN = 1,
+    JSTL_HASHMAP_MAX = 2,
+    JSTL_HASHMAP_OR = 3    // bitwise or
+} jstl_hashmap_combiner_t;
+
+// How a HashMap or HashSet hashes its keys
+typedef enum {
+    JSTL_HASH_IDENTITY = 0,  // the key itself, like std::hash (the default)
+    JSTL_HASH_MIX = 1,       // 64-bit finalizer mix, spreads strided and clustered keys
+    JSTL_HASH_SEEDED = 2     // finalizer mix with a random per-instance seed
+} jstl_hash_strategy_t;
+
 // Create a new HashMap
 jstl_hashmap_t jstl_hashmap_create();
 
+// Create a new HashMap with room for capacity entries
+jstl_hashmap_t jstl_hashmap_create_with_capacity(size_t capacity);
+
+// Create a new HashMap with room for capacity entries, hashing keys with the
+// given jstl_hash_strategy_t (returns NULL for an unknown strategy)
+jstl_hashmap_t jstl_hashmap_create_with_strategy(size_t capacity, int strategy);
+
 // Destroy a HashMap and free all memory
 void jstl_hashmap_destroy(jstl_hashmap_t map);
 
@@ -35,6 +57,29 @@ int64_t jstl_hashmap_get(jstl_hashmap_t map, int64_t key);
 // Check if key exists
 int jstl_hashmap_contains_key(jstl_hashmap_t map, int64_t key);
 
+// Get value by key, or default_value if not found
+int64_t jstl_hashmap_get_or_default(jstl_hashmap_t map, int64_t key, int64_t default_value);
+
+// Copy the value for key into *value (returns 1 if found, 0 if not)
+int jstl_hashmap_find(jstl_hashmap_t map, int64_t key, int64_t* value);
+
+// Insert only if key is absent (returns 1 if inserted, 0 if present, -1 on failure)
+int jstl_hashmap_put_if_absent(jstl_hashmap_t map, int64_t key, int64_t value);
+
+// Overwrite the value only if key is present (returns 1 if replaced, 0 if absent)
+int jstl_hashmap_replace(jstl_hashmap_t map, int64_t key, int64_t value);
+
+// Put a key-value pair, copying any previous value into *previous
+// (returns 1 if key was present, 0 if not, -1 on failure)
+int jstl_hashmap_get_and_put(jstl_hashmap_t map, int64_t key, int64_t value, int64_t* previous);
+
+// Remove a key, copying its value into *previous (returns 1 if removed, 0 if absent)
+int jstl_hashmap_remove_and_get(jstl_hashmap_t map, int64_t key, int64_t* previous);
+
+// Store value if key is absent, otherwise combine it into the existing value;
+// the resulting value is copied into *result (returns 1, or 0 on failure)
+int jstl_hashmap_merge(jstl_hashmap_t map, int64_t key, int64_t value, int combiner, int64_t* result);
+
 // Remove a key
 void jstl_hashmap_remove(jstl_hashmap_t map, int64_t key);
 
@@ -47,6 +92,40 @@ void jstl_hashmap_clear(jstl_hashmap_t map);
 // Check if empty
 int jstl_hashmap_is_empty(jstl_hashmap_t map);
 
+// Attach a Bloom filter with the given false-positive rate in front of the
+// map so most lookups of absent keys skip the hash probe (returns 0 on failure)
+int jstl_hashmap_enable_bloom_filter(jstl_hashmap_t map, double fpp);
+
+// Detach the Bloom filter, if any
+void jstl_hashmap_disable_bloom_filter(jstl_hashmap_t map);
+
+// Grow without a full rehash in one call: when the table fills, a larger one
+// takes over and each later write moves a few entries across. Disabling
+// finishes any migration in progress (returns 0 on failure)
+int jstl_hashmap_set_incremental_rehash(jstl_hashmap_t map, int enabled);
+
+// Check if an incremental rehash is in progress
+int jstl_hashmap_is_rehashing(jstl_hashmap_t map);
+
+// Make room for at least capacity entries without rehashing (returns 0 on failure)
+int jstl_hashmap_reserve(jstl_hashmap_t map, size_t capacity);
+
+// Number of entries that fit before the next rehash
+size_t jstl_hashmap_capacity(jstl_hashmap_t map);
+
+// Shrink the bucket array to fit the current entries (returns 0 on failure)
+int jstl_hashmap_shrink_to_fit(jstl_hashmap_t map);
+
+// Set the average number of entries per bucket that triggers growth;
+// rehashes at once if the table is now over it (returns 0 on failure)
+int jstl_hashmap_set_max_load_factor(jstl_hashmap_t map, double max_load_factor);
+
+// Get the average number of entries per bucket that triggers growth
+double jstl_hashmap_max_load_factor(jstl_hashmap_t map);
+
+// Get the jstl_hash_strategy_t the HashMap was created with
+int jstl_hashmap_hash_strategy(jstl_hashmap_t map);
+
 // Create iterator
 jstl_hashmap_iterator_t jstl_hashmap_iterator_create(jstl_hashmap_t map);
 
@@ -4,6 +4,8 @@
 #include <stddef.h>
 #include <stdint.h>
 
+#include "jstl_hashmap.h"  // jstl_hash_strategy_t
+
 #ifdef __cplusplus
 extern "C" {
 #endif
@@ -17,6 +19,13 @@ typedef void* jstl_hashset_iterator_t;
 // Create a new HashSet
 jstl_hashset_t jstl_hashset_create();
 
+// Create a new HashSet with room for capacity elements
+jstl_hashset_t jstl_hashset_create_with_capacity(size_t capacity);
+
+// Create a new HashSet with room for capacity elements, hashing keys with the
+// given jstl_hash_strategy_t (returns NULL for an unknown strategy)
+jstl_hashset_t jstl_hashset_create_with_strategy(size_t capacity, int strategy);
+
 // Destroy a HashSet and free all memory
 void jstl_hashset_destroy(jstl_hashset_t set);
 
@@ -38,6 +47,65 @@ void jstl_hashset_clear(jstl_hashset_t set);
 // Check if empty
 int jstl_hashset_is_empty(jstl_hashset_t set);
 
+// Set algebra below probes the smaller set against the larger where the
+// operation allows it; threads splits the scan across up to that many threads
+// (0 = all cores, 1 = calling thread only)
+
+// Add every element of other (returns number added)
+size_t jstl_hashset_add_all(jstl_hashset_t set, jstl_hashset_t other);
+
+// Keep only elements also contained in other (returns number removed)
+size_t jstl_hashset_retain_all(jstl_hashset_t set, jstl_hashset_t other, size_t threads);
+
+// Remove every element contained in other (returns number removed)
+size_t jstl_hashset_remove_all(jstl_hashset_t set, jstl_hashset_t other, size_t threads);
+
+// Count elements contained in both sets
+size_t jstl_hashset_intersection_size(jstl_hashset_t set, jstl_hashset_t other, size_t threads);
+
+// Create a new set with the elements of either set
+jstl_hashset_t jstl_hashset_union(jstl_hashset_t set, jstl_hashset_t other);
+
+// Create a new set with the elements contained in both sets
+jstl_hashset_t jstl_hashset_intersection(jstl_hashset_t set, jstl_hashset_t other, size_t threads);
+
+// Create a new set with the elements of set not contained in other
+jstl_hashset_t jstl_hashset_difference(jstl_hashset_t set, jstl_hashset_t other, size_t threads);
+
+// Attach a Bloom filter with the given false-positive rate in front of the
+// set so most lookups of absent keys skip the hash probe (returns 0 on failure)
+int jstl_hashset_enable_bloom_filter(jstl_hashset_t set, double fpp);
+
+// Detach the Bloom filter, if any
+void jstl_hashset_disable_bloom_filter(jstl_hashset_t set);
+
+// Grow without a full rehash in one call: when the table fills, a larger one
+// takes over and each later write moves a few elements across. Disabling
+// finishes any migration in progress (returns 0 on failure)
+int jstl_hashset_set_incremental_rehash(jstl_hashset_t set, int enabled);
+
+// Check if an incremental rehash is in progress
+int jstl_hashset_is_rehashing(jstl_hashset_t set);
+
+// Make room for at least capacity elements without rehashing (returns 0 on failure)
+int jstl_hashset_reserve(jstl_hashset_t set, size_t capacity);
+
+// Number of elements that fit before the next rehash
+size_t jstl_hashset_capacity(jstl_hashset_t set);
+
+// Shrink the bucket array to fit the current elements (returns 0 on failure)
+int jstl_hashset_shrink_to_fit(jstl_hashset_t set);
+
+// Set the average number of elements per bucket that triggers growth;
+// rehashes at once if the table is now over it (returns 0 on failure)
+int jstl_hashset_set_max_load_factor(jstl_hashset_t set, double max_load_factor);
+
+// Get the average number of elements per bucket that triggers growth
+double jstl_hashset_max_load_factor(jstl_hashset_t set);
+
+// Get the jstl_hash_strategy_t the HashSet was created with
+int jstl_hashset_hash_strategy(jstl_hashset_t set);
+
 // Create iterator
 jstl_hashset_iterator_t jstl_hashset_iterator_create(jstl_hashset_t set);
 
@@ -0,0 +1,63 @@
+#ifndef JSTL_LONGLOG_H
+#define JSTL_LONGLOG_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for LongLog: an append-only log of longs in fixed-size
+// chunks that never move, so any number of threads may append and read at
+// once. An append reserves its slots with one atomic fetch-add and writes
+// them without waiting on other appenders. The published length covers the
+// longest prefix of slots that are all written; readers only see slots
+// below it. Under continuous contention it may trail by up to one chunk
+// until appends pause or the chunk fills.
+// clear and destroy must not overlap any other call.
+typedef void* jstl_longlog_t;
+
+// Create a new log with chunks of 2^chunk_bits longs (returns NULL if
+// chunk_bits is outside [10, 24]). Up to 2^20 chunks can be allocated.
+jstl_longlog_t jstl_longlog_create(int chunk_bits);
+
+// Destroy a log and free all memory
+void jstl_longlog_destroy(jstl_longlog_t log);
+
+// Append a value (returns its index, or -1 on failure)
+int64_t jstl_longlog_append(jstl_longlog_t log, int64_t value);
+
+// Append count values as one contiguous run (returns the index of the
+// first, or -1 on failure). After a failure, which only happens when the
+// log is full or out of memory, later appends fail as well.
+int64_t jstl_longlog_append_all(jstl_longlog_t log, const int64_t* values, size_t count);
+
+// Number of values visible to readers
+size_t jstl_longlog_published(jstl_longlog_t log);
+
+// Read a published value (returns 0 if index is not published)
+int64_t jstl_longlog_get(jstl_longlog_t log, size_t index);
+
+// Copy up to max published values starting at index from
+// (returns the number copied)
+size_t jstl_longlog_read(jstl_longlog_t log, size_t from, int64_t* out, size_t max);
+
+// Base of chunk number index, or NULL if none of it is published yet.
+// Chunks stay in place until the log is cleared or destroyed.
+const int64_t* jstl_longlog_chunk(jstl_longlog_t log, size_t index);
+
+// Maximum number of values the log can hold
+size_t jstl_longlog_capacity(jstl_longlog_t log);
+
+// Remove all values and free the chunks
+void jstl_longlog_clear(jstl_longlog_t log);
+
+// Approximate native memory footprint
+size_t jstl_longlog_size_in_bytes(jstl_longlog_t log);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_LONGLOG_H
@@ -0,0 +1,66 @@
+#ifndef JSTL_MULTIMAP_H
+#define JSTL_MULTIMAP_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for LongMultimap, mapping each int64 key to a growable list
+// of int64 values. All lists share one value pool, so a key costs a table
+// slot rather than a separately allocated vector.
+typedef void* jstl_multimap_t;
+
+// Create a new LongMultimap
+jstl_multimap_t jstl_multimap_create();
+
+// Destroy a LongMultimap and free all memory
+void jstl_multimap_destroy(jstl_multimap_t multimap);
+
+// Append value to key's list (returns 0 on failure)
+int jstl_multimap_put(jstl_multimap_t multimap, int64_t key, int64_t value);
+
+// Append count values to key's list (returns 0 on failure)
+int jstl_multimap_put_all(jstl_multimap_t multimap, int64_t key, const int64_t* values, size_t count);
+
+// Append values[i] to keys[i]'s list for each i < count (returns 0 on failure)
+int jstl_multimap_put_pairs(jstl_multimap_t multimap, const int64_t* keys, const int64_t* values, size_t count);
+
+// Number of values stored for key
+size_t jstl_multimap_count(jstl_multimap_t multimap, int64_t key);
+
+// Pointer to key's values, with their number in *count (NULL and 0 if absent).
+// The pointer is invalidated by any later modification.
+const int64_t* jstl_multimap_values(jstl_multimap_t multimap, int64_t key, size_t* count);
+
+// Check if key has any values
+int jstl_multimap_contains_key(jstl_multimap_t multimap, int64_t key);
+
+// Remove key and all its values; returns the number of values removed
+size_t jstl_multimap_remove_all(jstl_multimap_t multimap, int64_t key);
+
+// Number of distinct keys
+size_t jstl_multimap_key_count(jstl_multimap_t multimap);
+
+// Total number of values across all keys
+size_t jstl_multimap_size(jstl_multimap_t multimap);
+
+// Copy up to capacity keys into out; returns the number copied
+size_t jstl_multimap_keys(jstl_multimap_t multimap, int64_t* out, size_t capacity);
+
+// Remove all keys and values
+void jstl_multimap_clear(jstl_multimap_t multimap);
+
+// Pack all lists contiguously with no spare capacity (returns 0 on failure)
+int jstl_multimap_compact(jstl_multimap_t multimap);
+
+// Approximate native memory footprint
+size_t jstl_multimap_size_in_bytes(jstl_multimap_t multimap);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_MULTIMAP_H
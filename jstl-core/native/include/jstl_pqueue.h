@@ -0,0 +1,70 @@
+#ifndef JSTL_PQUEUE_H
+#define JSTL_PQUEUE_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#include "jstl_arraylist.h"
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for PriorityQueue: a 4-ary heap of long priorities, each
+// optionally paired with a long payload. A bounded queue (top-k) keeps only
+// the k best entries it was offered: its heap root is the worst entry kept,
+// so an offer that does not beat the root is rejected without a sift.
+typedef void* jstl_pqueue_t;
+
+// Create an unbounded queue whose head is the smallest priority, or the
+// largest if max_first is nonzero
+jstl_pqueue_t jstl_pqueue_create(int max_first, int payloads);
+
+// Create a top-k queue keeping the k largest priorities, or the k smallest
+// if largest is zero (returns NULL if k is 0)
+jstl_pqueue_t jstl_pqueue_create_topk(size_t k, int largest, int payloads);
+
+// Destroy a queue and free all memory
+void jstl_pqueue_destroy(jstl_pqueue_t queue);
+
+// Offer an entry; payload is ignored without payloads (returns 1 if added,
+// 0 if rejected by a full top-k, -1 on failure)
+int jstl_pqueue_offer(jstl_pqueue_t queue, int64_t priority, int64_t payload);
+
+// Offer count entries; payloads may be NULL, pairing each with 0. An
+// unbounded queue that at least doubles is rebuilt in O(n) rather than
+// sifting every entry (returns the number added, or -1 on failure)
+int64_t jstl_pqueue_offer_all(jstl_pqueue_t queue, const int64_t* priorities, const int64_t* payloads,
+                              size_t count);
+
+// Copy the head into out[0] (priority) and out[1] (payload)
+// (returns 1, or 0 if the queue is empty). The head of a top-k is the
+// worst entry kept.
+int jstl_pqueue_peek(jstl_pqueue_t queue, int64_t* out);
+
+// Remove the head, copying it like jstl_pqueue_peek (returns 1, or 0 if empty)
+int jstl_pqueue_poll(jstl_pqueue_t queue, int64_t* out);
+
+// Get the number of entries
+size_t jstl_pqueue_size(jstl_pqueue_t queue);
+
+// Copy every entry, without removing any, into priorities and payloads
+// (payloads may be NULL): in poll order for a queue, best first for a top-k
+void jstl_pqueue_sorted(jstl_pqueue_t queue, int64_t* priorities, int64_t* payloads);
+
+// Remove every entry, appending them to ArrayLists in the order of
+// jstl_pqueue_sorted; payloads may be NULL (returns 0 on failure, leaving
+// the queue unchanged)
+int jstl_pqueue_drain_to_lists(jstl_pqueue_t queue, jstl_arraylist_t priorities, jstl_arraylist_t payloads);
+
+// Remove all entries
+void jstl_pqueue_clear(jstl_pqueue_t queue);
+
+// Approximate native memory footprint
+size_t jstl_pqueue_size_in_bytes(jstl_pqueue_t queue);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_PQUEUE_H
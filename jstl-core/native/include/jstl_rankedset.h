@@ -0,0 +1,62 @@
+#ifndef JSTL_RANKEDSET_H
+#define JSTL_RANKEDSET_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for RankedSet: an ordered set of longs held in a counted
+// B+tree. Every inner node keeps the number of keys below each child, so
+// rank and select descend the tree once instead of walking the keys.
+typedef void* jstl_rankedset_t;
+
+// Create a new empty set
+jstl_rankedset_t jstl_rankedset_create(void);
+
+// Destroy a set and free all memory
+void jstl_rankedset_destroy(jstl_rankedset_t set);
+
+// Add a key (returns 1 if added, 0 if already present, -1 on failure)
+int jstl_rankedset_add(jstl_rankedset_t set, int64_t key);
+
+// Add count keys, sorted first so neighbouring inserts share leaves; an
+// empty set is bulk-loaded instead (returns the number added, or -1 on
+// failure, when keys may be partly added)
+int64_t jstl_rankedset_add_all(jstl_rankedset_t set, const int64_t* keys, size_t count);
+
+// Remove a key (returns 1 if removed, 0 if absent)
+int jstl_rankedset_remove(jstl_rankedset_t set, int64_t key);
+
+// Check if a key is present
+int jstl_rankedset_contains(jstl_rankedset_t set, int64_t key);
+
+// Number of keys less than key, or less than or equal to it if inclusive
+size_t jstl_rankedset_rank(jstl_rankedset_t set, int64_t key, int inclusive);
+
+// The key with index keys below it; index must be less than the size
+int64_t jstl_rankedset_select(jstl_rankedset_t set, size_t index);
+
+// Number of keys in [lo, hi]
+size_t jstl_rankedset_count_in_range(jstl_rankedset_t set, int64_t lo, int64_t hi);
+
+// Copy up to count keys in ascending order, starting at index from
+// (returns the number copied)
+size_t jstl_rankedset_slice(jstl_rankedset_t set, size_t from, size_t count, int64_t* out);
+
+// Get the number of keys
+size_t jstl_rankedset_size(jstl_rankedset_t set);
+
+// Remove all keys
+void jstl_rankedset_clear(jstl_rankedset_t set);
+
+// Approximate native memory footprint
+size_t jstl_rankedset_size_in_bytes(jstl_rankedset_t set);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_RANKEDSET_H
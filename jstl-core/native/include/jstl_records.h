@@ -0,0 +1,38 @@
+#ifndef JSTL_RECORDS_H
+#define JSTL_RECORDS_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for a record buffer: cache-line aligned storage for a
+// number of fixed-size records. The buffer only owns the memory; callers
+// read and write records in place through jstl_records_data and keep their
+// own count of records in use.
+typedef void* jstl_records_t;
+
+// Create a zero-filled buffer with room for capacity records of record_size bytes
+jstl_records_t jstl_records_create(size_t record_size, size_t capacity);
+
+// Destroy a record buffer and free all memory
+void jstl_records_destroy(jstl_records_t records);
+
+// Move to storage for exactly capacity records, keeping the leading records
+// that still fit and zero-filling the rest (returns 0 on failure, leaving
+// the buffer unchanged)
+int jstl_records_reallocate(jstl_records_t records, size_t capacity);
+
+// Pointer to the first record; changes whenever the buffer is reallocated
+void* jstl_records_data(jstl_records_t records);
+
+// Number of records the buffer has room for
+size_t jstl_records_capacity(jstl_records_t records);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_RECORDS_H
@@ -0,0 +1,86 @@
+#ifndef JSTL_SHMMAP_H
+#define JSTL_SHMMAP_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for SharedMap: a fixed-capacity long-to-long hash table in
+// a named POSIX shared-memory region, written by one process and read by
+// any number of others mapping the same pages. The region holds no
+// pointers, only offsets from its start, so every process may map it at a
+// different address. The writer brackets each change with a sequence
+// counter (a seqlock); readers retry a lookup that overlapped a change.
+// A handle must not be used by two threads at once.
+typedef void* jstl_shmmap_t;
+
+// Error codes reported through the error argument of create and open
+#define JSTL_SHM_OK 0
+#define JSTL_SHM_EXISTS 1       // create: a region with that name exists
+#define JSTL_SHM_NOT_FOUND 2    // open: no region with that name
+#define JSTL_SHM_INVALID 3      // open: the region is not a SharedMap, or not initialized yet
+#define JSTL_SHM_NO_MEMORY 4    // not enough shared memory for the region
+#define JSTL_SHM_UNSUPPORTED 5  // no POSIX shared memory on this platform
+#define JSTL_SHM_FAILED 6       // any other system error
+
+// Create the region name (e.g. "/prices") holding up to max_entries
+// entries, and attach to it as its writer. Fails if the region exists.
+jstl_shmmap_t jstl_shmmap_create(const char* name, size_t max_entries, int* error);
+
+// Attach to an existing region read-only
+jstl_shmmap_t jstl_shmmap_open(const char* name, int* error);
+
+// Detach and free the handle. The region itself stays until unlinked.
+void jstl_shmmap_close(jstl_shmmap_t map);
+
+// Remove the name; attached handles keep working until closed
+// (returns 1 if removed, 0 if there was no such region)
+int jstl_shmmap_unlink(const char* name);
+
+// Check if the handle is the writer
+int jstl_shmmap_is_writer(jstl_shmmap_t map);
+
+// Put an entry (returns 1 if added, 0 if replaced, -1 if the map is full
+// or the handle is read-only)
+int jstl_shmmap_put(jstl_shmmap_t map, int64_t key, int64_t value);
+
+// Put count entries, publishing them in groups (returns the number added,
+// or -1 if the map filled or the handle is read-only; entries before the
+// failing one stay)
+int64_t jstl_shmmap_put_all(jstl_shmmap_t map, const int64_t* keys, const int64_t* values, size_t count);
+
+// Remove an entry (returns 1 if removed, 0 if absent, -1 if read-only)
+int jstl_shmmap_remove(jstl_shmmap_t map, int64_t key);
+
+// Remove all entries (returns 1, or 0 if read-only)
+int jstl_shmmap_clear(jstl_shmmap_t map);
+
+// Look up a key (returns 1 and sets *value if present, 0 if absent, -1 if
+// the writer has stopped in the middle of a change for over a second)
+int jstl_shmmap_get(jstl_shmmap_t map, int64_t key, int64_t* value);
+
+// Look up count keys, writing default_value for absent ones (returns the
+// number found, or -1 as for get)
+int64_t jstl_shmmap_get_all(jstl_shmmap_t map, const int64_t* keys, size_t count, int64_t default_value, int64_t* out);
+
+// Number of entries
+size_t jstl_shmmap_size(jstl_shmmap_t map);
+
+// Maximum number of entries
+size_t jstl_shmmap_max_entries(jstl_shmmap_t map);
+
+// Number of changes the writer has published; unchanged means nothing
+// was written in between
+uint64_t jstl_shmmap_version(jstl_shmmap_t map);
+
+// Size of the shared region in bytes
+size_t jstl_shmmap_size_in_bytes(jstl_shmmap_t map);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_SHMMAP_H
@@ -0,0 +1,53 @@
+#ifndef JSTL_STRDICT_H
+#define JSTL_STRDICT_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for StringDictionary, assigning dense int32 ids 0, 1, 2, ...
+// to distinct byte strings (UTF-8 from Java) in first-seen order. Bytes are
+// copied into an append-only arena and never move, so pointers returned by
+// jstl_strdict_bytes stay valid until the dictionary is cleared or destroyed.
+typedef void* jstl_strdict_t;
+
+// Create a new StringDictionary
+jstl_strdict_t jstl_strdict_create();
+
+// Destroy a StringDictionary and free all memory
+void jstl_strdict_destroy(jstl_strdict_t dict);
+
+// Get the id of bytes[0, length), adding it if absent (returns -1 on
+// failure or once INT32_MAX strings are held)
+int64_t jstl_strdict_intern(jstl_strdict_t dict, const uint8_t* bytes, size_t length);
+
+// Intern count strings packed back to back in bytes, string i spanning
+// [offsets[i], offsets[i + 1]), writing their ids to ids (returns 0 on
+// failure; strings before the failing one keep their ids)
+int jstl_strdict_intern_all(jstl_strdict_t dict, const uint8_t* bytes, const int64_t* offsets,
+                            size_t count, int32_t* ids);
+
+// Get the id of bytes[0, length), or -1 if absent
+int64_t jstl_strdict_find(jstl_strdict_t dict, const uint8_t* bytes, size_t length);
+
+// Pointer to the bytes of id, storing their length in length_out
+// (returns NULL if id is out of range)
+const uint8_t* jstl_strdict_bytes(jstl_strdict_t dict, int32_t id, size_t* length_out);
+
+// Get the number of strings
+size_t jstl_strdict_size(jstl_strdict_t dict);
+
+// Remove all strings; ids restart from 0
+void jstl_strdict_clear(jstl_strdict_t dict);
+
+// Approximate native memory footprint
+size_t jstl_strdict_size_in_bytes(jstl_strdict_t dict);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_STRDICT_H
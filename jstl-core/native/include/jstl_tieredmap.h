@@ -0,0 +1,92 @@
+#ifndef JSTL_TIEREDMAP_H
+#define JSTL_TIEREDMAP_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Opaque handle for TieredMap: a long-to-long hash map that keeps its most
+// recently used entries in a native hash table (the hot tier) and spills
+// the rest to sorted run files on disk, read back through read-only memory
+// mappings (the cold tier). Whenever the hot tier plus the per-run Bloom
+// filters and indexes exceed the memory budget, the least recently used
+// half of the hot tier is written out as a new run, in key order over a
+// few passes that need at most an eighth of the budget on top of the hot
+// tier, and only then erased from it. Lookups try the hot tier, then each
+// run from newest to oldest, skipping runs whose Bloom filter rules the key
+// out. Once max_runs runs exist, a background thread merges them into one,
+// dropping overwritten and removed entries.
+//
+// Run files are unlinked as soon as they are created, so they never
+// outlive the map, even if the process dies. A handle must not be used by
+// two threads at once; the background merge needs no coordination.
+typedef void* jstl_tieredmap_t;
+
+// Create a map spilling to files in dir, keeping resident native memory
+// near memory_budget bytes (at least 1 MB) and merging once max_runs runs
+// (at least 2) exist. Returns NULL if dir is not writable or on platforms
+// without memory-mapped files.
+jstl_tieredmap_t jstl_tieredmap_create(const char* dir, size_t memory_budget, int max_runs);
+
+// Destroy a map, stopping any merge, and free all memory and disk space
+void jstl_tieredmap_destroy(jstl_tieredmap_t map);
+
+// Put an entry (returns 1 if added, 0 if replaced, -1 if a spill this
+// triggered failed to write, or -2 if out of memory; after -1 the entry is
+// kept in memory and spilling is retried once the hot tier grows by another
+// quarter)
+int jstl_tieredmap_put(jstl_tieredmap_t map, int64_t key, int64_t value);
+
+// Put count entries (returns the number added, or -1 or -2 as for put;
+// entries up to and including the one whose spill failed are kept)
+int64_t jstl_tieredmap_put_all(jstl_tieredmap_t map, const int64_t* keys, const int64_t* values, size_t count);
+
+// Look up a key (returns 1 and sets *value if present, 0 if absent)
+int jstl_tieredmap_get(jstl_tieredmap_t map, int64_t key, int64_t* value);
+
+// Look up count keys, writing default_value for absent ones (returns the
+// number found)
+size_t jstl_tieredmap_get_all(jstl_tieredmap_t map, const int64_t* keys, size_t count, int64_t default_value, int64_t* out);
+
+// Remove an entry (returns 1 if removed, 0 if absent, or -1 or -2 as for put)
+int jstl_tieredmap_remove(jstl_tieredmap_t map, int64_t key);
+
+// Number of entries across both tiers
+size_t jstl_tieredmap_size(jstl_tieredmap_t map);
+
+// Number of entries, including removal markers, in the hot tier
+size_t jstl_tieredmap_hot_size(jstl_tieredmap_t map);
+
+// Number of run files
+size_t jstl_tieredmap_run_count(jstl_tieredmap_t map);
+
+// Bytes of run data on disk
+size_t jstl_tieredmap_disk_bytes(jstl_tieredmap_t map);
+
+// Number of merges completed so far
+size_t jstl_tieredmap_merge_count(jstl_tieredmap_t map);
+
+// Write the whole hot tier out as a run now (returns 1, 0 if writing failed,
+// or -2 if out of memory; the hot tier is unchanged after a failure)
+int jstl_tieredmap_spill(jstl_tieredmap_t map);
+
+// Wait for any background merge, then merge all runs into one in the
+// calling thread (returns 1, 0 if writing failed, or -2 if out of memory)
+int jstl_tieredmap_compact(jstl_tieredmap_t map);
+
+// Remove all entries and runs
+void jstl_tieredmap_clear(jstl_tieredmap_t map);
+
+// Approximate resident native memory: the hot tier plus run filters and
+// indexes, which the memory budget bounds. Mapped run data is left to the
+// page cache and not counted.
+size_t jstl_tieredmap_size_in_bytes(jstl_tieredmap_t map);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // JSTL_TIEREDMAP_H
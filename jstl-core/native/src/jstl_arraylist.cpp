@@ -1,11 +1,36 @@
 #include "jstl_arraylist.h"
+#include "jstl_types.h"
+#include "jstl_sort.h"
+#include "jstl_kernels.h"
+#include "jstl_parallel.h"
 #include <vector>
 #include <stdexcept>
+#include <algorithm>
+#include <cmath>
+#include <memory>
 
-// C++ wrapper around std::vector
-struct ArrayList {
-    std::vector<int64_t> vec;
-};
+// Below this many elements per thread an aggregate runs on the calling thread
+static const size_t AGGREGATE_GRAIN = 1 << 16;
+
+// Fold kernel(begin, length) over up to threads slices of [0, n) with combine
+template <typename T, typename Kernel, typename Combine>
+static T aggregate(size_t n, size_t threads, T identity, Kernel kernel, Combine combine) {
+    threads = std::min(jstl::resolve_threads(threads), n / AGGREGATE_GRAIN);
+    if (threads <= 1) {
+        return kernel(0, n);
+    }
+    std::vector<T> partial(threads, identity);
+    jstl::parallel_for(threads, [&](size_t t) {
+        size_t begin = jstl::slice_begin(n, threads, t);
+        size_t end = jstl::slice_begin(n, threads, t + 1);
+        partial[t] = kernel(begin, end - begin);
+    });
+    T result = identity;
+    for (const T& p : partial) {
+        result = combine(result, p);
+    }
+    return result;
+}
 
 extern "C" {
 
@@ -17,6 +42,16 @@ jstl_arraylist_t jstl_arraylist_create() {
     }
 }
 
+jstl_arraylist_t jstl_arraylist_create_with_capacity(size_t capacity) {
+    try {
+        std::unique_ptr<ArrayList> created(new ArrayList());
+        created->vec.reserve(capacity);
+        return created.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
 void jstl_arraylist_destroy(jstl_arraylist_t list) {
     if (list) {
         delete static_cast<ArrayList*>(list);
@@ -112,4 +147,253 @@ void jstl_arraylist_reserve(jstl_arraylist_t list, size_t capacity) {
     }
 }
 
+int jstl_arraylist_shrink_to_fit(jstl_arraylist_t list) {
+    if (!list) return 0;
+    try {
+        static_cast<ArrayList*>(list)->vec.shrink_to_fit();
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int64_t* jstl_arraylist_data(jstl_arraylist_t list) {
+    if (!list) return nullptr;
+    return static_cast<ArrayList*>(list)->vec.data();
+}
+
+void jstl_arraylist_truncate(jstl_arraylist_t list, size_t size) {
+    if (!list) return;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        if (size < vec.size()) {
+            vec.resize(size);
+        }
+    } catch (...) {
+        // Silent failure
+    }
+}
+
+void jstl_arraylist_remove_range(jstl_arraylist_t list, size_t from, size_t to) {
+    if (!list) return;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        to = std::min(to, vec.size());
+        if (from < to) {
+            vec.erase(vec.begin() + from, vec.begin() + to);
+        }
+    } catch (...) {
+        // Silent failure
+    }
+}
+
+size_t jstl_arraylist_retain_between(jstl_arraylist_t list, int64_t lo, int64_t hi) {
+    if (!list) return 0;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        size_t before = vec.size();
+        vec.erase(std::remove_if(vec.begin(), vec.end(),
+                                 [lo, hi](int64_t v) { return v < lo || v > hi; }),
+                  vec.end());
+        return before - vec.size();
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_arraylist_remove_all_in(jstl_arraylist_t list, jstl_hashset_t set) {
+    if (!list || !set) return 0;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        static_cast<HashSet*>(set)->settle();
+        const LongSet& members = static_cast<HashSet*>(set)->set;
+        if (members.empty()) return 0;
+        size_t before = vec.size();
+        vec.erase(std::remove_if(vec.begin(), vec.end(),
+                                 [&members](int64_t v) { return members.count(v) != 0; }),
+                  vec.end());
+        return before - vec.size();
+    } catch (...) {
+        return 0;
+    }
+}
+
+int64_t jstl_arraylist_swap_remove(jstl_arraylist_t list, size_t index) {
+    if (!list) return 0;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        if (index >= vec.size()) return 0;
+        int64_t removed = vec[index];
+        vec[index] = vec.back();
+        vec.pop_back();
+        return removed;
+    } catch (...) {
+        return 0;
+    }
+}
+
+void jstl_arraylist_sort(jstl_arraylist_t list, size_t from, size_t to) {
+    if (!list) return;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        to = std::min(to, vec.size());
+        if (from < to) {
+            jstl::sort_values(vec.data() + from, to - from);
+        }
+    } catch (...) {
+        // Silent failure
+    }
+}
+
+void jstl_arraylist_sort_descending(jstl_arraylist_t list) {
+    if (!list) return;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        jstl::sort_values(vec.data(), vec.size());
+        std::reverse(vec.begin(), vec.end());
+    } catch (...) {
+        // Silent failure
+    }
+}
+
+void jstl_arraylist_parallel_sort(jstl_arraylist_t list, size_t threads) {
+    if (!list) return;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        jstl::parallel_sort(vec.data(), vec.size(), jstl::resolve_threads(threads));
+    } catch (...) {
+        // Silent failure
+    }
+}
+
+int64_t jstl_arraylist_binary_search(jstl_arraylist_t list, int64_t value) {
+    if (!list) return -1;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        auto it = std::lower_bound(vec.begin(), vec.end(), value);
+        int64_t index = static_cast<int64_t>(it - vec.begin());
+        if (it != vec.end() && *it == value) {
+            return index;
+        }
+        return -index - 1;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int64_t jstl_arraylist_sum(jstl_arraylist_t list, size_t threads) {
+    if (!list) return 0;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        const int64_t* data = vec.data();
+        uint64_t sum = aggregate<uint64_t>(vec.size(), threads, 0,
+            [data](size_t begin, size_t n) { return static_cast<uint64_t>(jstl::kernels().sum(data + begin, n)); },
+            [](uint64_t a, uint64_t b) { return a + b; });
+        return static_cast<int64_t>(sum);
+    } catch (...) {
+        return 0;
+    }
+}
+
+int64_t jstl_arraylist_min(jstl_arraylist_t list, size_t threads) {
+    if (!list) return INT64_MAX;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        const int64_t* data = vec.data();
+        return aggregate<int64_t>(vec.size(), threads, INT64_MAX,
+            [data](size_t begin, size_t n) { return jstl::kernels().min(data + begin, n); },
+            [](int64_t a, int64_t b) { return std::min(a, b); });
+    } catch (...) {
+        return INT64_MAX;
+    }
+}
+
+int64_t jstl_arraylist_max(jstl_arraylist_t list, size_t threads) {
+    if (!list) return INT64_MIN;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        const int64_t* data = vec.data();
+        return aggregate<int64_t>(vec.size(), threads, INT64_MIN,
+            [data](size_t begin, size_t n) { return jstl::kernels().max(data + begin, n); },
+            [](int64_t a, int64_t b) { return std::max(a, b); });
+    } catch (...) {
+        return INT64_MIN;
+    }
+}
+
+size_t jstl_arraylist_count_between(jstl_arraylist_t list, int64_t lo, int64_t hi, size_t threads) {
+    if (!list) return 0;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        const int64_t* data = vec.data();
+        return aggregate<size_t>(vec.size(), threads, 0,
+            [data, lo, hi](size_t begin, size_t n) { return jstl::kernels().count_between(data + begin, n, lo, hi); },
+            [](size_t a, size_t b) { return a + b; });
+    } catch (...) {
+        return 0;
+    }
+}
+
+double jstl_arraylist_mean(jstl_arraylist_t list, size_t threads) {
+    if (!list) return NAN;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        size_t n = vec.size();
+        if (n == 0) return NAN;
+        // Weight each slice mean by its share of the elements
+        const int64_t* data = vec.data();
+        return aggregate<double>(n, threads, 0.0,
+            [data, n](size_t begin, size_t len) { return jstl::mean(data + begin, len) * (static_cast<double>(len) / n); },
+            [](double a, double b) { return a + b; });
+    } catch (...) {
+        return NAN;
+    }
+}
+
+void jstl_arraylist_histogram(jstl_arraylist_t list, int64_t lo, int64_t hi,
+                              size_t buckets, int64_t* counts, size_t threads) {
+    if (!list || !counts || buckets == 0) return;
+    try {
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        std::fill(counts, counts + buckets, 0);
+        size_t n = vec.size();
+        threads = std::min(jstl::resolve_threads(threads), n / AGGREGATE_GRAIN);
+        if (threads <= 1) {
+            jstl::histogram(vec.data(), n, lo, hi, buckets, counts);
+            return;
+        }
+        std::vector<std::vector<int64_t>> partial(threads, std::vector<int64_t>(buckets, 0));
+        jstl::parallel_for(threads, [&](size_t t) {
+            size_t begin = jstl::slice_begin(n, threads, t);
+            size_t end = jstl::slice_begin(n, threads, t + 1);
+            jstl::histogram(vec.data() + begin, end - begin, lo, hi, buckets, partial[t].data());
+        });
+        for (const auto& p : partial) {
+            for (size_t b = 0; b < buckets; b++) {
+                counts[b] += p[b];
+            }
+        }
+    } catch (...) {
+        // Silent failure
+    }
+}
+
+int64_t jstl_arraylist_dot(jstl_arraylist_t list, jstl_arraylist_t other, size_t threads) {
+    if (!list || !other) return 0;
+    try {
+        const int64_t* a = static_cast<ArrayList*>(list)->vec.data();
+        const int64_t* b = static_cast<ArrayList*>(other)->vec.data();
+        size_t n = std::min(static_cast<ArrayList*>(list)->vec.size(),
+                            static_cast<ArrayList*>(other)->vec.size());
+        uint64_t dot = aggregate<uint64_t>(n, threads, 0,
+            [a, b](size_t begin, size_t len) {
+                return static_cast<uint64_t>(jstl::kernels().dot(a + begin, b + begin, len));
+            },
+            [](uint64_t x, uint64_t y) { return x + y; });
+        return static_cast<int64_t>(dot);
+    } catch (...) {
+        return 0;
+    }
+}
+
 } // extern "C"
@@ -0,0 +1,981 @@
+#include "jstl_bitset.h"
+#include "jstl_types.h"
+#include <algorithm>
+#include <iterator>
+#include <memory>
+#include <utility>
+#include <vector>
+
+// Values are stored by chunk: the chunk key is the high 48 bits of the value
+// with the sign bit flipped, so chunk order matches signed value order, and
+// each chunk's container holds the low 16 bits of its values.
+static const uint64_t SIGN_FLIP = 1ULL << 63;
+
+// Arrays above this many values are converted to bitmaps
+static const uint32_t ARRAY_MAX = 4096;
+static const size_t BITMAP_WORDS = 1024;
+static const size_t BITMAP_BYTES = BITMAP_WORDS * sizeof(uint64_t);
+
+enum ContainerKind : uint8_t { ARRAY, BITMAP, RUN };
+
+struct Container {
+    ContainerKind kind = ARRAY;
+    uint32_t card = 0;
+    std::vector<uint16_t> vals;  // ARRAY: sorted values; RUN: (start, length - 1) pairs
+    std::vector<uint64_t> bits;  // BITMAP: BITMAP_WORDS words
+};
+
+struct Chunk {
+    uint64_t key;
+    Container c;
+};
+
+// C++ compressed bitmap: chunks sorted by key
+struct BitSet {
+    std::vector<Chunk> chunks;
+    std::vector<uint64_t> prefix;  // prefix[i] = values in chunks[0, i), rebuilt lazily
+    bool prefix_valid = false;
+};
+
+static inline uint64_t chunk_key(int64_t value) {
+    return (static_cast<uint64_t>(value) ^ SIGN_FLIP) >> 16;
+}
+
+static inline uint16_t low_bits(int64_t value) {
+    return static_cast<uint16_t>(value);
+}
+
+static inline int64_t value_of(uint64_t key, uint32_t low) {
+    return static_cast<int64_t>(((key << 16) | low) ^ SIGN_FLIP);
+}
+
+#if defined(__GNUC__) || defined(__clang__)
+#define JSTL_ALWAYS_INLINE __attribute__((always_inline)) inline
+#else
+#define JSTL_ALWAYS_INLINE inline
+#endif
+
+static JSTL_ALWAYS_INLINE uint32_t popcount64(uint64_t w) {
+#if defined(__GNUC__) || defined(__clang__)
+    return static_cast<uint32_t>(__builtin_popcountll(w));
+#else
+    w = w - ((w >> 1) & 0x5555555555555555ULL);
+    w = (w & 0x3333333333333333ULL) + ((w >> 2) & 0x3333333333333333ULL);
+    w = (w + (w >> 4)) & 0x0F0F0F0F0F0F0F0FULL;
+    return static_cast<uint32_t>((w * 0x0101010101010101ULL) >> 56);
+#endif
+}
+
+static inline uint32_t ctz64(uint64_t w) {
+#if defined(__GNUC__) || defined(__clang__)
+    return static_cast<uint32_t>(__builtin_ctzll(w));
+#else
+    uint32_t n = 0;
+    while (!(w & 1)) { w >>= 1; n++; }
+    return n;
+#endif
+}
+
+// ---------------------------------------------------------------------------
+// Word-wise bitmap operations
+
+template <int Op>
+static inline uint64_t apply_op(uint64_t a, uint64_t b) {
+    switch (Op) {
+        case JSTL_BITSET_AND: return a & b;
+        case JSTL_BITSET_OR: return a | b;
+        case JSTL_BITSET_AND_NOT: return a & ~b;
+        default: return a ^ b;
+    }
+}
+
+// out = a op b over one bitmap; out may alias a. Returns the result's cardinality.
+template <int Op>
+static JSTL_ALWAYS_INLINE uint32_t combine_words_impl(const uint64_t* a, const uint64_t* b, uint64_t* out) {
+    uint32_t card = 0;
+    for (size_t i = 0; i < BITMAP_WORDS; i++) {
+        uint64_t w = apply_op<Op>(a[i], b[i]);
+        out[i] = w;
+        card += popcount64(w);
+    }
+    return card;
+}
+
+static uint32_t combine_words_generic(int op, const uint64_t* a, const uint64_t* b, uint64_t* out) {
+    switch (op) {
+        case JSTL_BITSET_AND: return combine_words_impl<JSTL_BITSET_AND>(a, b, out);
+        case JSTL_BITSET_OR: return combine_words_impl<JSTL_BITSET_OR>(a, b, out);
+        case JSTL_BITSET_AND_NOT: return combine_words_impl<JSTL_BITSET_AND_NOT>(a, b, out);
+        default: return combine_words_impl<JSTL_BITSET_XOR>(a, b, out);
+    }
+}
+
+#if (defined(__x86_64__) || defined(_M_X64)) && (defined(__GNUC__) || defined(__clang__))
+#define JSTL_BITSET_POPCNT 1
+// Same loop compiled with the hardware popcount instruction
+__attribute__((target("popcnt")))
+static uint32_t combine_words_popcnt(int op, const uint64_t* a, const uint64_t* b, uint64_t* out) {
+    switch (op) {
+        case JSTL_BITSET_AND: return combine_words_impl<JSTL_BITSET_AND>(a, b, out);
+        case JSTL_BITSET_OR: return combine_words_impl<JSTL_BITSET_OR>(a, b, out);
+        case JSTL_BITSET_AND_NOT: return combine_words_impl<JSTL_BITSET_AND_NOT>(a, b, out);
+        default: return combine_words_impl<JSTL_BITSET_XOR>(a, b, out);
+    }
+}
+#endif
+
+static uint32_t combine_words(int op, const uint64_t* a, const uint64_t* b, uint64_t* out) {
+#ifdef JSTL_BITSET_POPCNT
+    static const bool has_popcnt = __builtin_cpu_supports("popcnt");
+    if (has_popcnt) {
+        return combine_words_popcnt(op, a, b, out);
+    }
+#endif
+    return combine_words_generic(op, a, b, out);
+}
+
+static uint32_t popcount_words(const uint64_t* bits) {
+    uint32_t card = 0;
+    for (size_t i = 0; i < BITMAP_WORDS; i++) {
+        card += popcount64(bits[i]);
+    }
+    return card;
+}
+
+// Set bits [lo, hi] (inclusive)
+static void set_bits(uint64_t* bits, uint32_t lo, uint32_t hi) {
+    size_t first = lo >> 6;
+    size_t last = hi >> 6;
+    uint64_t first_mask = ~0ULL << (lo & 63);
+    uint64_t last_mask = ~0ULL >> (63 - (hi & 63));
+    if (first == last) {
+        bits[first] |= first_mask & last_mask;
+        return;
+    }
+    bits[first] |= first_mask;
+    for (size_t w = first + 1; w < last; w++) {
+        bits[w] = ~0ULL;
+    }
+    bits[last] |= last_mask;
+}
+
+// ---------------------------------------------------------------------------
+// Container encoding
+
+static inline size_t run_count(const Container& c) {
+    return c.vals.size() / 2;
+}
+
+// Index of the last run starting at or before low, or -1
+static ptrdiff_t find_run(const Container& c, uint16_t low) {
+    ptrdiff_t lo = 0;
+    ptrdiff_t hi = static_cast<ptrdiff_t>(run_count(c)) - 1;
+    ptrdiff_t found = -1;
+    while (lo <= hi) {
+        ptrdiff_t mid = lo + (hi - lo) / 2;
+        if (c.vals[2 * mid] <= low) {
+            found = mid;
+            lo = mid + 1;
+        } else {
+            hi = mid - 1;
+        }
+    }
+    return found;
+}
+
+static void to_bitmap(Container& c) {
+    if (c.kind == BITMAP) return;
+    std::vector<uint64_t> bits(BITMAP_WORDS, 0);
+    if (c.kind == ARRAY) {
+        for (uint16_t v : c.vals) {
+            bits[v >> 6] |= 1ULL << (v & 63);
+        }
+    } else {
+        for (size_t r = 0; r < run_count(c); r++) {
+            uint32_t start = c.vals[2 * r];
+            set_bits(bits.data(), start, start + c.vals[2 * r + 1]);
+        }
+    }
+    c.bits.swap(bits);
+    std::vector<uint16_t>().swap(c.vals);
+    c.kind = BITMAP;
+}
+
+static void bitmap_to_array(Container& c) {
+    std::vector<uint16_t> vals;
+    vals.reserve(c.card);
+    for (size_t w = 0; w < BITMAP_WORDS; w++) {
+        uint64_t word = c.bits[w];
+        while (word) {
+            vals.push_back(static_cast<uint16_t>(w * 64 + ctz64(word)));
+            word &= word - 1;
+        }
+    }
+    c.vals.swap(vals);
+    std::vector<uint64_t>().swap(c.bits);
+    c.kind = ARRAY;
+}
+
+static void bitmap_to_runs(Container& c) {
+    std::vector<uint16_t> runs;
+    size_t w = 0;
+    uint64_t word = c.bits[0];
+    while (true) {
+        while (word == 0) {
+            if (++w == BITMAP_WORDS) goto done;
+            word = c.bits[w];
+        }
+        uint32_t start = static_cast<uint32_t>(w * 64 + ctz64(word));
+        // Fill the bits below the run so the first zero above it is the run's end
+        word |= word - 1;
+        while (word == ~0ULL) {
+            if (++w == BITMAP_WORDS) {
+                runs.push_back(static_cast<uint16_t>(start));
+                runs.push_back(static_cast<uint16_t>(65535 - start));
+                goto done;
+            }
+            word = c.bits[w];
+        }
+        uint32_t end = static_cast<uint32_t>(w * 64 + ctz64(~word)) - 1;
+        runs.push_back(static_cast<uint16_t>(start));
+        runs.push_back(static_cast<uint16_t>(end - start));
+        word &= word + 1;  // clear the run
+    }
+done:
+    c.vals.swap(runs);
+    std::vector<uint64_t>().swap(c.bits);
+    c.kind = RUN;
+}
+
+static size_t count_runs(const Container& c) {
+    switch (c.kind) {
+        case RUN:
+            return run_count(c);
+        case ARRAY: {
+            size_t runs = c.vals.empty() ? 0 : 1;
+            for (size_t i = 1; i < c.vals.size(); i++) {
+                if (c.vals[i] != c.vals[i - 1] + 1) runs++;
+            }
+            return runs;
+        }
+        default: {
+            size_t runs = 0;
+            uint64_t carry = 0;
+            for (size_t w = 0; w < BITMAP_WORDS; w++) {
+                uint64_t word = c.bits[w];
+                runs += popcount64(word & ~((word << 1) | carry));
+                carry = word >> 63;
+            }
+            return runs;
+        }
+    }
+}
+
+// Re-encode c in whichever of array, bitmap or runs takes the least memory
+static void optimize(Container& c) {
+    if (c.card == 0) return;
+    size_t run_bytes = count_runs(c) * 2 * sizeof(uint16_t);
+    size_t array_bytes = c.card <= ARRAY_MAX ? c.card * sizeof(uint16_t) : SIZE_MAX;
+    ContainerKind best;
+    if (run_bytes < std::min(array_bytes, BITMAP_BYTES)) {
+        best = RUN;
+    } else {
+        best = array_bytes <= BITMAP_BYTES ? ARRAY : BITMAP;
+    }
+    if (best != c.kind) {
+        to_bitmap(c);
+        if (best == ARRAY) {
+            bitmap_to_array(c);
+        } else if (best == RUN) {
+            bitmap_to_runs(c);
+        }
+    }
+    c.vals.shrink_to_fit();
+}
+
+// ---------------------------------------------------------------------------
+// Single-value container operations
+
+static bool container_contains(const Container& c, uint16_t low) {
+    switch (c.kind) {
+        case ARRAY:
+            return std::binary_search(c.vals.begin(), c.vals.end(), low);
+        case BITMAP:
+            return (c.bits[low >> 6] >> (low & 63)) & 1;
+        default: {
+            ptrdiff_t r = find_run(c, low);
+            return r >= 0 && low - c.vals[2 * r] <= c.vals[2 * r + 1];
+        }
+    }
+}
+
+static bool run_add(Container& c, uint16_t low) {
+    ptrdiff_t r = find_run(c, low);
+    size_t next = static_cast<size_t>(r + 1);
+    bool joins_next = next < run_count(c) && c.vals[2 * next] == low + 1;
+    if (r >= 0) {
+        uint32_t end = c.vals[2 * r] + c.vals[2 * r + 1];
+        if (low <= end) return false;
+        if (low == end + 1) {
+            c.vals[2 * r + 1]++;
+            if (joins_next) {
+                c.vals[2 * r + 1] += c.vals[2 * next + 1] + 1;
+                c.vals.erase(c.vals.begin() + 2 * next, c.vals.begin() + 2 * next + 2);
+            }
+            c.card++;
+            return true;
+        }
+    }
+    if (joins_next) {
+        c.vals[2 * next]--;
+        c.vals[2 * next + 1]++;
+    } else {
+        uint16_t run[2] = {low, 0};
+        c.vals.insert(c.vals.begin() + 2 * next, run, run + 2);
+    }
+    c.card++;
+    if (c.vals.size() * sizeof(uint16_t) > BITMAP_BYTES) {
+        optimize(c);
+    }
+    return true;
+}
+
+static bool container_add(Container& c, uint16_t low) {
+    switch (c.kind) {
+        case ARRAY: {
+            auto it = std::lower_bound(c.vals.begin(), c.vals.end(), low);
+            if (it != c.vals.end() && *it == low) return false;
+            if (c.card >= ARRAY_MAX) {
+                to_bitmap(c);
+                return container_add(c, low);
+            }
+            c.vals.insert(it, low);
+            c.card++;
+            return true;
+        }
+        case BITMAP: {
+            uint64_t& word = c.bits[low >> 6];
+            uint64_t mask = 1ULL << (low & 63);
+            if (word & mask) return false;
+            word |= mask;
+            c.card++;
+            return true;
+        }
+        default:
+            return run_add(c, low);
+    }
+}
+
+static bool container_remove(Container& c, uint16_t low) {
+    switch (c.kind) {
+        case ARRAY: {
+            auto it = std::lower_bound(c.vals.begin(), c.vals.end(), low);
+            if (it == c.vals.end() || *it != low) return false;
+            c.vals.erase(it);
+            c.card--;
+            return true;
+        }
+        case BITMAP: {
+            uint64_t& word = c.bits[low >> 6];
+            uint64_t mask = 1ULL << (low & 63);
+            if (!(word & mask)) return false;
+            word &= ~mask;
+            c.card--;
+            if (c.card <= ARRAY_MAX) {
+                bitmap_to_array(c);
+            }
+            return true;
+        }
+        default: {
+            ptrdiff_t r = find_run(c, low);
+            if (r < 0) return false;
+            uint32_t start = c.vals[2 * r];
+            uint32_t end = start + c.vals[2 * r + 1];
+            if (low > end) return false;
+            if (start == end) {
+                c.vals.erase(c.vals.begin() + 2 * r, c.vals.begin() + 2 * r + 2);
+            } else if (low == start) {
+                c.vals[2 * r]++;
+                c.vals[2 * r + 1]--;
+            } else if (low == end) {
+                c.vals[2 * r + 1]--;
+            } else {
+                uint16_t tail[2] = {static_cast<uint16_t>(low + 1), static_cast<uint16_t>(end - low - 1)};
+                c.vals[2 * r + 1] = static_cast<uint16_t>(low - start - 1);
+                c.vals.insert(c.vals.begin() + 2 * r + 2, tail, tail + 2);
+            }
+            c.card--;
+            if (c.vals.size() * sizeof(uint16_t) > BITMAP_BYTES) {
+                optimize(c);
+            }
+            return true;
+        }
+    }
+}
+
+// Number of values <= low
+static uint32_t container_rank(const Container& c, uint16_t low) {
+    switch (c.kind) {
+        case ARRAY:
+            return static_cast<uint32_t>(std::upper_bound(c.vals.begin(), c.vals.end(), low) - c.vals.begin());
+        case BITMAP: {
+            uint32_t rank = 0;
+            size_t last = low >> 6;
+            for (size_t w = 0; w < last; w++) {
+                rank += popcount64(c.bits[w]);
+            }
+            return rank + popcount64(c.bits[last] & (~0ULL >> (63 - (low & 63))));
+        }
+        default: {
+            uint32_t rank = 0;
+            ptrdiff_t last = find_run(c, low);
+            for (ptrdiff_t r = 0; r <= last; r++) {
+                uint32_t start = c.vals[2 * r];
+                uint32_t end = std::min<uint32_t>(start + c.vals[2 * r + 1], low);
+                rank += end - start + 1;
+            }
+            return rank;
+        }
+    }
+}
+
+// Value at 0-based position index (index < c.card)
+static uint16_t container_select(const Container& c, uint32_t index) {
+    switch (c.kind) {
+        case ARRAY:
+            return c.vals[index];
+        case BITMAP:
+            for (size_t w = 0; w < BITMAP_WORDS; w++) {
+                uint32_t count = popcount64(c.bits[w]);
+                if (index < count) {
+                    uint64_t word = c.bits[w];
+                    for (uint32_t i = 0; i < index; i++) {
+                        word &= word - 1;
+                    }
+                    return static_cast<uint16_t>(w * 64 + ctz64(word));
+                }
+                index -= count;
+            }
+            return 0;
+        default:
+            for (size_t r = 0; r < run_count(c); r++) {
+                uint32_t length = c.vals[2 * r + 1] + 1u;
+                if (index < length) {
+                    return static_cast<uint16_t>(c.vals[2 * r] + index);
+                }
+                index -= length;
+            }
+            return 0;
+    }
+}
+
+template <typename Fn>
+static void container_for_each(const Container& c, Fn fn) {
+    switch (c.kind) {
+        case ARRAY:
+            for (uint16_t v : c.vals) fn(v);
+            break;
+        case BITMAP:
+            for (size_t w = 0; w < BITMAP_WORDS; w++) {
+                uint64_t word = c.bits[w];
+                while (word) {
+                    fn(static_cast<uint32_t>(w * 64 + ctz64(word)));
+                    word &= word - 1;
+                }
+            }
+            break;
+        default:
+            for (size_t r = 0; r < run_count(c); r++) {
+                uint32_t start = c.vals[2 * r];
+                uint32_t end = start + c.vals[2 * r + 1];
+                for (uint32_t v = start; v <= end; v++) fn(v);
+            }
+            break;
+    }
+}
+
+// ---------------------------------------------------------------------------
+// Container set operations
+
+static Container combine_containers(const Container& a, const Container& b, int op) {
+    Container out;
+    if (op == JSTL_BITSET_AND && (a.kind == ARRAY || b.kind == ARRAY)) {
+        const Container& small = a.kind == ARRAY ? a : b;
+        const Container& other = a.kind == ARRAY ? b : a;
+        if (other.kind == ARRAY) {
+            std::set_intersection(small.vals.begin(), small.vals.end(), other.vals.begin(), other.vals.end(),
+                                  std::back_inserter(out.vals));
+        } else {
+            for (uint16_t v : small.vals) {
+                if (container_contains(other, v)) out.vals.push_back(v);
+            }
+        }
+        out.card = static_cast<uint32_t>(out.vals.size());
+        return out;
+    }
+    if (op == JSTL_BITSET_AND_NOT && a.kind == ARRAY) {
+        for (uint16_t v : a.vals) {
+            if (!container_contains(b, v)) out.vals.push_back(v);
+        }
+        out.card = static_cast<uint32_t>(out.vals.size());
+        return out;
+    }
+    if (a.kind == ARRAY && b.kind == ARRAY) {
+        if (op == JSTL_BITSET_OR) {
+            std::set_union(a.vals.begin(), a.vals.end(), b.vals.begin(), b.vals.end(),
+                           std::back_inserter(out.vals));
+        } else {
+            std::set_symmetric_difference(a.vals.begin(), a.vals.end(), b.vals.begin(), b.vals.end(),
+                                          std::back_inserter(out.vals));
+        }
+        out.card = static_cast<uint32_t>(out.vals.size());
+        if (out.card > ARRAY_MAX) {
+            optimize(out);
+        }
+        return out;
+    }
+    // Word-wise over bitmaps, converting whichever side is not one already
+    Container left_copy;
+    Container right_copy;
+    const Container* left = &a;
+    const Container* right = &b;
+    if (a.kind != BITMAP) {
+        left_copy = a;
+        to_bitmap(left_copy);
+        left = &left_copy;
+    }
+    if (b.kind != BITMAP) {
+        right_copy = b;
+        to_bitmap(right_copy);
+        right = &right_copy;
+    }
+    out.kind = BITMAP;
+    out.bits.resize(BITMAP_WORDS);
+    out.card = combine_words(op, left->bits.data(), right->bits.data(), out.bits.data());
+    optimize(out);
+    return out;
+}
+
+static uint32_t container_and_cardinality(const Container& a, const Container& b) {
+    if (a.kind == ARRAY || b.kind == ARRAY) {
+        const Container& small = a.kind == ARRAY ? a : b;
+        const Container& other = a.kind == ARRAY ? b : a;
+        uint32_t count = 0;
+        for (uint16_t v : small.vals) {
+            if (container_contains(other, v)) count++;
+        }
+        return count;
+    }
+    Container left = a;
+    Container right = b;
+    to_bitmap(left);
+    to_bitmap(right);
+    return combine_words(JSTL_BITSET_AND, left.bits.data(), right.bits.data(), left.bits.data());
+}
+
+// ---------------------------------------------------------------------------
+// BitSet helpers
+
+static void invalidate(BitSet* bs) {
+    bs->prefix_valid = false;
+}
+
+static const std::vector<uint64_t>& prefix_of(BitSet* bs) {
+    if (!bs->prefix_valid) {
+        bs->prefix.resize(bs->chunks.size() + 1);
+        bs->prefix[0] = 0;
+        for (size_t i = 0; i < bs->chunks.size(); i++) {
+            bs->prefix[i + 1] = bs->prefix[i] + bs->chunks[i].c.card;
+        }
+        bs->prefix_valid = true;
+    }
+    return bs->prefix;
+}
+
+static std::vector<Chunk>::iterator find_chunk(BitSet* bs, uint64_t key) {
+    return std::lower_bound(bs->chunks.begin(), bs->chunks.end(), key,
+                            [](const Chunk& ch, uint64_t k) { return ch.key < k; });
+}
+
+// Build chunks from sorted, distinct values
+static std::vector<Chunk> build_sorted(const std::vector<int64_t>& values) {
+    std::vector<Chunk> chunks;
+    size_t i = 0;
+    while (i < values.size()) {
+        uint64_t key = chunk_key(values[i]);
+        size_t end = i;
+        while (end < values.size() && chunk_key(values[end]) == key) end++;
+        Chunk ch;
+        ch.key = key;
+        ch.c.card = static_cast<uint32_t>(end - i);
+        if (ch.c.card <= ARRAY_MAX) {
+            ch.c.vals.reserve(ch.c.card);
+            for (size_t k = i; k < end; k++) ch.c.vals.push_back(low_bits(values[k]));
+        } else {
+            ch.c.kind = BITMAP;
+            ch.c.bits.assign(BITMAP_WORDS, 0);
+            for (size_t k = i; k < end; k++) {
+                uint16_t low = low_bits(values[k]);
+                ch.c.bits[low >> 6] |= 1ULL << (low & 63);
+            }
+        }
+        optimize(ch.c);
+        chunks.push_back(std::move(ch));
+        i = end;
+    }
+    return chunks;
+}
+
+static std::vector<Chunk> combine_chunks(const std::vector<Chunk>& a, const std::vector<Chunk>& b, int op) {
+    bool keep_a = op != JSTL_BITSET_AND;
+    bool keep_b = op == JSTL_BITSET_OR || op == JSTL_BITSET_XOR;
+    std::vector<Chunk> out;
+    size_t i = 0;
+    size_t j = 0;
+    while (i < a.size() && j < b.size()) {
+        if (a[i].key == b[j].key) {
+            Container c = combine_containers(a[i].c, b[j].c, op);
+            if (c.card > 0) out.push_back(Chunk{a[i].key, std::move(c)});
+            i++;
+            j++;
+        } else if (a[i].key < b[j].key) {
+            if (keep_a) out.push_back(a[i]);
+            i++;
+        } else {
+            if (keep_b) out.push_back(b[j]);
+            j++;
+        }
+    }
+    for (; keep_a && i < a.size(); i++) out.push_back(a[i]);
+    for (; keep_b && j < b.size(); j++) out.push_back(b[j]);
+    return out;
+}
+
+// Add values (any order, duplicates allowed), consuming the vector
+static void add_values(BitSet* bs, std::vector<int64_t>& values) {
+    std::sort(values.begin(), values.end());
+    values.erase(std::unique(values.begin(), values.end()), values.end());
+    std::vector<Chunk> added = build_sorted(values);
+    std::vector<int64_t>().swap(values);
+    if (bs->chunks.empty()) {
+        bs->chunks.swap(added);
+    } else {
+        std::vector<Chunk> merged = combine_chunks(bs->chunks, added, JSTL_BITSET_OR);
+        bs->chunks.swap(merged);
+    }
+    invalidate(bs);
+}
+
+extern "C" {
+
+jstl_bitset_t jstl_bitset_create() {
+    try {
+        return new BitSet();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_bitset_destroy(jstl_bitset_t bitset) {
+    if (bitset) {
+        delete static_cast<BitSet*>(bitset);
+    }
+}
+
+int jstl_bitset_add(jstl_bitset_t bitset, int64_t value) {
+    if (!bitset) return 0;
+    try {
+        BitSet* bs = static_cast<BitSet*>(bitset);
+        uint64_t key = chunk_key(value);
+        auto it = find_chunk(bs, key);
+        if (it == bs->chunks.end() || it->key != key) {
+            it = bs->chunks.insert(it, Chunk{key, Container()});
+        }
+        bool added = container_add(it->c, low_bits(value));
+        invalidate(bs);
+        return added ? 1 : 0;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_bitset_add_range(jstl_bitset_t bitset, int64_t from, int64_t to) {
+    if (!bitset) return 0;
+    if (to <= from) return 1;
+    try {
+        BitSet* bs = static_cast<BitSet*>(bitset);
+        uint64_t first = chunk_key(from);
+        uint64_t last = chunk_key(to - 1);
+        // Existing chunks are filled in place, missing ones become single runs
+        std::vector<Chunk> fresh;
+        auto it = find_chunk(bs, first);
+        for (uint64_t key = first;; key++) {
+            uint32_t lo = key == first ? low_bits(from) : 0;
+            uint32_t hi = key == last ? low_bits(to - 1) : 0xFFFF;
+            if (it != bs->chunks.end() && it->key == key) {
+                Container& c = it->c;
+                to_bitmap(c);
+                set_bits(c.bits.data(), lo, hi);
+                c.card = popcount_words(c.bits.data());
+                optimize(c);
+                ++it;
+            } else {
+                Chunk ch;
+                ch.key = key;
+                ch.c.kind = RUN;
+                ch.c.card = hi - lo + 1;
+                ch.c.vals = {static_cast<uint16_t>(lo), static_cast<uint16_t>(hi - lo)};
+                fresh.push_back(std::move(ch));
+            }
+            if (key == last) break;
+        }
+        invalidate(bs);
+        if (!fresh.empty()) {
+            std::vector<Chunk> merged;
+            merged.reserve(bs->chunks.size() + fresh.size());
+            std::merge(std::make_move_iterator(bs->chunks.begin()), std::make_move_iterator(bs->chunks.end()),
+                       std::make_move_iterator(fresh.begin()), std::make_move_iterator(fresh.end()),
+                       std::back_inserter(merged),
+                       [](const Chunk& x, const Chunk& y) { return x.key < y.key; });
+            bs->chunks.swap(merged);
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_bitset_add_all(jstl_bitset_t bitset, const int64_t* values, size_t n) {
+    if (!bitset || (!values && n > 0)) return 0;
+    try {
+        std::vector<int64_t> copy(values, values + n);
+        add_values(static_cast<BitSet*>(bitset), copy);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_bitset_add_hashset(jstl_bitset_t bitset, jstl_hashset_t set) {
+    if (!bitset || !set) return 0;
+    try {
+        static_cast<HashSet*>(set)->settle();
+        const LongSet& src = static_cast<HashSet*>(set)->set;
+        std::vector<int64_t> values(src.begin(), src.end());
+        add_values(static_cast<BitSet*>(bitset), values);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_bitset_add_arraylist(jstl_bitset_t bitset, jstl_arraylist_t list) {
+    if (!bitset || !list) return 0;
+    try {
+        std::vector<int64_t> values = static_cast<ArrayList*>(list)->vec;
+        add_values(static_cast<BitSet*>(bitset), values);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_bitset_contains(jstl_bitset_t bitset, int64_t value) {
+    if (!bitset) return 0;
+    BitSet* bs = static_cast<BitSet*>(bitset);
+    uint64_t key = chunk_key(value);
+    auto it = find_chunk(bs, key);
+    if (it == bs->chunks.end() || it->key != key) return 0;
+    return container_contains(it->c, low_bits(value)) ? 1 : 0;
+}
+
+int jstl_bitset_remove(jstl_bitset_t bitset, int64_t value) {
+    if (!bitset) return 0;
+    try {
+        BitSet* bs = static_cast<BitSet*>(bitset);
+        uint64_t key = chunk_key(value);
+        auto it = find_chunk(bs, key);
+        if (it == bs->chunks.end() || it->key != key) return 0;
+        if (!container_remove(it->c, low_bits(value))) return 0;
+        if (it->c.card == 0) {
+            bs->chunks.erase(it);
+        }
+        invalidate(bs);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+uint64_t jstl_bitset_cardinality(jstl_bitset_t bitset) {
+    if (!bitset) return 0;
+    try {
+        return prefix_of(static_cast<BitSet*>(bitset)).back();
+    } catch (...) {
+        return 0;
+    }
+}
+
+void jstl_bitset_clear(jstl_bitset_t bitset) {
+    if (!bitset) return;
+    BitSet* bs = static_cast<BitSet*>(bitset);
+    bs->chunks.clear();
+    invalidate(bs);
+}
+
+uint64_t jstl_bitset_rank(jstl_bitset_t bitset, int64_t value) {
+    if (!bitset) return 0;
+    try {
+        BitSet* bs = static_cast<BitSet*>(bitset);
+        const std::vector<uint64_t>& prefix = prefix_of(bs);
+        uint64_t key = chunk_key(value);
+        auto it = find_chunk(bs, key);
+        uint64_t rank = prefix[it - bs->chunks.begin()];
+        if (it != bs->chunks.end() && it->key == key) {
+            rank += container_rank(it->c, low_bits(value));
+        }
+        return rank;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_bitset_select(jstl_bitset_t bitset, uint64_t index, int64_t* out) {
+    if (!bitset || !out) return 0;
+    try {
+        BitSet* bs = static_cast<BitSet*>(bitset);
+        const std::vector<uint64_t>& prefix = prefix_of(bs);
+        if (index >= prefix.back()) return 0;
+        // First chunk whose running total passes index
+        size_t i = std::upper_bound(prefix.begin(), prefix.end(), index) - prefix.begin() - 1;
+        const Chunk& ch = bs->chunks[i];
+        *out = value_of(ch.key, container_select(ch.c, static_cast<uint32_t>(index - prefix[i])));
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+jstl_bitset_t jstl_bitset_combine(jstl_bitset_t a, jstl_bitset_t b, int op) {
+    if (!a || !b || op < JSTL_BITSET_AND || op > JSTL_BITSET_XOR) return nullptr;
+    try {
+        std::unique_ptr<BitSet> result(new BitSet());
+        result->chunks = combine_chunks(static_cast<BitSet*>(a)->chunks, static_cast<BitSet*>(b)->chunks, op);
+        return result.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+int jstl_bitset_combine_in_place(jstl_bitset_t a, jstl_bitset_t b, int op) {
+    if (!a || !b || op < JSTL_BITSET_AND || op > JSTL_BITSET_XOR) return 0;
+    try {
+        BitSet* bs = static_cast<BitSet*>(a);
+        std::vector<Chunk> result = combine_chunks(bs->chunks, static_cast<BitSet*>(b)->chunks, op);
+        bs->chunks.swap(result);
+        invalidate(bs);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+uint64_t jstl_bitset_and_cardinality(jstl_bitset_t a, jstl_bitset_t b) {
+    if (!a || !b) return 0;
+    try {
+        const std::vector<Chunk>& x = static_cast<BitSet*>(a)->chunks;
+        const std::vector<Chunk>& y = static_cast<BitSet*>(b)->chunks;
+        uint64_t count = 0;
+        size_t i = 0;
+        size_t j = 0;
+        while (i < x.size() && j < y.size()) {
+            if (x[i].key == y[j].key) {
+                count += container_and_cardinality(x[i].c, y[j].c);
+                i++;
+                j++;
+            } else if (x[i].key < y[j].key) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    } catch (...) {
+        return 0;
+    }
+}
+
+void jstl_bitset_run_optimize(jstl_bitset_t bitset) {
+    if (!bitset) return;
+    try {
+        for (Chunk& ch : static_cast<BitSet*>(bitset)->chunks) {
+            optimize(ch.c);
+        }
+    } catch (...) {
+        // Containers already converted stay valid
+    }
+}
+
+size_t jstl_bitset_size_in_bytes(jstl_bitset_t bitset) {
+    if (!bitset) return 0;
+    BitSet* bs = static_cast<BitSet*>(bitset);
+    size_t bytes = sizeof(BitSet) + bs->chunks.capacity() * sizeof(Chunk)
+        + bs->prefix.capacity() * sizeof(uint64_t);
+    for (const Chunk& ch : bs->chunks) {
+        bytes += ch.c.vals.capacity() * sizeof(uint16_t) + ch.c.bits.capacity() * sizeof(uint64_t);
+    }
+    return bytes;
+}
+
+size_t jstl_bitset_to_array(jstl_bitset_t bitset, int64_t* out, size_t capacity) {
+    if (!bitset || !out) return 0;
+    size_t count = 0;
+    for (const Chunk& ch : static_cast<BitSet*>(bitset)->chunks) {
+        if (count + ch.c.card > capacity) {
+            container_for_each(ch.c, [&](uint32_t low) {
+                if (count < capacity) out[count++] = value_of(ch.key, low);
+            });
+            break;
+        }
+        container_for_each(ch.c, [&](uint32_t low) { out[count++] = value_of(ch.key, low); });
+    }
+    return count;
+}
+
+int jstl_bitset_to_hashset(jstl_bitset_t bitset, jstl_hashset_t set) {
+    if (!bitset || !set) return 0;
+    try {
+        BitSet* bs = static_cast<BitSet*>(bitset);
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        hs->set.reserve(hs->set.size() + prefix_of(bs).back());
+        for (const Chunk& ch : bs->chunks) {
+            container_for_each(ch.c, [&](uint32_t low) {
+                int64_t value = value_of(ch.key, low);
+                if (hs->set.insert(value).second) {
+                    hs->bloom.on_insert(value, hs->set);
+                }
+            });
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_bitset_to_arraylist(jstl_bitset_t bitset, jstl_arraylist_t list) {
+    if (!bitset || !list) return 0;
+    try {
+        BitSet* bs = static_cast<BitSet*>(bitset);
+        std::vector<int64_t>& vec = static_cast<ArrayList*>(list)->vec;
+        vec.reserve(vec.size() + prefix_of(bs).back());
+        for (const Chunk& ch : bs->chunks) {
+            container_for_each(ch.c, [&](uint32_t low) { vec.push_back(value_of(ch.key, low)); });
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+} // extern "C"
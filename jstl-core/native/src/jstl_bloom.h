@@ -0,0 +1,272 @@
+#ifndef JSTL_BLOOM_H
+#define JSTL_BLOOM_H
+
+#include <stddef.h>
+#include <stdint.h>
+#include <algorithm>
+#include <cmath>
+#include <cstring>
+#include <memory>
+#include <utility>
+#include <vector>
+
+#include "jstl_hash.h"
+
+// Internal blocked Bloom filter (not part of the C API).
+// Every key maps to one 512-bit block, so a lookup touches a single cache line.
+namespace jstl {
+
+class BlockedBloomFilter {
+public:
+    static constexpr size_t BLOCK_BITS = 512;
+    static constexpr size_t BLOCK_WORDS = BLOCK_BITS / 64;
+
+    BlockedBloomFilter(size_t expected, double fpp) {
+        expected = std::max<size_t>(expected, 1);
+        fpp = std::min(std::max(fpp, 1e-9), 0.5);
+        // Classic sizing plus 10% to make up for uneven block loads
+        double ln2 = std::log(2.0);
+        double bits = -static_cast<double>(expected) * std::log(fpp) / (ln2 * ln2) * 1.1;
+        double max_blocks = static_cast<double>(UINT32_MAX);
+        blocks_ = static_cast<size_t>(std::min(std::ceil(bits / BLOCK_BITS), max_blocks));
+        blocks_ = std::max<size_t>(blocks_, 1);
+        double per_key = static_cast<double>(blocks_ * BLOCK_BITS) / expected;
+        hashes_ = static_cast<int>(std::lround(per_key * ln2));
+        hashes_ = std::min(std::max(hashes_, 1), 16);
+        // Over-allocate by one block so the first block can start on a cache line
+        storage_.assign((blocks_ + 1) * BLOCK_WORDS, 0);
+        uintptr_t addr = reinterpret_cast<uintptr_t>(storage_.data());
+        words_ = storage_.data() + ((64 - addr % 64) % 64) / sizeof(uint64_t);
+    }
+
+    void put(int64_t key) {
+        uint64_t h = mix64(static_cast<uint64_t>(key));
+        uint64_t* block = block_of(h);
+        uint32_t a = static_cast<uint32_t>(h);
+        uint32_t b = second_hash(h);
+        for (int i = 0; i < hashes_; i++) {
+            uint32_t bit = (a + i * b) >> 23;
+            block[bit >> 6] |= 1ULL << (bit & 63);
+        }
+    }
+
+    bool might_contain(int64_t key) const {
+        uint64_t h = mix64(static_cast<uint64_t>(key));
+        const uint64_t* block = block_of(h);
+        uint32_t a = static_cast<uint32_t>(h);
+        uint32_t b = second_hash(h);
+        for (int i = 0; i < hashes_; i++) {
+            uint32_t bit = (a + i * b) >> 23;
+            if (!(block[bit >> 6] & (1ULL << (bit & 63)))) return false;
+        }
+        return true;
+    }
+
+    // Test n keys, prefetching blocks a few keys ahead to overlap cache misses.
+    // Writes 1/0 per key to results and returns the number of possible members.
+    size_t might_contain_all(const int64_t* keys, size_t n, uint8_t* results) const {
+        const size_t ahead = 8;
+        size_t count = 0;
+        for (size_t i = 0; i < n; i++) {
+            if (i + ahead < n) {
+                prefetch(block_of(mix64(static_cast<uint64_t>(keys[i + ahead]))));
+            }
+            uint8_t hit = might_contain(keys[i]) ? 1 : 0;
+            results[i] = hit;
+            count += hit;
+        }
+        return count;
+    }
+
+    void clear() {
+        std::fill(words_, words_ + blocks_ * BLOCK_WORDS, 0);
+    }
+
+    size_t bit_size() const { return blocks_ * BLOCK_BITS; }
+    int hash_count() const { return hashes_; }
+
+private:
+    static uint32_t second_hash(uint64_t h) {
+        return static_cast<uint32_t>((h * 0x9E3779B97F4A7C15ULL) >> 32) | 1;
+    }
+
+    uint64_t* block_of(uint64_t h) const {
+        return words_ + fast_range32(static_cast<uint32_t>(h >> 32), blocks_) * BLOCK_WORDS;
+    }
+
+    static void prefetch(const void* p) {
+#if defined(__GNUC__) || defined(__clang__)
+        __builtin_prefetch(p);
+#else
+        (void) p;
+#endif
+    }
+
+    size_t blocks_;
+    int hashes_;
+    std::vector<uint64_t> storage_;
+    uint64_t* words_;
+};
+
+inline int64_t bloom_key(int64_t value) { return value; }
+
+template <typename V>
+inline int64_t bloom_key(const std::pair<const int64_t, V>& entry) { return entry.first; }
+
+template <typename Container, typename F>
+inline void for_each_entry(const Container& c, F f) {
+    for (const auto& entry : c) f(entry);
+}
+
+// The tables a BloomFront walks when it rebuilds in steps
+template <typename Table>
+struct TableWalk {
+    const Table* tables[2];
+    size_t count;
+};
+
+template <typename Table>
+inline TableWalk<Table> tables_of(const Table& t) { return {{&t, nullptr}, 1}; }
+
+// Optional Bloom filter kept in front of a hash container to answer most
+// negative lookups without probing it. Inserts add bits; removals cannot clear
+// them, so the filter is rebuilt once stale keys outnumber live ones, and it is
+// regrown when the container outgrows the size it was built for.
+//
+// Those rebuilds run in steps, so no single insert or erase pays for the whole
+// container: a replacement filter is filled a few buckets per write while the
+// current one keeps answering (every insert goes into both, so neither can give
+// a false negative), and it takes over once the walk has covered every bucket.
+struct BloomFront {
+    static constexpr size_t MIN_CAPACITY = 1024;
+    static constexpr size_t REBUILD_STEP = 64;  // buckets copied per write
+
+    std::unique_ptr<BlockedBloomFilter> filter;
+    double fpp = 0.01;
+    size_t capacity = 0;
+    size_t stale = 0;
+
+    bool enabled() const { return filter != nullptr; }
+    bool rebuilding() const { return next != nullptr; }
+
+    bool might_contain(int64_t key) const {
+        return !filter || filter->might_contain(key);
+    }
+
+    template <typename Container>
+    void enable(double rate, const Container& c) {
+        fpp = rate;
+        rebuild(c);
+    }
+
+    void disable() {
+        filter.reset();
+        next.reset();
+        capacity = 0;
+        stale = 0;
+    }
+
+    // Rebuild at once, dropping any rebuild in progress
+    template <typename Container>
+    void rebuild(const Container& c) {
+        capacity = std::max(c.size() * 2, MIN_CAPACITY);
+        std::unique_ptr<BlockedBloomFilter> fresh(new BlockedBloomFilter(capacity, fpp));
+        for_each_entry(c, [&fresh](const auto& entry) { fresh->put(bloom_key(entry)); });
+        filter = std::move(fresh);
+        next.reset();
+        stale = 0;
+    }
+
+    // Call after a key was newly inserted into c
+    template <typename Container>
+    void on_insert(int64_t key, const Container& c) {
+        if (!filter) return;
+        filter->put(key);
+        if (next) {
+            next->put(key);
+        } else if (c.size() > capacity) {
+            start_rebuild(c);
+        }
+        advance(c);
+    }
+
+    // Call after count keys were erased from c
+    template <typename Container>
+    void on_erase(size_t count, const Container& c) {
+        if (!filter || count == 0) return;
+        stale += count;
+        if (next) {
+            next_stale += count;  // the walk may already have copied them
+        } else if (stale > c.size() + MIN_CAPACITY) {
+            start_rebuild(c);
+        }
+        advance(c);
+    }
+
+    void on_clear() {
+        if (filter) filter->clear();
+        next.reset();
+        stale = 0;
+    }
+
+private:
+    std::unique_ptr<BlockedBloomFilter> next;  // replacement being filled
+    size_t next_capacity = 0;
+    size_t next_stale = 0;
+    size_t table = 0;           // walk position: table index, then bucket
+    size_t bucket = 0;
+    size_t buckets[2] = {0, 0}; // bucket counts the walk is valid for
+
+    // A filter that missed an insert could give false negatives, so drop it
+    // entirely if its replacement cannot be allocated
+    template <typename Container>
+    void start_rebuild(const Container& c) {
+        next_capacity = std::max(c.size() * 2, MIN_CAPACITY);
+        try {
+            next.reset(new BlockedBloomFilter(next_capacity, fpp));
+        } catch (...) {
+            disable();
+            return;
+        }
+        next_stale = 0;
+        restart(c);
+    }
+
+    template <typename Container>
+    void restart(const Container& c) {
+        auto walk = tables_of(c);
+        for (size_t i = 0; i < walk.count; i++) buckets[i] = walk.tables[i]->bucket_count();
+        table = 0;
+        bucket = 0;
+    }
+
+    // Copy the next few buckets into the replacement. A table that rehashed
+    // since the walk started has moved its entries between buckets, so the
+    // walk starts over (copying a key twice is harmless).
+    template <typename Container>
+    void advance(const Container& c) {
+        if (!next) return;
+        auto walk = tables_of(c);
+        for (size_t i = 0; i < walk.count; i++) {
+            if (walk.tables[i]->bucket_count() != buckets[i]) {
+                restart(c);
+                break;
+            }
+        }
+        size_t budget = REBUILD_STEP;
+        for (; table < walk.count; table++, bucket = 0) {
+            const auto& t = *walk.tables[table];
+            for (; bucket < t.bucket_count(); bucket++) {
+                if (budget-- == 0) return;
+                for (auto it = t.begin(bucket); it != t.end(bucket); ++it) next->put(bloom_key(*it));
+            }
+        }
+        filter = std::move(next);
+        capacity = next_capacity;
+        stale = next_stale;
+    }
+};
+
+} // namespace jstl
+
+#endif // JSTL_BLOOM_H
@@ -0,0 +1,57 @@
+#include "jstl_bloomfilter.h"
+#include "jstl_bloom.h"
+
+using jstl::BlockedBloomFilter;
+
+jstl_bloomfilter_t jstl_bloomfilter_create(size_t expected, double fpp) {
+    try {
+        return new BlockedBloomFilter(expected, fpp);
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_bloomfilter_destroy(jstl_bloomfilter_t filter) {
+    if (filter) {
+        delete static_cast<BlockedBloomFilter*>(filter);
+    }
+}
+
+void jstl_bloomfilter_put(jstl_bloomfilter_t filter, int64_t key) {
+    if (!filter) return;
+    static_cast<BlockedBloomFilter*>(filter)->put(key);
+}
+
+void jstl_bloomfilter_put_all(jstl_bloomfilter_t filter, const int64_t* keys, size_t n) {
+    if (!filter || !keys) return;
+    BlockedBloomFilter* bf = static_cast<BlockedBloomFilter*>(filter);
+    for (size_t i = 0; i < n; i++) {
+        bf->put(keys[i]);
+    }
+}
+
+int jstl_bloomfilter_might_contain(jstl_bloomfilter_t filter, int64_t key) {
+    if (!filter) return 0;
+    return static_cast<BlockedBloomFilter*>(filter)->might_contain(key) ? 1 : 0;
+}
+
+size_t jstl_bloomfilter_might_contain_all(jstl_bloomfilter_t filter, const int64_t* keys,
+                                          size_t n, uint8_t* results) {
+    if (!filter || !keys || !results) return 0;
+    return static_cast<BlockedBloomFilter*>(filter)->might_contain_all(keys, n, results);
+}
+
+void jstl_bloomfilter_clear(jstl_bloomfilter_t filter) {
+    if (!filter) return;
+    static_cast<BlockedBloomFilter*>(filter)->clear();
+}
+
+size_t jstl_bloomfilter_bit_size(jstl_bloomfilter_t filter) {
+    if (!filter) return 0;
+    return static_cast<BlockedBloomFilter*>(filter)->bit_size();
+}
+
+int jstl_bloomfilter_hash_count(jstl_bloomfilter_t filter) {
+    if (!filter) return 0;
+    return static_cast<BlockedBloomFilter*>(filter)->hash_count();
+}
@@ -0,0 +1,368 @@
+#include "jstl_cache.h"
+#include "jstl_hash.h"
+#include <algorithm>
+#include <deque>
+#include <memory>
+#include <unordered_map>
+#include <utility>
+#include <vector>
+
+static const uint32_t NIL = UINT32_MAX;
+
+// Queues an entry can be on. LRU uses WINDOW only; W-TinyLFU puts new
+// entries in a small LRU window, then in a segmented LRU main area.
+enum Queue : uint8_t { WINDOW = 0, PROBATION = 1, PROTECTED = 2 };
+
+struct Node {
+    int64_t key;
+    int64_t value;
+    uint32_t prev;
+    uint32_t next;
+    uint8_t queue;
+};
+
+struct LruList {
+    uint32_t head = NIL;  // least recently used
+    uint32_t tail = NIL;  // most recently used
+    size_t size = 0;
+};
+
+// Count-min sketch of 4-bit counters, 16 per word. All counters are halved
+// after 10 * capacity increments so the history follows changing workloads.
+class FrequencySketch {
+public:
+    explicit FrequencySketch(size_t capacity) {
+        // One word of 16 counters per entry, rounded up to a power of two
+        size_t words = 8;
+        while (words < capacity) words <<= 1;
+        table_.assign(words, 0);
+        mask_ = words * 16 - 1;
+        sample_size_ = 10 * std::max<size_t>(capacity, 1);
+    }
+
+    void increment(int64_t key) {
+        uint64_t h = jstl::mix64(static_cast<uint64_t>(key));
+        bool added = false;
+        for (int i = 0; i < 4; i++) {
+            size_t idx = index_of(h, i);
+            uint64_t& word = table_[idx >> 4];
+            int shift = static_cast<int>(idx & 15) * 4;
+            if (((word >> shift) & 15) < 15) {
+                word += 1ULL << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions_ >= sample_size_) {
+            halve();
+        }
+    }
+
+    int frequency(int64_t key) const {
+        uint64_t h = jstl::mix64(static_cast<uint64_t>(key));
+        int freq = 15;
+        for (int i = 0; i < 4; i++) {
+            size_t idx = index_of(h, i);
+            int shift = static_cast<int>(idx & 15) * 4;
+            freq = std::min(freq, static_cast<int>((table_[idx >> 4] >> shift) & 15));
+        }
+        return freq;
+    }
+
+private:
+    size_t index_of(uint64_t h, int i) const {
+        uint64_t step = (h >> 32) | 1;
+        return static_cast<size_t>((h + i * step) & mask_);
+    }
+
+    void halve() {
+        for (uint64_t& word : table_) {
+            word = (word >> 1) & 0x7777777777777777ULL;
+        }
+        additions_ /= 2;
+    }
+
+    std::vector<uint64_t> table_;
+    uint64_t mask_;
+    size_t sample_size_;
+    size_t additions_ = 0;
+};
+
+// C++ bounded cache: entries live in a node pool linked into LRU lists,
+// indexed by key
+struct Cache {
+    size_t capacity;
+    int policy;
+    size_t window_max;
+    size_t protected_max;
+    std::unordered_map<int64_t, uint32_t> index;
+    std::vector<Node> nodes;
+    uint32_t free_head = NIL;  // unused nodes, chained through next
+    LruList lists[3];
+    std::unique_ptr<FrequencySketch> sketch;
+    uint64_t hits = 0;
+    uint64_t misses = 0;
+    uint64_t evictions = 0;
+    bool recording = false;
+    std::deque<std::pair<int64_t, int64_t>> evicted;
+};
+
+static void unlink(Cache* c, uint32_t i) {
+    Node& n = c->nodes[i];
+    LruList& list = c->lists[n.queue];
+    if (n.prev != NIL) c->nodes[n.prev].next = n.next; else list.head = n.next;
+    if (n.next != NIL) c->nodes[n.next].prev = n.prev; else list.tail = n.prev;
+    list.size--;
+}
+
+static void push_tail(Cache* c, uint32_t i, Queue queue) {
+    Node& n = c->nodes[i];
+    LruList& list = c->lists[queue];
+    n.queue = queue;
+    n.prev = list.tail;
+    n.next = NIL;
+    if (list.tail != NIL) c->nodes[list.tail].next = i; else list.head = i;
+    list.tail = i;
+    list.size++;
+}
+
+static void move_to(Cache* c, uint32_t i, Queue queue) {
+    unlink(c, i);
+    push_tail(c, i, queue);
+}
+
+static void release(Cache* c, uint32_t i) {
+    c->nodes[i].next = c->free_head;
+    c->free_head = i;
+}
+
+static void evict(Cache* c, uint32_t i) {
+    Node& n = c->nodes[i];
+    unlink(c, i);
+    c->index.erase(n.key);
+    c->evictions++;
+    if (c->recording) {
+        c->evicted.emplace_back(n.key, n.value);
+    }
+    release(c, i);
+}
+
+// Record a use of an existing entry
+static void on_access(Cache* c, uint32_t i) {
+    Node& n = c->nodes[i];
+    if (c->policy == JSTL_CACHE_LRU) {
+        move_to(c, i, WINDOW);
+        return;
+    }
+    c->sketch->increment(n.key);
+    if (n.queue == PROBATION) {
+        move_to(c, i, PROTECTED);
+        if (c->lists[PROTECTED].size > c->protected_max) {
+            move_to(c, c->lists[PROTECTED].head, PROBATION);
+        }
+    } else {
+        move_to(c, i, static_cast<Queue>(n.queue));
+    }
+}
+
+// Bring the cache back within capacity after an insert
+static void evict_excess(Cache* c) {
+    if (c->policy == JSTL_CACHE_LRU) {
+        while (c->index.size() > c->capacity) {
+            evict(c, c->lists[WINDOW].head);
+        }
+        return;
+    }
+    // The entry pushed out of the window competes with the main area's LRU
+    // victim; the candidate is admitted only if it has been used more often
+    uint32_t candidate = NIL;
+    if (c->lists[WINDOW].size > c->window_max) {
+        candidate = c->lists[WINDOW].head;
+        move_to(c, candidate, PROBATION);
+    }
+    while (c->index.size() > c->capacity) {
+        uint32_t victim = c->lists[PROBATION].head;
+        if (victim == NIL) victim = c->lists[PROTECTED].head;
+        if (victim == NIL) victim = c->lists[WINDOW].head;
+        if (candidate != NIL && candidate != victim &&
+            c->sketch->frequency(c->nodes[candidate].key) <= c->sketch->frequency(c->nodes[victim].key)) {
+            evict(c, candidate);
+        } else {
+            evict(c, victim);
+        }
+        candidate = NIL;
+    }
+}
+
+static uint32_t lookup(Cache* c, int64_t key) {
+    auto it = c->index.find(key);
+    if (it == c->index.end()) {
+        // The frequency is recorded when the missing entry is put
+        c->misses++;
+        return NIL;
+    }
+    c->hits++;
+    on_access(c, it->second);
+    return it->second;
+}
+
+extern "C" {
+
+jstl_cache_t jstl_cache_create(size_t capacity, int policy) {
+    if (capacity == 0 || capacity >= NIL) return nullptr;
+    if (policy != JSTL_CACHE_LRU && policy != JSTL_CACHE_W_TINY_LFU) return nullptr;
+    try {
+        std::unique_ptr<Cache> c(new Cache());
+        c->capacity = capacity;
+        c->policy = policy;
+        // 1% window, main area split 20% probation / 80% protected
+        c->window_max = std::max<size_t>(1, capacity / 100);
+        c->protected_max = (capacity - std::min(capacity, c->window_max)) * 8 / 10;
+        if (policy == JSTL_CACHE_W_TINY_LFU) {
+            c->sketch.reset(new FrequencySketch(capacity));
+        }
+        return c.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_cache_destroy(jstl_cache_t cache) {
+    if (cache) {
+        delete static_cast<Cache*>(cache);
+    }
+}
+
+size_t jstl_cache_entry_bytes() {
+    // Pool node, hash node (entry + next pointer + allocator header),
+    // bucket slot and a word of frequency counters
+    return sizeof(Node) + sizeof(std::pair<const int64_t, uint32_t>) + 3 * sizeof(void*) + sizeof(uint64_t);
+}
+
+int jstl_cache_get(jstl_cache_t cache, int64_t key, int64_t* value) {
+    if (!cache || !value) return 0;
+    Cache* c = static_cast<Cache*>(cache);
+    uint32_t i = lookup(c, key);
+    if (i == NIL) return 0;
+    *value = c->nodes[i].value;
+    return 1;
+}
+
+int64_t jstl_cache_get_or_default(jstl_cache_t cache, int64_t key, int64_t default_value) {
+    if (!cache) return default_value;
+    Cache* c = static_cast<Cache*>(cache);
+    uint32_t i = lookup(c, key);
+    return i == NIL ? default_value : c->nodes[i].value;
+}
+
+int jstl_cache_contains_key(jstl_cache_t cache, int64_t key) {
+    if (!cache) return 0;
+    Cache* c = static_cast<Cache*>(cache);
+    return c->index.find(key) != c->index.end() ? 1 : 0;
+}
+
+int64_t jstl_cache_put(jstl_cache_t cache, int64_t key, int64_t value) {
+    if (!cache) return -1;
+    Cache* c = static_cast<Cache*>(cache);
+    try {
+        auto it = c->index.find(key);
+        if (it != c->index.end()) {
+            c->nodes[it->second].value = value;
+            on_access(c, it->second);
+            return static_cast<int64_t>(c->evicted.size());
+        }
+        uint32_t i;
+        if (c->free_head != NIL) {
+            i = c->free_head;
+            c->free_head = c->nodes[i].next;
+        } else {
+            c->nodes.push_back(Node());
+            i = static_cast<uint32_t>(c->nodes.size() - 1);
+        }
+        try {
+            c->index.emplace(key, i);
+        } catch (...) {
+            release(c, i);
+            throw;
+        }
+        c->nodes[i].key = key;
+        c->nodes[i].value = value;
+        push_tail(c, i, WINDOW);
+        if (c->sketch) c->sketch->increment(key);
+        evict_excess(c);
+        return static_cast<int64_t>(c->evicted.size());
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_cache_remove(jstl_cache_t cache, int64_t key) {
+    if (!cache) return 0;
+    Cache* c = static_cast<Cache*>(cache);
+    auto it = c->index.find(key);
+    if (it == c->index.end()) return 0;
+    uint32_t i = it->second;
+    c->index.erase(it);
+    unlink(c, i);
+    release(c, i);
+    return 1;
+}
+
+void jstl_cache_clear(jstl_cache_t cache) {
+    if (!cache) return;
+    Cache* c = static_cast<Cache*>(cache);
+    c->index.clear();
+    c->nodes.clear();
+    c->free_head = NIL;
+    for (LruList& list : c->lists) {
+        list = LruList();
+    }
+    c->evicted.clear();
+}
+
+size_t jstl_cache_size(jstl_cache_t cache) {
+    if (!cache) return 0;
+    return static_cast<Cache*>(cache)->index.size();
+}
+
+size_t jstl_cache_capacity(jstl_cache_t cache) {
+    if (!cache) return 0;
+    return static_cast<Cache*>(cache)->capacity;
+}
+
+uint64_t jstl_cache_hit_count(jstl_cache_t cache) {
+    if (!cache) return 0;
+    return static_cast<Cache*>(cache)->hits;
+}
+
+uint64_t jstl_cache_miss_count(jstl_cache_t cache) {
+    if (!cache) return 0;
+    return static_cast<Cache*>(cache)->misses;
+}
+
+uint64_t jstl_cache_eviction_count(jstl_cache_t cache) {
+    if (!cache) return 0;
+    return static_cast<Cache*>(cache)->evictions;
+}
+
+void jstl_cache_record_evictions(jstl_cache_t cache, int enabled) {
+    if (!cache) return;
+    Cache* c = static_cast<Cache*>(cache);
+    c->recording = enabled != 0;
+    if (!c->recording) {
+        c->evicted.clear();
+    }
+}
+
+size_t jstl_cache_drain_evictions(jstl_cache_t cache, int64_t* keys, int64_t* values, size_t capacity) {
+    if (!cache || !keys || !values) return 0;
+    Cache* c = static_cast<Cache*>(cache);
+    size_t n = std::min(capacity, c->evicted.size());
+    for (size_t i = 0; i < n; i++) {
+        keys[i] = c->evicted.front().first;
+        values[i] = c->evicted.front().second;
+        c->evicted.pop_front();
+    }
+    return n;
+}
+
+} // extern "C"
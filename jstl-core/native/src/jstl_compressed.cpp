@@ -0,0 +1,261 @@
+#include "jstl_compressed.h"
+#include <algorithm>
+#include <array>
+#include <cstring>
+#include <utility>
+#include <vector>
+
+static const size_t BLOCK = 128;
+
+// A sealed block: value[0] = first, value[i] = value[i - 1] + min_delta +
+// packed[i - 1] for the 127 packed differences, all in wrapping uint64
+// arithmetic so any sequence round-trips. Differences start at word offset
+// in the shared packed vector.
+struct Block {
+    uint64_t first;
+    uint64_t min_delta;
+    uint64_t offset : 56;
+    uint64_t bits : 8;
+};
+
+// Sealed blocks plus an uncompressed tail of fewer than BLOCK values. The
+// packed words carry one spare word at the end so unpacking may always
+// read the word after the one a value starts in.
+struct CompressedLongList {
+    std::vector<Block> blocks;
+    std::vector<uint64_t> packed = std::vector<uint64_t>(1, 0);
+    std::vector<int64_t> tail;
+    size_t size = 0;
+};
+
+static constexpr uint64_t low_mask(unsigned bits) {
+    return bits >= 64 ? ~0ULL : (1ULL << bits) - 1;
+}
+
+// The index-th bits-wide value from words, for single lookups
+static inline uint64_t unpack(const uint64_t* words, unsigned bits, size_t index) {
+    size_t position = index * bits;
+    const uint64_t* w = words + (position >> 6);
+    unsigned shift = position & 63;
+    uint64_t lo = w[0] >> shift;
+    uint64_t hi = (w[1] << 1) << (63 - shift);
+    return (lo | hi) & low_mask(bits);
+}
+
+// Seal BLOCK values into a new block. Either the block is added or, if an
+// allocation fails, the list is left exactly as it was.
+static void seal(CompressedLongList* c, const int64_t* values) {
+    uint64_t deltas[BLOCK - 1];
+    uint64_t min_delta = static_cast<uint64_t>(values[1]) - static_cast<uint64_t>(values[0]);
+    for (size_t i = 1; i < BLOCK; i++) {
+        deltas[i - 1] = static_cast<uint64_t>(values[i]) - static_cast<uint64_t>(values[i - 1]);
+        if (static_cast<int64_t>(deltas[i - 1]) < static_cast<int64_t>(min_delta)) min_delta = deltas[i - 1];
+    }
+    uint64_t widest = 0;
+    for (size_t i = 0; i < BLOCK - 1; i++) {
+        deltas[i] -= min_delta;
+        widest |= deltas[i];
+    }
+    unsigned bits = widest == 0 ? 0 : 64 - __builtin_clzll(widest);
+    size_t words = ((BLOCK - 1) * bits + 63) / 64;
+
+    // Reserve the block first so that nothing can throw once packed has grown.
+    // The spare word becomes this block's first word.
+    c->blocks.reserve(c->blocks.size() + 1);
+    size_t offset = c->packed.size() - 1;
+    c->packed.resize(offset + words + 1, 0);
+    uint64_t* w = c->packed.data() + offset;
+    for (size_t i = 0; i < BLOCK - 1 && bits > 0; i++) {
+        size_t position = i * bits;
+        unsigned shift = position & 63;
+        w[position >> 6] |= deltas[i] << shift;
+        if (shift + bits > 64) w[(position >> 6) + 1] |= deltas[i] >> (64 - shift);
+    }
+    Block block;
+    block.first = static_cast<uint64_t>(values[0]);
+    block.min_delta = min_delta;
+    block.offset = offset;
+    block.bits = bits;
+    c->blocks.push_back(block);
+}
+
+// The value that fills the tail is sealed together with a copy of it, so a
+// failed seal leaves both the tail and the size untouched
+static void append(CompressedLongList* c, int64_t value) {
+    if (c->tail.size() == BLOCK - 1) {
+        int64_t values[BLOCK];
+        std::copy(c->tail.begin(), c->tail.end(), values);
+        values[BLOCK - 1] = value;
+        seal(c, values);
+        c->tail.clear();
+    } else {
+        c->tail.push_back(value);
+    }
+    c->size++;
+}
+
+// The I-th BITS-wide difference of a block; word index and shift are
+// compile-time constants, so a whole block unrolls into straight-line code
+template <unsigned BITS, size_t I>
+static inline uint64_t unpack_at(const uint64_t* w) {
+    constexpr size_t position = I * BITS;
+    constexpr unsigned shift = position & 63;
+    uint64_t v = w[position >> 6] >> shift;
+    if constexpr (shift + BITS > 64) v |= w[(position >> 6) + 1] << (64 - shift);
+    return v & low_mask(BITS);
+}
+
+template <unsigned BITS, size_t... I>
+static void decode_packed(const uint64_t* w, uint64_t first, uint64_t min_delta, int64_t* out,
+                          std::index_sequence<I...>) {
+    uint64_t value = first;
+    out[0] = static_cast<int64_t>(value);
+    ((value += min_delta + unpack_at<BITS, I>(w), out[I + 1] = static_cast<int64_t>(value)), ...);
+}
+
+template <unsigned BITS>
+static void decode_packed(const uint64_t* w, uint64_t first, uint64_t min_delta, int64_t* out) {
+    decode_packed<BITS>(w, first, min_delta, out, std::make_index_sequence<BLOCK - 1>());
+}
+
+typedef void (*Decoder)(const uint64_t*, uint64_t, uint64_t, int64_t*);
+
+template <size_t... BITS>
+static constexpr std::array<Decoder, sizeof...(BITS)> make_decoders(std::index_sequence<BITS...>) {
+    return {{decode_packed<static_cast<unsigned>(BITS)>...}};
+}
+
+// One unrolled decoder per width, 0 to 64 bits
+static constexpr std::array<Decoder, 65> DECODERS = make_decoders(std::make_index_sequence<65>());
+
+// Decode all BLOCK values of a sealed block
+static void decode_block(const CompressedLongList* c, const Block& b, int64_t* out) {
+    DECODERS[b.bits](c->packed.data() + b.offset, b.first, b.min_delta, out);
+}
+
+extern "C" {
+
+jstl_compressed_list_t jstl_compressed_list_create() {
+    try {
+        CompressedLongList* c = new CompressedLongList();
+        c->tail.reserve(BLOCK);
+        return c;
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_compressed_list_destroy(jstl_compressed_list_t list) {
+    if (list) {
+        delete static_cast<CompressedLongList*>(list);
+    }
+}
+
+int jstl_compressed_list_add(jstl_compressed_list_t list, int64_t value) {
+    if (!list) return 0;
+    try {
+        append(static_cast<CompressedLongList*>(list), value);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_compressed_list_add_all(jstl_compressed_list_t list, const int64_t* values, size_t count) {
+    if (!list) return 0;
+    CompressedLongList* c = static_cast<CompressedLongList*>(list);
+    try {
+        size_t i = 0;
+        // Fill the tail up to a block boundary, then seal whole blocks straight from the input
+        while (i < count && !c->tail.empty()) {
+            append(c, values[i++]);
+        }
+        for (; count - i >= BLOCK; i += BLOCK) {
+            seal(c, values + i);
+            c->size += BLOCK;
+        }
+        while (i < count) {
+            append(c, values[i++]);
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int64_t jstl_compressed_list_get(jstl_compressed_list_t list, size_t index) {
+    if (!list) return 0;
+    CompressedLongList* c = static_cast<CompressedLongList*>(list);
+    if (index >= c->size) return 0;
+    size_t block = index / BLOCK;
+    if (block == c->blocks.size()) {
+        return c->tail[index % BLOCK];
+    }
+    const Block& b = c->blocks[block];
+    size_t r = index % BLOCK;
+    const uint64_t* w = c->packed.data() + b.offset;
+    uint64_t sum = 0;
+    for (size_t i = 0; i < r && b.bits; i++) {
+        sum += unpack(w, b.bits, i);
+    }
+    return static_cast<int64_t>(b.first + r * b.min_delta + sum);
+}
+
+size_t jstl_compressed_list_decode(jstl_compressed_list_t list, size_t from, size_t count, int64_t* out) {
+    if (!list || from >= static_cast<CompressedLongList*>(list)->size) return 0;
+    CompressedLongList* c = static_cast<CompressedLongList*>(list);
+    count = std::min(count, c->size - from);
+    size_t written = 0;
+    int64_t scratch[BLOCK];
+    while (written < count) {
+        size_t index = from + written;
+        size_t block = index / BLOCK;
+        size_t r = index % BLOCK;
+        size_t n = std::min(BLOCK - r, count - written);
+        if (block == c->blocks.size()) {
+            std::memcpy(out + written, c->tail.data() + r, n * sizeof(int64_t));
+        } else if (r == 0 && n == BLOCK) {
+            decode_block(c, c->blocks[block], out + written);
+        } else {
+            decode_block(c, c->blocks[block], scratch);
+            std::memcpy(out + written, scratch + r, n * sizeof(int64_t));
+        }
+        written += n;
+    }
+    return written;
+}
+
+size_t jstl_compressed_list_size(jstl_compressed_list_t list) {
+    if (!list) return 0;
+    return static_cast<CompressedLongList*>(list)->size;
+}
+
+void jstl_compressed_list_clear(jstl_compressed_list_t list) {
+    if (!list) return;
+    CompressedLongList* c = static_cast<CompressedLongList*>(list);
+    c->blocks.clear();
+    c->packed.assign(1, 0);
+    c->tail.clear();
+    c->size = 0;
+}
+
+int jstl_compressed_list_trim_to_size(jstl_compressed_list_t list) {
+    if (!list) return 0;
+    CompressedLongList* c = static_cast<CompressedLongList*>(list);
+    try {
+        c->blocks.shrink_to_fit();
+        c->packed.shrink_to_fit();
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_compressed_list_size_in_bytes(jstl_compressed_list_t list) {
+    if (!list) return 0;
+    CompressedLongList* c = static_cast<CompressedLongList*>(list);
+    return sizeof(CompressedLongList) + c->blocks.capacity() * sizeof(Block)
+            + c->packed.capacity() * sizeof(uint64_t) + c->tail.capacity() * sizeof(int64_t);
+}
+
+} // extern "C"
@@ -0,0 +1,372 @@
+#include "jstl_expiringmap.h"
+#include <algorithm>
+#include <deque>
+#include <memory>
+#include <unordered_map>
+#include <utility>
+#include <vector>
+
+// Hierarchical timer wheel: level l has 64 slots, each 64^l time units wide,
+// so seven levels span 2^42 units (about 139 years in milliseconds). An entry
+// sits in the lowest level whose window reaches its expiry; when the wheel
+// turns past a slot, its entries are either expired or moved down a level.
+static const int LEVELS = 7;
+static const int SLOT_BITS = 6;
+static const uint32_t SLOTS = 1u << SLOT_BITS;
+
+// Slots the wheel has turned past are spliced onto this list and checked a
+// few entries per operation, so no single call pays for a large expiry burst
+static const uint32_t PENDING = LEVELS * SLOTS;
+static const uint32_t SENTINELS = PENDING + 1;
+static const size_t EXPIRE_BATCH = 64;
+
+static const uint32_t NIL = UINT32_MAX;
+
+// Nodes [0, SENTINELS) are list heads; the rest are entries. Every list is
+// circular, so entries can be unlinked without knowing which list holds them.
+struct Entry {
+    int64_t key;
+    int64_t value;
+    int64_t expires;
+    uint32_t prev;
+    uint32_t next;
+};
+
+struct ExpiringMap {
+    std::unordered_map<int64_t, uint32_t> index;
+    std::vector<Entry> nodes;
+    uint32_t free_head = NIL;  // unused entries, chained through next
+    int64_t current;           // latest time seen; never moves backwards
+    uint64_t expirations = 0;
+    bool recording = false;
+    std::deque<std::pair<int64_t, int64_t>> expired;
+};
+
+static void reset_lists(ExpiringMap* m) {
+    m->nodes.assign(SENTINELS, Entry());
+    for (uint32_t s = 0; s < SENTINELS; s++) {
+        m->nodes[s].prev = s;
+        m->nodes[s].next = s;
+    }
+    m->free_head = NIL;
+}
+
+static void unlink(ExpiringMap* m, uint32_t i) {
+    Entry& e = m->nodes[i];
+    m->nodes[e.prev].next = e.next;
+    m->nodes[e.next].prev = e.prev;
+}
+
+static void link_tail(ExpiringMap* m, uint32_t list, uint32_t i) {
+    uint32_t tail = m->nodes[list].prev;
+    m->nodes[i].prev = tail;
+    m->nodes[i].next = list;
+    m->nodes[tail].next = i;
+    m->nodes[list].prev = i;
+}
+
+// Move every entry of list `from` to the end of list `to` in O(1)
+static void splice(ExpiringMap* m, uint32_t from, uint32_t to) {
+    uint32_t first = m->nodes[from].next;
+    if (first == from) return;
+    uint32_t last = m->nodes[from].prev;
+    m->nodes[from].next = from;
+    m->nodes[from].prev = from;
+    uint32_t tail = m->nodes[to].prev;
+    m->nodes[tail].next = first;
+    m->nodes[first].prev = tail;
+    m->nodes[last].next = to;
+    m->nodes[to].prev = last;
+}
+
+static void schedule(ExpiringMap* m, uint32_t i) {
+    int64_t expires = m->nodes[i].expires;
+    if (expires <= m->current) {
+        link_tail(m, PENDING, i);
+        return;
+    }
+    for (int level = 0; level < LEVELS; level++) {
+        int shift = level * SLOT_BITS;
+        int64_t tick = expires >> shift;
+        int64_t now_tick = m->current >> shift;
+        uint64_t ahead = static_cast<uint64_t>(tick) - static_cast<uint64_t>(now_tick);
+        if (ahead < SLOTS || level == LEVELS - 1) {
+            // Beyond the top level's reach: park in its last slot and retry from there
+            if (ahead >= SLOTS) tick = now_tick + (SLOTS - 1);
+            link_tail(m, level * SLOTS + static_cast<uint32_t>(tick & (SLOTS - 1)), i);
+            return;
+        }
+    }
+}
+
+// Turn the wheel to now, moving every slot passed over onto the pending list
+static void advance(ExpiringMap* m, int64_t now) {
+    if (now <= m->current) return;
+    int64_t previous = m->current;
+    m->current = now;
+    for (int level = 0; level < LEVELS; level++) {
+        int shift = level * SLOT_BITS;
+        int64_t from = previous >> shift;
+        int64_t to = now >> shift;
+        if (from == to) break;  // higher levels have not turned either
+        uint64_t steps = std::min<uint64_t>(static_cast<uint64_t>(to) - static_cast<uint64_t>(from), SLOTS);
+        for (uint64_t k = 1; k <= steps; k++) {
+            uint32_t slot = static_cast<uint32_t>((from + static_cast<int64_t>(k)) & (SLOTS - 1));
+            splice(m, level * SLOTS + slot, PENDING);
+        }
+    }
+}
+
+static void release(ExpiringMap* m, uint32_t i) {
+    m->nodes[i].next = m->free_head;
+    m->free_head = i;
+}
+
+// Reclaim a due entry, still linked into its list. The expiration is
+// buffered first, so running out of memory leaves the entry in place.
+static void expire(ExpiringMap* m, uint32_t i) {
+    Entry& e = m->nodes[i];
+    if (m->recording) {
+        m->expired.emplace_back(e.key, e.value);
+    }
+    unlink(m, i);
+    m->index.erase(e.key);
+    m->expirations++;
+    release(m, i);
+}
+
+// Check up to budget pending entries: expire the due ones, reschedule the rest
+static size_t drain(ExpiringMap* m, size_t budget) {
+    size_t reclaimed = 0;
+    for (size_t n = 0; n < budget; n++) {
+        uint32_t i = m->nodes[PENDING].next;
+        if (i == PENDING) break;
+        if (m->nodes[i].expires <= m->current) {
+            expire(m, i);
+            reclaimed++;
+        } else {
+            unlink(m, i);
+            schedule(m, i);
+        }
+    }
+    return reclaimed;
+}
+
+static size_t maintain(ExpiringMap* m, int64_t now, size_t budget) {
+    advance(m, now);
+    return drain(m, budget);
+}
+
+static int64_t expiry_after(const ExpiringMap* m, int64_t ttl) {
+    return ttl > INT64_MAX - m->current ? INT64_MAX : m->current + ttl;
+}
+
+// Index of key's entry if it is live, expiring it on the spot if it is due
+static uint32_t find_live(ExpiringMap* m, int64_t key) {
+    auto it = m->index.find(key);
+    if (it == m->index.end()) return NIL;
+    uint32_t i = it->second;
+    if (m->nodes[i].expires <= m->current) {
+        expire(m, i);
+        return NIL;
+    }
+    return i;
+}
+
+extern "C" {
+
+jstl_expiringmap_t jstl_expiringmap_create(int64_t now) {
+    try {
+        std::unique_ptr<ExpiringMap> m(new ExpiringMap());
+        m->current = now;
+        reset_lists(m.get());
+        return m.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_expiringmap_destroy(jstl_expiringmap_t map) {
+    if (map) {
+        delete static_cast<ExpiringMap*>(map);
+    }
+}
+
+int jstl_expiringmap_put(jstl_expiringmap_t map, int64_t key, int64_t value, int64_t ttl, int64_t now) {
+    if (!map) return 0;
+    try {
+        ExpiringMap* m = static_cast<ExpiringMap*>(map);
+        maintain(m, now, EXPIRE_BATCH);
+        auto it = m->index.find(key);
+        if (ttl <= 0) {
+            if (it != m->index.end()) {
+                unlink(m, it->second);
+                release(m, it->second);
+                m->index.erase(it);
+            }
+            return 1;
+        }
+        uint32_t i;
+        if (it != m->index.end()) {
+            i = it->second;
+            unlink(m, i);
+        } else {
+            if (m->free_head != NIL) {
+                i = m->free_head;
+                m->free_head = m->nodes[i].next;
+            } else {
+                if (m->nodes.size() >= NIL) return 0;
+                m->nodes.push_back(Entry());
+                i = static_cast<uint32_t>(m->nodes.size() - 1);
+            }
+            try {
+                m->index.emplace(key, i);
+            } catch (...) {
+                release(m, i);
+                throw;
+            }
+            m->nodes[i].key = key;
+        }
+        m->nodes[i].value = value;
+        m->nodes[i].expires = expiry_after(m, ttl);
+        schedule(m, i);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_expiringmap_get(jstl_expiringmap_t map, int64_t key, int64_t* value, int64_t now) {
+    if (!map || !value) return -1;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    try {
+        maintain(m, now, EXPIRE_BATCH);
+        uint32_t i = find_live(m, key);
+        if (i == NIL) return 0;
+        *value = m->nodes[i].value;
+        return 1;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_expiringmap_contains_key(jstl_expiringmap_t map, int64_t key, int64_t now) {
+    if (!map) return -1;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    try {
+        maintain(m, now, EXPIRE_BATCH);
+        return find_live(m, key) != NIL ? 1 : 0;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_expiringmap_remove(jstl_expiringmap_t map, int64_t key, int64_t now) {
+    if (!map) return -1;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    try {
+        maintain(m, now, EXPIRE_BATCH);
+        uint32_t i = find_live(m, key);
+        if (i == NIL) return 0;
+        unlink(m, i);
+        m->index.erase(key);
+        release(m, i);
+        return 1;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_expiringmap_set_ttl(jstl_expiringmap_t map, int64_t key, int64_t ttl, int64_t now) {
+    if (!map) return -1;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    try {
+        maintain(m, now, EXPIRE_BATCH);
+        uint32_t i = find_live(m, key);
+        if (i == NIL) return 0;
+        unlink(m, i);
+        if (ttl <= 0) {
+            m->index.erase(key);
+            release(m, i);
+            return 1;
+        }
+        m->nodes[i].expires = expiry_after(m, ttl);
+        schedule(m, i);
+        return 1;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int64_t jstl_expiringmap_time_to_live(jstl_expiringmap_t map, int64_t key, int64_t now) {
+    if (!map) return -2;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    try {
+        maintain(m, now, EXPIRE_BATCH);
+        uint32_t i = find_live(m, key);
+        return i == NIL ? -1 : m->nodes[i].expires - m->current;
+    } catch (...) {
+        return -2;
+    }
+}
+
+size_t jstl_expiringmap_size(jstl_expiringmap_t map, int64_t now) {
+    if (!map) return SIZE_MAX;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    try {
+        maintain(m, now, SIZE_MAX);
+        return m->index.size();
+    } catch (...) {
+        return SIZE_MAX;
+    }
+}
+
+void jstl_expiringmap_clear(jstl_expiringmap_t map) {
+    if (!map) return;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    m->index.clear();
+    reset_lists(m);
+    m->expired.clear();
+}
+
+size_t jstl_expiringmap_stored_count(jstl_expiringmap_t map) {
+    if (!map) return 0;
+    return static_cast<ExpiringMap*>(map)->index.size();
+}
+
+size_t jstl_expiringmap_clean_up(jstl_expiringmap_t map, int64_t now) {
+    if (!map) return SIZE_MAX;
+    try {
+        return maintain(static_cast<ExpiringMap*>(map), now, SIZE_MAX);
+    } catch (...) {
+        return SIZE_MAX;
+    }
+}
+
+uint64_t jstl_expiringmap_expired_count(jstl_expiringmap_t map) {
+    if (!map) return 0;
+    return static_cast<ExpiringMap*>(map)->expirations;
+}
+
+void jstl_expiringmap_record_expirations(jstl_expiringmap_t map, int enabled) {
+    if (!map) return;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    m->recording = enabled != 0;
+    if (!m->recording) {
+        m->expired.clear();
+    }
+}
+
+size_t jstl_expiringmap_drain_expirations(jstl_expiringmap_t map, int64_t* keys, int64_t* values, size_t capacity) {
+    if (!map || !keys || !values) return 0;
+    ExpiringMap* m = static_cast<ExpiringMap*>(map);
+    size_t n = std::min(capacity, m->expired.size());
+    for (size_t i = 0; i < n; i++) {
+        keys[i] = m->expired.front().first;
+        values[i] = m->expired.front().second;
+        m->expired.pop_front();
+    }
+    return n;
+}
+
+} // extern "C"
@@ -0,0 +1,331 @@
+#include "jstl_frozen.h"
+#include "jstl_hash.h"
+#include "jstl_types.h"
+#include <algorithm>
+#include <memory>
+#include <vector>
+
+namespace {
+
+// PTHash-style perfect hash. Keys are split into buckets of about three; each
+// bucket gets a pilot, found by trial, that sends all its keys to free slots.
+// A lookup hashes once, reads the bucket's pilot and computes the slot, so it
+// touches at most two cache lines. Slots are kept at 97% load, which keeps
+// the pilot search short while wasting only 3% of the slot array.
+class PerfectHash {
+public:
+    // Assign every key a distinct slot; slot_of[i] receives keys[i]'s slot.
+    // Keys must be distinct.
+    bool build(const std::vector<int64_t>& keys, std::vector<uint64_t>& slot_of) {
+        size_t n = keys.size();
+        if (n >= UINT32_MAX) return false;
+        slots_ = std::max<size_t>(1, n + n / 32 + 1);
+        buckets_ = std::max<size_t>(1, (n + 2) / 3);
+        slot_of.assign(n, 0);
+        for (uint64_t attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            seed_ = jstl::mix64(attempt + 0x5851F42D4C957F2DULL);
+            if (try_build(keys, slot_of)) return true;
+        }
+        return false;
+    }
+
+    uint64_t hash(int64_t key) const {
+        return jstl::mix64(static_cast<uint64_t>(key) ^ seed_);
+    }
+
+    const uint32_t* pilot_of(uint64_t h) const {
+        return &pilots_[bucket_index(h)];
+    }
+
+    // Skewed split as in PTHash: 60% of keys share the first 30% of
+    // buckets. Those dense buckets are placed first, while the table is
+    // nearly empty, leaving small buckets for the crowded end.
+    uint64_t bucket_index(uint64_t h) const {
+        if (buckets_ == 1) return 0;
+        uint32_t x = static_cast<uint32_t>(h >> 32);
+        uint64_t dense = dense_buckets();
+        if (x < DENSE_KEYS) {
+            return jstl::fast_range32(static_cast<uint32_t>(h), dense);
+        }
+        return dense + jstl::fast_range32(static_cast<uint32_t>(h), buckets_ - dense);
+    }
+
+    uint64_t dense_buckets() const {
+        return std::max<uint64_t>(1, buckets_ * 3 / 10);
+    }
+
+    uint64_t slot(uint64_t h, uint32_t pilot) const {
+        uint64_t x = jstl::mix64(h ^ (pilot * 0x9E3779B97F4A7C15ULL));
+        return static_cast<uint64_t>((static_cast<unsigned __int128>(x) * slots_) >> 64);
+    }
+
+    uint64_t slot_of_key(int64_t key) const {
+        uint64_t h = hash(key);
+        return slot(h, *pilot_of(h));
+    }
+
+    size_t slots() const { return slots_; }
+    size_t bytes() const { return pilots_.capacity() * sizeof(uint32_t); }
+
+private:
+    static constexpr uint64_t MAX_ATTEMPTS = 16;
+    static constexpr uint32_t MAX_PILOT = 1u << 22;
+    static constexpr uint32_t DENSE_KEYS = static_cast<uint32_t>(0.6 * 4294967296.0);
+
+    bool try_build(const std::vector<int64_t>& keys, std::vector<uint64_t>& slot_of) {
+        size_t n = keys.size();
+        std::vector<uint64_t> hashes(n);
+        std::vector<uint32_t> start(buckets_ + 1, 0);
+        for (size_t i = 0; i < n; i++) {
+            hashes[i] = hash(keys[i]);
+            start[bucket_of(hashes[i]) + 1]++;
+        }
+        size_t largest = 0;
+        for (size_t b = 0; b < buckets_; b++) {
+            largest = std::max<size_t>(largest, start[b + 1]);
+            start[b + 1] += start[b];
+        }
+        // Key indices grouped by bucket
+        std::vector<uint32_t> members(n);
+        {
+            std::vector<uint32_t> fill(start.begin(), start.end() - 1);
+            for (size_t i = 0; i < n; i++) {
+                members[fill[bucket_of(hashes[i])]++] = static_cast<uint32_t>(i);
+            }
+        }
+        // Buckets by decreasing size: large buckets are placed while the table is empty
+        std::vector<uint32_t> by_size_start(largest + 2, 0);
+        for (size_t b = 0; b < buckets_; b++) {
+            by_size_start[largest - (start[b + 1] - start[b]) + 1]++;
+        }
+        for (size_t s = 0; s <= largest; s++) {
+            by_size_start[s + 1] += by_size_start[s];
+        }
+        std::vector<uint32_t> order(buckets_);
+        for (size_t b = 0; b < buckets_; b++) {
+            order[by_size_start[largest - (start[b + 1] - start[b])]++] = static_cast<uint32_t>(b);
+        }
+
+        pilots_.assign(buckets_, 0);
+        std::vector<uint64_t> taken((slots_ + 63) / 64, 0);
+        std::vector<uint64_t> positions(largest);
+        for (uint32_t b : order) {
+            uint32_t first = start[b];
+            uint32_t size = start[b + 1] - first;
+            if (size == 0) break;
+            uint32_t pilot = 0;
+            for (;; pilot++) {
+                if (pilot == MAX_PILOT) return false;
+                bool ok = true;
+                for (uint32_t k = 0; k < size && ok; k++) {
+                    uint64_t p = slot(hashes[members[first + k]], pilot);
+                    if ((taken[p >> 6] >> (p & 63)) & 1) {
+                        ok = false;
+                        break;
+                    }
+                    for (uint32_t j = 0; j < k; j++) {
+                        if (positions[j] == p) {
+                            ok = false;
+                            break;
+                        }
+                    }
+                    positions[k] = p;
+                }
+                if (ok) break;
+            }
+            pilots_[b] = pilot;
+            for (uint32_t k = 0; k < size; k++) {
+                taken[positions[k] >> 6] |= 1ULL << (positions[k] & 63);
+                slot_of[members[first + k]] = positions[k];
+            }
+        }
+        return true;
+    }
+
+    size_t bucket_of(uint64_t h) const {
+        return static_cast<size_t>(bucket_index(h));
+    }
+
+    uint64_t seed_ = 0;
+    size_t slots_ = 1;
+    size_t buckets_ = 1;
+    std::vector<uint32_t> pilots_;
+};
+
+struct Entry {
+    int64_t key;
+    int64_t value;
+};
+
+inline int64_t key_of(const Entry& e) { return e.key; }
+inline int64_t key_of(int64_t v) { return v; }
+
+// Slots holding key/value entries (maps) or bare keys (sets). Unused slots
+// repeat an existing key: no absent key hashes to the slot a present key
+// owns, so a lookup that lands on an unused slot still sees a mismatch.
+template <typename Slot>
+struct Frozen {
+    PerfectHash ph;
+    std::vector<Slot> slots;
+    size_t size = 0;
+
+    const Slot* find(int64_t key) const {
+        if (size == 0) return nullptr;
+        const Slot& s = slots[ph.slot_of_key(key)];
+        return key_of(s) == key ? &s : nullptr;
+    }
+
+    // Look up keys in groups, prefetching pilots and then slots, so the
+    // cache misses of a group overlap instead of queuing one after another
+    template <typename Visit>
+    size_t find_all(const int64_t* keys, size_t n, Visit visit) const {
+        const size_t group = 16;
+        uint64_t hashes[group];
+        uint64_t positions[group];
+        size_t found = 0;
+        for (size_t base = 0; base < n; base += group) {
+            size_t len = std::min(group, n - base);
+            if (size == 0) {
+                for (size_t i = 0; i < len; i++) visit(base + i, nullptr);
+                continue;
+            }
+            for (size_t i = 0; i < len; i++) {
+                hashes[i] = ph.hash(keys[base + i]);
+                __builtin_prefetch(ph.pilot_of(hashes[i]));
+            }
+            for (size_t i = 0; i < len; i++) {
+                positions[i] = ph.slot(hashes[i], *ph.pilot_of(hashes[i]));
+                __builtin_prefetch(&slots[positions[i]]);
+            }
+            for (size_t i = 0; i < len; i++) {
+                const Slot& s = slots[positions[i]];
+                bool hit = key_of(s) == keys[base + i];
+                found += hit;
+                visit(base + i, hit ? &s : nullptr);
+            }
+        }
+        return found;
+    }
+
+    size_t bytes() const {
+        return sizeof(*this) + ph.bytes() + slots.capacity() * sizeof(Slot);
+    }
+};
+
+using FrozenMap = Frozen<Entry>;
+using FrozenSet = Frozen<int64_t>;
+
+} // namespace
+
+extern "C" {
+
+jstl_frozenmap_t jstl_hashmap_freeze(jstl_hashmap_t map) {
+    if (!map) return nullptr;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->settle();
+        std::unique_ptr<FrozenMap> fm(new FrozenMap());
+        std::vector<int64_t> keys;
+        keys.reserve(hm->map.size());
+        for (const auto& entry : hm->map) {
+            keys.push_back(entry.first);
+        }
+        std::vector<uint64_t> slot_of;
+        if (!fm->ph.build(keys, slot_of)) return nullptr;
+        Entry filler = {keys.empty() ? 0 : keys[0], 0};
+        fm->slots.assign(fm->ph.slots(), filler);
+        size_t i = 0;
+        for (const auto& entry : hm->map) {
+            fm->slots[slot_of[i++]] = {entry.first, entry.second};
+        }
+        fm->size = keys.size();
+        return fm.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_frozenmap_destroy(jstl_frozenmap_t map) {
+    if (map) {
+        delete static_cast<FrozenMap*>(map);
+    }
+}
+
+int64_t jstl_frozenmap_get_or_default(jstl_frozenmap_t map, int64_t key, int64_t default_value) {
+    if (!map) return default_value;
+    const Entry* e = static_cast<const FrozenMap*>(map)->find(key);
+    return e ? e->value : default_value;
+}
+
+int jstl_frozenmap_contains_key(jstl_frozenmap_t map, int64_t key) {
+    if (!map) return 0;
+    return static_cast<const FrozenMap*>(map)->find(key) ? 1 : 0;
+}
+
+size_t jstl_frozenmap_get_all(jstl_frozenmap_t map, const int64_t* keys, size_t n,
+                              int64_t default_value, int64_t* values) {
+    if (!map || !keys || !values) return 0;
+    return static_cast<const FrozenMap*>(map)->find_all(keys, n, [&](size_t i, const Entry* e) {
+        values[i] = e ? e->value : default_value;
+    });
+}
+
+size_t jstl_frozenmap_size(jstl_frozenmap_t map) {
+    if (!map) return 0;
+    return static_cast<const FrozenMap*>(map)->size;
+}
+
+size_t jstl_frozenmap_size_in_bytes(jstl_frozenmap_t map) {
+    if (!map) return 0;
+    return static_cast<const FrozenMap*>(map)->bytes();
+}
+
+jstl_frozenset_t jstl_hashset_freeze(jstl_hashset_t set) {
+    if (!set) return nullptr;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        std::unique_ptr<FrozenSet> fs(new FrozenSet());
+        std::vector<int64_t> keys(hs->set.begin(), hs->set.end());
+        std::vector<uint64_t> slot_of;
+        if (!fs->ph.build(keys, slot_of)) return nullptr;
+        fs->slots.assign(fs->ph.slots(), keys.empty() ? 0 : keys[0]);
+        for (size_t i = 0; i < keys.size(); i++) {
+            fs->slots[slot_of[i]] = keys[i];
+        }
+        fs->size = keys.size();
+        return fs.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_frozenset_destroy(jstl_frozenset_t set) {
+    if (set) {
+        delete static_cast<FrozenSet*>(set);
+    }
+}
+
+int jstl_frozenset_contains(jstl_frozenset_t set, int64_t value) {
+    if (!set) return 0;
+    return static_cast<const FrozenSet*>(set)->find(value) ? 1 : 0;
+}
+
+size_t jstl_frozenset_contains_all(jstl_frozenset_t set, const int64_t* values, size_t n, uint8_t* results) {
+    if (!set || !values || !results) return 0;
+    return static_cast<const FrozenSet*>(set)->find_all(values, n, [&](size_t i, const int64_t* v) {
+        results[i] = v ? 1 : 0;
+    });
+}
+
+size_t jstl_frozenset_size(jstl_frozenset_t set) {
+    if (!set) return 0;
+    return static_cast<const FrozenSet*>(set)->size;
+}
+
+size_t jstl_frozenset_size_in_bytes(jstl_frozenset_t set) {
+    if (!set) return 0;
+    return static_cast<const FrozenSet*>(set)->bytes();
+}
+
+} // extern "C"
@@ -0,0 +1,306 @@
+#include "jstl_groupby.h"
+#include "jstl_types.h"
+#include "jstl_hash.h"
+#include "jstl_parallel.h"
+#include <algorithm>
+#include <atomic>
+#include <memory>
+#include <vector>
+
+// Keys go to one of PARTITIONS tables by the top bits of their hash, so a
+// batch can be scattered by partition and each partition aggregated by one
+// thread; slots within a table are picked by the low bits
+static const int PARTITION_BITS = 8;
+static const size_t PARTITIONS = size_t(1) << PARTITION_BITS;
+static const size_t MIN_TABLE = 16;
+// Below this many rows per thread a batch is aggregated on the calling thread
+static const size_t GROUPBY_GRAIN = 1 << 16;
+// Rows scattered per round, bounding the scatter buffer to 64 MiB
+static const size_t SCATTER_BATCH = 1 << 22;
+static const int ALL_AGGREGATES = JSTL_GROUPBY_COUNT | JSTL_GROUPBY_SUM | JSTL_GROUPBY_MIN | JSTL_GROUPBY_MAX;
+
+// The row count is tracked even when COUNT is not requested: a zero count
+// marks an empty slot
+struct Group {
+    int64_t key;
+    int64_t count;
+    int64_t sum;
+    int64_t min;
+    int64_t max;
+};
+
+struct Table {
+    std::vector<Group> slots;
+    size_t mask = 0;
+    size_t size = 0;
+    size_t limit = 0;  // grow once size reaches this, keeping the load at most 0.5
+
+    void grow() {
+        size_t capacity = slots.empty() ? MIN_TABLE : slots.size() * 2;
+        std::vector<Group> next(capacity, Group{0, 0, 0, 0, 0});
+        size_t next_mask = capacity - 1;
+        for (const Group& g : slots) {
+            if (g.count == 0) continue;
+            size_t i = jstl::mix64(static_cast<uint64_t>(g.key)) & next_mask;
+            while (next[i].count != 0) i = (i + 1) & next_mask;
+            next[i] = g;
+        }
+        slots.swap(next);
+        mask = next_mask;
+        limit = capacity / 2;
+    }
+
+    const Group* find(int64_t key, uint64_t hash) const {
+        if (size == 0) return nullptr;
+        for (size_t i = hash & mask;; i = (i + 1) & mask) {
+            const Group& g = slots[i];
+            if (g.count == 0) return nullptr;
+            if (g.key == key) return &g;
+        }
+    }
+};
+
+struct GroupBy {
+    int aggregates;
+    Table tables[PARTITIONS];
+};
+
+struct Row {
+    int64_t key;
+    int64_t value;
+};
+
+static size_t partition_of(uint64_t hash) {
+    return static_cast<size_t>(hash >> (64 - PARTITION_BITS));
+}
+
+// Fold one row into its group; only the requested aggregates are updated
+template <bool Sum, bool Min, bool Max>
+static inline void update(Table& t, uint64_t hash, int64_t key, int64_t value) {
+    if (t.size >= t.limit) t.grow();
+    for (size_t i = hash & t.mask;; i = (i + 1) & t.mask) {
+        Group& g = t.slots[i];
+        if (g.count == 0) {
+            g = Group{key, 1, value, value, value};
+            t.size++;
+            return;
+        }
+        if (g.key == key) {
+            g.count++;
+            if (Sum) g.sum = static_cast<int64_t>(static_cast<uint64_t>(g.sum) + static_cast<uint64_t>(value));
+            if (Min) g.min = std::min(g.min, value);
+            if (Max) g.max = std::max(g.max, value);
+            return;
+        }
+    }
+}
+
+// Hash rows in groups and prefetch their home slots before updating, so the
+// cache misses of a group overlap once the tables outgrow the cache
+template <bool Sum, bool Min, bool Max>
+static void add_serial(GroupBy* gb, const int64_t* keys, const int64_t* values, size_t n) {
+    const size_t group = 16;
+    uint64_t hashes[group];
+    for (size_t base = 0; base < n; base += group) {
+        size_t len = std::min(group, n - base);
+        for (size_t i = 0; i < len; i++) {
+            hashes[i] = jstl::mix64(static_cast<uint64_t>(keys[base + i]));
+            const Table& t = gb->tables[partition_of(hashes[i])];
+            if (t.size != 0) __builtin_prefetch(&t.slots[hashes[i] & t.mask]);
+        }
+        for (size_t i = 0; i < len; i++) {
+            update<Sum, Min, Max>(gb->tables[partition_of(hashes[i])], hashes[i], keys[base + i], values[base + i]);
+        }
+    }
+}
+
+// Radix-scatter the rows by partition, then let the threads take whole
+// partitions and aggregate them without sharing any table
+template <bool Sum, bool Min, bool Max>
+static bool add_parallel(GroupBy* gb, const int64_t* keys, const int64_t* values, size_t n, size_t threads) {
+    std::unique_ptr<Row[]> rows(new Row[n]);
+    std::vector<size_t> starts = jstl::scatter_by_partition(n, threads, PARTITIONS,
+        [&](size_t i) { return partition_of(jstl::mix64(static_cast<uint64_t>(keys[i]))); },
+        [&](size_t i, size_t position) { rows[position] = Row{keys[i], values[i]}; });
+
+    std::atomic<size_t> next{0};
+    std::atomic<bool> failed{false};
+    jstl::parallel_for(threads, [&](size_t) {
+        try {
+            for (size_t p = next++; p < PARTITIONS && !failed; p = next++) {
+                Table& table = gb->tables[p];
+                for (size_t i = starts[p]; i < starts[p + 1]; i++) {
+                    uint64_t hash = jstl::mix64(static_cast<uint64_t>(rows[i].key));
+                    update<Sum, Min, Max>(table, hash, rows[i].key, rows[i].value);
+                }
+            }
+        } catch (...) {
+            failed = true;
+        }
+    });
+    return !failed;
+}
+
+template <bool Sum, bool Min, bool Max>
+static bool add_rows(GroupBy* gb, const int64_t* keys, const int64_t* values, size_t n, size_t threads) {
+    for (size_t done = 0; done < n;) {
+        size_t batch = std::min(n - done, SCATTER_BATCH);
+        size_t workers = std::min(jstl::resolve_threads(threads), batch / GROUPBY_GRAIN);
+        if (workers <= 1) {
+            add_serial<Sum, Min, Max>(gb, keys + done, values + done, batch);
+        } else if (!add_parallel<Sum, Min, Max>(gb, keys + done, values + done, batch, workers)) {
+            return false;
+        }
+        done += batch;
+    }
+    return true;
+}
+
+static bool add(GroupBy* gb, const int64_t* keys, const int64_t* values, size_t n, size_t threads) {
+    bool sum = gb->aggregates & JSTL_GROUPBY_SUM;
+    bool min = gb->aggregates & JSTL_GROUPBY_MIN;
+    bool max = gb->aggregates & JSTL_GROUPBY_MAX;
+    switch ((sum ? 1 : 0) | (min ? 2 : 0) | (max ? 4 : 0)) {
+        case 0: return add_rows<false, false, false>(gb, keys, values, n, threads);
+        case 1: return add_rows<true, false, false>(gb, keys, values, n, threads);
+        case 2: return add_rows<false, true, false>(gb, keys, values, n, threads);
+        case 3: return add_rows<true, true, false>(gb, keys, values, n, threads);
+        case 4: return add_rows<false, false, true>(gb, keys, values, n, threads);
+        case 5: return add_rows<true, false, true>(gb, keys, values, n, threads);
+        case 6: return add_rows<false, true, true>(gb, keys, values, n, threads);
+        default: return add_rows<true, true, true>(gb, keys, values, n, threads);
+    }
+}
+
+static int64_t value_of(const Group& g, int aggregate) {
+    switch (aggregate) {
+        case JSTL_GROUPBY_COUNT: return g.count;
+        case JSTL_GROUPBY_SUM: return g.sum;
+        case JSTL_GROUPBY_MIN: return g.min;
+        default: return g.max;
+    }
+}
+
+// Visit every group in partition order
+template <typename F>
+static void for_each_group(const GroupBy* gb, F f) {
+    for (const Table& table : gb->tables) {
+        if (table.size == 0) continue;
+        for (const Group& g : table.slots) {
+            if (g.count != 0) f(g);
+        }
+    }
+}
+
+extern "C" {
+
+jstl_groupby_t jstl_groupby_create(int aggregates) {
+    if (aggregates == 0 || (aggregates & ~ALL_AGGREGATES) != 0) return nullptr;
+    try {
+        GroupBy* gb = new GroupBy();
+        gb->aggregates = aggregates;
+        return gb;
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_groupby_destroy(jstl_groupby_t groupby) {
+    if (groupby) {
+        delete static_cast<GroupBy*>(groupby);
+    }
+}
+
+int jstl_groupby_add(jstl_groupby_t groupby, const int64_t* keys, const int64_t* values,
+                     size_t count, size_t threads) {
+    if (!groupby) return 0;
+    if (count == 0) return 1;
+    if (!keys || !values) return 0;
+    try {
+        return add(static_cast<GroupBy*>(groupby), keys, values, count, threads) ? 1 : 0;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_groupby_add_lists(jstl_groupby_t groupby, jstl_arraylist_t keys, jstl_arraylist_t values,
+                           size_t threads) {
+    if (!groupby || !keys || !values) return 0;
+    const std::vector<int64_t>& k = static_cast<ArrayList*>(keys)->vec;
+    const std::vector<int64_t>& v = static_cast<ArrayList*>(values)->vec;
+    if (k.size() != v.size()) return 0;
+    return jstl_groupby_add(groupby, k.data(), v.data(), k.size(), threads);
+}
+
+int jstl_groupby_find(jstl_groupby_t groupby, int64_t key, int64_t* out) {
+    if (!groupby || !out) return 0;
+    GroupBy* gb = static_cast<GroupBy*>(groupby);
+    uint64_t hash = jstl::mix64(static_cast<uint64_t>(key));
+    const Group* g = gb->tables[partition_of(hash)].find(key, hash);
+    if (!g) return 0;
+    out[0] = g->count;
+    out[1] = g->sum;
+    out[2] = g->min;
+    out[3] = g->max;
+    return 1;
+}
+
+size_t jstl_groupby_size(jstl_groupby_t groupby) {
+    if (!groupby) return 0;
+    size_t size = 0;
+    for (const Table& table : static_cast<GroupBy*>(groupby)->tables) {
+        size += table.size;
+    }
+    return size;
+}
+
+void jstl_groupby_keys(jstl_groupby_t groupby, int64_t* out, size_t count) {
+    if (!groupby || !out) return;
+    size_t i = 0;
+    for_each_group(static_cast<GroupBy*>(groupby), [&](const Group& g) {
+        if (i < count) out[i++] = g.key;
+    });
+}
+
+void jstl_groupby_values(jstl_groupby_t groupby, int aggregate, int64_t* out, size_t count) {
+    if (!groupby || !out) return;
+    size_t i = 0;
+    for_each_group(static_cast<GroupBy*>(groupby), [&](const Group& g) {
+        if (i < count) out[i++] = value_of(g, aggregate);
+    });
+}
+
+int jstl_groupby_to_hashmap(jstl_groupby_t groupby, int aggregate, jstl_hashmap_t map) {
+    if (!groupby || !map) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->settle();
+        hm->map.reserve(hm->map.size() + jstl_groupby_size(groupby));
+        for_each_group(static_cast<GroupBy*>(groupby), [&](const Group& g) {
+            if (hm->map.insert_or_assign(g.key, value_of(g, aggregate)).second) {
+                hm->bloom.on_insert(g.key, hm->map);
+            }
+        });
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+void jstl_groupby_clear(jstl_groupby_t groupby) {
+    if (!groupby) return;
+    for (Table& table : static_cast<GroupBy*>(groupby)->tables) {
+        table = Table();
+    }
+}
+
+size_t jstl_groupby_size_in_bytes(jstl_groupby_t groupby) {
+    if (!groupby) return 0;
+    size_t bytes = sizeof(GroupBy);
+    for (const Table& table : static_cast<GroupBy*>(groupby)->tables) {
+        bytes += table.slots.capacity() * sizeof(Group);
+    }
+    return bytes;
+}
+
+} // extern "C"
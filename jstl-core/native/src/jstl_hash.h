@@ -0,0 +1,40 @@
+#ifndef JSTL_HASH_H
+#define JSTL_HASH_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+// Internal hash helpers for 64-bit keys (not part of the C API)
+namespace jstl {
+
+// SplitMix64 finalizer: every input bit affects every output bit
+inline uint64_t mix64(uint64_t z) {
+    z = (z ^ (z >> 30)) * 0xbf58476d1ce4e5b9ULL;
+    z = (z ^ (z >> 27)) * 0x94d049bb133111ebULL;
+    return z ^ (z >> 31);
+}
+
+// Hash for HashMap and HashSet keys, chosen per instance; strategy holds a
+// jstl_hash_strategy_t. std::hash<int64_t> is the identity in libstdc++,
+// which is fastest for dense keys but lets patterned keys share buckets.
+// operator() must stay noexcept: libstdc++ stores a hash code in every node
+// of a container whose hasher may throw.
+struct KeyHash {
+    int strategy = 0;
+    uint64_t seed = 0;  // zero for JSTL_HASH_MIX, random for JSTL_HASH_SEEDED
+
+    size_t operator()(int64_t key) const noexcept {
+        uint64_t k = static_cast<uint64_t>(key);
+        if (strategy == 0) return static_cast<size_t>(k);
+        return static_cast<size_t>(mix64(k ^ seed));
+    }
+};
+
+// Map a 32-bit hash onto [0, n) without a division
+inline uint64_t fast_range32(uint32_t hash, uint64_t n) {
+    return (static_cast<uint64_t>(hash) * n) >> 32;
+}
+
+} // namespace jstl
+
+#endif // JSTL_HASH_H
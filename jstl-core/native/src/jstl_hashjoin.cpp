@@ -0,0 +1,423 @@
+#include "jstl_hashjoin.h"
+#include "jstl_types.h"
+#include "jstl_hash.h"
+#include "jstl_parallel.h"
+#include <algorithm>
+#include <atomic>
+#include <cstring>
+#include <memory>
+#include <stdexcept>
+#include <vector>
+
+// Build rows are split into up to 2^MAX_PARTITION_BITS partitions of about
+// PARTITION_ROWS rows, so each partition's table and payloads fit in cache
+// while the scatter fan-out stays within what the TLB handles well
+static const int MAX_PARTITION_BITS = 10;
+static const size_t PARTITION_ROWS = 1 << 13;
+static const size_t MIN_TABLE = 16;
+// Below this many rows per thread a build or probe runs on the calling thread
+static const size_t JOIN_GRAIN = 1 << 16;
+// Probe rows scattered per round by a partitioned probe, bounding its buffer
+static const size_t PROBE_BATCH = 1 << 22;
+
+// A distinct build key and its payloads, which sit at
+// [begin, begin + count) from the start of the partition's payloads.
+// A zero count marks an empty slot.
+struct Slot {
+    int64_t key;
+    uint32_t begin;
+    uint32_t count;
+};
+
+struct Partition {
+    std::vector<Slot> slots;
+    size_t mask = 0;
+    size_t start = 0;  // index of the partition's first payload
+    size_t distinct = 0;
+
+    const Slot* find(int64_t key, uint64_t hash) const {
+        if (distinct == 0) return nullptr;
+        for (size_t i = hash & mask;; i = (i + 1) & mask) {
+            const Slot& s = slots[i];
+            if (s.count == 0) return nullptr;
+            if (s.key == key) return &s;
+        }
+    }
+};
+
+struct HashJoin {
+    int bits = 0;
+    std::vector<Partition> parts = std::vector<Partition>(1);
+    std::vector<int64_t> payloads;  // grouped by partition, then by key, in build order
+    size_t distinct = 0;
+
+    size_t partition_of(uint64_t hash) const {
+        return bits == 0 ? 0 : static_cast<size_t>(hash >> (64 - bits));
+    }
+};
+
+struct Row {
+    int64_t key;
+    int64_t payload;  // the probe index when scattering probe rows
+};
+
+// Results of one thread, appended to the output lists once every thread is done
+struct Output {
+    std::vector<int64_t> indexes;
+    std::vector<int64_t> payloads;
+};
+
+static uint64_t hash_of(int64_t key) {
+    return jstl::mix64(static_cast<uint64_t>(key));
+}
+
+static size_t table_size(size_t entries) {
+    size_t size = MIN_TABLE;
+    while (size < entries * 2) size *= 2;
+    return size;
+}
+
+// Slot holding key, or the empty slot where it would go
+static Slot* probe_slot(std::vector<Slot>& slots, size_t mask, int64_t key) {
+    for (size_t i = hash_of(key) & mask;; i = (i + 1) & mask) {
+        Slot& s = slots[i];
+        if (s.count == 0 || s.key == key) return &s;
+    }
+}
+
+// Build one partition's table from its scattered rows and write its
+// payloads grouped by key. The table is sized for every row being distinct
+// so it never grows, then shrunk if the keys turn out to repeat.
+static void build_partition(HashJoin* j, Partition& part, const Row* rows, size_t m) {
+    if (m == 0) return;
+    std::vector<Slot> slots(table_size(m), Slot{0, 0, 0});
+    size_t mask = slots.size() - 1;
+    size_t distinct = 0;
+    for (size_t i = 0; i < m; i++) {
+        Slot* s = probe_slot(slots, mask, rows[i].key);
+        if (s->count == 0) {
+            s->key = rows[i].key;
+            distinct++;
+        }
+        s->count++;
+    }
+    if (table_size(distinct) < slots.size()) {
+        std::vector<Slot> smaller(table_size(distinct), Slot{0, 0, 0});
+        size_t smaller_mask = smaller.size() - 1;
+        for (const Slot& s : slots) {
+            if (s.count != 0) *probe_slot(smaller, smaller_mask, s.key) = s;
+        }
+        slots.swap(smaller);
+        mask = smaller_mask;
+    }
+
+    uint32_t running = 0;
+    for (Slot& s : slots) {
+        s.begin = running;
+        running += s.count;
+    }
+    std::vector<uint32_t> filled(slots.size(), 0);
+    int64_t* payloads = j->payloads.data() + part.start;
+    for (size_t i = 0; i < m; i++) {
+        Slot* s = probe_slot(slots, mask, rows[i].key);
+        size_t index = static_cast<size_t>(s - slots.data());
+        payloads[s->begin + filled[index]++] = rows[i].payload;
+    }
+    part.slots.swap(slots);
+    part.mask = mask;
+    part.distinct = distinct;
+}
+
+// Replace j's build side; throws on allocation failure or if one
+// partition holds more rows than its 32-bit offsets can address
+static void build(HashJoin* j, const int64_t* keys, const int64_t* payloads, size_t n, size_t threads) {
+    int bits = 0;
+    while (bits < MAX_PARTITION_BITS && (n >> bits) > PARTITION_ROWS) bits++;
+    size_t partitions = size_t(1) << bits;
+    threads = std::max<size_t>(1, std::min(jstl::resolve_threads(threads), n / JOIN_GRAIN));
+
+    std::unique_ptr<HashJoin> next(new HashJoin());
+    next->bits = bits;
+    next->parts.resize(partitions);
+    next->payloads.resize(n);
+
+    std::unique_ptr<Row[]> rows(new Row[n]);
+    std::vector<size_t> bounds = jstl::scatter_by_partition(n, threads, partitions,
+        [&](size_t i) { return next->partition_of(hash_of(keys[i])); },
+        [&](size_t i, size_t position) {
+            rows[position] = Row{keys[i], payloads ? payloads[i] : static_cast<int64_t>(i)};
+        });
+    for (size_t p = 0; p < partitions; p++) {
+        if (bounds[p + 1] - bounds[p] > UINT32_MAX) throw std::length_error("partition too large");
+        next->parts[p].start = bounds[p];
+    }
+
+    std::atomic<size_t> claim{0};
+    std::atomic<bool> failed{false};
+    jstl::parallel_for(threads, [&](size_t) {
+        try {
+            for (size_t p = claim++; p < partitions && !failed; p = claim++) {
+                build_partition(next.get(), next->parts[p], rows.get() + bounds[p], bounds[p + 1] - bounds[p]);
+            }
+        } catch (...) {
+            failed = true;
+        }
+    });
+    if (failed) throw std::bad_alloc();
+
+    for (const Partition& part : next->parts) {
+        next->distinct += part.distinct;
+    }
+    std::swap(*j, *next);
+}
+
+template <int Type>
+static inline void emit(const HashJoin* j, size_t p, const Slot* s, int64_t index, Output& out) {
+    if (Type == JSTL_JOIN_INNER) {
+        if (!s) return;
+        const int64_t* payloads = j->payloads.data() + j->parts[p].start + s->begin;
+        for (uint32_t c = 0; c < s->count; c++) {
+            out.indexes.push_back(index);
+            out.payloads.push_back(payloads[c]);
+        }
+    } else if (Type == JSTL_JOIN_SEMI) {
+        if (s) out.indexes.push_back(index);
+    } else {
+        if (!s) out.indexes.push_back(index);
+    }
+}
+
+// Probe keys [begin, end) in place, hashing them in groups and prefetching
+// their home slots so the cache misses of a group overlap
+template <int Type>
+static void probe_direct(const HashJoin* j, const int64_t* keys, size_t begin, size_t end, Output& out) {
+    const size_t group = 16;
+    uint64_t hashes[group];
+    for (size_t base = begin; base < end; base += group) {
+        size_t len = std::min(group, end - base);
+        for (size_t i = 0; i < len; i++) {
+            hashes[i] = hash_of(keys[base + i]);
+            const Partition& part = j->parts[j->partition_of(hashes[i])];
+            if (part.distinct != 0) __builtin_prefetch(&part.slots[hashes[i] & part.mask]);
+        }
+        for (size_t i = 0; i < len; i++) {
+            size_t p = j->partition_of(hashes[i]);
+            const Slot* s = j->parts[p].find(keys[base + i], hashes[i]);
+            emit<Type>(j, p, s, static_cast<int64_t>(base + i), out);
+        }
+    }
+}
+
+// Move the results of threads 1 and up to the end of dest, in thread order;
+// thread 0 appends to dest directly
+static void append(std::vector<int64_t>& dest, std::vector<Output>& outputs, bool payloads) {
+    size_t total = 0;
+    for (size_t t = 1; t < outputs.size(); t++) {
+        total += (payloads ? outputs[t].payloads : outputs[t].indexes).size();
+    }
+    size_t at = dest.size();
+    dest.resize(at + total);
+    for (size_t t = 1; t < outputs.size(); t++) {
+        std::vector<int64_t>& from = payloads ? outputs[t].payloads : outputs[t].indexes;
+        if (!from.empty()) std::memcpy(dest.data() + at, from.data(), from.size() * sizeof(int64_t));
+        at += from.size();
+        std::vector<int64_t>().swap(from);
+    }
+}
+
+template <int Type>
+static bool probe_batch(const HashJoin* j, const int64_t* keys, size_t done, size_t len, Row* rows,
+                        std::vector<Output>& outputs, std::vector<int64_t>& indexes, std::vector<int64_t>* payloads) {
+    size_t workers = outputs.size();
+    std::vector<size_t> bounds;
+    if (rows) {
+        // Scatter the batch by build partition, then give each thread a
+        // contiguous range of partitions so results come out in partition
+        // order whatever the thread count
+        const int64_t* batch_keys = keys + done;
+        bounds = jstl::scatter_by_partition(len, workers, j->parts.size(),
+            [&](size_t i) { return j->partition_of(hash_of(batch_keys[i])); },
+            [&](size_t i, size_t position) {
+                rows[position] = Row{batch_keys[i], static_cast<int64_t>(done + i)};
+            });
+    }
+
+    outputs[0].indexes.swap(indexes);
+    if (payloads) outputs[0].payloads.swap(*payloads);
+    std::atomic<bool> failed{false};
+    jstl::parallel_for(workers, [&](size_t t) {
+        try {
+            if (!rows) {
+                probe_direct<Type>(j, keys, done + jstl::slice_begin(len, workers, t),
+                                   done + jstl::slice_begin(len, workers, t + 1), outputs[t]);
+                return;
+            }
+            size_t last = jstl::slice_begin(j->parts.size(), workers, t + 1);
+            for (size_t p = jstl::slice_begin(j->parts.size(), workers, t); p < last; p++) {
+                const Partition& part = j->parts[p];
+                for (size_t i = bounds[p]; i < bounds[p + 1]; i++) {
+                    emit<Type>(j, p, part.find(rows[i].key, hash_of(rows[i].key)), rows[i].payload, outputs[t]);
+                }
+            }
+        } catch (...) {
+            failed = true;
+        }
+    });
+    outputs[0].indexes.swap(indexes);
+    if (payloads) outputs[0].payloads.swap(*payloads);
+    if (failed) return false;
+
+    append(indexes, outputs, false);
+    if (payloads) append(*payloads, outputs, true);
+    return true;
+}
+
+// Probe in batches, the whole input at once unless partitioned. On failure
+// the output lists are restored to their previous size.
+template <int Type>
+static int64_t probe(const HashJoin* j, const int64_t* keys, size_t n, std::vector<int64_t>& indexes,
+                     std::vector<int64_t>* payloads, bool partitioned, size_t threads) {
+    size_t indexes_before = indexes.size();
+    size_t payloads_before = payloads ? payloads->size() : 0;
+    bool ok = true;
+    try {
+        size_t batch = partitioned ? std::min(n, PROBE_BATCH) : n;
+        std::unique_ptr<Row[]> rows(partitioned ? new Row[batch] : nullptr);
+        std::vector<Output> outputs;
+        for (size_t done = 0; done < n && ok; done += batch) {
+            size_t len = std::min(batch, n - done);
+            outputs.assign(std::max<size_t>(1, std::min(jstl::resolve_threads(threads), len / JOIN_GRAIN)), Output());
+            ok = probe_batch<Type>(j, keys, done, len, rows.get(), outputs, indexes, payloads);
+        }
+    } catch (...) {
+        ok = false;
+    }
+    if (!ok) {
+        indexes.resize(indexes_before);
+        if (payloads) payloads->resize(payloads_before);
+        return -1;
+    }
+    return static_cast<int64_t>(indexes.size() - indexes_before);
+}
+
+extern "C" {
+
+jstl_hashjoin_t jstl_hashjoin_create() {
+    try {
+        return new HashJoin();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_hashjoin_destroy(jstl_hashjoin_t join) {
+    if (join) {
+        delete static_cast<HashJoin*>(join);
+    }
+}
+
+int jstl_hashjoin_build(jstl_hashjoin_t join, const int64_t* keys, const int64_t* payloads,
+                        size_t count, size_t threads) {
+    if (!join) return 0;
+    HashJoin* j = static_cast<HashJoin*>(join);
+    try {
+        if (count > 0 && !keys) throw std::invalid_argument("keys");
+        build(j, keys, payloads, count, threads);
+        return 1;
+    } catch (...) {
+        *j = HashJoin();
+        return 0;
+    }
+}
+
+int jstl_hashjoin_build_lists(jstl_hashjoin_t join, jstl_arraylist_t keys, jstl_arraylist_t payloads,
+                              size_t threads) {
+    if (!join || !keys) return 0;
+    const std::vector<int64_t>& k = static_cast<ArrayList*>(keys)->vec;
+    const int64_t* p = nullptr;
+    if (payloads) {
+        const std::vector<int64_t>& v = static_cast<ArrayList*>(payloads)->vec;
+        if (v.size() != k.size()) return 0;
+        p = v.data();
+    }
+    return jstl_hashjoin_build(join, k.data(), p, k.size(), threads);
+}
+
+int jstl_hashjoin_build_hashmap(jstl_hashjoin_t join, jstl_hashmap_t map, size_t threads) {
+    if (!join || !map) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        std::vector<int64_t> keys;
+        std::vector<int64_t> values;
+        keys.reserve(hm->size());
+        values.reserve(hm->size());
+        jstl::for_each_entry(hm->entries(), [&](const auto& entry) {
+            keys.push_back(entry.first);
+            values.push_back(entry.second);
+        });
+        return jstl_hashjoin_build(join, keys.data(), values.data(), keys.size(), threads);
+    } catch (...) {
+        *static_cast<HashJoin*>(join) = HashJoin();
+        return 0;
+    }
+}
+
+int64_t jstl_hashjoin_probe(jstl_hashjoin_t join, int type, const int64_t* keys, size_t count,
+                            jstl_arraylist_t out_indexes, jstl_arraylist_t out_payloads,
+                            int partitioned, size_t threads) {
+    if (!join || !out_indexes || (count > 0 && !keys)) return -1;
+    if (type == JSTL_JOIN_INNER && !out_payloads) return -1;
+    const HashJoin* j = static_cast<HashJoin*>(join);
+    std::vector<int64_t>& indexes = static_cast<ArrayList*>(out_indexes)->vec;
+    try {
+        switch (type) {
+            case JSTL_JOIN_INNER:
+                return probe<JSTL_JOIN_INNER>(j, keys, count, indexes, &static_cast<ArrayList*>(out_payloads)->vec,
+                                              partitioned != 0, threads);
+            case JSTL_JOIN_SEMI:
+                return probe<JSTL_JOIN_SEMI>(j, keys, count, indexes, nullptr, partitioned != 0, threads);
+            case JSTL_JOIN_ANTI:
+                return probe<JSTL_JOIN_ANTI>(j, keys, count, indexes, nullptr, partitioned != 0, threads);
+            default:
+                return -1;
+        }
+    } catch (...) {
+        return -1;
+    }
+}
+
+int64_t jstl_hashjoin_probe_list(jstl_hashjoin_t join, int type, jstl_arraylist_t keys,
+                                 jstl_arraylist_t out_indexes, jstl_arraylist_t out_payloads,
+                                 int partitioned, size_t threads) {
+    if (!keys) return -1;
+    const std::vector<int64_t>& k = static_cast<ArrayList*>(keys)->vec;
+    return jstl_hashjoin_probe(join, type, k.data(), k.size(), out_indexes, out_payloads, partitioned, threads);
+}
+
+size_t jstl_hashjoin_build_size(jstl_hashjoin_t join) {
+    if (!join) return 0;
+    return static_cast<HashJoin*>(join)->payloads.size();
+}
+
+size_t jstl_hashjoin_distinct_keys(jstl_hashjoin_t join) {
+    if (!join) return 0;
+    return static_cast<HashJoin*>(join)->distinct;
+}
+
+size_t jstl_hashjoin_partitions(jstl_hashjoin_t join) {
+    if (!join) return 0;
+    return static_cast<HashJoin*>(join)->parts.size();
+}
+
+size_t jstl_hashjoin_size_in_bytes(jstl_hashjoin_t join) {
+    if (!join) return 0;
+    const HashJoin* j = static_cast<HashJoin*>(join);
+    size_t bytes = sizeof(HashJoin) + j->payloads.capacity() * sizeof(int64_t)
+                   + j->parts.capacity() * sizeof(Partition);
+    for (const Partition& part : j->parts) {
+        bytes += part.slots.capacity() * sizeof(Slot);
+    }
+    return bytes;
+}
+
+} // extern "C"
@@ -1,17 +1,65 @@
 #include "jstl_hashmap.h"
+#include "jstl_types.h"
+#include <algorithm>
 #include <unordered_map>
-
-// C++ wrapper around std::unordered_map
-struct HashMap {
-    std::unordered_map<int64_t, int64_t> map;
-};
+#include <memory>
+#include <random>
 
 // Iterator wrapper
 struct HashMapIterator {
-    std::unordered_map<int64_t, int64_t>::iterator current;
-    std::unordered_map<int64_t, int64_t>::iterator end;
+    LongMap::iterator current;
+    LongMap::iterator end;
 };
 
+static int64_t combine(int combiner, int64_t current, int64_t value) {
+    switch (combiner) {
+        case JSTL_HASHMAP_MIN: return std::min(current, value);
+        case JSTL_HASHMAP_MAX: return std::max(current, value);
+        case JSTL_HASHMAP_OR: return current | value;
+        default:
+            return static_cast<int64_t>(static_cast<uint64_t>(current) + static_cast<uint64_t>(value));
+    }
+}
+
+// Value slot for key in either table, or nullptr. Lookups never move entries
+// along a running incremental rehash; only writes advance it.
+static int64_t* lookup(HashMap* hm, int64_t key) {
+    if (!hm->bloom.might_contain(key)) return nullptr;
+    auto it = hm->map.find(key);
+    if (it != hm->map.end()) return &it->second;
+    if (hm->growth.migrating()) {
+        auto old = hm->growth.old.find(key);
+        if (old != hm->growth.old.end()) return &old->second;
+    }
+    return nullptr;
+}
+
+// Get ready to insert or update key in the main table. Returns key's value
+// slot if the key is still waiting in the old table, where it is updated.
+static int64_t* prepare_upsert(HashMap* hm, int64_t key) {
+    hm->growth.step(hm->map);
+    hm->growth.before_insert(hm->map);
+    if (!hm->growth.migrating()) return nullptr;
+    auto old = hm->growth.old.find(key);
+    return old != hm->growth.old.end() ? &old->second : nullptr;
+}
+
+// Remove key from whichever table holds it, copying its value to *previous
+static bool erase_key(HashMap* hm, int64_t key, int64_t* previous) {
+    hm->growth.step(hm->map);
+    if (!hm->bloom.might_contain(key)) return false;
+    for (auto* table : {&hm->map, &hm->growth.old}) {
+        auto it = table->find(key);
+        if (it != table->end()) {
+            if (previous) *previous = it->second;
+            table->erase(it);
+            hm->bloom.on_erase(1, hm->entries());
+            return true;
+        }
+    }
+    return false;
+}
+
 extern "C" {
 
 jstl_hashmap_t jstl_hashmap_create() {
@@ -22,6 +70,27 @@ jstl_hashmap_t jstl_hashmap_create() {
     }
 }
 
+jstl_hashmap_t jstl_hashmap_create_with_capacity(size_t capacity) {
+    return jstl_hashmap_create_with_strategy(capacity, JSTL_HASH_IDENTITY);
+}
+
+jstl_hashmap_t jstl_hashmap_create_with_strategy(size_t capacity, int strategy) {
+    if (strategy < JSTL_HASH_IDENTITY || strategy > JSTL_HASH_SEEDED) return nullptr;
+    try {
+        jstl::KeyHash hash;
+        hash.strategy = strategy;
+        if (strategy == JSTL_HASH_SEEDED) {
+            std::random_device entropy;
+            hash.seed = (static_cast<uint64_t>(entropy()) << 32) ^ entropy();
+        }
+        std::unique_ptr<HashMap> created(new HashMap());
+        created->map = LongMap(capacity, hash);
+        return created.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
 void jstl_hashmap_destroy(jstl_hashmap_t map) {
     if (map) {
         delete static_cast<HashMap*>(map);
@@ -31,7 +100,12 @@ void jstl_hashmap_destroy(jstl_hashmap_t map) {
 void jstl_hashmap_put(jstl_hashmap_t map, int64_t key, int64_t value) {
     if (!map) return;
     try {
-        static_cast<HashMap*>(map)->map[key] = value;
+        HashMap* hm = static_cast<HashMap*>(map);
+        if (int64_t* old = prepare_upsert(hm, key)) {
+            *old = value;
+        } else if (hm->map.insert_or_assign(key, value).second) {
+            hm->bloom.on_insert(key, hm->entries());
+        }
     } catch (...) {
         // Silent failure
     }
@@ -40,12 +114,8 @@ void jstl_hashmap_put(jstl_hashmap_t map, int64_t key, int64_t value) {
 int64_t jstl_hashmap_get(jstl_hashmap_t map, int64_t key) {
     if (!map) return 0;
     try {
-        HashMap* hm = static_cast<HashMap*>(map);
-        auto it = hm->map.find(key);
-        if (it != hm->map.end()) {
-            return it->second;
-        }
-        return 0;
+        int64_t* value = lookup(static_cast<HashMap*>(map), key);
+        return value ? *value : 0;
     } catch (...) {
         return 0;
     }
@@ -53,9 +123,110 @@ int64_t jstl_hashmap_get(jstl_hashmap_t map, int64_t key) {
 
 int jstl_hashmap_contains_key(jstl_hashmap_t map, int64_t key) {
     if (!map) return 0;
+    try {
+        return lookup(static_cast<HashMap*>(map), key) ? 1 : 0;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int64_t jstl_hashmap_get_or_default(jstl_hashmap_t map, int64_t key, int64_t default_value) {
+    if (!map) return default_value;
+    try {
+        int64_t* value = lookup(static_cast<HashMap*>(map), key);
+        return value ? *value : default_value;
+    } catch (...) {
+        return default_value;
+    }
+}
+
+int jstl_hashmap_find(jstl_hashmap_t map, int64_t key, int64_t* value) {
+    if (!map || !value) return 0;
+    try {
+        int64_t* found = lookup(static_cast<HashMap*>(map), key);
+        if (!found) return 0;
+        *value = *found;
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_hashmap_put_if_absent(jstl_hashmap_t map, int64_t key, int64_t value) {
+    if (!map) return -1;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        if (prepare_upsert(hm, key)) return 0;
+        if (!hm->map.try_emplace(key, value).second) return 0;
+        hm->bloom.on_insert(key, hm->entries());
+        return 1;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_hashmap_replace(jstl_hashmap_t map, int64_t key, int64_t value) {
+    if (!map) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->growth.step(hm->map);
+        int64_t* found = lookup(hm, key);
+        if (!found) return 0;
+        *found = value;
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_hashmap_get_and_put(jstl_hashmap_t map, int64_t key, int64_t value, int64_t* previous) {
+    if (!map || !previous) return -1;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        int64_t* slot = prepare_upsert(hm, key);
+        if (!slot) {
+            auto result = hm->map.try_emplace(key, value);
+            if (result.second) {
+                hm->bloom.on_insert(key, hm->entries());
+                return 0;
+            }
+            slot = &result.first->second;
+        }
+        *previous = *slot;
+        *slot = value;
+        return 1;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_hashmap_remove_and_get(jstl_hashmap_t map, int64_t key, int64_t* previous) {
+    if (!map || !previous) return 0;
+    try {
+        return erase_key(static_cast<HashMap*>(map), key, previous) ? 1 : 0;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_hashmap_merge(jstl_hashmap_t map, int64_t key, int64_t value, int combiner, int64_t* result) {
+    if (!map || !result) return 0;
     try {
         HashMap* hm = static_cast<HashMap*>(map);
-        return hm->map.find(key) != hm->map.end() ? 1 : 0;
+        int64_t* slot = prepare_upsert(hm, key);
+        if (slot) {
+            *slot = combine(combiner, *slot, value);
+        } else {
+            auto inserted = hm->map.try_emplace(key, value);
+            slot = &inserted.first->second;
+            if (inserted.second) {
+                hm->bloom.on_insert(key, hm->entries());
+            } else {
+                *slot = combine(combiner, *slot, value);
+            }
+        }
+        *result = *slot;
+        return 1;
     } catch (...) {
         return 0;
     }
@@ -64,7 +235,7 @@ int jstl_hashmap_contains_key(jstl_hashmap_t map, int64_t key) {
 void jstl_hashmap_remove(jstl_hashmap_t map, int64_t key) {
     if (!map) return;
     try {
-        static_cast<HashMap*>(map)->map.erase(key);
+        erase_key(static_cast<HashMap*>(map), key, nullptr);
     } catch (...) {
         // Silent failure
     }
@@ -73,7 +244,7 @@ void jstl_hashmap_remove(jstl_hashmap_t map, int64_t key) {
 size_t jstl_hashmap_size(jstl_hashmap_t map) {
     if (!map) return 0;
     try {
-        return static_cast<HashMap*>(map)->map.size();
+        return static_cast<HashMap*>(map)->size();
     } catch (...) {
         return 0;
     }
@@ -82,7 +253,10 @@ size_t jstl_hashmap_size(jstl_hashmap_t map) {
 void jstl_hashmap_clear(jstl_hashmap_t map) {
     if (!map) return;
     try {
-        static_cast<HashMap*>(map)->map.clear();
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->map.clear();
+        hm->growth.clear();
+        hm->bloom.on_clear();
     } catch (...) {
         // Silent failure
     }
@@ -91,16 +265,105 @@ void jstl_hashmap_clear(jstl_hashmap_t map) {
 int jstl_hashmap_is_empty(jstl_hashmap_t map) {
     if (!map) return 1;
     try {
-        return static_cast<HashMap*>(map)->map.empty() ? 1 : 0;
+        return static_cast<HashMap*>(map)->size() == 0 ? 1 : 0;
     } catch (...) {
         return 1;
     }
 }
 
+int jstl_hashmap_enable_bloom_filter(jstl_hashmap_t map, double fpp) {
+    if (!map) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->bloom.enable(fpp, hm->entries());
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+void jstl_hashmap_disable_bloom_filter(jstl_hashmap_t map) {
+    if (!map) return;
+    static_cast<HashMap*>(map)->bloom.disable();
+}
+
+int jstl_hashmap_set_incremental_rehash(jstl_hashmap_t map, int enabled) {
+    if (!map) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->growth.enabled = enabled != 0;
+        if (!hm->growth.enabled) hm->settle();
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_hashmap_is_rehashing(jstl_hashmap_t map) {
+    if (!map) return 0;
+    return static_cast<HashMap*>(map)->growth.migrating() ? 1 : 0;
+}
+
+int jstl_hashmap_reserve(jstl_hashmap_t map, size_t capacity) {
+    if (!map) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->settle();
+        hm->map.reserve(capacity);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_hashmap_capacity(jstl_hashmap_t map) {
+    if (!map) return 0;
+    // Entries still in an old table already count against the new one
+    return jstl::table_capacity(static_cast<HashMap*>(map)->map);
+}
+
+int jstl_hashmap_shrink_to_fit(jstl_hashmap_t map) {
+    if (!map) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->settle();
+        jstl::shrink_table(hm->map);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_hashmap_set_max_load_factor(jstl_hashmap_t map, double max_load_factor) {
+    if (!map || !(max_load_factor > 0)) return 0;
+    try {
+        HashMap* hm = static_cast<HashMap*>(map);
+        hm->settle();
+        hm->map.max_load_factor(static_cast<float>(max_load_factor));
+        if (hm->map.size() > jstl::table_capacity(hm->map)) {
+            hm->map.rehash(0);  // libstdc++ would otherwise wait for the next insert
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+double jstl_hashmap_max_load_factor(jstl_hashmap_t map) {
+    if (!map) return 0;
+    return static_cast<HashMap*>(map)->map.max_load_factor();
+}
+
+int jstl_hashmap_hash_strategy(jstl_hashmap_t map) {
+    if (!map) return JSTL_HASH_IDENTITY;
+    return static_cast<HashMap*>(map)->map.hash_function().strategy;
+}
+
 jstl_hashmap_iterator_t jstl_hashmap_iterator_create(jstl_hashmap_t map) {
     if (!map) return nullptr;
     try {
         HashMap* hm = static_cast<HashMap*>(map);
+        hm->settle();
         HashMapIterator* iter = new HashMapIterator();
         iter->current = hm->map.begin();
         iter->end = hm->map.end();
@@ -1,17 +1,88 @@
 #include "jstl_hashset.h"
+#include "jstl_types.h"
+#include "jstl_parallel.h"
 #include <unordered_set>
-
-// C++ wrapper around std::unordered_set
-struct HashSet {
-    std::unordered_set<int64_t> set;
-};
+#include <vector>
+#include <algorithm>
+#include <atomic>
+#include <memory>
+#include <new>
+#include <random>
 
 // Iterator wrapper
 struct HashSetIterator {
-    std::unordered_set<int64_t>::iterator current;
-    std::unordered_set<int64_t>::iterator end;
+    LongSet::iterator current;
+    LongSet::iterator end;
 };
 
+// Below this many scanned elements per thread a set operation runs on the calling thread
+static const size_t SET_SCAN_GRAIN = 1 << 15;
+
+// Collect the elements of scan matching pred, splitting the bucket array across
+// threads. A worker that cannot allocate stops the others and the failure is
+// rethrown on the calling thread as std::bad_alloc.
+template <typename Pred>
+static std::vector<int64_t> collect_matching(const LongSet& scan, size_t threads, Pred pred) {
+    threads = std::min(jstl::resolve_threads(threads), scan.size() / SET_SCAN_GRAIN);
+    std::vector<int64_t> result;
+    if (threads <= 1) {
+        for (int64_t v : scan) {
+            if (pred(v)) result.push_back(v);
+        }
+        return result;
+    }
+    size_t buckets = scan.bucket_count();
+    std::vector<std::vector<int64_t>> parts(threads);
+    std::atomic<bool> failed{false};
+    jstl::parallel_for(threads, [&](size_t t) {
+        try {
+            size_t end = jstl::slice_begin(buckets, threads, t + 1);
+            for (size_t b = jstl::slice_begin(buckets, threads, t); b < end && !failed; b++) {
+                for (auto it = scan.begin(b); it != scan.end(b); ++it) {
+                    if (pred(*it)) parts[t].push_back(*it);
+                }
+            }
+        } catch (...) {
+            failed = true;
+        }
+    });
+    if (failed) throw std::bad_alloc();
+    size_t total = 0;
+    for (const auto& part : parts) total += part.size();
+    result.reserve(total);
+    for (const auto& part : parts) {
+        result.insert(result.end(), part.begin(), part.end());
+    }
+    return result;
+}
+
+// New empty set hashing the same way as like, with its load factor, for a
+// result derived from it
+static HashSet* empty_like(const HashSet* like) {
+    HashSet* hs = new HashSet();
+    hs->set = LongSet(0, like->set.hash_function());
+    hs->set.max_load_factor(like->set.max_load_factor());
+    return hs;
+}
+
+static HashSet* set_of(const HashSet* like, const std::vector<int64_t>& values) {
+    HashSet* hs = empty_like(like);
+    try {
+        hs->set.reserve(values.size());
+        hs->set.insert(values.begin(), values.end());
+    } catch (...) {
+        delete hs;
+        throw;
+    }
+    return hs;
+}
+
+// Move a few elements along if an incremental rehash is running. Only
+// writes call this; lookups check both tables and leave them as they are.
+static void step(HashSet* hs) {
+    hs->growth.step(hs->set);
+}
+
 extern "C" {
 
 jstl_hashset_t jstl_hashset_create() {
@@ -22,6 +93,27 @@ jstl_hashset_t jstl_hashset_create() {
     }
 }
 
+jstl_hashset_t jstl_hashset_create_with_capacity(size_t capacity) {
+    return jstl_hashset_create_with_strategy(capacity, JSTL_HASH_IDENTITY);
+}
+
+jstl_hashset_t jstl_hashset_create_with_strategy(size_t capacity, int strategy) {
+    if (strategy < JSTL_HASH_IDENTITY || strategy > JSTL_HASH_SEEDED) return nullptr;
+    try {
+        jstl::KeyHash hash;
+        hash.strategy = strategy;
+        if (strategy == JSTL_HASH_SEEDED) {
+            std::random_device entropy;
+            hash.seed = (static_cast<uint64_t>(entropy()) << 32) ^ entropy();
+        }
+        std::unique_ptr<HashSet> created(new HashSet());
+        created->set = LongSet(capacity, hash);
+        return created.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
 void jstl_hashset_destroy(jstl_hashset_t set) {
     if (set) {
         delete static_cast<HashSet*>(set);
@@ -31,7 +123,14 @@ void jstl_hashset_destroy(jstl_hashset_t set) {
 int jstl_hashset_add(jstl_hashset_t set, int64_t value) {
     if (!set) return 0;
     try {
-        auto result = static_cast<HashSet*>(set)->set.insert(value);
+        HashSet* hs = static_cast<HashSet*>(set);
+        step(hs);
+        hs->growth.before_insert(hs->set);
+        if (hs->growth.migrating() && hs->growth.old.count(value)) return 0;
+        auto result = hs->set.insert(value);
+        if (result.second) {
+            hs->bloom.on_insert(value, hs->entries());
+        }
         return result.second ? 1 : 0;  // Returns 1 if inserted, 0 if already present
     } catch (...) {
         return 0;
@@ -40,18 +139,23 @@ int jstl_hashset_add(jstl_hashset_t set, int64_t value) {
 
 int jstl_hashset_contains(jstl_hashset_t set, int64_t value) {
     if (!set) return 0;
-    try {
-        HashSet* hs = static_cast<HashSet*>(set);
-        return hs->set.find(value) != hs->set.end() ? 1 : 0;
-    } catch (...) {
-        return 0;
-    }
+    const HashSet* hs = static_cast<const HashSet*>(set);
+    if (!hs->bloom.might_contain(value)) return 0;
+    if (hs->set.find(value) != hs->set.end()) return 1;
+    return hs->growth.migrating() && hs->growth.old.count(value) ? 1 : 0;
 }
 
 int jstl_hashset_remove(jstl_hashset_t set, int64_t value) {
     if (!set) return 0;
     try {
-        return static_cast<HashSet*>(set)->set.erase(value) > 0 ? 1 : 0;
+        HashSet* hs = static_cast<HashSet*>(set);
+        step(hs);
+        size_t erased = hs->set.erase(value);
+        if (erased == 0 && hs->growth.migrating()) {
+            erased = hs->growth.old.erase(value);
+        }
+        hs->bloom.on_erase(erased, hs->entries());
+        return erased > 0 ? 1 : 0;
     } catch (...) {
         return 0;
     }
@@ -60,7 +164,7 @@ int jstl_hashset_remove(jstl_hashset_t set, int64_t value) {
 size_t jstl_hashset_size(jstl_hashset_t set) {
     if (!set) return 0;
     try {
-        return static_cast<HashSet*>(set)->set.size();
+        return static_cast<HashSet*>(set)->size();
     } catch (...) {
         return 0;
     }
@@ -69,7 +173,10 @@ size_t jstl_hashset_size(jstl_hashset_t set) {
 void jstl_hashset_clear(jstl_hashset_t set) {
     if (!set) return;
     try {
-        static_cast<HashSet*>(set)->set.clear();
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->set.clear();
+        hs->growth.clear();
+        hs->bloom.on_clear();
     } catch (...) {
         // Silent failure
     }
@@ -78,16 +185,272 @@ void jstl_hashset_clear(jstl_hashset_t set) {
 int jstl_hashset_is_empty(jstl_hashset_t set) {
     if (!set) return 1;
     try {
-        return static_cast<HashSet*>(set)->set.empty() ? 1 : 0;
+        return static_cast<HashSet*>(set)->size() == 0 ? 1 : 0;
+    } catch (...) {
+        return 1;
+    }
+}
+
+size_t jstl_hashset_add_all(jstl_hashset_t set, jstl_hashset_t other) {
+    if (!set || !other || set == other) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        static_cast<HashSet*>(other)->settle();
+        LongSet& dst = hs->set;
+        const LongSet& src = static_cast<HashSet*>(other)->set;
+        size_t before = dst.size();
+        dst.reserve(before + src.size());
+        if (hs->bloom.enabled()) {
+            for (int64_t v : src) {
+                if (dst.insert(v).second) hs->bloom.on_insert(v, dst);
+            }
+        } else {
+            dst.insert(src.begin(), src.end());
+        }
+        return dst.size() - before;
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_hashset_retain_all(jstl_hashset_t set, jstl_hashset_t other, size_t threads) {
+    if (!set || !other || set == other) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        static_cast<HashSet*>(other)->settle();
+        LongSet& dst = hs->set;
+        const LongSet& keep = static_cast<HashSet*>(other)->set;
+        size_t before = dst.size();
+        if (dst.size() <= keep.size()) {
+            // Scan ourselves and erase what the larger set lacks
+            std::vector<int64_t> drop = collect_matching(dst, threads,
+                [&keep](int64_t v) { return keep.find(v) == keep.end(); });
+            for (int64_t v : drop) dst.erase(v);
+        } else {
+            // Scan the smaller set and rebuild from the common elements
+            std::vector<int64_t> common = collect_matching(keep, threads,
+                [&dst](int64_t v) { return dst.find(v) != dst.end(); });
+            LongSet rebuilt(0, dst.hash_function());
+            rebuilt.max_load_factor(dst.max_load_factor());
+            rebuilt.reserve(common.size());
+            rebuilt.insert(common.begin(), common.end());
+            dst.swap(rebuilt);
+        }
+        hs->bloom.on_erase(before - dst.size(), dst);
+        return before - dst.size();
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_hashset_remove_all(jstl_hashset_t set, jstl_hashset_t other, size_t threads) {
+    if (!set || !other) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        static_cast<HashSet*>(other)->settle();
+        LongSet& dst = hs->set;
+        const LongSet& drop = static_cast<HashSet*>(other)->set;
+        size_t before = dst.size();
+        if (set == other) {
+            dst.clear();
+            hs->bloom.on_clear();
+        } else if (drop.size() <= dst.size()) {
+            for (int64_t v : drop) dst.erase(v);
+        } else {
+            std::vector<int64_t> found = collect_matching(dst, threads,
+                [&drop](int64_t v) { return drop.find(v) != drop.end(); });
+            for (int64_t v : found) dst.erase(v);
+        }
+        hs->bloom.on_erase(before - dst.size(), dst);
+        return before - dst.size();
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_hashset_intersection_size(jstl_hashset_t set, jstl_hashset_t other, size_t threads) {
+    if (!set || !other) return 0;
+    try {
+        static_cast<HashSet*>(set)->settle();
+        static_cast<HashSet*>(other)->settle();
+        const LongSet* small = &static_cast<HashSet*>(set)->set;
+        const LongSet* large = &static_cast<HashSet*>(other)->set;
+        if (small->size() > large->size()) std::swap(small, large);
+        size_t n = std::min(jstl::resolve_threads(threads), small->size() / SET_SCAN_GRAIN);
+        if (n <= 1) {
+            size_t count = 0;
+            for (int64_t v : *small) count += large->count(v);
+            return count;
+        }
+        size_t buckets = small->bucket_count();
+        std::vector<size_t> counts(n, 0);
+        jstl::parallel_for(n, [&](size_t t) {
+            size_t count = 0;
+            size_t end = jstl::slice_begin(buckets, n, t + 1);
+            for (size_t b = jstl::slice_begin(buckets, n, t); b < end; b++) {
+                for (auto it = small->begin(b); it != small->end(b); ++it) {
+                    count += large->count(*it);
+                }
+            }
+            counts[t] = count;
+        });
+        size_t total = 0;
+        for (size_t c : counts) total += c;
+        return total;
+    } catch (...) {
+        return 0;
+    }
+}
+
+jstl_hashset_t jstl_hashset_union(jstl_hashset_t set, jstl_hashset_t other) {
+    if (!set || !other) return nullptr;
+    try {
+        static_cast<HashSet*>(set)->settle();
+        static_cast<HashSet*>(other)->settle();
+        const LongSet* small = &static_cast<HashSet*>(set)->set;
+        const LongSet* large = &static_cast<HashSet*>(other)->set;
+        if (small->size() > large->size()) std::swap(small, large);
+        HashSet* result = empty_like(static_cast<HashSet*>(set));
+        try {
+            result->set.reserve(large->size() + small->size());
+            result->set.insert(large->begin(), large->end());
+            result->set.insert(small->begin(), small->end());
+        } catch (...) {
+            delete result;
+            throw;
+        }
+        return result;
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+jstl_hashset_t jstl_hashset_intersection(jstl_hashset_t set, jstl_hashset_t other, size_t threads) {
+    if (!set || !other) return nullptr;
+    try {
+        static_cast<HashSet*>(set)->settle();
+        static_cast<HashSet*>(other)->settle();
+        const LongSet* small = &static_cast<HashSet*>(set)->set;
+        const LongSet* large = &static_cast<HashSet*>(other)->set;
+        if (small->size() > large->size()) std::swap(small, large);
+        return set_of(static_cast<HashSet*>(set), collect_matching(*small, threads,
+            [large](int64_t v) { return large->find(v) != large->end(); }));
     } catch (...) {
+        return nullptr;
+    }
+}
+
+jstl_hashset_t jstl_hashset_difference(jstl_hashset_t set, jstl_hashset_t other, size_t threads) {
+    if (!set || !other) return nullptr;
+    try {
+        static_cast<HashSet*>(set)->settle();
+        static_cast<HashSet*>(other)->settle();
+        const LongSet& keep = static_cast<HashSet*>(set)->set;
+        const LongSet& drop = static_cast<HashSet*>(other)->set;
+        if (set == other || keep.empty()) return empty_like(static_cast<HashSet*>(set));
+        return set_of(static_cast<HashSet*>(set), collect_matching(keep, threads,
+            [&drop](int64_t v) { return drop.find(v) == drop.end(); }));
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+int jstl_hashset_enable_bloom_filter(jstl_hashset_t set, double fpp) {
+    if (!set) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->bloom.enable(fpp, hs->entries());
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+void jstl_hashset_disable_bloom_filter(jstl_hashset_t set) {
+    if (!set) return;
+    static_cast<HashSet*>(set)->bloom.disable();
+}
+
+int jstl_hashset_set_incremental_rehash(jstl_hashset_t set, int enabled) {
+    if (!set) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->growth.enabled = enabled != 0;
+        if (!hs->growth.enabled) hs->settle();
         return 1;
+    } catch (...) {
+        return 0;
     }
 }
 
+int jstl_hashset_is_rehashing(jstl_hashset_t set) {
+    if (!set) return 0;
+    return static_cast<HashSet*>(set)->growth.migrating() ? 1 : 0;
+}
+
+int jstl_hashset_reserve(jstl_hashset_t set, size_t capacity) {
+    if (!set) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        hs->set.reserve(capacity);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_hashset_capacity(jstl_hashset_t set) {
+    if (!set) return 0;
+    // Entries still in an old table already count against the new one
+    return jstl::table_capacity(static_cast<HashSet*>(set)->set);
+}
+
+int jstl_hashset_shrink_to_fit(jstl_hashset_t set) {
+    if (!set) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        jstl::shrink_table(hs->set);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_hashset_set_max_load_factor(jstl_hashset_t set, double max_load_factor) {
+    if (!set || !(max_load_factor > 0)) return 0;
+    try {
+        HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
+        hs->set.max_load_factor(static_cast<float>(max_load_factor));
+        if (hs->set.size() > jstl::table_capacity(hs->set)) {
+            hs->set.rehash(0);  // libstdc++ would otherwise wait for the next insert
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+double jstl_hashset_max_load_factor(jstl_hashset_t set) {
+    if (!set) return 0;
+    return static_cast<HashSet*>(set)->set.max_load_factor();
+}
+
+int jstl_hashset_hash_strategy(jstl_hashset_t set) {
+    if (!set) return JSTL_HASH_IDENTITY;
+    return static_cast<HashSet*>(set)->set.hash_function().strategy;
+}
+
 jstl_hashset_iterator_t jstl_hashset_iterator_create(jstl_hashset_t set) {
     if (!set) return nullptr;
     try {
         HashSet* hs = static_cast<HashSet*>(set);
+        hs->settle();
         HashSetIterator* iter = new HashSetIterator();
         iter->current = hs->set.begin();
         iter->end = hs->set.end();
@@ -0,0 +1,393 @@
+#include "jstl_kernels.h"
+#include <cmath>
+#include <cstdlib>
+#include <cstring>
+
+#if defined(__x86_64__) && (defined(__GNUC__) || defined(__clang__))
+#define JSTL_X86_DISPATCH 1
+#include <immintrin.h>
+#endif
+
+namespace jstl {
+
+// ---------------------------------------------------------------------------
+// Scalar kernels (portable fallback, also used for the tails of SIMD loops).
+// Sums and products wrap on overflow exactly like Java long arithmetic.
+// ---------------------------------------------------------------------------
+
+static int64_t sum_scalar(const int64_t* data, size_t n) {
+    uint64_t s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        s0 += static_cast<uint64_t>(data[i]);
+        s1 += static_cast<uint64_t>(data[i + 1]);
+        s2 += static_cast<uint64_t>(data[i + 2]);
+        s3 += static_cast<uint64_t>(data[i + 3]);
+    }
+    for (; i < n; i++) {
+        s0 += static_cast<uint64_t>(data[i]);
+    }
+    return static_cast<int64_t>(s0 + s1 + s2 + s3);
+}
+
+static int64_t min_scalar(const int64_t* data, size_t n) {
+    int64_t m = INT64_MAX;
+    for (size_t i = 0; i < n; i++) {
+        m = data[i] < m ? data[i] : m;
+    }
+    return m;
+}
+
+static int64_t max_scalar(const int64_t* data, size_t n) {
+    int64_t m = INT64_MIN;
+    for (size_t i = 0; i < n; i++) {
+        m = data[i] > m ? data[i] : m;
+    }
+    return m;
+}
+
+static size_t count_between_scalar(const int64_t* data, size_t n, int64_t lo, int64_t hi) {
+    size_t count = 0;
+    for (size_t i = 0; i < n; i++) {
+        count += (data[i] >= lo) & (data[i] <= hi);
+    }
+    return count;
+}
+
+static int64_t dot_scalar(const int64_t* a, const int64_t* b, size_t n) {
+    uint64_t s0 = 0, s1 = 0;
+    size_t i = 0;
+    for (; i + 2 <= n; i += 2) {
+        s0 += static_cast<uint64_t>(a[i]) * static_cast<uint64_t>(b[i]);
+        s1 += static_cast<uint64_t>(a[i + 1]) * static_cast<uint64_t>(b[i + 1]);
+    }
+    for (; i < n; i++) {
+        s0 += static_cast<uint64_t>(a[i]) * static_cast<uint64_t>(b[i]);
+    }
+    return static_cast<int64_t>(s0 + s1);
+}
+
+#ifdef JSTL_X86_DISPATCH
+
+// ---------------------------------------------------------------------------
+// SSE4.2 kernels (2 lanes). _mm_cmpgt_epi64 is the SSE4.2 instruction needed
+// for 64-bit min/max/range tests.
+// ---------------------------------------------------------------------------
+
+__attribute__((target("sse4.2")))
+static int64_t hsum_sse4(__m128i v) {
+    int64_t lanes[2];
+    _mm_storeu_si128(reinterpret_cast<__m128i*>(lanes), v);
+    return static_cast<int64_t>(static_cast<uint64_t>(lanes[0]) + static_cast<uint64_t>(lanes[1]));
+}
+
+__attribute__((target("sse4.2")))
+static __m128i mullo_epi64_sse4(__m128i a, __m128i b) {
+    __m128i lo = _mm_mul_epu32(a, b);
+    __m128i cross = _mm_add_epi64(_mm_mul_epu32(_mm_srli_epi64(a, 32), b),
+                                  _mm_mul_epu32(a, _mm_srli_epi64(b, 32)));
+    return _mm_add_epi64(lo, _mm_slli_epi64(cross, 32));
+}
+
+__attribute__((target("sse4.2")))
+static int64_t sum_sse4(const int64_t* data, size_t n) {
+    __m128i a0 = _mm_setzero_si128();
+    __m128i a1 = _mm_setzero_si128();
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        a0 = _mm_add_epi64(a0, _mm_loadu_si128(reinterpret_cast<const __m128i*>(data + i)));
+        a1 = _mm_add_epi64(a1, _mm_loadu_si128(reinterpret_cast<const __m128i*>(data + i + 2)));
+    }
+    int64_t s = hsum_sse4(_mm_add_epi64(a0, a1));
+    return static_cast<int64_t>(static_cast<uint64_t>(s) + static_cast<uint64_t>(sum_scalar(data + i, n - i)));
+}
+
+__attribute__((target("sse4.2")))
+static int64_t min_sse4(const int64_t* data, size_t n) {
+    __m128i m = _mm_set1_epi64x(INT64_MAX);
+    size_t i = 0;
+    for (; i + 2 <= n; i += 2) {
+        __m128i x = _mm_loadu_si128(reinterpret_cast<const __m128i*>(data + i));
+        m = _mm_blendv_epi8(m, x, _mm_cmpgt_epi64(m, x));
+    }
+    int64_t lanes[2];
+    _mm_storeu_si128(reinterpret_cast<__m128i*>(lanes), m);
+    int64_t r = lanes[0] < lanes[1] ? lanes[0] : lanes[1];
+    int64_t t = min_scalar(data + i, n - i);
+    return t < r ? t : r;
+}
+
+__attribute__((target("sse4.2")))
+static int64_t max_sse4(const int64_t* data, size_t n) {
+    __m128i m = _mm_set1_epi64x(INT64_MIN);
+    size_t i = 0;
+    for (; i + 2 <= n; i += 2) {
+        __m128i x = _mm_loadu_si128(reinterpret_cast<const __m128i*>(data + i));
+        m = _mm_blendv_epi8(m, x, _mm_cmpgt_epi64(x, m));
+    }
+    int64_t lanes[2];
+    _mm_storeu_si128(reinterpret_cast<__m128i*>(lanes), m);
+    int64_t r = lanes[0] > lanes[1] ? lanes[0] : lanes[1];
+    int64_t t = max_scalar(data + i, n - i);
+    return t > r ? t : r;
+}
+
+__attribute__((target("sse4.2")))
+static size_t count_between_sse4(const int64_t* data, size_t n, int64_t lo, int64_t hi) {
+    __m128i lov = _mm_set1_epi64x(lo);
+    __m128i hiv = _mm_set1_epi64x(hi);
+    __m128i one = _mm_set1_epi64x(1);
+    __m128i acc = _mm_setzero_si128();
+    size_t i = 0;
+    for (; i + 2 <= n; i += 2) {
+        __m128i x = _mm_loadu_si128(reinterpret_cast<const __m128i*>(data + i));
+        __m128i out = _mm_or_si128(_mm_cmpgt_epi64(lov, x), _mm_cmpgt_epi64(x, hiv));
+        acc = _mm_add_epi64(acc, _mm_andnot_si128(out, one));
+    }
+    return static_cast<size_t>(hsum_sse4(acc)) + count_between_scalar(data + i, n - i, lo, hi);
+}
+
+__attribute__((target("sse4.2")))
+static int64_t dot_sse4(const int64_t* a, const int64_t* b, size_t n) {
+    __m128i acc = _mm_setzero_si128();
+    size_t i = 0;
+    for (; i + 2 <= n; i += 2) {
+        __m128i x = _mm_loadu_si128(reinterpret_cast<const __m128i*>(a + i));
+        __m128i y = _mm_loadu_si128(reinterpret_cast<const __m128i*>(b + i));
+        acc = _mm_add_epi64(acc, mullo_epi64_sse4(x, y));
+    }
+    int64_t s = hsum_sse4(acc);
+    return static_cast<int64_t>(static_cast<uint64_t>(s) + static_cast<uint64_t>(dot_scalar(a + i, b + i, n - i)));
+}
+
+// ---------------------------------------------------------------------------
+// AVX2 kernels (4 lanes)
+// ---------------------------------------------------------------------------
+
+__attribute__((target("avx2")))
+static int64_t hsum_avx2(__m256i v) {
+    int64_t lanes[4];
+    _mm256_storeu_si256(reinterpret_cast<__m256i*>(lanes), v);
+    uint64_t s = 0;
+    for (int k = 0; k < 4; k++) s += static_cast<uint64_t>(lanes[k]);
+    return static_cast<int64_t>(s);
+}
+
+__attribute__((target("avx2")))
+static __m256i mullo_epi64_avx2(__m256i a, __m256i b) {
+    __m256i lo = _mm256_mul_epu32(a, b);
+    __m256i cross = _mm256_add_epi64(_mm256_mul_epu32(_mm256_srli_epi64(a, 32), b),
+                                     _mm256_mul_epu32(a, _mm256_srli_epi64(b, 32)));
+    return _mm256_add_epi64(lo, _mm256_slli_epi64(cross, 32));
+}
+
+__attribute__((target("avx2")))
+static int64_t sum_avx2(const int64_t* data, size_t n) {
+    __m256i a0 = _mm256_setzero_si256();
+    __m256i a1 = _mm256_setzero_si256();
+    size_t i = 0;
+    for (; i + 8 <= n; i += 8) {
+        a0 = _mm256_add_epi64(a0, _mm256_loadu_si256(reinterpret_cast<const __m256i*>(data + i)));
+        a1 = _mm256_add_epi64(a1, _mm256_loadu_si256(reinterpret_cast<const __m256i*>(data + i + 4)));
+    }
+    int64_t s = hsum_avx2(_mm256_add_epi64(a0, a1));
+    return static_cast<int64_t>(static_cast<uint64_t>(s) + static_cast<uint64_t>(sum_scalar(data + i, n - i)));
+}
+
+__attribute__((target("avx2")))
+static int64_t min_avx2(const int64_t* data, size_t n) {
+    __m256i m = _mm256_set1_epi64x(INT64_MAX);
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m256i x = _mm256_loadu_si256(reinterpret_cast<const __m256i*>(data + i));
+        m = _mm256_blendv_epi8(m, x, _mm256_cmpgt_epi64(m, x));
+    }
+    int64_t lanes[4];
+    _mm256_storeu_si256(reinterpret_cast<__m256i*>(lanes), m);
+    int64_t r = min_scalar(lanes, 4);
+    int64_t t = min_scalar(data + i, n - i);
+    return t < r ? t : r;
+}
+
+__attribute__((target("avx2")))
+static int64_t max_avx2(const int64_t* data, size_t n) {
+    __m256i m = _mm256_set1_epi64x(INT64_MIN);
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m256i x = _mm256_loadu_si256(reinterpret_cast<const __m256i*>(data + i));
+        m = _mm256_blendv_epi8(m, x, _mm256_cmpgt_epi64(x, m));
+    }
+    int64_t lanes[4];
+    _mm256_storeu_si256(reinterpret_cast<__m256i*>(lanes), m);
+    int64_t r = max_scalar(lanes, 4);
+    int64_t t = max_scalar(data + i, n - i);
+    return t > r ? t : r;
+}
+
+__attribute__((target("avx2")))
+static size_t count_between_avx2(const int64_t* data, size_t n, int64_t lo, int64_t hi) {
+    __m256i lov = _mm256_set1_epi64x(lo);
+    __m256i hiv = _mm256_set1_epi64x(hi);
+    __m256i one = _mm256_set1_epi64x(1);
+    __m256i acc = _mm256_setzero_si256();
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m256i x = _mm256_loadu_si256(reinterpret_cast<const __m256i*>(data + i));
+        __m256i out = _mm256_or_si256(_mm256_cmpgt_epi64(lov, x), _mm256_cmpgt_epi64(x, hiv));
+        acc = _mm256_add_epi64(acc, _mm256_andnot_si256(out, one));
+    }
+    return static_cast<size_t>(hsum_avx2(acc)) + count_between_scalar(data + i, n - i, lo, hi);
+}
+
+__attribute__((target("avx2")))
+static int64_t dot_avx2(const int64_t* a, const int64_t* b, size_t n) {
+    __m256i acc = _mm256_setzero_si256();
+    size_t i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m256i x = _mm256_loadu_si256(reinterpret_cast<const __m256i*>(a + i));
+        __m256i y = _mm256_loadu_si256(reinterpret_cast<const __m256i*>(b + i));
+        acc = _mm256_add_epi64(acc, mullo_epi64_avx2(x, y));
+    }
+    int64_t s = hsum_avx2(acc);
+    return static_cast<int64_t>(static_cast<uint64_t>(s) + static_cast<uint64_t>(dot_scalar(a + i, b + i, n - i)));
+}
+
+// ---------------------------------------------------------------------------
+// AVX-512 kernels (8 lanes); dot needs AVX-512DQ for _mm512_mullo_epi64
+// ---------------------------------------------------------------------------
+
+__attribute__((target("avx512f")))
+static int64_t sum_avx512(const int64_t* data, size_t n) {
+    __m512i a0 = _mm512_setzero_si512();
+    __m512i a1 = _mm512_setzero_si512();
+    size_t i = 0;
+    for (; i + 16 <= n; i += 16) {
+        a0 = _mm512_add_epi64(a0, _mm512_loadu_si512(data + i));
+        a1 = _mm512_add_epi64(a1, _mm512_loadu_si512(data + i + 8));
+    }
+    int64_t s = _mm512_reduce_add_epi64(_mm512_add_epi64(a0, a1));
+    return static_cast<int64_t>(static_cast<uint64_t>(s) + static_cast<uint64_t>(sum_scalar(data + i, n - i)));
+}
+
+__attribute__((target("avx512f")))
+static int64_t min_avx512(const int64_t* data, size_t n) {
+    __m512i m = _mm512_set1_epi64(INT64_MAX);
+    size_t i = 0;
+    for (; i + 8 <= n; i += 8) {
+        m = _mm512_min_epi64(m, _mm512_loadu_si512(data + i));
+    }
+    int64_t r = _mm512_reduce_min_epi64(m);
+    int64_t t = min_scalar(data + i, n - i);
+    return t < r ? t : r;
+}
+
+__attribute__((target("avx512f")))
+static int64_t max_avx512(const int64_t* data, size_t n) {
+    __m512i m = _mm512_set1_epi64(INT64_MIN);
+    size_t i = 0;
+    for (; i + 8 <= n; i += 8) {
+        m = _mm512_max_epi64(m, _mm512_loadu_si512(data + i));
+    }
+    int64_t r = _mm512_reduce_max_epi64(m);
+    int64_t t = max_scalar(data + i, n - i);
+    return t > r ? t : r;
+}
+
+__attribute__((target("avx512f,popcnt")))
+static size_t count_between_avx512(const int64_t* data, size_t n, int64_t lo, int64_t hi) {
+    __m512i lov = _mm512_set1_epi64(lo);
+    __m512i hiv = _mm512_set1_epi64(hi);
+    size_t count = 0;
+    size_t i = 0;
+    for (; i + 8 <= n; i += 8) {
+        __m512i x = _mm512_loadu_si512(data + i);
+        __mmask8 in = _mm512_cmpge_epi64_mask(x, lov) & _mm512_cmple_epi64_mask(x, hiv);
+        count += static_cast<size_t>(_mm_popcnt_u32(in));
+    }
+    return count + count_between_scalar(data + i, n - i, lo, hi);
+}
+
+__attribute__((target("avx512f,avx512dq")))
+static int64_t dot_avx512(const int64_t* a, const int64_t* b, size_t n) {
+    __m512i acc = _mm512_setzero_si512();
+    size_t i = 0;
+    for (; i + 8 <= n; i += 8) {
+        acc = _mm512_add_epi64(acc, _mm512_mullo_epi64(_mm512_loadu_si512(a + i), _mm512_loadu_si512(b + i)));
+    }
+    int64_t s = _mm512_reduce_add_epi64(acc);
+    return static_cast<int64_t>(static_cast<uint64_t>(s) + static_cast<uint64_t>(dot_scalar(a + i, b + i, n - i)));
+}
+
+#endif // JSTL_X86_DISPATCH
+
+static Kernels select_kernels() {
+    Kernels selected = {"scalar", sum_scalar, min_scalar, max_scalar, count_between_scalar, dot_scalar};
+#ifdef JSTL_X86_DISPATCH
+    int limit = 3;
+    const char* cap = std::getenv("JSTL_SIMD");
+    if (cap) {
+        if (std::strcmp(cap, "scalar") == 0) limit = 0;
+        else if (std::strcmp(cap, "sse4") == 0) limit = 1;
+        else if (std::strcmp(cap, "avx2") == 0) limit = 2;
+    }
+    __builtin_cpu_init();
+    if (limit >= 3 && __builtin_cpu_supports("avx512f") && __builtin_cpu_supports("avx512dq")) {
+        selected = {"avx512", sum_avx512, min_avx512, max_avx512, count_between_avx512, dot_avx512};
+    } else if (limit >= 2 && __builtin_cpu_supports("avx2")) {
+        selected = {"avx2", sum_avx2, min_avx2, max_avx2, count_between_avx2, dot_avx2};
+    } else if (limit >= 1 && __builtin_cpu_supports("sse4.2")) {
+        selected = {"sse4", sum_sse4, min_sse4, max_sse4, count_between_sse4, dot_sse4};
+    }
+#endif
+    return selected;
+}
+
+const Kernels& kernels() {
+    static const Kernels selected = select_kernels();
+    return selected;
+}
+
+double mean(const int64_t* data, size_t n) {
+    if (n == 0) return NAN;
+#ifdef __SIZEOF_INT128__
+    __int128 sum = 0;
+    for (size_t i = 0; i < n; i++) {
+        sum += data[i];
+    }
+    return static_cast<double>(sum) / static_cast<double>(n);
+#else
+    // Neumaier-compensated summation when no 128-bit integer type exists
+    double sum = 0.0, compensation = 0.0;
+    for (size_t i = 0; i < n; i++) {
+        double x = static_cast<double>(data[i]);
+        double t = sum + x;
+        compensation += std::fabs(sum) >= std::fabs(x) ? (sum - t) + x : (x - t) + sum;
+        sum = t;
+    }
+    return (sum + compensation) / static_cast<double>(n);
+#endif
+}
+
+void histogram(const int64_t* data, size_t n, int64_t lo, int64_t hi,
+               size_t buckets, int64_t* counts) {
+    if (buckets == 0 || hi < lo) return;
+    // The hi - lo + 1 values split into buckets of q or q + 1 values, the
+    // first r buckets taking the extra one. A full 2^64 range overflows
+    // the count, so q and r are derived from hi - lo instead.
+    uint64_t range = static_cast<uint64_t>(hi) - static_cast<uint64_t>(lo);
+    uint64_t q = range / buckets;
+    uint64_t r = range % buckets + 1;
+    if (r == buckets) {
+        q++;
+        r = 0;
+    }
+    uint64_t wide = r * (q + 1);  // values in the first r buckets
+    for (size_t i = 0; i < n; i++) {
+        int64_t x = data[i];
+        if (x < lo || x > hi) continue;
+        uint64_t d = static_cast<uint64_t>(x) - static_cast<uint64_t>(lo);
+        counts[d < wide ? d / (q + 1) : r + (d - wide) / q]++;
+    }
+}
+
+} // namespace jstl
@@ -0,0 +1,35 @@
+#ifndef JSTL_KERNELS_H
+#define JSTL_KERNELS_H
+
+#include <stddef.h>
+#include <stdint.h>
+
+// Internal aggregation kernels over contiguous int64 storage (not part of the C API).
+// On x86-64 with GCC/Clang the best implementation for the running CPU
+// (AVX-512, AVX2, SSE4.2 or scalar) is picked once at first use; setting the
+// environment variable JSTL_SIMD to scalar, sse4, avx2 or avx512 caps the level.
+namespace jstl {
+
+struct Kernels {
+    const char* name;
+    int64_t (*sum)(const int64_t* data, size_t n);
+    int64_t (*min)(const int64_t* data, size_t n);
+    int64_t (*max)(const int64_t* data, size_t n);
+    size_t (*count_between)(const int64_t* data, size_t n, int64_t lo, int64_t hi);
+    int64_t (*dot)(const int64_t* a, const int64_t* b, size_t n);
+};
+
+// Kernels selected for the running CPU
+const Kernels& kernels();
+
+// Mean of data[0, n) computed without intermediate overflow
+double mean(const int64_t* data, size_t n);
+
+// Add counts of values in [lo, hi] split into `buckets` buckets whose widths
+// differ by at most one, the wider ones first
+void histogram(const int64_t* data, size_t n, int64_t lo, int64_t hi,
+               size_t buckets, int64_t* counts);
+
+} // namespace jstl
+
+#endif // JSTL_KERNELS_H
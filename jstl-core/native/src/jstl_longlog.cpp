@@ -0,0 +1,239 @@
+#include "jstl_longlog.h"
+#include <algorithm>
+#include <atomic>
+#include <cstdlib>
+#include <cstring>
+#include <new>
+
+namespace {
+
+const int MIN_CHUNK_BITS = 10;
+const int MAX_CHUNK_BITS = 24;
+const size_t MAX_CHUNKS = size_t(1) << 20;
+
+// A chunk's commit counter sits on its own cache line ahead of the values
+struct alignas(64) ChunkHeader {
+    std::atomic<uint64_t> committed;  // values written into this chunk
+};
+
+static_assert(sizeof(std::atomic<ChunkHeader*>) == sizeof(ChunkHeader*), "chunk directory is calloc'd as plain pointers");
+static_assert(std::atomic<ChunkHeader*>::is_always_lock_free, "chunk directory must be lock-free");
+
+inline int64_t* values_of(ChunkHeader* chunk) {
+    return reinterpret_cast<int64_t*>(chunk + 1);
+}
+
+// Appenders never wait for one another. Each reserves slots from tail,
+// writes them and adds their number to the commit counter of every chunk
+// it wrote to. The published length then moves over a chunk once every
+// slot reserved in it is committed; whichever appender commits last does
+// the moving, so a descheduled appender only delays publication, never
+// other appenders.
+//
+// That handoff is a store-then-load on each side (commit, then read the
+// other appenders' commits), so the reservations, commits, counter reads
+// and published updates are all seq_cst: with weaker orderings two
+// appenders could each miss the other's commit and neither would move the
+// length. On x86 this costs nothing: the read-modify-writes are locked
+// instructions anyway and seq_cst loads are plain loads.
+struct LongLog {
+    explicit LongLog(int bits, std::atomic<ChunkHeader*>* directory)
+        : chunk_bits(bits), chunk_size(size_t(1) << bits), chunks(directory),
+          tail(0), published(0), limit(MAX_CHUNKS << bits), allocated(0) {}
+
+    ~LongLog() {
+        free_chunks();
+        std::free(chunks);
+    }
+
+    // Chunks are only allocated for reserved slots, so they sit at the
+    // front of the directory
+    void free_chunks() {
+        for (size_t c = 0; c < MAX_CHUNKS && allocated.load(std::memory_order_relaxed) > 0; c++) {
+            ChunkHeader* chunk = chunks[c].exchange(nullptr, std::memory_order_relaxed);
+            if (chunk) {
+                chunk->~ChunkHeader();
+                ::operator delete(chunk, std::align_val_t(alignof(ChunkHeader)));
+                allocated.fetch_sub(1, std::memory_order_relaxed);
+            }
+        }
+    }
+
+    // Chunk c, allocating it if no appender has yet; racing appenders each
+    // allocate and all but the first to install theirs free it again
+    ChunkHeader* ensure_chunk(size_t c) {
+        ChunkHeader* chunk = chunks[c].load(std::memory_order_acquire);
+        if (chunk) return chunk;
+        void* raw = ::operator new(sizeof(ChunkHeader) + chunk_size * sizeof(int64_t),
+                                   std::align_val_t(alignof(ChunkHeader)), std::nothrow);
+        if (!raw) return nullptr;
+        ChunkHeader* fresh = new (raw) ChunkHeader();
+        fresh->committed.store(0, std::memory_order_relaxed);
+        if (chunks[c].compare_exchange_strong(chunk, fresh, std::memory_order_acq_rel)) {
+            allocated.fetch_add(1, std::memory_order_relaxed);
+            return fresh;
+        }
+        fresh->~ChunkHeader();
+        ::operator delete(raw, std::align_val_t(alignof(ChunkHeader)));
+        return chunk;
+    }
+
+    // Stop accepting appends that end past slot
+    void lower_limit(uint64_t slot) {
+        uint64_t current = limit.load(std::memory_order_relaxed);
+        while (slot < current && !limit.compare_exchange_weak(current, slot, std::memory_order_acq_rel)) {
+        }
+    }
+
+    int64_t append(const int64_t* values, size_t count) {
+        uint64_t start = tail.fetch_add(count, std::memory_order_seq_cst);
+        uint64_t end = start + count;
+        if (end < start || end > limit.load(std::memory_order_acquire)) {
+            lower_limit(start);
+            return -1;
+        }
+        for (uint64_t at = start; at < end;) {
+            ChunkHeader* chunk = ensure_chunk(at >> chunk_bits);
+            if (!chunk) {
+                // These slots will never be committed, so nothing from this
+                // chunk on is published again and later appends fail
+                lower_limit(start);
+                return -1;
+            }
+            size_t offset = at & (chunk_size - 1);
+            size_t n = std::min<uint64_t>(chunk_size - offset, end - at);
+            std::memcpy(values_of(chunk) + offset, values + (at - start), n * sizeof(int64_t));
+            chunk->committed.fetch_add(n, std::memory_order_seq_cst);
+            at += n;
+        }
+        advance();
+        return static_cast<int64_t>(start);
+    }
+
+    // Move the published length over every chunk prefix whose reserved
+    // slots are all committed
+    void advance() {
+        uint64_t p = published.load(std::memory_order_seq_cst);
+        for (;;) {
+            size_t c = p >> chunk_bits;
+            if (c >= MAX_CHUNKS) return;
+            ChunkHeader* chunk = chunks[c].load(std::memory_order_acquire);
+            if (!chunk) return;
+            uint64_t chunk_start = uint64_t(c) << chunk_bits;
+            // Read the counter before tail: every slot it counts was
+            // reserved before that read, so it can only equal the number
+            // of slots reserved in the chunk when all of them are committed
+            uint64_t committed = chunk->committed.load(std::memory_order_seq_cst);
+            uint64_t reserved = std::min<uint64_t>(tail.load(std::memory_order_seq_cst), chunk_start + chunk_size);
+            if (reserved <= p || committed != reserved - chunk_start) return;
+            if (published.compare_exchange_weak(p, reserved, std::memory_order_seq_cst)) {
+                if (reserved < chunk_start + chunk_size) return;
+                p = reserved;
+            }
+        }
+    }
+
+    size_t read(size_t from, int64_t* out, size_t max) const {
+        size_t end = published.load(std::memory_order_acquire);
+        if (from >= end) return 0;
+        size_t count = std::min(max, end - from);
+        for (size_t at = from; at < from + count;) {
+            ChunkHeader* chunk = chunks[at >> chunk_bits].load(std::memory_order_acquire);
+            size_t offset = at & (chunk_size - 1);
+            size_t n = std::min(chunk_size - offset, from + count - at);
+            std::memcpy(out + (at - from), values_of(chunk) + offset, n * sizeof(int64_t));
+            at += n;
+        }
+        return count;
+    }
+
+    const int chunk_bits;
+    const size_t chunk_size;
+    std::atomic<ChunkHeader*>* const chunks;
+    alignas(64) std::atomic<uint64_t> tail;
+    alignas(64) std::atomic<uint64_t> published;
+    alignas(64) std::atomic<uint64_t> limit;
+    std::atomic<size_t> allocated;
+};
+
+} // namespace
+
+extern "C" {
+
+jstl_longlog_t jstl_longlog_create(int chunk_bits) {
+    if (chunk_bits < MIN_CHUNK_BITS || chunk_bits > MAX_CHUNK_BITS) return nullptr;
+    // calloc leaves the 8 MB directory to be paged in as chunks are added
+    void* directory = std::calloc(MAX_CHUNKS, sizeof(std::atomic<ChunkHeader*>));
+    if (!directory) return nullptr;
+    try {
+        return new LongLog(chunk_bits, static_cast<std::atomic<ChunkHeader*>*>(directory));
+    } catch (...) {
+        std::free(directory);
+        return nullptr;
+    }
+}
+
+void jstl_longlog_destroy(jstl_longlog_t log) {
+    if (log) {
+        delete static_cast<LongLog*>(log);
+    }
+}
+
+int64_t jstl_longlog_append(jstl_longlog_t log, int64_t value) {
+    if (!log) return -1;
+    return static_cast<LongLog*>(log)->append(&value, 1);
+}
+
+int64_t jstl_longlog_append_all(jstl_longlog_t log, const int64_t* values, size_t count) {
+    if (!log || (!values && count > 0)) return -1;
+    LongLog* l = static_cast<LongLog*>(log);
+    if (count == 0) return static_cast<int64_t>(l->published.load(std::memory_order_acquire));
+    return l->append(values, count);
+}
+
+size_t jstl_longlog_published(jstl_longlog_t log) {
+    if (!log) return 0;
+    return static_cast<LongLog*>(log)->published.load(std::memory_order_acquire);
+}
+
+int64_t jstl_longlog_get(jstl_longlog_t log, size_t index) {
+    if (!log) return 0;
+    LongLog* l = static_cast<LongLog*>(log);
+    if (index >= l->published.load(std::memory_order_acquire)) return 0;
+    return values_of(l->chunks[index >> l->chunk_bits].load(std::memory_order_acquire))[index & (l->chunk_size - 1)];
+}
+
+size_t jstl_longlog_read(jstl_longlog_t log, size_t from, int64_t* out, size_t max) {
+    if (!log || !out) return 0;
+    return static_cast<LongLog*>(log)->read(from, out, max);
+}
+
+const int64_t* jstl_longlog_chunk(jstl_longlog_t log, size_t index) {
+    if (!log || index >= MAX_CHUNKS) return nullptr;
+    LongLog* l = static_cast<LongLog*>(log);
+    if (index << l->chunk_bits >= l->published.load(std::memory_order_acquire)) return nullptr;
+    return values_of(l->chunks[index].load(std::memory_order_acquire));
+}
+
+size_t jstl_longlog_capacity(jstl_longlog_t log) {
+    if (!log) return 0;
+    return MAX_CHUNKS << static_cast<LongLog*>(log)->chunk_bits;
+}
+
+void jstl_longlog_clear(jstl_longlog_t log) {
+    if (!log) return;
+    LongLog* l = static_cast<LongLog*>(log);
+    l->free_chunks();
+    l->tail.store(0, std::memory_order_relaxed);
+    l->published.store(0, std::memory_order_relaxed);
+    l->limit.store(MAX_CHUNKS << l->chunk_bits, std::memory_order_release);
+}
+
+size_t jstl_longlog_size_in_bytes(jstl_longlog_t log) {
+    if (!log) return 0;
+    LongLog* l = static_cast<LongLog*>(log);
+    return sizeof(LongLog) + MAX_CHUNKS * sizeof(std::atomic<ChunkHeader*>) +
+           l->allocated.load(std::memory_order_relaxed) * (sizeof(ChunkHeader) + l->chunk_size * sizeof(int64_t));
+}
+
+} // extern "C"
@@ -0,0 +1,296 @@
+#include "jstl_multimap.h"
+#include "jstl_hash.h"
+#include <algorithm>
+#include <cstring>
+#include <memory>
+#include <stdexcept>
+#include <vector>
+
+static const uint64_t EMPTY = UINT64_MAX;
+static const size_t MIN_TABLE = 16;
+
+// A key's list occupies pool[offset, offset + capacity), the first size
+// entries in use. Slots with offset == EMPTY are free.
+struct Slot {
+    int64_t key;
+    uint64_t offset;
+    uint32_t size;
+    uint32_t capacity;
+};
+
+// Open-addressing table of keys (linear probing, backward-shift deletion)
+// over one shared pool of values. A list that outgrows its region moves to
+// the end of the pool, leaving the old region as garbage until compact().
+struct LongMultimap {
+    std::vector<Slot> table;
+    size_t mask;
+    size_t keys = 0;
+    size_t values = 0;
+    std::vector<int64_t> pool;
+};
+
+static void reset_table(LongMultimap* m, size_t capacity) {
+    Slot empty = {0, EMPTY, 0, 0};
+    m->table.assign(capacity, empty);
+    m->mask = capacity - 1;
+    m->keys = 0;
+}
+
+static size_t home(const LongMultimap* m, int64_t key) {
+    return static_cast<size_t>(jstl::mix64(static_cast<uint64_t>(key))) & m->mask;
+}
+
+static Slot* find(LongMultimap* m, int64_t key) {
+    for (size_t i = home(m, key);; i = (i + 1) & m->mask) {
+        Slot& s = m->table[i];
+        if (s.offset == EMPTY) return nullptr;
+        if (s.key == key) return &s;
+    }
+}
+
+// Place a slot into a table known to have room
+static void place(std::vector<Slot>& table, size_t mask, const Slot& slot) {
+    size_t i = static_cast<size_t>(jstl::mix64(static_cast<uint64_t>(slot.key))) & mask;
+    while (table[i].offset != EMPTY) {
+        i = (i + 1) & mask;
+    }
+    table[i] = slot;
+}
+
+// Move every key into a table of the given power-of-two size
+static void rehash(LongMultimap* m, size_t capacity) {
+    Slot empty = {0, EMPTY, 0, 0};
+    std::vector<Slot> table(capacity, empty);
+    for (const Slot& slot : m->table) {
+        if (slot.offset != EMPTY) place(table, capacity - 1, slot);
+    }
+    m->table.swap(table);
+    m->mask = capacity - 1;
+}
+
+// Find key's slot, adding an empty list for it if absent
+static Slot* find_or_insert(LongMultimap* m, int64_t key, bool* inserted) {
+    *inserted = false;
+    Slot* s = find(m, key);
+    if (s) return s;
+    if ((m->keys + 1) * 4 > m->table.size() * 3) {
+        rehash(m, m->table.size() * 2);
+    }
+    Slot fresh = {key, m->pool.size(), 0, 0};
+    place(m->table, m->mask, fresh);
+    m->keys++;
+    *inserted = true;
+    return find(m, key);
+}
+
+static void erase(LongMultimap* m, Slot* slot) {
+    size_t i = static_cast<size_t>(slot - m->table.data());
+    m->table[i].offset = EMPTY;
+    m->keys--;
+    // Pull later entries of the probe run back so lookups never stop early
+    for (size_t j = (i + 1) & m->mask; m->table[j].offset != EMPTY; j = (j + 1) & m->mask) {
+        size_t k = home(m, m->table[j].key);
+        bool in_place = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+        if (in_place) continue;
+        m->table[i] = m->table[j];
+        m->table[j].offset = EMPTY;
+        i = j;
+    }
+}
+
+// Append count values to a slot's list, growing its region geometrically.
+// Leaves the slot unchanged if memory runs out.
+static void append(LongMultimap* m, Slot* s, const int64_t* values, size_t count) {
+    size_t need = static_cast<size_t>(s->size) + count;
+    if (need > UINT32_MAX) throw std::length_error("list too long");
+    if (need > s->capacity) {
+        size_t capacity = std::min<size_t>(std::max<size_t>(need, static_cast<size_t>(s->capacity) * 2), UINT32_MAX);
+        if (s->offset + s->capacity == m->pool.size()) {
+            // Last region in the pool: grow in place
+            m->pool.resize(s->offset + capacity);
+        } else {
+            uint64_t offset = m->pool.size();
+            m->pool.resize(offset + capacity);
+            std::memcpy(m->pool.data() + offset, m->pool.data() + s->offset, s->size * sizeof(int64_t));
+            s->offset = offset;
+        }
+        s->capacity = static_cast<uint32_t>(capacity);
+    }
+    std::memcpy(m->pool.data() + s->offset + s->size, values, count * sizeof(int64_t));
+    s->size = static_cast<uint32_t>(need);
+    m->values += count;
+}
+
+static void put_values(LongMultimap* m, int64_t key, const int64_t* values, size_t count) {
+    bool inserted;
+    Slot* s = find_or_insert(m, key, &inserted);
+    try {
+        append(m, s, values, count);
+    } catch (...) {
+        if (inserted) erase(m, s);
+        throw;
+    }
+}
+
+extern "C" {
+
+jstl_multimap_t jstl_multimap_create() {
+    try {
+        std::unique_ptr<LongMultimap> m(new LongMultimap());
+        reset_table(m.get(), MIN_TABLE);
+        return m.release();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_multimap_destroy(jstl_multimap_t multimap) {
+    if (multimap) {
+        delete static_cast<LongMultimap*>(multimap);
+    }
+}
+
+int jstl_multimap_put(jstl_multimap_t multimap, int64_t key, int64_t value) {
+    if (!multimap) return 0;
+    try {
+        put_values(static_cast<LongMultimap*>(multimap), key, &value, 1);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_multimap_put_all(jstl_multimap_t multimap, int64_t key, const int64_t* values, size_t count) {
+    if (!multimap || (!values && count > 0)) return 0;
+    if (count == 0) return 1;
+    try {
+        put_values(static_cast<LongMultimap*>(multimap), key, values, count);
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_multimap_put_pairs(jstl_multimap_t multimap, const int64_t* keys, const int64_t* values, size_t count) {
+    if (!multimap || ((!keys || !values) && count > 0)) return 0;
+    try {
+        LongMultimap* m = static_cast<LongMultimap*>(multimap);
+        for (size_t i = 0; i < count;) {
+            // Runs of equal keys are appended in one step
+            size_t end = i + 1;
+            while (end < count && keys[end] == keys[i]) end++;
+            put_values(m, keys[i], values + i, end - i);
+            i = end;
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_multimap_count(jstl_multimap_t multimap, int64_t key) {
+    if (!multimap) return 0;
+    Slot* s = find(static_cast<LongMultimap*>(multimap), key);
+    return s ? s->size : 0;
+}
+
+const int64_t* jstl_multimap_values(jstl_multimap_t multimap, int64_t key, size_t* count) {
+    if (!multimap || !count) return nullptr;
+    LongMultimap* m = static_cast<LongMultimap*>(multimap);
+    Slot* s = find(m, key);
+    if (!s) {
+        *count = 0;
+        return nullptr;
+    }
+    *count = s->size;
+    return m->pool.data() + s->offset;
+}
+
+int jstl_multimap_contains_key(jstl_multimap_t multimap, int64_t key) {
+    if (!multimap) return 0;
+    return find(static_cast<LongMultimap*>(multimap), key) ? 1 : 0;
+}
+
+size_t jstl_multimap_remove_all(jstl_multimap_t multimap, int64_t key) {
+    if (!multimap) return 0;
+    LongMultimap* m = static_cast<LongMultimap*>(multimap);
+    Slot* s = find(m, key);
+    if (!s) return 0;
+    size_t removed = s->size;
+    if (s->offset + s->capacity == m->pool.size()) {
+        m->pool.resize(s->offset);  // Last region: give it back to the pool
+    }
+    m->values -= removed;
+    erase(m, s);
+    return removed;
+}
+
+size_t jstl_multimap_key_count(jstl_multimap_t multimap) {
+    if (!multimap) return 0;
+    return static_cast<LongMultimap*>(multimap)->keys;
+}
+
+size_t jstl_multimap_size(jstl_multimap_t multimap) {
+    if (!multimap) return 0;
+    return static_cast<LongMultimap*>(multimap)->values;
+}
+
+size_t jstl_multimap_keys(jstl_multimap_t multimap, int64_t* out, size_t capacity) {
+    if (!multimap || !out) return 0;
+    LongMultimap* m = static_cast<LongMultimap*>(multimap);
+    size_t n = 0;
+    for (const Slot& s : m->table) {
+        if (n == capacity) break;
+        if (s.offset != EMPTY) out[n++] = s.key;
+    }
+    return n;
+}
+
+void jstl_multimap_clear(jstl_multimap_t multimap) {
+    if (!multimap) return;
+    LongMultimap* m = static_cast<LongMultimap*>(multimap);
+    try {
+        reset_table(m, MIN_TABLE);
+    } catch (...) {
+        // Keep the current table, just emptied
+        for (Slot& s : m->table) s.offset = EMPTY;
+        m->keys = 0;
+    }
+    m->pool.clear();
+    m->values = 0;
+}
+
+int jstl_multimap_compact(jstl_multimap_t multimap) {
+    if (!multimap) return 0;
+    try {
+        LongMultimap* m = static_cast<LongMultimap*>(multimap);
+        // Reserving exactly up front means nothing below can fail halfway
+        std::vector<int64_t> packed;
+        packed.reserve(m->values);
+        for (Slot& s : m->table) {
+            if (s.offset == EMPTY) continue;
+            uint64_t offset = packed.size();
+            packed.insert(packed.end(), m->pool.begin() + s.offset, m->pool.begin() + s.offset + s.size);
+            s.offset = offset;
+            s.capacity = s.size;
+        }
+        m->pool.swap(packed);
+        // Shrink the table too if many keys were removed
+        size_t target = MIN_TABLE;
+        while (m->keys * 4 > target * 3) target <<= 1;
+        if (target < m->table.size()) {
+            rehash(m, target);
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+size_t jstl_multimap_size_in_bytes(jstl_multimap_t multimap) {
+    if (!multimap) return 0;
+    LongMultimap* m = static_cast<LongMultimap*>(multimap);
+    return sizeof(LongMultimap) + m->table.capacity() * sizeof(Slot) + m->pool.capacity() * sizeof(int64_t);
+}
+
+} // extern "C"
@@ -0,0 +1,90 @@
+#ifndef JSTL_PARALLEL_H
+#define JSTL_PARALLEL_H
+
+#include <stddef.h>
+#include <thread>
+#include <vector>
+
+// Internal helpers for multi-threaded native operations (not part of the C API)
+namespace jstl {
+
+// Resolve a requested thread count: 0 means "use all hardware threads"
+inline size_t resolve_threads(size_t requested) {
+    if (requested > 0) return requested;
+    unsigned hw = std::thread::hardware_concurrency();
+    return hw > 0 ? hw : 1;
+}
+
+// Run fn(t) for t in [0, threads), using the calling thread for t == 0
+template <typename Fn>
+void parallel_for(size_t threads, Fn fn) {
+    if (threads <= 1) {
+        fn(0);
+        return;
+    }
+    std::vector<std::thread> workers;
+    workers.reserve(threads - 1);
+    try {
+        for (size_t t = 1; t < threads; t++) {
+            workers.emplace_back(fn, t);
+        }
+    } catch (...) {
+        // Could not start every worker: run the missing slices inline
+        for (size_t t = workers.size() + 1; t < threads; t++) {
+            fn(t);
+        }
+    }
+    fn(0);
+    for (auto& w : workers) {
+        w.join();
+    }
+}
+
+// Begin of slice t when splitting n items into `threads` near-equal slices
+inline size_t slice_begin(size_t n, size_t threads, size_t t) {
+    return n / threads * t + (t < n % threads ? t : n % threads);
+}
+
+// Radix-scatter items [0, n) into `partitions` contiguous ranges: each
+// thread histograms its slice, prefix sums give every thread its own write
+// ranges, then each thread calls write(i, position) for its slice. Items
+// of a partition keep their input order. Returns the partition bounds:
+// partition p spans [bounds[p], bounds[p + 1]).
+template <typename PartitionOf, typename Write>
+std::vector<size_t> scatter_by_partition(size_t n, size_t threads, size_t partitions,
+                                         PartitionOf partition_of, Write write) {
+    std::vector<size_t> offsets(threads * partitions, 0);
+    parallel_for(threads, [&](size_t t) {
+        size_t* histogram = &offsets[t * partitions];
+        size_t end = slice_begin(n, threads, t + 1);
+        for (size_t i = slice_begin(n, threads, t); i < end; i++) {
+            histogram[partition_of(i)]++;
+        }
+    });
+
+    // Within partition p, thread t writes after every lower thread
+    std::vector<size_t> bounds(partitions + 1, 0);
+    size_t running = 0;
+    for (size_t p = 0; p < partitions; p++) {
+        bounds[p] = running;
+        for (size_t t = 0; t < threads; t++) {
+            size_t count = offsets[t * partitions + p];
+            offsets[t * partitions + p] = running;
+            running += count;
+        }
+    }
+    bounds[partitions] = running;
+
+    parallel_for(threads, [&](size_t t) {
+        size_t* cursor = &offsets[t * partitions];
+        size_t end = slice_begin(n, threads, t + 1);
+        for (size_t i = slice_begin(n, threads, t); i < end; i++) {
+            write(i, cursor[partition_of(i)]++);
+        }
+    });
+    return bounds;
+}
+
+} // namespace jstl
+
+#endif // JSTL_PARALLEL_H
@@ -0,0 +1,329 @@
+#include "jstl_pqueue.h"
+#include "jstl_types.h"
+#include <algorithm>
+#include <cstring>
+#include <type_traits>
+#include <vector>
+
+// A 4-ary heap is half as deep as a binary one and its four children share
+// one 32-byte stretch of priorities, so a sift touches fewer cache lines
+static const size_t ARITY = 4;
+
+// Priorities and payloads are kept in separate arrays so sifts compare
+// densely packed priorities; payloads only move along with them
+struct PriorityQueue {
+    bool max_heap;       // the root is the largest priority
+    bool with_payloads;
+    size_t bound;        // 0 for an unbounded queue, k for a top-k
+    std::vector<int64_t> priorities;
+    std::vector<int64_t> payloads;
+};
+
+template <bool Max>
+static inline bool before(int64_t a, int64_t b) {
+    return Max ? a > b : a < b;
+}
+
+template <bool Max, bool Pay>
+static void sift_up(int64_t* pr, int64_t* pay, size_t i) {
+    int64_t p = pr[i];
+    int64_t v = Pay ? pay[i] : 0;
+    while (i > 0) {
+        size_t parent = (i - 1) / ARITY;
+        if (!before<Max>(p, pr[parent])) break;
+        pr[i] = pr[parent];
+        if (Pay) pay[i] = pay[parent];
+        i = parent;
+    }
+    pr[i] = p;
+    if (Pay) pay[i] = v;
+}
+
+template <bool Max, bool Pay>
+static void sift_down(int64_t* pr, int64_t* pay, size_t n, size_t i) {
+    int64_t p = pr[i];
+    int64_t v = Pay ? pay[i] : 0;
+    for (;;) {
+        size_t first = i * ARITY + 1;
+        if (first >= n) break;
+        size_t best = first;
+        size_t end = std::min(first + ARITY, n);
+        for (size_t c = first + 1; c < end; c++) {
+            if (before<Max>(pr[c], pr[best])) best = c;
+        }
+        if (!before<Max>(pr[best], p)) break;
+        pr[i] = pr[best];
+        if (Pay) pay[i] = pay[best];
+        i = best;
+    }
+    pr[i] = p;
+    if (Pay) pay[i] = v;
+}
+
+// Floyd's bottom-up construction, O(n)
+template <bool Max, bool Pay>
+static void heapify(int64_t* pr, int64_t* pay, size_t n) {
+    if (n < 2) return;
+    for (size_t i = (n - 2) / ARITY + 1; i-- > 0;) {
+        sift_down<Max, Pay>(pr, pay, n, i);
+    }
+}
+
+// Sort a heap in place into reverse poll order
+template <bool Max, bool Pay>
+static void heap_sort(int64_t* pr, int64_t* pay, size_t n) {
+    for (size_t end = n; end > 1; end--) {
+        std::swap(pr[0], pr[end - 1]);
+        if (Pay) std::swap(pay[0], pay[end - 1]);
+        sift_down<Max, Pay>(pr, pay, end - 1, 0);
+    }
+}
+
+// Call f with the heap order and payload flag as compile-time constants
+template <typename F>
+static auto dispatch(const PriorityQueue* q, F f) {
+    if (q->max_heap) {
+        return q->with_payloads ? f(std::true_type(), std::true_type()) : f(std::true_type(), std::false_type());
+    }
+    return q->with_payloads ? f(std::false_type(), std::true_type()) : f(std::false_type(), std::false_type());
+}
+
+// Make room for size() + extra entries in both arrays, doubling so repeated
+// single offers stay amortized O(1); throws before changing anything
+static void reserve(PriorityQueue* q, size_t extra) {
+    size_t needed = q->priorities.size() + extra;
+    if (q->bound) needed = std::min(needed, q->bound);
+    if (needed <= q->priorities.capacity()) return;
+    size_t capacity = std::max(needed, q->priorities.capacity() * 2);
+    if (q->bound) capacity = std::min(capacity, q->bound);
+    std::vector<int64_t> priorities;
+    std::vector<int64_t> payloads;
+    priorities.reserve(capacity);
+    if (q->with_payloads) payloads.reserve(capacity);
+    priorities.assign(q->priorities.begin(), q->priorities.end());
+    payloads.assign(q->payloads.begin(), q->payloads.end());
+    q->priorities.swap(priorities);
+    q->payloads.swap(payloads);
+}
+
+template <bool Max, bool Pay>
+static void push(PriorityQueue* q, int64_t priority, int64_t payload) {
+    q->priorities.push_back(priority);
+    if (Pay) q->payloads.push_back(payload);
+    sift_up<Max, Pay>(q->priorities.data(), q->payloads.data(), q->priorities.size() - 1);
+}
+
+// Replace the root of a full top-k and restore the heap
+template <bool Max, bool Pay>
+static void replace_root(PriorityQueue* q, int64_t priority, int64_t payload) {
+    q->priorities[0] = priority;
+    if (Pay) q->payloads[0] = payload;
+    sift_down<Max, Pay>(q->priorities.data(), q->payloads.data(), q->priorities.size(), 0);
+}
+
+template <bool Max, bool Pay>
+static int offer(PriorityQueue* q, int64_t priority, int64_t payload) {
+    if (q->bound && q->priorities.size() == q->bound) {
+        if (!before<Max>(q->priorities[0], priority)) return 0;
+        replace_root<Max, Pay>(q, priority, payload);
+        return 1;
+    }
+    reserve(q, 1);
+    push<Max, Pay>(q, priority, payload);
+    return 1;
+}
+
+template <bool Max, bool Pay>
+static int64_t offer_all(PriorityQueue* q, const int64_t* priorities, const int64_t* payloads, size_t count) {
+    reserve(q, count);
+    size_t i = 0;
+    if (!q->bound) {
+        size_t size = q->priorities.size();
+        if (count < size) {
+            for (; i < count; i++) push<Max, Pay>(q, priorities[i], payloads ? payloads[i] : 0);
+            return static_cast<int64_t>(count);
+        }
+        q->priorities.insert(q->priorities.end(), priorities, priorities + count);
+        if (Pay) {
+            if (payloads) {
+                q->payloads.insert(q->payloads.end(), payloads, payloads + count);
+            } else {
+                q->payloads.resize(size + count, 0);
+            }
+        }
+        heapify<Max, Pay>(q->priorities.data(), q->payloads.data(), q->priorities.size());
+        return static_cast<int64_t>(count);
+    }
+
+    int64_t added = 0;
+    for (; i < count && q->priorities.size() < q->bound; i++, added++) {
+        push<Max, Pay>(q, priorities[i], payloads ? payloads[i] : 0);
+    }
+    // Full: most entries fail the comparison with the worst one kept
+    if (i < count) {
+        int64_t worst = q->priorities[0];
+        for (; i < count; i++) {
+            if (before<Max>(worst, priorities[i])) {
+                replace_root<Max, Pay>(q, priorities[i], payloads ? payloads[i] : 0);
+                worst = q->priorities[0];
+                added++;
+            }
+        }
+    }
+    return added;
+}
+
+// Write every entry into out arrays sorted by jstl_pqueue_sorted's order
+static void sorted(const PriorityQueue* q, int64_t* priorities, int64_t* payloads) {
+    size_t n = q->priorities.size();
+    if (n == 0) return;
+    std::memcpy(priorities, q->priorities.data(), n * sizeof(int64_t));
+    bool pay = payloads && q->with_payloads;
+    if (pay) {
+        std::memcpy(payloads, q->payloads.data(), n * sizeof(int64_t));
+    } else if (payloads) {
+        std::fill(payloads, payloads + n, 0);
+    }
+    dispatch(q, [&](auto max, auto) {
+        if (pay) {
+            heap_sort<decltype(max)::value, true>(priorities, payloads, n);
+        } else {
+            heap_sort<decltype(max)::value, false>(priorities, nullptr, n);
+        }
+    });
+    // Reverse poll order is best first for a top-k, whose root is its worst
+    if (!q->bound) {
+        std::reverse(priorities, priorities + n);
+        if (payloads) std::reverse(payloads, payloads + n);
+    }
+}
+
+static void copy_head(const PriorityQueue* q, int64_t* out) {
+    out[0] = q->priorities[0];
+    out[1] = q->with_payloads ? q->payloads[0] : 0;
+}
+
+extern "C" {
+
+jstl_pqueue_t jstl_pqueue_create(int max_first, int payloads) {
+    try {
+        return new PriorityQueue{max_first != 0, payloads != 0, 0, {}, {}};
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+jstl_pqueue_t jstl_pqueue_create_topk(size_t k, int largest, int payloads) {
+    if (k == 0) return nullptr;
+    try {
+        // Keeping the largest needs the smallest kept at the root
+        return new PriorityQueue{largest == 0, payloads != 0, k, {}, {}};
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_pqueue_destroy(jstl_pqueue_t queue) {
+    if (queue) {
+        delete static_cast<PriorityQueue*>(queue);
+    }
+}
+
+int jstl_pqueue_offer(jstl_pqueue_t queue, int64_t priority, int64_t payload) {
+    if (!queue) return -1;
+    PriorityQueue* q = static_cast<PriorityQueue*>(queue);
+    try {
+        return dispatch(q, [&](auto max, auto pay) {
+            return offer<decltype(max)::value, decltype(pay)::value>(q, priority, payload);
+        });
+    } catch (...) {
+        return -1;
+    }
+}
+
+int64_t jstl_pqueue_offer_all(jstl_pqueue_t queue, const int64_t* priorities, const int64_t* payloads,
+                              size_t count) {
+    if (!queue) return -1;
+    if (count == 0) return 0;
+    if (!priorities) return -1;
+    PriorityQueue* q = static_cast<PriorityQueue*>(queue);
+    try {
+        return dispatch(q, [&](auto max, auto pay) {
+            return offer_all<decltype(max)::value, decltype(pay)::value>(q, priorities, payloads, count);
+        });
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_pqueue_peek(jstl_pqueue_t queue, int64_t* out) {
+    if (!queue || !out) return 0;
+    PriorityQueue* q = static_cast<PriorityQueue*>(queue);
+    if (q->priorities.empty()) return 0;
+    copy_head(q, out);
+    return 1;
+}
+
+int jstl_pqueue_poll(jstl_pqueue_t queue, int64_t* out) {
+    if (!queue || !out) return 0;
+    PriorityQueue* q = static_cast<PriorityQueue*>(queue);
+    if (q->priorities.empty()) return 0;
+    copy_head(q, out);
+    size_t last = q->priorities.size() - 1;
+    q->priorities[0] = q->priorities[last];
+    q->priorities.pop_back();
+    if (q->with_payloads) {
+        q->payloads[0] = q->payloads[last];
+        q->payloads.pop_back();
+    }
+    dispatch(q, [&](auto max, auto pay) {
+        sift_down<decltype(max)::value, decltype(pay)::value>(q->priorities.data(), q->payloads.data(), last, 0);
+    });
+    return 1;
+}
+
+size_t jstl_pqueue_size(jstl_pqueue_t queue) {
+    if (!queue) return 0;
+    return static_cast<PriorityQueue*>(queue)->priorities.size();
+}
+
+void jstl_pqueue_sorted(jstl_pqueue_t queue, int64_t* priorities, int64_t* payloads) {
+    if (!queue || !priorities) return;
+    sorted(static_cast<PriorityQueue*>(queue), priorities, payloads);
+}
+
+int jstl_pqueue_drain_to_lists(jstl_pqueue_t queue, jstl_arraylist_t priorities, jstl_arraylist_t payloads) {
+    if (!queue || !priorities) return 0;
+    PriorityQueue* q = static_cast<PriorityQueue*>(queue);
+    std::vector<int64_t>& pr = static_cast<ArrayList*>(priorities)->vec;
+    std::vector<int64_t>* pay = payloads ? &static_cast<ArrayList*>(payloads)->vec : nullptr;
+    size_t n = q->priorities.size();
+    size_t pr_at = pr.size();
+    size_t pay_at = pay ? pay->size() : 0;
+    try {
+        pr.resize(pr_at + n);
+        if (pay) pay->resize(pay_at + n);
+    } catch (...) {
+        pr.resize(pr_at);
+        return 0;
+    }
+    sorted(q, pr.data() + pr_at, pay ? pay->data() + pay_at : nullptr);
+    q->priorities.clear();
+    q->payloads.clear();
+    return 1;
+}
+
+void jstl_pqueue_clear(jstl_pqueue_t queue) {
+    if (!queue) return;
+    PriorityQueue* q = static_cast<PriorityQueue*>(queue);
+    q->priorities.clear();
+    q->payloads.clear();
+}
+
+size_t jstl_pqueue_size_in_bytes(jstl_pqueue_t queue) {
+    if (!queue) return 0;
+    PriorityQueue* q = static_cast<PriorityQueue*>(queue);
+    return sizeof(PriorityQueue) + (q->priorities.capacity() + q->payloads.capacity()) * sizeof(int64_t);
+}
+
+} // extern "C"
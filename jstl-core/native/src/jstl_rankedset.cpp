@@ -0,0 +1,587 @@
+#include "jstl_rankedset.h"
+#include "jstl_sort.h"
+#include <algorithm>
+#include <cstring>
+#include <vector>
+
+namespace {
+
+// A leaf holds up to 64 sorted keys (512 bytes); an inner node up to 32
+// children with, for each, its lowest possible key and its key count.
+// Every node but the root stays at least half full, so the tree is
+// O(log n) deep and a billion keys fit in five levels.
+const uint32_t LEAF_CAP = 64;
+const uint32_t LEAF_MIN = LEAF_CAP / 2;
+const uint32_t INNER_CAP = 32;
+const uint32_t INNER_MIN = INNER_CAP / 2;
+const int MAX_HEIGHT = 64;
+
+struct Node {
+    bool leaf;
+    uint32_t n;
+};
+
+struct Leaf : Node {
+    int64_t keys[LEAF_CAP];
+};
+
+// Child i holds keys in [seps[i], seps[i + 1]); seps[0] is only a bound
+struct Inner : Node {
+    int64_t seps[INNER_CAP];
+    uint64_t counts[INNER_CAP];
+    Node* child[INNER_CAP];
+};
+
+Leaf* as_leaf(Node* node) { return static_cast<Leaf*>(node); }
+Inner* as_inner(Node* node) { return static_cast<Inner*>(node); }
+
+Leaf* new_leaf() {
+    Leaf* leaf = new Leaf;
+    leaf->leaf = true;
+    leaf->n = 0;
+    return leaf;
+}
+
+Inner* new_inner() {
+    Inner* inner = new Inner;
+    inner->leaf = false;
+    inner->n = 0;
+    return inner;
+}
+
+// Index of the child whose range holds key
+uint32_t route(const Inner* inner, int64_t key) {
+    return static_cast<uint32_t>(std::upper_bound(inner->seps + 1, inner->seps + inner->n, key) - inner->seps - 1);
+}
+
+uint64_t count_of(const Node* node) {
+    if (node->leaf) return node->n;
+    const Inner* inner = static_cast<const Inner*>(node);
+    uint64_t total = 0;
+    for (uint32_t i = 0; i < inner->n; i++) total += inner->counts[i];
+    return total;
+}
+
+bool full(const Node* node) {
+    return node->n == (node->leaf ? LEAF_CAP : INNER_CAP);
+}
+
+bool minimal(const Node* node) {
+    return node->n <= (node->leaf ? LEAF_MIN : INNER_MIN);
+}
+
+// Move entries [from, n) of a node to the front of an empty one
+void move_tail(Node* src, Node* dst, uint32_t from) {
+    uint32_t moved = src->n - from;
+    if (src->leaf) {
+        std::memcpy(as_leaf(dst)->keys, as_leaf(src)->keys + from, moved * sizeof(int64_t));
+    } else {
+        Inner* s = as_inner(src);
+        Inner* d = as_inner(dst);
+        std::memcpy(d->seps, s->seps + from, moved * sizeof(int64_t));
+        std::memcpy(d->counts, s->counts + from, moved * sizeof(uint64_t));
+        std::memcpy(d->child, s->child + from, moved * sizeof(Node*));
+    }
+    dst->n = moved;
+    src->n = from;
+}
+
+// Insert (sep, count, child) at position i of a non-full inner node
+void insert_child(Inner* inner, uint32_t i, int64_t sep, uint64_t count, Node* child) {
+    uint32_t tail = inner->n - i;
+    std::memmove(inner->seps + i + 1, inner->seps + i, tail * sizeof(int64_t));
+    std::memmove(inner->counts + i + 1, inner->counts + i, tail * sizeof(uint64_t));
+    std::memmove(inner->child + i + 1, inner->child + i, tail * sizeof(Node*));
+    inner->seps[i] = sep;
+    inner->counts[i] = count;
+    inner->child[i] = child;
+    inner->n++;
+}
+
+void erase_child(Inner* inner, uint32_t i) {
+    uint32_t tail = inner->n - i - 1;
+    std::memmove(inner->seps + i, inner->seps + i + 1, tail * sizeof(int64_t));
+    std::memmove(inner->counts + i, inner->counts + i + 1, tail * sizeof(uint64_t));
+    std::memmove(inner->child + i, inner->child + i + 1, tail * sizeof(Node*));
+    inner->n--;
+}
+
+class RankedSet {
+public:
+    RankedSet() : root_(new_leaf()), size_(0), leaves_(1), inners_(0) {}
+
+    ~RankedSet() { destroy(root_); }
+
+    RankedSet(const RankedSet&) = delete;
+    RankedSet& operator=(const RankedSet&) = delete;
+
+    size_t size() const { return size_; }
+
+    size_t bytes() const {
+        return sizeof(RankedSet) + leaves_ * sizeof(Leaf) + inners_ * sizeof(Inner);
+    }
+
+    bool contains(int64_t key) const {
+        const Node* node = root_;
+        while (!node->leaf) {
+            const Inner* inner = static_cast<const Inner*>(node);
+            node = inner->child[route(inner, key)];
+        }
+        const Leaf* leaf = static_cast<const Leaf*>(node);
+        const int64_t* pos = std::lower_bound(leaf->keys, leaf->keys + leaf->n, key);
+        return pos != leaf->keys + leaf->n && *pos == key;
+    }
+
+    // Splits full nodes on the way down, so all allocation happens before
+    // the key goes in and a failed allocation leaves a valid tree
+    bool insert(int64_t key) {
+        if (full(root_)) {
+            Inner* root = new_inner();
+            root->n = 1;
+            root->seps[0] = 0;
+            root->counts[0] = size_;
+            root->child[0] = root_;
+            try {
+                split_child(root, 0);
+            } catch (...) {
+                delete root;
+                throw;
+            }
+            inners_++;
+            root_ = root;
+        }
+
+        uint64_t* path[MAX_HEIGHT];
+        int depth = 0;
+        Node* node = root_;
+        while (!node->leaf) {
+            Inner* inner = as_inner(node);
+            uint32_t i = route(inner, key);
+            if (full(inner->child[i])) {
+                split_child(inner, i);
+                i = route(inner, key);
+            }
+            path[depth++] = &inner->counts[i];
+            node = inner->child[i];
+        }
+
+        Leaf* leaf = as_leaf(node);
+        int64_t* pos = std::lower_bound(leaf->keys, leaf->keys + leaf->n, key);
+        if (pos != leaf->keys + leaf->n && *pos == key) return false;
+        std::memmove(pos + 1, pos, (leaf->keys + leaf->n - pos) * sizeof(int64_t));
+        *pos = key;
+        leaf->n++;
+        for (int d = 0; d < depth; d++) (*path[d])++;
+        size_++;
+        return true;
+    }
+
+    // Tops up minimal nodes on the way down, so the key can come out of
+    // its leaf without any node underflowing; never allocates
+    bool erase(int64_t key) {
+        uint64_t* path[MAX_HEIGHT];
+        int depth = 0;
+        Node* node = root_;
+        while (!node->leaf) {
+            Inner* inner = as_inner(node);
+            uint32_t i = route(inner, key);
+            if (minimal(inner->child[i])) {
+                i = refill_child(inner, i, key);
+            }
+            path[depth++] = &inner->counts[i];
+            node = inner->child[i];
+        }
+
+        Leaf* leaf = as_leaf(node);
+        int64_t* end = leaf->keys + leaf->n;
+        int64_t* pos = std::lower_bound(leaf->keys, end, key);
+        bool found = pos != end && *pos == key;
+        if (found) {
+            std::memmove(pos, pos + 1, (end - pos - 1) * sizeof(int64_t));
+            leaf->n--;
+            for (int d = 0; d < depth; d++) (*path[d])--;
+            size_--;
+        }
+        // Merges may have left the root with a single child
+        while (!root_->leaf && root_->n == 1) {
+            Inner* old = as_inner(root_);
+            root_ = old->child[0];
+            delete old;
+            inners_--;
+        }
+        return found;
+    }
+
+    size_t rank(int64_t key, bool inclusive) const {
+        size_t rank = 0;
+        const Node* node = root_;
+        while (!node->leaf) {
+            const Inner* inner = static_cast<const Inner*>(node);
+            uint32_t i = route(inner, key);
+            for (uint32_t c = 0; c < i; c++) rank += inner->counts[c];
+            node = inner->child[i];
+        }
+        const Leaf* leaf = static_cast<const Leaf*>(node);
+        const int64_t* end = leaf->keys + leaf->n;
+        const int64_t* pos = inclusive ? std::upper_bound(leaf->keys, end, key) : std::lower_bound(leaf->keys, end, key);
+        return rank + (pos - leaf->keys);
+    }
+
+    int64_t select(size_t index) const {
+        const Node* node = root_;
+        while (!node->leaf) {
+            const Inner* inner = static_cast<const Inner*>(node);
+            uint32_t i = 0;
+            while (index >= inner->counts[i]) index -= inner->counts[i++];
+            node = inner->child[i];
+        }
+        return static_cast<const Leaf*>(node)->keys[index];
+    }
+
+    size_t slice(size_t from, size_t count, int64_t* out) const {
+        if (from >= size_) return 0;
+        count = std::min(count, size_ - from);
+        size_t written = 0;
+        copy_range(root_, from, count, out, written);
+        return written;
+    }
+
+    // Replace the contents with sorted, distinct keys, building full-ish
+    // levels bottom-up instead of inserting one key at a time
+    void load_sorted(const int64_t* keys, size_t n) {
+        std::vector<Node*> level;
+        std::vector<int64_t> firsts;
+        std::vector<uint64_t> counts;
+        try {
+            size_t nodes = std::max<size_t>(1, (n + LEAF_CAP - 1) / LEAF_CAP);
+            level.reserve(nodes);
+            firsts.reserve(nodes);
+            counts.reserve(nodes);
+            for (size_t b = 0; b < nodes; b++) {
+                // Even shares keep every leaf at least half full
+                size_t begin = n * b / nodes;
+                size_t end = n * (b + 1) / nodes;
+                Leaf* leaf = new_leaf();
+                level.push_back(leaf);
+                std::memcpy(leaf->keys, keys + begin, (end - begin) * sizeof(int64_t));
+                leaf->n = static_cast<uint32_t>(end - begin);
+                firsts.push_back(end > begin ? keys[begin] : 0);
+                counts.push_back(end - begin);
+            }
+            size_t leaves = level.size();
+            size_t inners = 0;
+            while (level.size() > 1) {
+                size_t m = level.size();
+                size_t parents = (m + INNER_CAP - 1) / INNER_CAP;
+                std::vector<Node*> up;
+                std::vector<int64_t> up_firsts;
+                std::vector<uint64_t> up_counts;
+                up.reserve(parents);
+                up_firsts.reserve(parents);
+                up_counts.reserve(parents);
+                try {
+                    for (size_t b = 0; b < parents; b++) {
+                        size_t begin = m * b / parents;
+                        size_t end = m * (b + 1) / parents;
+                        Inner* inner = new_inner();
+                        up.push_back(inner);
+                        uint64_t total = 0;
+                        for (size_t c = begin; c < end; c++) {
+                            inner->seps[c - begin] = firsts[c];
+                            inner->counts[c - begin] = counts[c];
+                            inner->child[c - begin] = level[c];
+                            total += counts[c];
+                        }
+                        inner->n = static_cast<uint32_t>(end - begin);
+                        up_firsts.push_back(firsts[begin]);
+                        up_counts.push_back(total);
+                    }
+                } catch (...) {
+                    // Only the new parents are owned here; the level below
+                    // is freed by the outer handler
+                    for (Node* node : up) delete as_inner(node);
+                    throw;
+                }
+                inners += up.size();
+                level.swap(up);
+                firsts.swap(up_firsts);
+                counts.swap(up_counts);
+            }
+            destroy(root_);
+            root_ = level[0];
+            size_ = n;
+            leaves_ = leaves;
+            inners_ = inners;
+        } catch (...) {
+            for (Node* node : level) destroy(node);
+            throw;
+        }
+    }
+
+    void clear() {
+        Leaf* empty = new_leaf();
+        destroy(root_);
+        root_ = empty;
+        size_ = 0;
+        leaves_ = 1;
+        inners_ = 0;
+    }
+
+private:
+    void destroy(Node* node) {
+        if (node->leaf) {
+            delete as_leaf(node);
+            return;
+        }
+        Inner* inner = as_inner(node);
+        for (uint32_t i = 0; i < inner->n; i++) destroy(inner->child[i]);
+        delete inner;
+    }
+
+    // Split the full child i of a non-full inner node in half
+    void split_child(Inner* parent, uint32_t i) {
+        Node* left = parent->child[i];
+        Node* right = left->leaf ? static_cast<Node*>(new_leaf()) : static_cast<Node*>(new_inner());
+        uint32_t half = left->n / 2;
+        move_tail(left, right, half);
+        int64_t sep;
+        if (left->leaf) {
+            sep = as_leaf(right)->keys[0];
+            leaves_++;
+        } else {
+            sep = as_inner(right)->seps[0];
+            inners_++;
+        }
+        uint64_t moved = count_of(right);
+        parent->counts[i] -= moved;
+        insert_child(parent, i + 1, sep, moved, right);
+    }
+
+    // Give the minimal child i of parent at least one spare entry, by
+    // borrowing from a sibling or merging with one; returns the index of
+    // the child whose range now holds key
+    uint32_t refill_child(Inner* parent, uint32_t i, int64_t key) {
+        if (i > 0 && !minimal(parent->child[i - 1])) {
+            borrow_from_left(parent, i);
+            return i;
+        }
+        if (i + 1 < parent->n && !minimal(parent->child[i + 1])) {
+            borrow_from_right(parent, i);
+            return i;
+        }
+        if (i + 1 < parent->n) {
+            merge_children(parent, i);
+        } else if (i > 0) {
+            merge_children(parent, i - 1);
+        }
+        return route(parent, key);
+    }
+
+    void borrow_from_left(Inner* parent, uint32_t i) {
+        Node* left = parent->child[i - 1];
+        Node* node = parent->child[i];
+        uint32_t last = left->n - 1;
+        if (node->leaf) {
+            Leaf* l = as_leaf(left);
+            Leaf* c = as_leaf(node);
+            std::memmove(c->keys + 1, c->keys, c->n * sizeof(int64_t));
+            c->keys[0] = l->keys[last];
+            c->n++;
+            l->n--;
+            parent->seps[i] = c->keys[0];
+            parent->counts[i - 1]--;
+            parent->counts[i]++;
+            return;
+        }
+        Inner* l = as_inner(left);
+        Inner* c = as_inner(node);
+        uint64_t moved = l->counts[last];
+        // The old first child's bound was the parent's separator
+        c->seps[0] = parent->seps[i];
+        insert_child(c, 0, l->seps[last], moved, l->child[last]);
+        l->n--;
+        parent->seps[i] = c->seps[0];
+        parent->counts[i - 1] -= moved;
+        parent->counts[i] += moved;
+    }
+
+    void borrow_from_right(Inner* parent, uint32_t i) {
+        Node* node = parent->child[i];
+        Node* right = parent->child[i + 1];
+        if (node->leaf) {
+            Leaf* c = as_leaf(node);
+            Leaf* r = as_leaf(right);
+            c->keys[c->n++] = r->keys[0];
+            std::memmove(r->keys, r->keys + 1, (r->n - 1) * sizeof(int64_t));
+            r->n--;
+            parent->seps[i + 1] = r->keys[0];
+            parent->counts[i]++;
+            parent->counts[i + 1]--;
+            return;
+        }
+        Inner* c = as_inner(node);
+        Inner* r = as_inner(right);
+        uint64_t moved = r->counts[0];
+        insert_child(c, c->n, parent->seps[i + 1], moved, r->child[0]);
+        erase_child(r, 0);
+        parent->seps[i + 1] = r->seps[0];
+        parent->counts[i] += moved;
+        parent->counts[i + 1] -= moved;
+    }
+
+    // Append child i + 1 to child i and free it
+    void merge_children(Inner* parent, uint32_t i) {
+        Node* left = parent->child[i];
+        Node* right = parent->child[i + 1];
+        if (left->leaf) {
+            Leaf* l = as_leaf(left);
+            Leaf* r = as_leaf(right);
+            std::memcpy(l->keys + l->n, r->keys, r->n * sizeof(int64_t));
+            l->n += r->n;
+            delete r;
+            leaves_--;
+        } else {
+            Inner* l = as_inner(left);
+            Inner* r = as_inner(right);
+            r->seps[0] = parent->seps[i + 1];
+            std::memcpy(l->seps + l->n, r->seps, r->n * sizeof(int64_t));
+            std::memcpy(l->counts + l->n, r->counts, r->n * sizeof(uint64_t));
+            std::memcpy(l->child + l->n, r->child, r->n * sizeof(Node*));
+            l->n += r->n;
+            delete r;
+            inners_--;
+        }
+        parent->counts[i] += parent->counts[i + 1];
+        erase_child(parent, i + 1);
+    }
+
+    // Copy keys [from, from + count) of a subtree in order, skipping whole
+    // children by their counts
+    static void copy_range(const Node* node, size_t from, size_t count, int64_t* out, size_t& written) {
+        if (node->leaf) {
+            const Leaf* leaf = static_cast<const Leaf*>(node);
+            size_t take = std::min<size_t>(count - written, leaf->n - from);
+            std::memcpy(out + written, leaf->keys + from, take * sizeof(int64_t));
+            written += take;
+            return;
+        }
+        const Inner* inner = static_cast<const Inner*>(node);
+        for (uint32_t i = 0; i < inner->n && written < count; i++) {
+            if (from >= inner->counts[i]) {
+                from -= inner->counts[i];
+                continue;
+            }
+            copy_range(inner->child[i], from, count, out, written);
+            from = 0;
+        }
+    }
+
+    Node* root_;
+    size_t size_;
+    size_t leaves_;
+    size_t inners_;
+};
+
+} // namespace
+
+extern "C" {
+
+jstl_rankedset_t jstl_rankedset_create(void) {
+    try {
+        return new RankedSet();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_rankedset_destroy(jstl_rankedset_t set) {
+    if (set) {
+        delete static_cast<RankedSet*>(set);
+    }
+}
+
+int jstl_rankedset_add(jstl_rankedset_t set, int64_t key) {
+    if (!set) return -1;
+    try {
+        return static_cast<RankedSet*>(set)->insert(key) ? 1 : 0;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int64_t jstl_rankedset_add_all(jstl_rankedset_t set, const int64_t* keys, size_t count) {
+    if (!set) return -1;
+    if (count == 0) return 0;
+    if (!keys) return -1;
+    RankedSet* s = static_cast<RankedSet*>(set);
+    try {
+        std::vector<int64_t> sorted(keys, keys + count);
+        jstl::sort_values(sorted.data(), count);
+        sorted.erase(std::unique(sorted.begin(), sorted.end()), sorted.end());
+        if (s->size() == 0) {
+            s->load_sorted(sorted.data(), sorted.size());
+            return static_cast<int64_t>(sorted.size());
+        }
+        int64_t added = 0;
+        for (int64_t key : sorted) {
+            if (s->insert(key)) added++;
+        }
+        return added;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_rankedset_remove(jstl_rankedset_t set, int64_t key) {
+    if (!set) return 0;
+    return static_cast<RankedSet*>(set)->erase(key) ? 1 : 0;
+}
+
+int jstl_rankedset_contains(jstl_rankedset_t set, int64_t key) {
+    if (!set) return 0;
+    return static_cast<RankedSet*>(set)->contains(key) ? 1 : 0;
+}
+
+size_t jstl_rankedset_rank(jstl_rankedset_t set, int64_t key, int inclusive) {
+    if (!set) return 0;
+    return static_cast<RankedSet*>(set)->rank(key, inclusive != 0);
+}
+
+int64_t jstl_rankedset_select(jstl_rankedset_t set, size_t index) {
+    if (!set) return 0;
+    RankedSet* s = static_cast<RankedSet*>(set);
+    if (index >= s->size()) return 0;
+    return s->select(index);
+}
+
+size_t jstl_rankedset_count_in_range(jstl_rankedset_t set, int64_t lo, int64_t hi) {
+    if (!set || lo > hi) return 0;
+    RankedSet* s = static_cast<RankedSet*>(set);
+    return s->rank(hi, true) - s->rank(lo, false);
+}
+
+size_t jstl_rankedset_slice(jstl_rankedset_t set, size_t from, size_t count, int64_t* out) {
+    if (!set || !out) return 0;
+    return static_cast<RankedSet*>(set)->slice(from, count, out);
+}
+
+size_t jstl_rankedset_size(jstl_rankedset_t set) {
+    if (!set) return 0;
+    return static_cast<RankedSet*>(set)->size();
+}
+
+void jstl_rankedset_clear(jstl_rankedset_t set) {
+    if (!set) return;
+    try {
+        static_cast<RankedSet*>(set)->clear();
+    } catch (...) {
+        // Allocating the empty root failed; the keys are left in place
+    }
+}
+
+size_t jstl_rankedset_size_in_bytes(jstl_rankedset_t set) {
+    if (!set) return 0;
+    return static_cast<RankedSet*>(set)->bytes();
+}
+
+} // extern "C"
@@ -0,0 +1,74 @@
+#include "jstl_records.h"
+#include <cstdlib>
+#include <cstring>
+#include <new>
+
+// Scans over a column or a run of records start on a cache line
+static const size_t ALIGNMENT = 64;
+
+struct RecordBuffer {
+    size_t record_size;
+    size_t capacity = 0;
+    uint8_t* data = nullptr;
+};
+
+// Zero-filled block of at least one cache line, or nullptr on failure
+static uint8_t* allocate(size_t record_size, size_t capacity) {
+    if (record_size != 0 && capacity > (SIZE_MAX - ALIGNMENT) / record_size) {
+        return nullptr;
+    }
+    size_t bytes = (record_size * capacity + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    if (bytes == 0) bytes = ALIGNMENT;
+    void* block = std::aligned_alloc(ALIGNMENT, bytes);
+    if (block) std::memset(block, 0, bytes);
+    return static_cast<uint8_t*>(block);
+}
+
+extern "C" {
+
+jstl_records_t jstl_records_create(size_t record_size, size_t capacity) {
+    if (record_size == 0) return nullptr;
+    try {
+        uint8_t* data = allocate(record_size, capacity);
+        if (!data) return nullptr;
+        RecordBuffer* buffer = new RecordBuffer();
+        buffer->record_size = record_size;
+        buffer->capacity = capacity;
+        buffer->data = data;
+        return buffer;
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_records_destroy(jstl_records_t records) {
+    if (!records) return;
+    RecordBuffer* buffer = static_cast<RecordBuffer*>(records);
+    std::free(buffer->data);
+    delete buffer;
+}
+
+int jstl_records_reallocate(jstl_records_t records, size_t capacity) {
+    if (!records) return 0;
+    RecordBuffer* buffer = static_cast<RecordBuffer*>(records);
+    uint8_t* data = allocate(buffer->record_size, capacity);
+    if (!data) return 0;
+    size_t keep = capacity < buffer->capacity ? capacity : buffer->capacity;
+    std::memcpy(data, buffer->data, keep * buffer->record_size);
+    std::free(buffer->data);
+    buffer->data = data;
+    buffer->capacity = capacity;
+    return 1;
+}
+
+void* jstl_records_data(jstl_records_t records) {
+    if (!records) return nullptr;
+    return static_cast<RecordBuffer*>(records)->data;
+}
+
+size_t jstl_records_capacity(jstl_records_t records) {
+    if (!records) return 0;
+    return static_cast<RecordBuffer*>(records)->capacity;
+}
+
+} // extern "C"
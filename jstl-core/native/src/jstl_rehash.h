@@ -0,0 +1,120 @@
+#ifndef JSTL_REHASH_H
+#define JSTL_REHASH_H
+
+#include <stddef.h>
+#include <utility>
+
+#include "jstl_bloom.h"
+
+// Incremental growth for std::unordered_map/set (not part of the C API)
+namespace jstl {
+
+// Entries a std::unordered_map/set holds before its next rehash
+template <typename Table>
+inline size_t table_capacity(const Table& t) {
+    return static_cast<size_t>(t.bucket_count() * t.max_load_factor());
+}
+
+// Shrink t's bucket array to the smallest that holds its entries. An empty
+// table is swapped for a fresh one so its bucket array is freed outright.
+template <typename Table>
+inline void shrink_table(Table& t) {
+    if (t.empty()) {
+        Table fresh(0, t.hash_function());
+        fresh.max_load_factor(t.max_load_factor());
+        t.swap(fresh);
+    } else {
+        t.rehash(0);
+    }
+}
+
+// A std::unordered_map rehashes every entry at once when it outgrows its
+// bucket array, which stalls one insert for a time proportional to the size.
+// With incremental growth enabled, the full table is instead set aside as
+// `old` and replaced by an empty one with room for twice as many entries;
+// every later write moves a few nodes across (without reallocating them),
+// so the old table drains long before the new one fills up.
+//
+// While a migration runs, entries live in either table. Point operations
+// look in both, and lookups leave both untouched; anything that walks the
+// whole container calls finish() first so the main table holds everything
+// again.
+template <typename Table>
+struct IncrementalRehash {
+    static constexpr size_t STEP = 16;
+
+    Table old;
+    bool enabled = false;
+
+    bool migrating() const { return !old.empty(); }
+
+    // Move up to STEP nodes from the old table into t
+    void step(Table& t) {
+        if (old.empty()) return;
+        if (t.size() + STEP > table_capacity(t)) {
+            t.reserve(t.size() + old.size());  // never let a node insert rehash and drop the node
+        }
+        for (size_t i = 0; i < STEP && !old.empty(); i++) {
+            t.insert(old.extract(old.begin()));
+        }
+        if (old.empty()) release();
+    }
+
+    // Move every remaining node into t
+    void finish(Table& t) {
+        if (old.empty()) return;
+        t.reserve(t.size() + old.size());
+        while (!old.empty()) {
+            t.insert(old.extract(old.begin()));
+        }
+        release();
+    }
+
+    // Call before inserting a key absent from both tables. If t is about
+    // to rehash, swap in a larger empty table and start migrating instead.
+    void before_insert(Table& t) {
+        if (!enabled || t.size() + 1 <= table_capacity(t)) return;
+        if (migrating()) finish(t);
+        Table fresh(0, t.hash_function());
+        fresh.max_load_factor(t.max_load_factor());
+        fresh.reserve((t.size() + 1) * 2);
+        old.swap(t);
+        t.swap(fresh);
+    }
+
+    void clear() {
+        release();
+    }
+
+private:
+    void release() {
+        Table().swap(old);  // free the old bucket array
+    }
+};
+
+// Both tables of a migration seen as one container, for code that needs
+// every entry (such as rebuilding a Bloom filter)
+template <typename Table>
+struct SplitView {
+    const Table& current;
+    const Table& old;
+
+    size_t size() const { return current.size() + old.size(); }
+};
+
+template <typename Table, typename F>
+inline void for_each_entry(const SplitView<Table>& view, F f) {
+    for (const auto& entry : view.current) f(entry);
+    for (const auto& entry : view.old) f(entry);
+}
+
+// Old table first: a migration only moves entries from old to current, so a
+// walk in this order cannot miss an entry by having it jump behind it
+template <typename Table>
+inline TableWalk<Table> tables_of(const SplitView<Table>& view) {
+    return {{&view.old, &view.current}, 2};
+}
+
+} // namespace jstl
+
+#endif // JSTL_REHASH_H
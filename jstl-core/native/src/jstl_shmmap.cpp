@@ -0,0 +1,571 @@
+#include "jstl_shmmap.h"
+#include "jstl_hash.h"
+#include <algorithm>
+#include <atomic>
+#include <cerrno>
+#include <chrono>
+#include <cstdint>
+#include <new>
+#include <random>
+#include <thread>
+
+#ifndef _WIN32
+#include <fcntl.h>
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <unistd.h>
+#endif
+
+namespace {
+
+const uint64_t MAGIC = 0x314D4853'4C54534AULL;  // "JSTLSHM1"
+const uint32_t LAYOUT_VERSION = 1;
+const size_t MIN_SLOTS = 8;
+const size_t PUT_GROUP = 256;       // entries published per putAll write section
+const size_t CLEAR_GROUP = 65536;   // slots emptied per clear write section
+const size_t GET_GROUP = 16;        // keys looked up per getAll read section
+
+// Everything in the region is found by offset from its start, so each
+// process can map it anywhere. Only the writer stores to it. The fields
+// before seq are written once, before magic is published.
+struct Header {
+    std::atomic<uint64_t> magic;
+    uint32_t layout_version;
+    uint32_t header_bytes;
+    uint64_t seed;           // hash seed picked by the writer
+    uint64_t slot_count;     // power of two
+    uint64_t max_entries;
+    uint64_t slots_offset;   // from the start of the region
+    uint64_t region_bytes;
+    // Odd while the writer is changing the table; each change adds 2
+    alignas(64) std::atomic<uint64_t> seq;
+    std::atomic<uint64_t> size;
+    // Key 0 marks an empty slot, so its entry lives here
+    std::atomic<int64_t> zero_present;
+    std::atomic<int64_t> zero_value;
+};
+
+// Open-addressed with linear probing; key 0 means empty
+struct Slot {
+    std::atomic<int64_t> key;
+    std::atomic<int64_t> value;
+};
+
+// Other processes see the same bytes, so the atomics must be plain
+// lock-free words with no hidden state
+static_assert(std::atomic<uint64_t>::is_always_lock_free, "shared counters must be lock-free");
+static_assert(std::atomic<int64_t>::is_always_lock_free, "shared slots must be lock-free");
+static_assert(sizeof(Slot) == 16, "slot layout is part of the shared format");
+
+const size_t HEADER_BYTES = (sizeof(Header) + 63) / 64 * 64;
+
+inline void cpu_relax() {
+#if defined(__x86_64__) || defined(__i386__)
+    __builtin_ia32_pause();
+#elif defined(__aarch64__)
+    asm volatile("yield");
+#endif
+}
+
+inline void prefetch(const void* p) {
+#if defined(__GNUC__) || defined(__clang__)
+    __builtin_prefetch(p);
+#else
+    (void) p;
+#endif
+}
+
+// Process-local view of a mapped region. Geometry is copied out of the
+// header once it is validated, so a bad region cannot steer accesses out
+// of the mapping afterwards.
+struct SharedMap {
+    char* base;
+    size_t bytes;
+    bool writer;
+    Header* header;
+    Slot* slots;
+    uint64_t mask;
+    uint64_t seed;
+    size_t max_entries;
+
+    uint64_t home(int64_t key) const {
+        return jstl::mix64(static_cast<uint64_t>(key) ^ seed) & mask;
+    }
+
+    // Seqlock write section; only the writer changes seq, so it needs no
+    // read-modify-write
+    uint64_t begin_write() {
+        uint64_t s = header->seq.load(std::memory_order_relaxed);
+        header->seq.store(s + 1, std::memory_order_relaxed);
+        std::atomic_thread_fence(std::memory_order_release);
+        return s;
+    }
+
+    void end_write(uint64_t s) {
+        header->seq.store(s + 2, std::memory_order_release);
+    }
+
+    // Run read until it completes with no write overlapping it. Returns 1,
+    // or -1 if seq stays odd at one value for over a second, meaning the
+    // writer stopped mid-change. A seq that keeps moving is a live writer,
+    // so readers keep retrying.
+    template <typename Read>
+    int read_consistent(Read read) const {
+        uint64_t stuck_at = 0;
+        unsigned spins = 0;
+        std::chrono::steady_clock::time_point since;
+        for (;;) {
+            uint64_t s = header->seq.load(std::memory_order_acquire);
+            if ((s & 1) == 0) {
+                read();
+                std::atomic_thread_fence(std::memory_order_acquire);
+                if (header->seq.load(std::memory_order_relaxed) == s) return 1;
+                continue;
+            }
+            if (s != stuck_at) {
+                stuck_at = s;
+                spins = 0;
+                since = std::chrono::steady_clock::now();
+            } else if (++spins < 64) {
+                cpu_relax();
+            } else {
+                if (std::chrono::steady_clock::now() - since > std::chrono::seconds(1)) return -1;
+                std::this_thread::yield();
+            }
+        }
+    }
+
+    // Probe for key; safe on a table changing underneath, since every load
+    // is atomic and the walk is bounded
+    bool find(int64_t key, int64_t* value) const {
+        if (key == 0) {
+            *value = header->zero_value.load(std::memory_order_relaxed);
+            return header->zero_present.load(std::memory_order_relaxed) != 0;
+        }
+        uint64_t i = home(key);
+        for (uint64_t n = 0; n <= mask; n++) {
+            int64_t k = slots[i].key.load(std::memory_order_relaxed);
+            if (k == key) {
+                *value = slots[i].value.load(std::memory_order_relaxed);
+                return true;
+            }
+            if (k == 0) return false;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    // Writer only, inside a write section
+    int put_locked(int64_t key, int64_t value) {
+        uint64_t size = header->size.load(std::memory_order_relaxed);
+        if (key == 0) {
+            bool added = header->zero_present.load(std::memory_order_relaxed) == 0;
+            if (added && size >= max_entries) return -1;
+            header->zero_value.store(value, std::memory_order_relaxed);
+            if (added) {
+                header->zero_present.store(1, std::memory_order_relaxed);
+                header->size.store(size + 1, std::memory_order_relaxed);
+            }
+            return added ? 1 : 0;
+        }
+        // The load factor stays at most 3/4, so an empty slot ends the walk
+        uint64_t i = home(key);
+        for (;;) {
+            int64_t k = slots[i].key.load(std::memory_order_relaxed);
+            if (k == key) {
+                slots[i].value.store(value, std::memory_order_relaxed);
+                return 0;
+            }
+            if (k == 0) break;
+            i = (i + 1) & mask;
+        }
+        if (size >= max_entries) return -1;
+        slots[i].value.store(value, std::memory_order_relaxed);
+        slots[i].key.store(key, std::memory_order_relaxed);
+        header->size.store(size + 1, std::memory_order_relaxed);
+        return 1;
+    }
+
+    // Writer only, inside a write section. Backward-shift deletion: later
+    // entries of the cluster move up into the hole, so no tombstones build
+    // up and readers' probes stay short.
+    int remove_locked(int64_t key) {
+        uint64_t size = header->size.load(std::memory_order_relaxed);
+        if (key == 0) {
+            if (header->zero_present.load(std::memory_order_relaxed) == 0) return 0;
+            header->zero_present.store(0, std::memory_order_relaxed);
+            header->zero_value.store(0, std::memory_order_relaxed);
+            header->size.store(size - 1, std::memory_order_relaxed);
+            return 1;
+        }
+        uint64_t i = home(key);
+        for (;;) {
+            int64_t k = slots[i].key.load(std::memory_order_relaxed);
+            if (k == key) break;
+            if (k == 0) return 0;
+            i = (i + 1) & mask;
+        }
+        for (uint64_t j = (i + 1) & mask;; j = (j + 1) & mask) {
+            int64_t k = slots[j].key.load(std::memory_order_relaxed);
+            if (k == 0) break;
+            // The entry at j may fill the hole at i if i lies on its probe
+            // path, i.e. no further from its home than j is
+            uint64_t h = home(k);
+            if (((j - h) & mask) >= ((j - i) & mask)) {
+                slots[i].value.store(slots[j].value.load(std::memory_order_relaxed), std::memory_order_relaxed);
+                slots[i].key.store(k, std::memory_order_relaxed);
+                i = j;
+            }
+        }
+        slots[i].key.store(0, std::memory_order_relaxed);
+        slots[i].value.store(0, std::memory_order_relaxed);
+        header->size.store(size - 1, std::memory_order_relaxed);
+        return 1;
+    }
+};
+
+// Smallest power-of-two slot count keeping max_entries at a load factor
+// of at most 3/4, or 0 if the region would not fit in size_t
+size_t slots_for(size_t max_entries) {
+    if (max_entries > (SIZE_MAX - HEADER_BYTES) / sizeof(Slot) / 2) return 0;
+    size_t needed = std::max(MIN_SLOTS, max_entries + (max_entries + 2) / 3);
+    size_t slots = MIN_SLOTS;
+    while (slots < needed) slots <<= 1;
+    return slots;
+}
+
+bool valid_layout(const Header* h, size_t bytes) {
+    if (h->magic.load(std::memory_order_acquire) != MAGIC) return false;
+    if (h->layout_version != LAYOUT_VERSION || h->header_bytes != HEADER_BYTES) return false;
+    if (h->region_bytes != bytes || h->slots_offset != HEADER_BYTES) return false;
+    uint64_t slots = h->slot_count;
+    if (slots < MIN_SLOTS || (slots & (slots - 1)) != 0) return false;
+    if (slots > (bytes - HEADER_BYTES) / sizeof(Slot) || HEADER_BYTES + slots * sizeof(Slot) != bytes) return false;
+    return h->max_entries <= slots - slots / 4;
+}
+
+SharedMap* attach(char* base, size_t bytes, bool writer) {
+    SharedMap* m = new (std::nothrow) SharedMap();
+    if (!m) return nullptr;
+    Header* h = reinterpret_cast<Header*>(base);
+    m->base = base;
+    m->bytes = bytes;
+    m->writer = writer;
+    m->header = h;
+    m->slots = reinterpret_cast<Slot*>(base + h->slots_offset);
+    m->mask = h->slot_count - 1;
+    m->seed = h->seed;
+    m->max_entries = h->max_entries;
+    return m;
+}
+
+void set_error(int* error, int code) {
+    if (error) *error = code;
+}
+
+#ifndef _WIN32
+
+void unmap(char* base, size_t bytes) {
+    munmap(base, bytes);
+}
+
+// Create, size and map a fresh region; the name is removed again if any
+// step after shm_open fails
+char* create_region(const char* name, size_t bytes, int* error) {
+    int fd = shm_open(name, O_CREAT | O_EXCL | O_RDWR, 0600);
+    if (fd < 0) {
+        set_error(error, errno == EEXIST ? JSTL_SHM_EXISTS : JSTL_SHM_FAILED);
+        return nullptr;
+    }
+    int code = JSTL_SHM_OK;
+    void* base = MAP_FAILED;
+    if (ftruncate(fd, static_cast<off_t>(bytes)) != 0) {
+        code = errno == ENOSPC || errno == ENOMEM || errno == EFBIG ? JSTL_SHM_NO_MEMORY : JSTL_SHM_FAILED;
+    }
+#ifdef __linux__
+    // Back the whole region now: a tmpfs page that cannot be allocated on
+    // first touch raises SIGBUS instead of reporting an error
+    if (code == JSTL_SHM_OK) {
+        int rc = posix_fallocate(fd, 0, static_cast<off_t>(bytes));
+        if (rc != 0) code = rc == ENOSPC || rc == ENOMEM || rc == EFBIG ? JSTL_SHM_NO_MEMORY : JSTL_SHM_FAILED;
+    }
+#endif
+    if (code == JSTL_SHM_OK) {
+        base = mmap(nullptr, bytes, PROT_READ | PROT_WRITE, MAP_SHARED, fd, 0);
+        if (base == MAP_FAILED) code = errno == ENOMEM ? JSTL_SHM_NO_MEMORY : JSTL_SHM_FAILED;
+    }
+    close(fd);
+    if (code != JSTL_SHM_OK) {
+        shm_unlink(name);
+        set_error(error, code);
+        return nullptr;
+    }
+    return static_cast<char*>(base);
+}
+
+char* open_region(const char* name, size_t* bytes, int* error) {
+    int fd = shm_open(name, O_RDONLY, 0);
+    if (fd < 0) {
+        set_error(error, errno == ENOENT ? JSTL_SHM_NOT_FOUND : JSTL_SHM_FAILED);
+        return nullptr;
+    }
+    struct stat st;
+    if (fstat(fd, &st) != 0) {
+        close(fd);
+        set_error(error, JSTL_SHM_FAILED);
+        return nullptr;
+    }
+    if (st.st_size < static_cast<off_t>(HEADER_BYTES)) {
+        close(fd);
+        set_error(error, JSTL_SHM_INVALID);
+        return nullptr;
+    }
+    *bytes = static_cast<size_t>(st.st_size);
+    void* base = mmap(nullptr, *bytes, PROT_READ, MAP_SHARED, fd, 0);
+    close(fd);
+    if (base == MAP_FAILED) {
+        set_error(error, errno == ENOMEM ? JSTL_SHM_NO_MEMORY : JSTL_SHM_FAILED);
+        return nullptr;
+    }
+    return static_cast<char*>(base);
+}
+
+int unlink_region(const char* name) {
+    return shm_unlink(name) == 0 ? 1 : 0;
+}
+
+#else
+
+void unmap(char*, size_t) {}
+
+char* create_region(const char*, size_t, int* error) {
+    set_error(error, JSTL_SHM_UNSUPPORTED);
+    return nullptr;
+}
+
+char* open_region(const char*, size_t*, int* error) {
+    set_error(error, JSTL_SHM_UNSUPPORTED);
+    return nullptr;
+}
+
+int unlink_region(const char*) {
+    return 0;
+}
+
+#endif
+
+} // namespace
+
+extern "C" {
+
+jstl_shmmap_t jstl_shmmap_create(const char* name, size_t max_entries, int* error) {
+    set_error(error, JSTL_SHM_OK);
+    if (!name) {
+        set_error(error, JSTL_SHM_FAILED);
+        return nullptr;
+    }
+    size_t slots = slots_for(max_entries);
+    if (slots == 0) {
+        set_error(error, JSTL_SHM_NO_MEMORY);
+        return nullptr;
+    }
+    size_t bytes = HEADER_BYTES + slots * sizeof(Slot);
+    char* base = create_region(name, bytes, error);
+    if (!base) return nullptr;
+
+    // The fresh region reads as zeros: an empty table with seq 0
+    Header* h = reinterpret_cast<Header*>(base);
+    h->layout_version = LAYOUT_VERSION;
+    h->header_bytes = static_cast<uint32_t>(HEADER_BYTES);
+    try {
+        std::random_device rd;
+        h->seed = (static_cast<uint64_t>(rd()) << 32) ^ rd();
+    } catch (...) {
+        h->seed = static_cast<uint64_t>(std::chrono::steady_clock::now().time_since_epoch().count());
+    }
+    h->slot_count = slots;
+    h->max_entries = max_entries;
+    h->slots_offset = HEADER_BYTES;
+    h->region_bytes = bytes;
+    h->magic.store(MAGIC, std::memory_order_release);
+
+    SharedMap* m = attach(base, bytes, true);
+    if (!m) {
+        unmap(base, bytes);
+        unlink_region(name);
+        set_error(error, JSTL_SHM_NO_MEMORY);
+    }
+    return m;
+}
+
+jstl_shmmap_t jstl_shmmap_open(const char* name, int* error) {
+    set_error(error, JSTL_SHM_OK);
+    if (!name) {
+        set_error(error, JSTL_SHM_FAILED);
+        return nullptr;
+    }
+    size_t bytes = 0;
+    char* base = open_region(name, &bytes, error);
+    if (!base) return nullptr;
+    if (!valid_layout(reinterpret_cast<Header*>(base), bytes)) {
+        unmap(base, bytes);
+        set_error(error, JSTL_SHM_INVALID);
+        return nullptr;
+    }
+    SharedMap* m = attach(base, bytes, false);
+    if (!m) {
+        unmap(base, bytes);
+        set_error(error, JSTL_SHM_NO_MEMORY);
+    }
+    return m;
+}
+
+void jstl_shmmap_close(jstl_shmmap_t map) {
+    if (map) {
+        SharedMap* m = static_cast<SharedMap*>(map);
+        unmap(m->base, m->bytes);
+        delete m;
+    }
+}
+
+int jstl_shmmap_unlink(const char* name) {
+    if (!name) return 0;
+    return unlink_region(name);
+}
+
+int jstl_shmmap_is_writer(jstl_shmmap_t map) {
+    if (!map) return 0;
+    return static_cast<SharedMap*>(map)->writer ? 1 : 0;
+}
+
+int jstl_shmmap_put(jstl_shmmap_t map, int64_t key, int64_t value) {
+    if (!map) return -1;
+    SharedMap* m = static_cast<SharedMap*>(map);
+    if (!m->writer) return -1;
+    uint64_t s = m->begin_write();
+    int result = m->put_locked(key, value);
+    m->end_write(s);
+    return result;
+}
+
+int64_t jstl_shmmap_put_all(jstl_shmmap_t map, const int64_t* keys, const int64_t* values, size_t count) {
+    if (!map || ((!keys || !values) && count > 0)) return -1;
+    SharedMap* m = static_cast<SharedMap*>(map);
+    if (!m->writer) return -1;
+    // Publish in groups so readers never wait long for a batch
+    int64_t added = 0;
+    for (size_t base = 0; base < count; base += PUT_GROUP) {
+        size_t end = std::min(count, base + PUT_GROUP);
+        uint64_t s = m->begin_write();
+        for (size_t i = base; i < end; i++) {
+            int result = m->put_locked(keys[i], values[i]);
+            if (result < 0) {
+                m->end_write(s);
+                return -1;
+            }
+            added += result;
+        }
+        m->end_write(s);
+    }
+    return added;
+}
+
+int jstl_shmmap_remove(jstl_shmmap_t map, int64_t key) {
+    if (!map) return -1;
+    SharedMap* m = static_cast<SharedMap*>(map);
+    if (!m->writer) return -1;
+    uint64_t s = m->begin_write();
+    int result = m->remove_locked(key);
+    m->end_write(s);
+    return result;
+}
+
+int jstl_shmmap_clear(jstl_shmmap_t map) {
+    if (!map) return 0;
+    SharedMap* m = static_cast<SharedMap*>(map);
+    if (!m->writer) return 0;
+    // Entries vanish a group at a time, so readers are never held off for
+    // the whole table. Emptying a slot can only make later lookups miss,
+    // which each lookup sees as that entry having been removed.
+    uint64_t s = m->begin_write();
+    if (m->header->zero_present.load(std::memory_order_relaxed) != 0) {
+        m->header->zero_present.store(0, std::memory_order_relaxed);
+        m->header->zero_value.store(0, std::memory_order_relaxed);
+        m->header->size.fetch_sub(1, std::memory_order_relaxed);
+    }
+    m->end_write(s);
+    uint64_t slots = m->mask + 1;
+    for (uint64_t base = 0; base < slots; base += CLEAR_GROUP) {
+        uint64_t end = std::min<uint64_t>(slots, base + CLEAR_GROUP);
+        s = m->begin_write();
+        uint64_t removed = 0;
+        for (uint64_t i = base; i < end; i++) {
+            if (m->slots[i].key.load(std::memory_order_relaxed) != 0) {
+                m->slots[i].key.store(0, std::memory_order_relaxed);
+                m->slots[i].value.store(0, std::memory_order_relaxed);
+                removed++;
+            }
+        }
+        m->header->size.fetch_sub(removed, std::memory_order_relaxed);
+        m->end_write(s);
+    }
+    return 1;
+}
+
+int jstl_shmmap_get(jstl_shmmap_t map, int64_t key, int64_t* value) {
+    if (!map || !value) return 0;
+    const SharedMap* m = static_cast<const SharedMap*>(map);
+    bool found = false;
+    int64_t v = 0;
+    if (m->read_consistent([&] { found = m->find(key, &v); }) < 0) return -1;
+    *value = found ? v : 0;
+    return found ? 1 : 0;
+}
+
+int64_t jstl_shmmap_get_all(jstl_shmmap_t map, const int64_t* keys, size_t count, int64_t default_value, int64_t* out) {
+    if (!map || ((!keys || !out) && count > 0)) return 0;
+    const SharedMap* m = static_cast<const SharedMap*>(map);
+    int64_t found = 0;
+    for (size_t base = 0; base < count; base += GET_GROUP) {
+        size_t len = std::min(GET_GROUP, count - base);
+        for (size_t i = 0; i < len; i++) {
+            prefetch(&m->slots[m->home(keys[base + i])]);
+        }
+        // A retried group overwrites its own results
+        size_t hits = 0;
+        int status = m->read_consistent([&] {
+            hits = 0;
+            for (size_t i = 0; i < len; i++) {
+                int64_t v;
+                bool hit = m->find(keys[base + i], &v);
+                out[base + i] = hit ? v : default_value;
+                hits += hit;
+            }
+        });
+        if (status < 0) return -1;
+        found += static_cast<int64_t>(hits);
+    }
+    return found;
+}
+
+size_t jstl_shmmap_size(jstl_shmmap_t map) {
+    if (!map) return 0;
+    return static_cast<SharedMap*>(map)->header->size.load(std::memory_order_acquire);
+}
+
+size_t jstl_shmmap_max_entries(jstl_shmmap_t map) {
+    if (!map) return 0;
+    return static_cast<SharedMap*>(map)->max_entries;
+}
+
+uint64_t jstl_shmmap_version(jstl_shmmap_t map) {
+    if (!map) return 0;
+    return static_cast<SharedMap*>(map)->header->seq.load(std::memory_order_acquire) >> 1;
+}
+
+size_t jstl_shmmap_size_in_bytes(jstl_shmmap_t map) {
+    if (!map) return 0;
+    return static_cast<SharedMap*>(map)->bytes;
+}
+
+} // extern "C"
@@ -0,0 +1,162 @@
+#ifndef JSTL_SORT_H
+#define JSTL_SORT_H
+
+#include <stddef.h>
+#include <stdint.h>
+#include <algorithm>
+#include <cstring>
+#include <memory>
+#include <new>
+#include <vector>
+
+#include "jstl_parallel.h"
+
+// Internal sorting kernels for 64-bit keys (not part of the C API)
+namespace jstl {
+
+// Below this size std::sort beats the radix passes and needs no scratch buffer
+const size_t RADIX_SORT_THRESHOLD = 4096;
+
+// Below this many elements per thread a parallel sort is not worth the threads
+const size_t PARALLEL_SORT_GRAIN = 1 << 16;
+
+// Map a signed key to an unsigned one with the same ordering
+inline uint64_t radix_key(int64_t value) {
+    return static_cast<uint64_t>(value) ^ (1ULL << 63);
+}
+
+// LSD radix sort of data[0, n) using 8-bit digits; scratch must hold n elements.
+// Digits shared by every key (common for dense ID ranges) are skipped.
+inline void radix_sort(int64_t* data, int64_t* scratch, size_t n) {
+    if (n < 2) return;
+
+    std::vector<size_t> counts(8 * 256, 0);
+    for (size_t i = 0; i < n; i++) {
+        uint64_t key = radix_key(data[i]);
+        for (int d = 0; d < 8; d++) {
+            counts[d * 256 + ((key >> (d * 8)) & 0xFF)]++;
+        }
+    }
+
+    int64_t* src = data;
+    int64_t* dst = scratch;
+    for (int d = 0; d < 8; d++) {
+        size_t* count = &counts[d * 256];
+        int shift = d * 8;
+        if (count[(radix_key(src[0]) >> shift) & 0xFF] == n) {
+            continue;
+        }
+        size_t offset = 0;
+        for (int b = 0; b < 256; b++) {
+            size_t c = count[b];
+            count[b] = offset;
+            offset += c;
+        }
+        for (size_t i = 0; i < n; i++) {
+            int64_t value = src[i];
+            dst[count[(radix_key(value) >> shift) & 0xFF]++] = value;
+        }
+        std::swap(src, dst);
+    }
+    if (src != data) {
+        std::memcpy(data, src, n * sizeof(int64_t));
+    }
+}
+
+// Sort data[0, n) ascending, falling back to std::sort for small inputs
+// or when no scratch buffer can be allocated
+inline void sort_values(int64_t* data, size_t n) {
+    if (n < RADIX_SORT_THRESHOLD) {
+        std::sort(data, data + n);
+        return;
+    }
+    std::unique_ptr<int64_t[]> scratch(new (std::nothrow) int64_t[n]);
+    if (!scratch) {
+        std::sort(data, data + n);
+        return;
+    }
+    radix_sort(data, scratch.get(), n);
+}
+
+// Number of elements taken from a among the first k outputs of merging a and b
+inline size_t merge_path(const int64_t* a, size_t na, const int64_t* b, size_t nb, size_t k) {
+    size_t lo = k > nb ? k - nb : 0;
+    size_t hi = std::min(k, na);
+    while (lo < hi) {
+        size_t i = lo + (hi - lo) / 2;
+        if (b[k - i - 1] >= a[i]) {
+            lo = i + 1;
+        } else {
+            hi = i;
+        }
+    }
+    return lo;
+}
+
+// Merge sorted a and b into out, splitting the output evenly across threads
+inline void parallel_merge(const int64_t* a, size_t na, const int64_t* b, size_t nb,
+                           int64_t* out, size_t threads) {
+    size_t total = na + nb;
+    parallel_for(threads, [&](size_t t) {
+        size_t k0 = slice_begin(total, threads, t);
+        size_t k1 = slice_begin(total, threads, t + 1);
+        size_t i0 = merge_path(a, na, b, nb, k0);
+        size_t i1 = merge_path(a, na, b, nb, k1);
+        std::merge(a + i0, a + i1, b + (k0 - i0), b + (k1 - i1), out + k0);
+    });
+}
+
+// Sort data[0, n) with up to `threads` threads: each thread radix-sorts one
+// run, then runs are merged pairwise with every merge split across all threads
+inline void parallel_sort(int64_t* data, size_t n, size_t threads) {
+    threads = std::min(threads, n / PARALLEL_SORT_GRAIN);
+    if (threads <= 1) {
+        sort_values(data, n);
+        return;
+    }
+    std::unique_ptr<int64_t[]> scratch(new (std::nothrow) int64_t[n]);
+    if (!scratch) {
+        sort_values(data, n);
+        return;
+    }
+
+    std::vector<size_t> bounds(threads + 1);
+    for (size_t t = 0; t <= threads; t++) {
+        bounds[t] = slice_begin(n, threads, t);
+    }
+    parallel_for(threads, [&](size_t t) {
+        radix_sort(data + bounds[t], scratch.get() + bounds[t], bounds[t + 1] - bounds[t]);
+    });
+
+    int64_t* src = data;
+    int64_t* dst = scratch.get();
+    while (bounds.size() > 2) {
+        std::vector<size_t> merged;
+        merged.push_back(0);
+        for (size_t r = 0; r + 1 < bounds.size(); r += 2) {
+            if (r + 2 < bounds.size()) {
+                parallel_merge(src + bounds[r], bounds[r + 1] - bounds[r],
+                               src + bounds[r + 1], bounds[r + 2] - bounds[r + 1],
+                               dst + bounds[r], threads);
+                merged.push_back(bounds[r + 2]);
+            } else {
+                std::memcpy(dst + bounds[r], src + bounds[r],
+                            (bounds[r + 1] - bounds[r]) * sizeof(int64_t));
+                merged.push_back(bounds[r + 1]);
+            }
+        }
+        bounds.swap(merged);
+        std::swap(src, dst);
+    }
+    if (src != data) {
+        parallel_for(threads, [&](size_t t) {
+            size_t begin = slice_begin(n, threads, t);
+            size_t end = slice_begin(n, threads, t + 1);
+            std::memcpy(data + begin, src + begin, (end - begin) * sizeof(int64_t));
+        });
+    }
+}
+
+} // namespace jstl
+
+#endif // JSTL_SORT_H
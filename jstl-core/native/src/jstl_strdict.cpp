@@ -0,0 +1,205 @@
+#include "jstl_strdict.h"
+#include "jstl_hash.h"
+#include <cstring>
+#include <memory>
+#include <vector>
+
+static const size_t CHUNK_SIZE = 1 << 20;
+static const size_t MIN_TABLE = 16;
+static const uint64_t MAX_STRINGS = INT32_MAX;
+
+// A table slot holds the string itself as well as its id, so a probe goes
+// straight from the slot to the bytes, and the high 32 bits of its hash, so
+// probing skips most mismatches and growth never touches the bytes. A null
+// string marks an empty slot.
+struct Slot {
+    const uint8_t* string;  // points at a uint32 length, then the bytes
+    uint32_t fragment;
+    uint32_t id;
+};
+
+struct StringDictionary {
+    std::vector<std::unique_ptr<uint8_t[]>> chunks;
+    uint8_t* free = nullptr;
+    size_t remaining = 0;
+    size_t arena_bytes = 0;
+    std::vector<const uint8_t*> strings;  // by id
+    std::vector<Slot> table = std::vector<Slot>(MIN_TABLE, Slot{nullptr, 0, 0});
+    size_t mask = MIN_TABLE - 1;
+};
+
+// Multiply-rotate over 8-byte words, finished with the SplitMix64 mixer
+static uint64_t hash_bytes(const uint8_t* bytes, size_t length) {
+    uint64_t h = 0x9E3779B97F4A7C15ULL ^ (length * 0xC2B2AE3D27D4EB4FULL);
+    size_t i = 0;
+    for (; i + 8 <= length; i += 8) {
+        uint64_t word;
+        std::memcpy(&word, bytes + i, 8);
+        h = ((h << 27 | h >> 37) ^ word) * 0x9E3779B97F4A7C15ULL;
+    }
+    if (i < length) {
+        uint64_t word = 0;
+        std::memcpy(&word, bytes + i, length - i);
+        h = ((h << 27 | h >> 37) ^ word) * 0x9E3779B97F4A7C15ULL;
+    }
+    return jstl::mix64(h);
+}
+
+static uint32_t length_of(const uint8_t* string) {
+    uint32_t length;
+    std::memcpy(&length, string, sizeof(length));
+    return length;
+}
+
+static size_t home(const StringDictionary* d, uint32_t fragment) {
+    return static_cast<size_t>(fragment) & d->mask;
+}
+
+// The slot holding bytes, or the empty slot where they would go
+static Slot* probe(StringDictionary* d, const uint8_t* bytes, size_t length, uint32_t fragment) {
+    for (size_t i = home(d, fragment);; i = (i + 1) & d->mask) {
+        Slot& slot = d->table[i];
+        if (!slot.string) return &slot;
+        if (slot.fragment == fragment && length_of(slot.string) == length
+                && std::memcmp(slot.string + sizeof(uint32_t), bytes, length) == 0) {
+            return &slot;
+        }
+    }
+}
+
+static void grow(StringDictionary* d) {
+    std::vector<Slot> table(d->table.size() * 2, Slot{nullptr, 0, 0});
+    size_t mask = table.size() - 1;
+    for (const Slot& slot : d->table) {
+        if (!slot.string) continue;
+        size_t i = static_cast<size_t>(slot.fragment) & mask;
+        while (table[i].string) i = (i + 1) & mask;
+        table[i] = slot;
+    }
+    d->table.swap(table);
+    d->mask = mask;
+}
+
+// Copy a length-prefixed string into the arena
+static const uint8_t* store(StringDictionary* d, const uint8_t* bytes, size_t length) {
+    size_t needed = sizeof(uint32_t) + length;
+    if (needed > d->remaining) {
+        size_t size = needed > CHUNK_SIZE ? needed : CHUNK_SIZE;
+        d->chunks.emplace_back(new uint8_t[size]);
+        d->free = d->chunks.back().get();
+        d->remaining = size;
+        d->arena_bytes += size;
+    }
+    uint8_t* string = d->free;
+    uint32_t length32 = static_cast<uint32_t>(length);
+    std::memcpy(string, &length32, sizeof(length32));
+    if (length > 0) std::memcpy(string + sizeof(uint32_t), bytes, length);
+    d->free += needed;
+    d->remaining -= needed;
+    return string;
+}
+
+static int64_t intern(StringDictionary* d, const uint8_t* bytes, size_t length) {
+    if (length > UINT32_MAX) return -1;
+    uint32_t fragment = static_cast<uint32_t>(hash_bytes(bytes, length) >> 32);
+    Slot* slot = probe(d, bytes, length, fragment);
+    if (slot->string) return slot->id;
+    if (d->strings.size() >= MAX_STRINGS) return -1;
+
+    // Make every allocation before publishing, so a failure leaves no trace
+    if (d->strings.size() == d->strings.capacity()) {
+        d->strings.reserve(d->strings.empty() ? MIN_TABLE : d->strings.size() * 2);
+    }
+    const uint8_t* string = store(d, bytes, length);
+    uint32_t id = static_cast<uint32_t>(d->strings.size());
+    d->strings.push_back(string);
+    *slot = Slot{string, fragment, id};
+    if (d->strings.size() * 4 > d->table.size() * 3) {
+        grow(d);
+    }
+    return static_cast<int64_t>(id);
+}
+
+extern "C" {
+
+jstl_strdict_t jstl_strdict_create() {
+    try {
+        return new StringDictionary();
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_strdict_destroy(jstl_strdict_t dict) {
+    if (dict) {
+        delete static_cast<StringDictionary*>(dict);
+    }
+}
+
+int64_t jstl_strdict_intern(jstl_strdict_t dict, const uint8_t* bytes, size_t length) {
+    if (!dict) return -1;
+    try {
+        return intern(static_cast<StringDictionary*>(dict), bytes, length);
+    } catch (...) {
+        return -1;
+    }
+}
+
+int jstl_strdict_intern_all(jstl_strdict_t dict, const uint8_t* bytes, const int64_t* offsets,
+                            size_t count, int32_t* ids) {
+    if (!dict) return 0;
+    StringDictionary* d = static_cast<StringDictionary*>(dict);
+    try {
+        for (size_t i = 0; i < count; i++) {
+            int64_t id = intern(d, bytes + offsets[i], static_cast<size_t>(offsets[i + 1] - offsets[i]));
+            if (id < 0) return 0;
+            ids[i] = static_cast<int32_t>(id);
+        }
+        return 1;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int64_t jstl_strdict_find(jstl_strdict_t dict, const uint8_t* bytes, size_t length) {
+    if (!dict || length > UINT32_MAX) return -1;
+    StringDictionary* d = static_cast<StringDictionary*>(dict);
+    uint32_t fragment = static_cast<uint32_t>(hash_bytes(bytes, length) >> 32);
+    const Slot* slot = probe(d, bytes, length, fragment);
+    return slot->string ? static_cast<int64_t>(slot->id) : -1;
+}
+
+const uint8_t* jstl_strdict_bytes(jstl_strdict_t dict, int32_t id, size_t* length_out) {
+    if (!dict || id < 0) return nullptr;
+    StringDictionary* d = static_cast<StringDictionary*>(dict);
+    if (static_cast<size_t>(id) >= d->strings.size()) return nullptr;
+    const uint8_t* string = d->strings[id];
+    *length_out = length_of(string);
+    return string + sizeof(uint32_t);
+}
+
+size_t jstl_strdict_size(jstl_strdict_t dict) {
+    if (!dict) return 0;
+    return static_cast<StringDictionary*>(dict)->strings.size();
+}
+
+void jstl_strdict_clear(jstl_strdict_t dict) {
+    if (!dict) return;
+    StringDictionary* d = static_cast<StringDictionary*>(dict);
+    d->chunks.clear();
+    d->free = nullptr;
+    d->remaining = 0;
+    d->arena_bytes = 0;
+    d->strings.clear();
+    d->table.assign(MIN_TABLE, Slot{nullptr, 0, 0});
+    d->mask = MIN_TABLE - 1;
+}
+
+size_t jstl_strdict_size_in_bytes(jstl_strdict_t dict) {
+    if (!dict) return 0;
+    StringDictionary* d = static_cast<StringDictionary*>(dict);
+    return sizeof(StringDictionary) + d->arena_bytes + d->chunks.capacity() * sizeof(void*)
+            + d->strings.capacity() * sizeof(const uint8_t*) + d->table.capacity() * sizeof(Slot);
+}
+
+} // extern "C"
@@ -0,0 +1,726 @@
+#include "jstl_tieredmap.h"
+#include "jstl_bloom.h"
+#include "jstl_hash.h"
+#include <algorithm>
+#include <atomic>
+#include <cerrno>
+#include <iterator>
+#include <memory>
+#include <new>
+#include <random>
+#include <string>
+#include <thread>
+#include <unordered_map>
+#include <vector>
+
+#ifndef _WIN32
+#include <fcntl.h>
+#include <sys/mman.h>
+#include <unistd.h>
+#endif
+
+namespace {
+
+const size_t MIN_BUDGET = size_t(1) << 20;
+const size_t BLOCK = 512;             // keys per fence; one 4 KB page of keys
+const size_t WRITE_CHUNK = 8192;      // values buffered per column before a write
+const size_t MIN_SPILL = 4096;        // smallest run a budget-driven spill writes
+const double RUN_FPP = 0.01;
+
+struct HotEntry {
+    int64_t value;
+    uint64_t stamp;   // last access, for choosing what to spill
+    bool deleted;     // shadows the key in older runs
+};
+
+typedef std::unordered_map<int64_t, HotEntry, jstl::KeyHash> HotMap;
+
+// Node (entry and next pointer; KeyHash is noexcept, so no cached hash),
+// allocator header and a bucket slot
+const size_t HOT_ENTRY_BYTES = sizeof(std::pair<const int64_t, HotEntry>) + 3 * sizeof(void*);
+
+// A sorted, immutable run laid out as three columns in one file: keys,
+// then values, then a removal flag per key. Only the fences and the Bloom
+// filter live in memory; the columns are paged in from the mapping.
+struct Run {
+    explicit Run(size_t capacity) : bloom(capacity, RUN_FPP) {}
+
+    ~Run() {
+#ifndef _WIN32
+        if (base) munmap(base, mapped);
+#endif
+    }
+
+    bool find(int64_t key, int64_t* value, bool* deleted) const {
+        if (count == 0 || !bloom.might_contain(key)) return false;
+        auto fence = std::upper_bound(fences.begin(), fences.end(), key);
+        if (fence == fences.begin()) return false;
+        size_t lo = static_cast<size_t>(fence - fences.begin() - 1) * BLOCK;
+        size_t hi = std::min(count, lo + BLOCK);
+        const int64_t* at = std::lower_bound(keys + lo, keys + hi, key);
+        if (at == keys + hi || *at != key) return false;
+        size_t i = static_cast<size_t>(at - keys);
+        *value = values[i];
+        *deleted = flags[i] != 0;
+        return true;
+    }
+
+    size_t resident_bytes() const {
+        return sizeof(Run) + fences.capacity() * sizeof(int64_t) + bloom.bit_size() / 8 + 64;
+    }
+
+    size_t disk_bytes() const {
+        return count * (2 * sizeof(int64_t) + 1);
+    }
+
+    jstl::BlockedBloomFilter bloom;
+    std::vector<int64_t> fences;  // first key of every BLOCK keys
+    size_t count = 0;
+    const int64_t* keys = nullptr;
+    const int64_t* values = nullptr;
+    const uint8_t* flags = nullptr;
+    void* base = nullptr;
+    size_t mapped = 0;
+};
+
+typedef std::vector<std::shared_ptr<Run>> RunList;
+
+#ifndef _WIN32
+
+bool write_fully(int fd, const void* data, size_t bytes, off_t offset) {
+    const char* p = static_cast<const char*>(data);
+    while (bytes > 0) {
+        ssize_t n = pwrite(fd, p, bytes, offset);
+        if (n < 0) {
+            if (errno == EINTR) continue;
+            return false;
+        }
+        p += n;
+        bytes -= static_cast<size_t>(n);
+        offset += n;
+    }
+    return true;
+}
+
+// Streams up to capacity sorted entries into a new run file. The file is
+// unlinked straight after it is created, so only the descriptor and then
+// the mapping keep it alive. Each column sits at an offset fixed by
+// capacity, so a merge that drops entries leaves an unwritten, sparse tail.
+class RunBuilder {
+public:
+    RunBuilder(const std::string& dir, size_t capacity)
+        : capacity_(std::max<size_t>(capacity, 1)), run_(std::make_shared<Run>(capacity_)) {
+        static std::atomic<uint64_t> sequence{0};
+        std::string path = dir + "/jstl-tiered-" + std::to_string(getpid()) + "-" +
+                           std::to_string(sequence.fetch_add(1)) + ".run";
+        fd_ = open(path.c_str(), O_RDWR | O_CREAT | O_EXCL | O_CLOEXEC, 0600);
+        if (fd_ >= 0) unlink(path.c_str());
+        run_->fences.reserve((capacity_ + BLOCK - 1) / BLOCK);
+        keys_.reserve(WRITE_CHUNK);
+        values_.reserve(WRITE_CHUNK);
+        flags_.reserve(WRITE_CHUNK);
+    }
+
+    ~RunBuilder() {
+        if (fd_ >= 0) close(fd_);
+    }
+
+    bool ok() const { return fd_ >= 0; }
+
+    bool add(int64_t key, int64_t value, bool deleted) {
+        if (run_->count % BLOCK == 0) run_->fences.push_back(key);
+        run_->bloom.put(key);
+        run_->count++;
+        keys_.push_back(key);
+        values_.push_back(value);
+        flags_.push_back(deleted ? 1 : 0);
+        return keys_.size() < WRITE_CHUNK || flush();
+    }
+
+    // The finished run, or nullptr if a write or the mapping failed
+    std::shared_ptr<Run> finish() {
+        if (!flush()) return nullptr;
+        size_t bytes = capacity_ * (2 * sizeof(int64_t) + 1);
+        if (ftruncate(fd_, static_cast<off_t>(bytes)) != 0) return nullptr;
+        void* base = mmap(nullptr, bytes, PROT_READ, MAP_SHARED, fd_, 0);
+        if (base == MAP_FAILED) return nullptr;
+        const char* p = static_cast<const char*>(base);
+        run_->base = base;
+        run_->mapped = bytes;
+        run_->keys = reinterpret_cast<const int64_t*>(p);
+        run_->values = reinterpret_cast<const int64_t*>(p + capacity_ * sizeof(int64_t));
+        run_->flags = reinterpret_cast<const uint8_t*>(p + 2 * capacity_ * sizeof(int64_t));
+        run_->fences.shrink_to_fit();
+        return run_;
+    }
+
+private:
+    bool flush() {
+        size_t n = keys_.size();
+        if (n == 0) return true;
+        size_t at = written_;
+        bool done = write_fully(fd_, keys_.data(), n * sizeof(int64_t), static_cast<off_t>(at * sizeof(int64_t))) &&
+                    write_fully(fd_, values_.data(), n * sizeof(int64_t),
+                                static_cast<off_t>((capacity_ + at) * sizeof(int64_t))) &&
+                    write_fully(fd_, flags_.data(), n, static_cast<off_t>(2 * capacity_ * sizeof(int64_t) + at));
+        written_ += n;
+        keys_.clear();
+        values_.clear();
+        flags_.clear();
+        return done;
+    }
+
+    size_t capacity_;
+    std::shared_ptr<Run> run_;
+    int fd_ = -1;
+    size_t written_ = 0;
+    std::vector<int64_t> keys_;
+    std::vector<int64_t> values_;
+    std::vector<uint8_t> flags_;
+};
+
+#else
+
+class RunBuilder {
+public:
+    RunBuilder(const std::string&, size_t) {}
+    bool ok() const { return false; }
+    bool add(int64_t, int64_t, bool) { return false; }
+    std::shared_ptr<Run> finish() { return nullptr; }
+};
+
+#endif
+
+// Merge every run into one, the newest copy of each key winning. inputs
+// holds all runs of the map, oldest first, so removal markers have nothing
+// older left to shadow and are dropped. Returns the merged run (empty if
+// nothing survives), or nullptr on a write failure or cancellation.
+std::shared_ptr<Run> merge_runs(const std::string& dir, const RunList& inputs, const std::atomic<bool>& cancel) {
+    size_t capacity = 0;
+    for (const auto& run : inputs) capacity += run->count;
+    RunBuilder out(dir, capacity);
+    if (!out.ok()) return nullptr;
+
+    struct Cursor {
+        int64_t key;
+        size_t run;  // index in inputs; higher is newer
+    };
+    // Smallest key first, and the newest run first among equal keys
+    auto later = [](const Cursor& a, const Cursor& b) {
+        return a.key != b.key ? a.key > b.key : a.run < b.run;
+    };
+    std::vector<Cursor> heap;
+    std::vector<size_t> position(inputs.size(), 0);
+    for (size_t r = 0; r < inputs.size(); r++) {
+        if (inputs[r]->count > 0) heap.push_back({inputs[r]->keys[0], r});
+    }
+    std::make_heap(heap.begin(), heap.end(), later);
+
+    auto advance = [&](size_t r) {
+        size_t next = ++position[r];
+        if (next < inputs[r]->count) {
+            heap.push_back({inputs[r]->keys[next], r});
+            std::push_heap(heap.begin(), heap.end(), later);
+        }
+    };
+    size_t steps = 0;
+    while (!heap.empty()) {
+        if ((++steps & 0xFFFF) == 0 && cancel.load(std::memory_order_relaxed)) return nullptr;
+        std::pop_heap(heap.begin(), heap.end(), later);
+        Cursor top = heap.back();
+        heap.pop_back();
+        const Run& run = *inputs[top.run];
+        size_t i = position[top.run];
+        if (!run.flags[i] && !out.add(top.key, run.values[i], false)) return nullptr;
+        advance(top.run);
+        // Older copies of the same key
+        while (!heap.empty() && heap.front().key == top.key) {
+            std::pop_heap(heap.begin(), heap.end(), later);
+            size_t r = heap.back().run;
+            heap.pop_back();
+            advance(r);
+        }
+    }
+    return out.finish();
+}
+
+struct MergeJob {
+    RunList inputs;
+    std::shared_ptr<Run> output;
+    std::atomic<bool> done{false};
+    std::thread thread;
+};
+
+struct TieredMap {
+    TieredMap(const std::string& directory, size_t memory_budget, int runs_before_merge)
+        : dir(directory), budget(memory_budget), max_runs(static_cast<size_t>(runs_before_merge)) {
+        jstl::KeyHash hash;
+        hash.strategy = 1;
+        hash.seed = std::random_device{}();
+        hot = HotMap(16, hash);
+    }
+
+    ~TieredMap() {
+        stop_merge();
+    }
+
+    size_t hot_bytes() const {
+        return hot.size() * HOT_ENTRY_BYTES + hot.bucket_count() * sizeof(void*);
+    }
+
+    // Newest run holding key, if any
+    bool find_cold(int64_t key, int64_t* value, bool* deleted) const {
+        for (size_t r = runs.size(); r-- > 0;) {
+            if (runs[r]->find(key, value, deleted)) return true;
+        }
+        return false;
+    }
+
+    bool live_in_runs(int64_t key) const {
+        int64_t value;
+        bool deleted;
+        return find_cold(key, &value, &deleted) && !deleted;
+    }
+
+    int put(int64_t key, int64_t value) {
+        poll_merge();
+        auto it = hot.find(key);
+        if (it != hot.end()) {
+            bool added = it->second.deleted;
+            it->second = HotEntry{value, ++clock, false};
+            size += added;
+            return added ? 1 : 0;
+        }
+        bool live = live_in_runs(key);
+        hot.emplace(key, HotEntry{value, ++clock, false});
+        size += !live;
+        if (!maybe_spill()) return -1;
+        return live ? 0 : 1;
+    }
+
+    int remove(int64_t key) {
+        poll_merge();
+        auto it = hot.find(key);
+        if (it != hot.end()) {
+            if (it->second.deleted) return 0;
+            size--;
+            int64_t value;
+            bool deleted;
+            if (find_cold(key, &value, &deleted)) {
+                it->second = HotEntry{0, ++clock, true};
+            } else {
+                hot.erase(it);
+            }
+            return 1;
+        }
+        if (!live_in_runs(key)) return 0;
+        hot.emplace(key, HotEntry{0, ++clock, true});
+        size--;
+        return maybe_spill() ? 1 : -1;
+    }
+
+    bool get(int64_t key, int64_t* value) {
+        poll_merge();
+        auto it = hot.find(key);
+        if (it != hot.end()) {
+            if (it->second.deleted) return false;
+            it->second.stamp = ++clock;
+            *value = it->second.value;
+            return true;
+        }
+        bool deleted;
+        return find_cold(key, value, &deleted) && !deleted;
+    }
+
+    // Spill the least recently used half of what the budget leaves for
+    // the hot tier once it is exceeded
+    bool maybe_spill() {
+        size_t in_memory = hot_bytes();
+        if (in_memory + resident <= budget || in_memory <= retry_above) return true;
+        size_t room = budget > resident ? budget - resident : 0;
+        size_t keep = room / 2 / (HOT_ENTRY_BYTES + sizeof(void*));
+        if (hot.size() < keep + MIN_SPILL) return true;
+        if (spill_all_but(keep)) {
+            retry_above = 0;
+            return true;
+        }
+        retry_above = in_memory + in_memory / 4;
+        return false;
+    }
+
+    // Write all but the keep most recently used hot entries to a new run,
+    // then erase them in place. Stamps are unique, so the victims are
+    // exactly the entries stamped at or below a threshold. They reach the
+    // run in key order through a few passes over the hot tier, each taking
+    // the next smallest keys into a batch of bounded size, so a spill needs
+    // a fraction of the budget on top of the hot tier rather than a copy.
+    bool spill_all_but(size_t keep) {
+        if (hot.size() <= keep) return true;
+        size_t spill = hot.size() - keep;
+        uint64_t threshold = keep > 0 ? stamp_threshold(spill) : clock;
+
+        struct Victim {
+            int64_t key;
+            int64_t value;
+            bool deleted;
+        };
+        auto by_key = [](const Victim& a, const Victim& b) { return a.key < b.key; };
+        size_t limit = std::min(spill, std::max(WRITE_CHUNK, budget / 8 / sizeof(Victim)));
+        std::vector<Victim> batch;
+        batch.reserve(limit);
+
+        // With no older run, removal markers have nothing left to shadow
+        bool keep_markers = !runs.empty();
+        RunBuilder out(dir, spill);
+        if (!out.ok()) return false;
+        bool first = true;
+        int64_t last = 0;
+        for (size_t taken = 0; taken < spill; taken += batch.size()) {
+            // The limit smallest victim keys above the last batch, as a
+            // max-heap once full
+            batch.clear();
+            for (const auto& entry : hot) {
+                if (entry.second.stamp > threshold || (!first && entry.first <= last)) continue;
+                Victim victim{entry.first, entry.second.value, entry.second.deleted};
+                if (batch.size() < limit) {
+                    batch.push_back(victim);
+                    if (batch.size() == limit) std::make_heap(batch.begin(), batch.end(), by_key);
+                } else if (victim.key < batch.front().key) {
+                    std::pop_heap(batch.begin(), batch.end(), by_key);
+                    batch.back() = victim;
+                    std::push_heap(batch.begin(), batch.end(), by_key);
+                }
+            }
+            if (batch.empty()) break;
+            std::sort(batch.begin(), batch.end(), by_key);
+            for (const Victim& victim : batch) {
+                if (victim.deleted && !keep_markers) continue;
+                if (!out.add(victim.key, victim.value, victim.deleted)) return false;
+            }
+            first = false;
+            last = batch.back().key;
+        }
+        std::shared_ptr<Run> run = out.finish();
+        if (!run) return false;
+        // Install the run before erasing anything, so a failure leaves
+        // every entry in the hot tier
+        if (run->count > 0) add_run(run, runs.size());
+        for (auto it = hot.begin(); it != hot.end();) {
+            it = it->second.stamp <= threshold ? hot.erase(it) : std::next(it);
+        }
+        if (hot.empty()) {
+            try {
+                hot.rehash(0);
+            } catch (const std::bad_alloc&) {
+                // keeps the larger bucket array
+            }
+        }
+        maybe_start_merge();
+        return true;
+    }
+
+    // The smallest stamp with at least count hot entries stamped at or
+    // below it. Each pass counts stamps into a fixed number of bins and
+    // narrows the range to the bin holding the answer.
+    uint64_t stamp_threshold(size_t count) const {
+        const size_t BINS = 4096;
+        std::vector<size_t> bins(BINS);
+        uint64_t lo = 0;
+        uint64_t hi = clock;
+        size_t below = 0;  // entries stamped under lo
+        while (lo < hi) {
+            uint64_t width = (hi - lo) / BINS + 1;
+            std::fill(bins.begin(), bins.end(), 0);
+            for (const auto& entry : hot) {
+                uint64_t stamp = entry.second.stamp;
+                if (stamp >= lo && stamp <= hi) bins[(stamp - lo) / width]++;
+            }
+            size_t b = 0;
+            while (below + bins[b] < count) below += bins[b++];
+            lo += b * width;
+            hi = std::min(hi, lo + (width - 1));
+        }
+        return lo;
+    }
+
+    void add_run(const std::shared_ptr<Run>& run, size_t at) {
+        runs.insert(runs.begin() + static_cast<std::ptrdiff_t>(at), run);
+        resident += run->resident_bytes();
+        disk += run->disk_bytes();
+    }
+
+    void drop_oldest_runs(size_t n) {
+        for (size_t r = 0; r < n; r++) {
+            resident -= runs[r]->resident_bytes();
+            disk -= runs[r]->disk_bytes();
+        }
+        runs.erase(runs.begin(), runs.begin() + static_cast<std::ptrdiff_t>(n));
+    }
+
+    void maybe_start_merge() {
+        if (job || runs.size() < max_runs || runs.size() <= retry_merge_at) return;
+        std::unique_ptr<MergeJob> next;
+        const std::string* directory = &dir;
+        const std::atomic<bool>* stop = &cancel;
+        try {
+            next.reset(new MergeJob());
+            next->inputs = runs;
+            MergeJob* raw = next.get();
+            next->thread = std::thread([raw, directory, stop] {
+                raw->output = merge_runs(*directory, raw->inputs, *stop);
+                raw->done.store(true, std::memory_order_release);
+            });
+        } catch (...) {
+            return;  // retried after the next spill
+        }
+        job = std::move(next);
+    }
+
+    // Install a finished background merge, then start the next if runs
+    // piled up meanwhile
+    void poll_merge() {
+        if (job && job->done.load(std::memory_order_acquire)) {
+            finish_merge();
+            maybe_start_merge();
+        }
+    }
+
+    // New runs are only ever added after the merge inputs, so those are
+    // still the oldest runs
+
+    void finish_merge() {
+        job->thread.join();
+        if (job->output) {
+            drop_oldest_runs(job->inputs.size());
+            if (job->output->count > 0) add_run(job->output, 0);
+            merges++;
+            retry_merge_at = 0;
+        } else {
+            retry_merge_at = runs.size();
+        }
+        job.reset();
+    }
+
+    void stop_merge() {
+        if (!job) return;
+        cancel.store(true, std::memory_order_relaxed);
+        job->thread.join();
+        job.reset();
+        cancel.store(false, std::memory_order_relaxed);
+    }
+
+    bool compact() {
+        if (job) finish_merge();
+        if (runs.size() < 2) return true;
+        std::shared_ptr<Run> merged = merge_runs(dir, runs, cancel);
+        if (!merged) return false;
+        drop_oldest_runs(runs.size());
+        if (merged->count > 0) add_run(merged, 0);
+        merges++;
+        retry_merge_at = 0;
+        return true;
+    }
+
+    void clear() {
+        stop_merge();
+        drop_oldest_runs(runs.size());
+        hot.clear();
+        size = 0;
+        retry_above = 0;
+        retry_merge_at = 0;
+        hot.rehash(0);  // the map is consistent and empty even if this throws
+    }
+
+    const std::string dir;
+    const size_t budget;
+    const size_t max_runs;
+    HotMap hot;
+    RunList runs;             // oldest first
+    size_t size = 0;
+    size_t resident = 0;      // filter and fence bytes of all runs
+    size_t disk = 0;
+    size_t merges = 0;
+    uint64_t clock = 0;
+    size_t retry_above = 0;      // after a failed spill, hot bytes to reach before the next try
+    size_t retry_merge_at = 0;   // after a failed merge, run count to pass before the next try
+    std::unique_ptr<MergeJob> job;
+    std::atomic<bool> cancel{false};
+};
+
+// Returned by calls that ran out of memory, apart from the -1 (or 0) that
+// reports a run that could not be written
+const int OUT_OF_MEMORY = -2;
+
+bool writable_dir(const std::string& dir) {
+#ifndef _WIN32
+    RunBuilder probe(dir, 1);
+    return probe.ok();
+#else
+    (void) dir;
+    return false;
+#endif
+}
+
+} // namespace
+
+extern "C" {
+
+jstl_tieredmap_t jstl_tieredmap_create(const char* dir, size_t memory_budget, int max_runs) {
+    if (!dir || memory_budget < MIN_BUDGET || max_runs < 2) return nullptr;
+    try {
+        std::string directory(dir);
+        if (!writable_dir(directory)) return nullptr;
+        return new TieredMap(directory, memory_budget, max_runs);
+    } catch (...) {
+        return nullptr;
+    }
+}
+
+void jstl_tieredmap_destroy(jstl_tieredmap_t map) {
+    if (map) {
+        delete static_cast<TieredMap*>(map);
+    }
+}
+
+int jstl_tieredmap_put(jstl_tieredmap_t map, int64_t key, int64_t value) {
+    if (!map) return -1;
+    try {
+        return static_cast<TieredMap*>(map)->put(key, value);
+    } catch (const std::bad_alloc&) {
+        return OUT_OF_MEMORY;
+    } catch (...) {
+        return -1;
+    }
+}
+
+int64_t jstl_tieredmap_put_all(jstl_tieredmap_t map, const int64_t* keys, const int64_t* values, size_t count) {
+    if (!map || ((!keys || !values) && count > 0)) return -1;
+    TieredMap* m = static_cast<TieredMap*>(map);
+    int64_t added = 0;
+    try {
+        for (size_t i = 0; i < count; i++) {
+            int result = m->put(keys[i], values[i]);
+            if (result < 0) return result;
+            added += result;
+        }
+    } catch (const std::bad_alloc&) {
+        return OUT_OF_MEMORY;
+    } catch (...) {
+        return -1;
+    }
+    return added;
+}
+
+int jstl_tieredmap_get(jstl_tieredmap_t map, int64_t key, int64_t* value) {
+    if (!map || !value) return 0;
+    int64_t found;
+    try {
+        if (!static_cast<TieredMap*>(map)->get(key, &found)) return 0;
+    } catch (...) {
+        return 0;
+    }
+    *value = found;
+    return 1;
+}
+
+size_t jstl_tieredmap_get_all(jstl_tieredmap_t map, const int64_t* keys, size_t count, int64_t default_value, int64_t* out) {
+    if (!map || ((!keys || !out) && count > 0)) return 0;
+    TieredMap* m = static_cast<TieredMap*>(map);
+    size_t found = 0;
+    try {
+        for (size_t i = 0; i < count; i++) {
+            int64_t value;
+            bool hit = m->get(keys[i], &value);
+            out[i] = hit ? value : default_value;
+            found += hit;
+        }
+    } catch (...) {
+        return 0;
+    }
+    return found;
+}
+
+int jstl_tieredmap_remove(jstl_tieredmap_t map, int64_t key) {
+    if (!map) return -1;
+    try {
+        return static_cast<TieredMap*>(map)->remove(key);
+    } catch (const std::bad_alloc&) {
+        return OUT_OF_MEMORY;
+    } catch (...) {
+        return -1;
+    }
+}
+
+size_t jstl_tieredmap_size(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    return static_cast<TieredMap*>(map)->size;
+}
+
+size_t jstl_tieredmap_hot_size(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    return static_cast<TieredMap*>(map)->hot.size();
+}
+
+size_t jstl_tieredmap_run_count(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    TieredMap* m = static_cast<TieredMap*>(map);
+    m->poll_merge();
+    return m->runs.size();
+}
+
+size_t jstl_tieredmap_disk_bytes(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    TieredMap* m = static_cast<TieredMap*>(map);
+    m->poll_merge();
+    return m->disk;
+}
+
+size_t jstl_tieredmap_merge_count(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    TieredMap* m = static_cast<TieredMap*>(map);
+    m->poll_merge();
+    return m->merges;
+}
+
+int jstl_tieredmap_spill(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    TieredMap* m = static_cast<TieredMap*>(map);
+    try {
+        m->poll_merge();
+        return m->spill_all_but(0) ? 1 : 0;
+    } catch (const std::bad_alloc&) {
+        return OUT_OF_MEMORY;
+    } catch (...) {
+        return 0;
+    }
+}
+
+int jstl_tieredmap_compact(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    try {
+        return static_cast<TieredMap*>(map)->compact() ? 1 : 0;
+    } catch (const std::bad_alloc&) {
+        return OUT_OF_MEMORY;
+    } catch (...) {
+        return 0;
+    }
+}
+
+void jstl_tieredmap_clear(jstl_tieredmap_t map) {
+    if (!map) return;
+    try {
+        static_cast<TieredMap*>(map)->clear();
+    } catch (...) {
+        // Stopping the merge failed (the map is unchanged) or shrinking the
+        // emptied hot tier did (its bucket array is kept)
+    }
+}
+
+size_t jstl_tieredmap_size_in_bytes(jstl_tieredmap_t map) {
+    if (!map) return 0;
+    TieredMap* m = static_cast<TieredMap*>(map);
+    m->poll_merge();
+    return sizeof(TieredMap) + m->hot_bytes() + m->resident;
+}
+
+} // extern "C"
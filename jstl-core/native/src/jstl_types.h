@@ -0,0 +1,58 @@
+#ifndef JSTL_TYPES_H
+#define JSTL_TYPES_H
+
+#include <stdint.h>
+#include <utility>
+#include <unordered_map>
+#include <unordered_set>
+#include <vector>
+
+#include "jstl_bloom.h"
+#include "jstl_hash.h"
+#include "jstl_rehash.h"
+
+// Internal definitions of the structures behind the opaque C handles,
+// shared by native operations that work across collection types
+
+typedef std::unordered_map<int64_t, int64_t, jstl::KeyHash> LongMap;
+typedef std::unordered_set<int64_t, jstl::KeyHash> LongSet;
+
+// A node is the entry plus a next pointer (24 bytes in a map, 16 in a set)
+// as long as the container does not cache hash codes, which costs 8 more
+static_assert(noexcept(std::declval<const jstl::KeyHash&>()(int64_t())), "KeyHash must not throw");
+#ifdef __GLIBCXX__
+static_assert(!std::__cache_default<int64_t, jstl::KeyHash>::value, "LongMap/LongSet nodes must not cache hash codes");
+static_assert(sizeof(std::__detail::_Hash_node<LongMap::value_type, false>) == 24, "unexpected LongMap node size");
+static_assert(sizeof(std::__detail::_Hash_node<LongSet::value_type, false>) == 16, "unexpected LongSet node size");
+#endif
+
+// C++ wrapper around std::vector
+struct ArrayList {
+    std::vector<int64_t> vec;
+};
+
+// C++ wrapper around std::unordered_map. During an incremental rehash some
+// entries are still in growth.old; call settle() before using map as a whole.
+struct HashMap {
+    LongMap map;
+    jstl::BloomFront bloom;  // optional negative-lookup filter on keys
+    jstl::IncrementalRehash<LongMap> growth;
+
+    void settle() { growth.finish(map); }
+    size_t size() const { return map.size() + growth.old.size(); }
+    jstl::SplitView<LongMap> entries() const { return {map, growth.old}; }
+};
+
+// C++ wrapper around std::unordered_set. During an incremental rehash some
+// elements are still in growth.old; call settle() before using set as a whole.
+struct HashSet {
+    LongSet set;
+    jstl::BloomFront bloom;  // optional negative-lookup filter
+    jstl::IncrementalRehash<LongSet> growth;
+
+    void settle() { growth.finish(set); }
+    size_t size() const { return set.size() + growth.old.size(); }
+    jstl::SplitView<LongSet> entries() const { return {set, growth.old}; }
+};
+
+#endif // JSTL_TYPES_H
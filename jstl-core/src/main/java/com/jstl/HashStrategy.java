@@ -0,0 +1,34 @@
+package com.jstl;
+
+/**
+ * How {@link OffHeapHashMap} and {@link OffHeapHashSet} hash their keys.
+ *
+ * The table uses a prime number of buckets, so with IDENTITY most key
+ * patterns, strides included, still spread evenly, and dense keys keep
+ * their memory locality. Keys that are multiples of the bucket count all
+ * land in one bucket. MIX avoids accidental patterns like that, and
+ * SEEDED also resists keys chosen to collide on purpose.
+ */
+public enum HashStrategy {
+    /** The key itself, like std::hash. Fastest for dense and sequential keys. */
+    IDENTITY(0),
+    /** A 64-bit finalizer mix of the key (SplitMix64), so every key bit affects the bucket */
+    MIX(1),
+    /** The finalizer mix with a random seed per instance, against hash flooding */
+    SEEDED(2);
+
+    final int code;
+
+    HashStrategy(int code) {
+        this.code = code;
+    }
+
+    static HashStrategy of(int code) {
+        for (HashStrategy strategy : values()) {
+            if (strategy.code == code) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown hash strategy: " + code);
+    }
+}
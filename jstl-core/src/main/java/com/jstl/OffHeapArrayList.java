@@ -1,18 +1,34 @@
 package com.jstl;
 
 import com.jstl.internal.NativeArrayList;
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Off-heap ArrayList backed by C++ std::vector.
  * Memory is allocated outside the Java heap, avoiding GC overhead.
  *
  * Currently supports long values (including pointers to objects).
+ * Indexes and sizes are 64-bit, so a list may hold more than 2^31 elements;
+ * {@link #size()} then saturates at Integer.MAX_VALUE and {@link #longSize()}
+ * gives the exact count.
  * Auto-closeable to ensure native memory is freed.
  */
 public class OffHeapArrayList implements AutoCloseable {
+    private static final int FILTER_CHUNK = 4096;
+
     private final MemorySegment handle;
     private boolean closed = false;
+    private int parallelism = 1;
 
     /**
      * Create a new off-heap ArrayList
@@ -28,6 +44,23 @@ public class OffHeapArrayList implements AutoCloseable {
         }
     }
 
+    /**
+     * Create a new off-heap ArrayList with room for initialCapacity elements
+     */
+    public OffHeapArrayList(long initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        try {
+            this.handle = (MemorySegment) NativeArrayList.CREATE_WITH_CAPACITY.invoke(initialCapacity);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native ArrayList");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create ArrayList", e);
+        }
+    }
+
     /**
      * Add an element to the end of the list
      */
@@ -43,10 +76,10 @@ public class OffHeapArrayList implements AutoCloseable {
     /**
      * Get element at the specified index
      */
-    public long get(int index) {
+    public long get(long index) {
         ensureOpen();
         try {
-            return (long) NativeArrayList.GET.invoke(handle, (long) index);
+            return (long) NativeArrayList.GET.invoke(handle, index);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to get element", e);
         }
@@ -55,10 +88,10 @@ public class OffHeapArrayList implements AutoCloseable {
     /**
      * Set element at the specified index
      */
-    public void set(int index, long value) {
+    public void set(long index, long value) {
         ensureOpen();
         try {
-            NativeArrayList.SET.invoke(handle, (long) index, value);
+            NativeArrayList.SET.invoke(handle, index, value);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to set element", e);
         }
@@ -67,22 +100,30 @@ public class OffHeapArrayList implements AutoCloseable {
     /**
      * Remove element at the specified index
      */
-    public void remove(int index) {
+    public void remove(long index) {
         ensureOpen();
         try {
-            NativeArrayList.REMOVE.invoke(handle, (long) index);
+            NativeArrayList.REMOVE.invoke(handle, index);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to remove element", e);
         }
     }
 
     /**
-     * Get the number of elements in the list
+     * Get the number of elements in the list, or Integer.MAX_VALUE if it
+     * holds more
      */
     public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of elements in the list
+     */
+    public long longSize() {
         ensureOpen();
         try {
-            return ((Long) NativeArrayList.SIZE.invoke(handle)).intValue();
+            return (long) NativeArrayList.SIZE.invoke(handle);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to get size", e);
         }
@@ -113,12 +154,20 @@ public class OffHeapArrayList implements AutoCloseable {
     }
 
     /**
-     * Get the current capacity (allocated storage)
+     * Get the current capacity (allocated storage), or Integer.MAX_VALUE
+     * if it is larger
      */
     public int capacity() {
+        return (int) Math.min(longCapacity(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the current capacity (allocated storage)
+     */
+    public long longCapacity() {
         ensureOpen();
         try {
-            return ((Long) NativeArrayList.CAPACITY.invoke(handle)).intValue();
+            return (long) NativeArrayList.CAPACITY.invoke(handle);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to get capacity", e);
         }
@@ -127,15 +176,366 @@ public class OffHeapArrayList implements AutoCloseable {
     /**
      * Reserve capacity for at least the specified number of elements
      */
-    public void reserve(int capacity) {
+    public void reserve(long capacity) {
         ensureOpen();
         try {
-            NativeArrayList.RESERVE.invoke(handle, (long) capacity);
+            NativeArrayList.RESERVE.invoke(handle, capacity);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to reserve capacity", e);
         }
     }
 
+    /**
+     * Release capacity beyond the current size, returning memory after
+     * large removals
+     */
+    public void trimToSize() {
+        ensureOpen();
+        try {
+            if (((Integer) NativeArrayList.SHRINK_TO_FIT.invoke(handle)) == 0) {
+                throw new OutOfMemoryError("Failed to shrink storage");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to trim to size", e);
+        }
+    }
+
+    /**
+     * Remove all elements matching the filter in a single in-place pass, preserving order.
+     * Elements are copied out in chunks, tested on the Java side, and survivors are
+     * written straight back into native storage, so the cost is O(n) regardless of
+     * how many elements match. The filter must not modify this list.
+     * If the filter throws, elements already found to match stay removed.
+     * @return number of elements removed
+     */
+    public long removeIf(LongPredicate filter) {
+        ensureOpen();
+        Objects.requireNonNull(filter);
+        long n;
+        MemorySegment data;
+        try {
+            n = (long) NativeArrayList.SIZE.invoke(handle);
+            if (n == 0) {
+                return 0;
+            }
+            data = ((MemorySegment) NativeArrayList.DATA.invoke(handle)).reinterpret(n * Long.BYTES);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to access elements", e);
+        }
+
+        long[] chunk = new long[(int) Math.min(FILTER_CHUNK, n)];
+        long read = 0;
+        long write = 0;
+        try {
+            while (read < n) {
+                int len = (int) Math.min(chunk.length, n - read);
+                MemorySegment.copy(data, ValueLayout.JAVA_LONG, read * Long.BYTES, chunk, 0, len);
+                for (int i = 0; i < len; i++, read++) {
+                    if (!filter.test(chunk[i])) {
+                        if (write != read) {
+                            data.setAtIndex(ValueLayout.JAVA_LONG, write, chunk[i]);
+                        }
+                        write++;
+                    }
+                }
+            }
+        } finally {
+            // On an exception, close the gap so the untested tail is kept
+            long tail = n - read;
+            if (tail > 0 && write < read) {
+                MemorySegment.copy(data, read * Long.BYTES, data, write * Long.BYTES, tail * Long.BYTES);
+            }
+            try {
+                NativeArrayList.TRUNCATE.invoke(handle, write + tail);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to truncate", e);
+            }
+        }
+        return n - write;
+    }
+
+    /**
+     * Remove the elements in [fromIndex, toIndex)
+     */
+    public void removeRange(long fromIndex, long toIndex) {
+        ensureOpen();
+        Objects.checkFromToIndex(fromIndex, toIndex, longSize());
+        try {
+            NativeArrayList.REMOVE_RANGE.invoke(handle, fromIndex, toIndex);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove range", e);
+        }
+    }
+
+    /**
+     * Keep only the elements in the inclusive range [lo, hi], preserving order
+     * @return number of elements removed
+     */
+    public long retainBetween(long lo, long hi) {
+        ensureOpen();
+        try {
+            return (long) NativeArrayList.RETAIN_BETWEEN.invoke(handle, lo, hi);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to retain elements", e);
+        }
+    }
+
+    /**
+     * Remove every element contained in the set, preserving order
+     * @return number of elements removed
+     */
+    public long removeAllIn(OffHeapHashSet set) {
+        ensureOpen();
+        MemorySegment members = set.nativeHandle();
+        try {
+            return (long) NativeArrayList.REMOVE_ALL_IN.invoke(handle, members);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove elements", e);
+        }
+    }
+
+    /**
+     * Remove the element at the specified index in O(1) by moving the last
+     * element into its place. Does not preserve order.
+     * @return the removed element
+     */
+    public long swapRemove(long index) {
+        ensureOpen();
+        Objects.checkIndex(index, longSize());
+        try {
+            return (long) NativeArrayList.SWAP_REMOVE.invoke(handle, index);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove element", e);
+        }
+    }
+
+    /**
+     * Sort all elements in ascending order.
+     * Large lists are radix sorted natively; no heap copy is made.
+     */
+    public void sort() {
+        sort(0, longSize());
+    }
+
+    /**
+     * Sort the elements in [fromIndex, toIndex) in ascending order
+     */
+    public void sort(long fromIndex, long toIndex) {
+        ensureOpen();
+        Objects.checkFromToIndex(fromIndex, toIndex, longSize());
+        try {
+            NativeArrayList.SORT.invoke(handle, fromIndex, toIndex);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to sort", e);
+        }
+    }
+
+    /**
+     * Sort all elements in descending order
+     */
+    public void sortDescending() {
+        ensureOpen();
+        try {
+            NativeArrayList.SORT_DESCENDING.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to sort", e);
+        }
+    }
+
+    /**
+     * Sort all elements in ascending order using all available cores
+     */
+    public void parallelSort() {
+        parallelSort(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sort all elements in ascending order using up to the given number of threads.
+     * Each thread sorts one run natively, then the runs are merged in parallel.
+     * Needs a native scratch buffer the size of the list.
+     */
+    public void parallelSort(int threads) {
+        ensureOpen();
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        try {
+            NativeArrayList.PARALLEL_SORT.invoke(handle, (long) threads);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to sort", e);
+        }
+    }
+
+    /**
+     * Search a list sorted in ascending order for the specified value.
+     * Use {@link #longBinarySearch} on lists longer than Integer.MAX_VALUE.
+     * @return index of the first occurrence of the value, or
+     *         (-(insertion point) - 1) if the value is not present
+     */
+    public int binarySearch(long value) {
+        long result = longBinarySearch(value);
+        if (result != (int) result) {
+            throw new IllegalStateException("Index does not fit in an int: " + result);
+        }
+        return (int) result;
+    }
+
+    /**
+     * Search a list sorted in ascending order for the specified value
+     * @return index of the first occurrence of the value, or
+     *         (-(insertion point) - 1) if the value is not present
+     */
+    public long longBinarySearch(long value) {
+        ensureOpen();
+        try {
+            return (long) NativeArrayList.BINARY_SEARCH.invoke(handle, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to search", e);
+        }
+    }
+
+    /**
+     * Set the number of threads used by the aggregate operations
+     * (sum, min, max, countBetween, mean, histogram, dot). Defaults to 1.
+     * Lists too small to benefit still run on the calling thread.
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.parallelism = threads;
+    }
+
+    /**
+     * Get the number of threads used by the aggregate operations
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sum of all elements, computed natively with SIMD.
+     * Overflow wraps around like Java long arithmetic.
+     */
+    public long sum() {
+        ensureOpen();
+        try {
+            return (long) NativeArrayList.SUM.invoke(handle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute sum", e);
+        }
+    }
+
+    /**
+     * Smallest element
+     * @throws NoSuchElementException if the list is empty
+     */
+    public long min() {
+        ensureNotEmpty();
+        try {
+            return (long) NativeArrayList.MIN.invoke(handle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute min", e);
+        }
+    }
+
+    /**
+     * Largest element
+     * @throws NoSuchElementException if the list is empty
+     */
+    public long max() {
+        ensureNotEmpty();
+        try {
+            return (long) NativeArrayList.MAX.invoke(handle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute max", e);
+        }
+    }
+
+    /**
+     * Count the elements in the inclusive range [lo, hi]
+     */
+    public long countBetween(long lo, long hi) {
+        ensureOpen();
+        try {
+            return (long) NativeArrayList.COUNT_BETWEEN.invoke(handle, lo, hi, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to count elements", e);
+        }
+    }
+
+    /**
+     * Arithmetic mean of all elements, or NaN if the list is empty.
+     * Accumulates without intermediate overflow.
+     */
+    public double mean() {
+        ensureOpen();
+        try {
+            return (double) NativeArrayList.MEAN.invoke(handle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute mean", e);
+        }
+    }
+
+    /**
+     * Histogram of the elements in [lo, hi] over equal-width buckets.
+     * When hi - lo + 1 does not divide evenly, the first buckets are one
+     * value wider than the rest; with fewer values than buckets, the
+     * trailing buckets are empty.
+     * Elements outside [lo, hi] are not counted.
+     */
+    public long[] histogram(long lo, long hi, int buckets) {
+        ensureOpen();
+        if (buckets < 1) {
+            throw new IllegalArgumentException("buckets must be positive: " + buckets);
+        }
+        if (hi < lo) {
+            throw new IllegalArgumentException("hi < lo: " + hi + " < " + lo);
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment counts = arena.allocateArray(ValueLayout.JAVA_LONG, buckets);
+            NativeArrayList.HISTOGRAM.invoke(handle, lo, hi, (long) buckets, counts, (long) parallelism);
+            return counts.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute histogram", e);
+        }
+    }
+
+    /**
+     * Histogram of all elements over equal-width buckets spanning [min(), max()]
+     * @throws NoSuchElementException if the list is empty
+     */
+    public long[] histogram(int buckets) {
+        return histogram(min(), max(), buckets);
+    }
+
+    /**
+     * Dot product with another list of the same size.
+     * Overflow wraps around like Java long arithmetic.
+     */
+    public long dot(OffHeapArrayList other) {
+        ensureOpen();
+        other.ensureOpen();
+        if (other.longSize() != longSize()) {
+            throw new IllegalArgumentException("Size mismatch: " + longSize() + " != " + other.longSize());
+        }
+        try {
+            return (long) NativeArrayList.DOT.invoke(handle, other.handle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute dot product", e);
+        }
+    }
+
+    /**
+     * Sequential stream over the elements, read from native memory in chunks.
+     * Splits by index range, so {@code .parallel()} works on lists of any
+     * size. The list must not be modified or closed while the stream runs.
+     */
+    public LongStream stream() {
+        ensureOpen();
+        return StreamSupport.longStream(new ElementSpliterator(0, longSize()), false);
+    }
+
     @Override
     public void close() {
         if (!closed) {
@@ -148,12 +548,103 @@ public class OffHeapArrayList implements AutoCloseable {
         }
     }
 
+    MemorySegment nativeHandle() {
+        ensureOpen();
+        return handle;
+    }
+
     private void ensureOpen() {
         if (closed) {
             throw new IllegalStateException("ArrayList has been closed");
         }
     }
 
+    // Reads [index, end) through the vector's data pointer, re-fetched for
+    // every chunk so a list that was resized or closed is detected
+    private final class ElementSpliterator implements Spliterator.OfLong {
+        private final long expectedSize;
+        private final long[] chunk;
+        private long index;
+        private final long end;
+        private int chunkPos;
+        private int chunkLen;
+
+        ElementSpliterator(long index, long end) {
+            this.expectedSize = longSize();
+            this.chunk = new long[(int) Math.min(FILTER_CHUNK, Math.max(end - index, 1))];
+            this.index = index;
+            this.end = end;
+        }
+
+        private boolean fill() {
+            if (index >= end) {
+                return false;
+            }
+            if (longSize() != expectedSize) {
+                throw new ConcurrentModificationException("ArrayList was resized during the stream");
+            }
+            int len = (int) Math.min(chunk.length, end - index);
+            try {
+                MemorySegment data = ((MemorySegment) NativeArrayList.DATA.invoke(handle)).reinterpret(end * Long.BYTES);
+                MemorySegment.copy(data, ValueLayout.JAVA_LONG, index * Long.BYTES, chunk, 0, len);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to read elements", e);
+            }
+            index += len;
+            chunkPos = 0;
+            chunkLen = len;
+            return true;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            if (chunkPos == chunkLen && !fill()) {
+                return false;
+            }
+            action.accept(chunk[chunkPos++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            do {
+                while (chunkPos < chunkLen) {
+                    action.accept(chunk[chunkPos++]);
+                }
+            } while (fill());
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long remaining = end - index;
+            if (chunkPos != chunkLen || remaining < 2L * FILTER_CHUNK) {
+                return null;
+            }
+            long mid = index + remaining / 2;
+            ElementSpliterator prefix = new ElementSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index + (chunkLen - chunkPos);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+
+    private void ensureNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("ArrayList is empty");
+        }
+    }
+
     @Override
     protected void finalize() throws Throwable {
         close();
@@ -166,8 +657,8 @@ public class OffHeapArrayList implements AutoCloseable {
             return "OffHeapArrayList[closed]";
         }
         StringBuilder sb = new StringBuilder("OffHeapArrayList[");
-        int size = size();
-        for (int i = 0; i < size && i < 100; i++) {
+        long size = longSize();
+        for (long i = 0; i < size && i < 100; i++) {
             if (i > 0) sb.append(", ");
             sb.append(get(i));
         }
@@ -0,0 +1,454 @@
+package com.jstl;
+
+import com.jstl.internal.NativeBitSet;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Off-heap compressed bitmap of long values (Roaring-style).
+ * Values are grouped into chunks of 65536; each chunk is stored as a sorted
+ * array, an 8 KB bitmap or a list of runs, whichever suits its contents.
+ * Dense ID sets take a fraction of a byte per value instead of the ~40 bytes
+ * per element of OffHeapHashSet, and set operations work a word at a time.
+ *
+ * Iteration order (toArray, rank, select) is ascending signed order.
+ * Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapBitSet implements AutoCloseable {
+    private final MemorySegment handle;
+    private boolean closed = false;
+
+    /**
+     * Create a new empty off-heap BitSet
+     */
+    public OffHeapBitSet() {
+        try {
+            this.handle = (MemorySegment) NativeBitSet.CREATE.invoke();
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native BitSet");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create BitSet", e);
+        }
+    }
+
+    private OffHeapBitSet(MemorySegment handle) {
+        if (handle == null || handle.address() == 0) {
+            throw new OutOfMemoryError("Failed to create native BitSet");
+        }
+        this.handle = handle;
+    }
+
+    /**
+     * Create a BitSet holding the elements of a HashSet
+     */
+    public static OffHeapBitSet fromHashSet(OffHeapHashSet set) {
+        OffHeapBitSet bitSet = new OffHeapBitSet();
+        bitSet.addAll(set);
+        return bitSet;
+    }
+
+    /**
+     * Create a BitSet holding the distinct elements of an ArrayList
+     */
+    public static OffHeapBitSet fromArrayList(OffHeapArrayList list) {
+        OffHeapBitSet bitSet = new OffHeapBitSet();
+        bitSet.addAll(list);
+        return bitSet;
+    }
+
+    /**
+     * Add a value
+     * @return true if the value was added, false if it was already present
+     */
+    public boolean add(long value) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeBitSet.ADD.invoke(handle, value)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add value", e);
+        }
+    }
+
+    /**
+     * Add every value in [from, to). Whole chunks are stored as single runs.
+     */
+    public void addRange(long from, long to) {
+        ensureOpen();
+        if (to < from) {
+            throw new IllegalArgumentException("to < from: " + to + " < " + from);
+        }
+        try {
+            if (((Integer) NativeBitSet.ADD_RANGE.invoke(handle, from, to)) == 0) {
+                throw new OutOfMemoryError("Failed to add range");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add range", e);
+        }
+    }
+
+    /**
+     * Add all values, in any order, in a single native call
+     */
+    public void addAll(long[] values) {
+        ensureOpen();
+        if (values.length == 0) {
+            return;
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocateArray(ValueLayout.JAVA_LONG, values);
+            if (((Integer) NativeBitSet.ADD_ALL.invoke(handle, segment, (long) values.length)) == 0) {
+                throw new OutOfMemoryError("Failed to add values");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add values", e);
+        }
+    }
+
+    /**
+     * Add every element of a HashSet
+     */
+    public void addAll(OffHeapHashSet set) {
+        ensureOpen();
+        MemorySegment setHandle = set.nativeHandle();
+        try {
+            if (((Integer) NativeBitSet.ADD_HASHSET.invoke(handle, setHandle)) == 0) {
+                throw new OutOfMemoryError("Failed to add values");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add values", e);
+        }
+    }
+
+    /**
+     * Add every element of an ArrayList
+     */
+    public void addAll(OffHeapArrayList list) {
+        ensureOpen();
+        MemorySegment listHandle = list.nativeHandle();
+        try {
+            if (((Integer) NativeBitSet.ADD_ARRAYLIST.invoke(handle, listHandle)) == 0) {
+                throw new OutOfMemoryError("Failed to add values");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add values", e);
+        }
+    }
+
+    /**
+     * Check if the BitSet contains the value
+     */
+    public boolean contains(long value) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeBitSet.CONTAINS.invoke(handle, value)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check value", e);
+        }
+    }
+
+    /**
+     * Remove a value
+     * @return true if the value was removed, false if it was absent
+     */
+    public boolean remove(long value) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeBitSet.REMOVE.invoke(handle, value)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove value", e);
+        }
+    }
+
+    /**
+     * Get the number of values
+     */
+    public long cardinality() {
+        ensureOpen();
+        try {
+            return (long) NativeBitSet.CARDINALITY.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get cardinality", e);
+        }
+    }
+
+    /**
+     * Check if the BitSet is empty
+     */
+    public boolean isEmpty() {
+        return cardinality() == 0;
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeBitSet.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Number of values less than or equal to value
+     */
+    public long rank(long value) {
+        ensureOpen();
+        try {
+            return (long) NativeBitSet.RANK.invoke(handle, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute rank", e);
+        }
+    }
+
+    /**
+     * Value at the 0-based position in ascending order
+     * @throws IndexOutOfBoundsException if index is not below cardinality()
+     */
+    public long select(long index) {
+        Objects.checkIndex(index, cardinality());
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment out = arena.allocate(ValueLayout.JAVA_LONG);
+            NativeBitSet.SELECT.invoke(handle, index, out);
+            return out.get(ValueLayout.JAVA_LONG, 0);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to select value", e);
+        }
+    }
+
+    /**
+     * Smallest value
+     * @throws NoSuchElementException if the BitSet is empty
+     */
+    public long first() {
+        ensureNotEmpty();
+        return select(0);
+    }
+
+    /**
+     * Largest value
+     * @throws NoSuchElementException if the BitSet is empty
+     */
+    public long last() {
+        ensureNotEmpty();
+        return select(cardinality() - 1);
+    }
+
+    /**
+     * Keep only values also in other
+     */
+    public void and(OffHeapBitSet other) {
+        combineInPlace(other, NativeBitSet.AND);
+    }
+
+    /**
+     * Add all values in other
+     */
+    public void or(OffHeapBitSet other) {
+        combineInPlace(other, NativeBitSet.OR);
+    }
+
+    /**
+     * Remove all values in other
+     */
+    public void andNot(OffHeapBitSet other) {
+        combineInPlace(other, NativeBitSet.AND_NOT);
+    }
+
+    /**
+     * Keep values in exactly one of this and other
+     */
+    public void xor(OffHeapBitSet other) {
+        combineInPlace(other, NativeBitSet.XOR);
+    }
+
+    /**
+     * New BitSet with values in both a and b
+     */
+    public static OffHeapBitSet and(OffHeapBitSet a, OffHeapBitSet b) {
+        return a.combine(b, NativeBitSet.AND);
+    }
+
+    /**
+     * New BitSet with values in a or b
+     */
+    public static OffHeapBitSet or(OffHeapBitSet a, OffHeapBitSet b) {
+        return a.combine(b, NativeBitSet.OR);
+    }
+
+    /**
+     * New BitSet with values in a but not in b
+     */
+    public static OffHeapBitSet andNot(OffHeapBitSet a, OffHeapBitSet b) {
+        return a.combine(b, NativeBitSet.AND_NOT);
+    }
+
+    /**
+     * New BitSet with values in exactly one of a and b
+     */
+    public static OffHeapBitSet xor(OffHeapBitSet a, OffHeapBitSet b) {
+        return a.combine(b, NativeBitSet.XOR);
+    }
+
+    /**
+     * Number of values in both this and other, without building the intersection
+     */
+    public long andCardinality(OffHeapBitSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return (long) NativeBitSet.AND_CARDINALITY.invoke(handle, otherHandle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute intersection size", e);
+        }
+    }
+
+    /**
+     * Re-encode every chunk in its smallest form, turning long runs of
+     * consecutive values into run containers
+     */
+    public void runOptimize() {
+        ensureOpen();
+        try {
+            NativeBitSet.RUN_OPTIMIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to optimize", e);
+        }
+    }
+
+    /**
+     * Approximate native memory held by the BitSet, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeBitSet.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size in bytes", e);
+        }
+    }
+
+    /**
+     * Copy all values in ascending order into a Java array
+     */
+    public long[] toArray() {
+        long count = cardinality();
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("BitSet too large for an array: " + count);
+        }
+        if (count == 0) {
+            return new long[0];
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment out = arena.allocateArray(ValueLayout.JAVA_LONG, count);
+            NativeBitSet.TO_ARRAY.invoke(handle, out, count);
+            return out.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to copy values", e);
+        }
+    }
+
+    /**
+     * Copy all values into a new HashSet
+     */
+    public OffHeapHashSet toHashSet() {
+        ensureOpen();
+        OffHeapHashSet set = new OffHeapHashSet();
+        try {
+            if (((Integer) NativeBitSet.TO_HASHSET.invoke(handle, set.nativeHandle())) == 0) {
+                throw new OutOfMemoryError("Failed to copy values");
+            }
+            return set;
+        } catch (Throwable e) {
+            set.close();
+            throw new RuntimeException("Failed to copy values", e);
+        }
+    }
+
+    /**
+     * Copy all values in ascending order into a new ArrayList
+     */
+    public OffHeapArrayList toArrayList() {
+        ensureOpen();
+        OffHeapArrayList list = new OffHeapArrayList();
+        try {
+            if (((Integer) NativeBitSet.TO_ARRAYLIST.invoke(handle, list.nativeHandle())) == 0) {
+                throw new OutOfMemoryError("Failed to copy values");
+            }
+            return list;
+        } catch (Throwable e) {
+            list.close();
+            throw new RuntimeException("Failed to copy values", e);
+        }
+    }
+
+    private void combineInPlace(OffHeapBitSet other, int op) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            if (((Integer) NativeBitSet.COMBINE_IN_PLACE.invoke(handle, otherHandle, op)) == 0) {
+                throw new OutOfMemoryError("Failed to combine BitSets");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to combine BitSets", e);
+        }
+    }
+
+    private OffHeapBitSet combine(OffHeapBitSet other, int op) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return new OffHeapBitSet((MemorySegment) NativeBitSet.COMBINE.invoke(handle, otherHandle, op));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to combine BitSets", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeBitSet.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy BitSet", e);
+            }
+            closed = true;
+        }
+    }
+
+    MemorySegment nativeHandle() {
+        ensureOpen();
+        return handle;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("BitSet has been closed");
+        }
+    }
+
+    private void ensureNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("BitSet is empty");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapBitSet[closed]";
+        }
+        return "OffHeapBitSet[cardinality=" + cardinality() + "]";
+    }
+}
@@ -0,0 +1,173 @@
+package com.jstl;
+
+import com.jstl.internal.NativeBloomFilter;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Off-heap blocked Bloom filter over long keys.
+ * Each key maps to a single 512-bit block, so a lookup touches one cache line.
+ * mightContain never returns false for a key that was put; it returns true for
+ * an absent key with roughly the configured false-positive rate.
+ *
+ * Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapBloomFilter implements AutoCloseable {
+    private final MemorySegment handle;
+    private boolean closed = false;
+
+    /**
+     * Create a Bloom filter sized for the expected number of insertions
+     * @param falsePositiveRate target false-positive rate, in (0, 1)
+     */
+    public OffHeapBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 0) {
+            throw new IllegalArgumentException("expectedInsertions must not be negative: " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        try {
+            this.handle = (MemorySegment) NativeBloomFilter.CREATE.invoke(expectedInsertions, falsePositiveRate);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native BloomFilter");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create BloomFilter", e);
+        }
+    }
+
+    /**
+     * Add a key to the filter
+     */
+    public void put(long key) {
+        ensureOpen();
+        try {
+            NativeBloomFilter.PUT.invoke(handle, key);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add key", e);
+        }
+    }
+
+    /**
+     * Add all keys to the filter in a single native call
+     */
+    public void putAll(long[] keys) {
+        ensureOpen();
+        if (keys.length == 0) {
+            return;
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocateArray(ValueLayout.JAVA_LONG, keys);
+            NativeBloomFilter.PUT_ALL.invoke(handle, segment, (long) keys.length);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add keys", e);
+        }
+    }
+
+    /**
+     * Check if the key may have been added
+     * @return false if the key was definitely never added
+     */
+    public boolean mightContain(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeBloomFilter.MIGHT_CONTAIN.invoke(handle, key)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check key", e);
+        }
+    }
+
+    /**
+     * Check a batch of keys in a single native call.
+     * Block loads are prefetched ahead, so this is faster than calling mightContain per key.
+     * @return mightContain result for each key, in order
+     */
+    public boolean[] mightContainAll(long[] keys) {
+        ensureOpen();
+        boolean[] result = new boolean[keys.length];
+        if (keys.length == 0) {
+            return result;
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocateArray(ValueLayout.JAVA_LONG, keys);
+            MemorySegment hits = arena.allocate(keys.length);
+            NativeBloomFilter.MIGHT_CONTAIN_ALL.invoke(handle, segment, (long) keys.length, hits);
+            for (int i = 0; i < result.length; i++) {
+                result[i] = hits.get(ValueLayout.JAVA_BYTE, i) != 0;
+            }
+            return result;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check keys", e);
+        }
+    }
+
+    /**
+     * Remove all keys from the filter
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeBloomFilter.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Get the number of bits in the filter
+     */
+    public long bitSize() {
+        ensureOpen();
+        try {
+            return (Long) NativeBloomFilter.BIT_SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get bit size", e);
+        }
+    }
+
+    /**
+     * Get the number of bits set per key
+     */
+    public int hashCount() {
+        ensureOpen();
+        try {
+            return (Integer) NativeBloomFilter.HASH_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get hash count", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeBloomFilter.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy BloomFilter", e);
+            }
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("BloomFilter has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapBloomFilter[closed]";
+        }
+        return "OffHeapBloomFilter[bits=" + bitSize() + ", hashes=" + hashCount() + "]";
+    }
+}
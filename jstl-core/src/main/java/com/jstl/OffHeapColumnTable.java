@@ -0,0 +1,360 @@
+package com.jstl;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Off-heap table of fixed-size records stored column by column (struct of
+ * arrays), described by a {@link StructLayout} schema of named value fields.
+ * Each field lives in its own contiguous, cache-line aligned column, so a
+ * scan over one field reads only that field's bytes.
+ *
+ * Fields are read and written in place with plain memory access through
+ * {@link #varHandle(StructLayout, String)} and {@link #column(String)}, so a record costs
+ * no native call per field; only growth calls into native code. Records
+ * given to or copied from the table are laid out by the schema, exactly as
+ * in {@link OffHeapRecordList}.
+ *
+ * <pre>{@code
+ * static final VarHandle PRICE = OffHeapColumnTable.varHandle(TRADE, "price");
+ *
+ * try (OffHeapColumnTable trades = new OffHeapColumnTable(TRADE)) {
+ *     trades.addAll(batch);
+ *     MemorySegment prices = trades.column("price");
+ *     double total = 0;
+ *     for (long row = 0; row < trades.longSize(); row++) {
+ *         total += (double) PRICE.get(prices, row);
+ *     }
+ * }
+ * }</pre>
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapColumnTable implements AutoCloseable {
+    private final RecordSchema schema;
+    private final RecordSchema.Field[] fields;
+    private final RecordBuffer[] columns;
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private long capacity;
+    private long size = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a new off-heap column table for the given schema
+     */
+    public OffHeapColumnTable(StructLayout schema) {
+        this(schema, 0);
+    }
+
+    /**
+     * Create a new off-heap column table with room for initialCapacity records
+     */
+    public OffHeapColumnTable(StructLayout schema, long initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        this.schema = new RecordSchema(schema);
+        this.fields = this.schema.fields().values().toArray(new RecordSchema.Field[0]);
+        this.columns = new RecordBuffer[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            indexes.put(fields[i].name(), i);
+        }
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                columns[i] = new RecordBuffer(fields[i].layout().byteSize(), initialCapacity);
+            }
+        } catch (RuntimeException | Error e) {
+            for (RecordBuffer column : columns) {
+                if (column != null) {
+                    column.close();
+                }
+            }
+            throw e;
+        }
+        this.capacity = initialCapacity;
+    }
+
+    /**
+     * Get the schema records are laid out by
+     */
+    public StructLayout schema() {
+        return schema.layout();
+    }
+
+    /**
+     * Accessor for the named field of schema, with coordinates
+     * {@code (MemorySegment column, long row)}; pass {@link #column(String)}
+     * for the same field as the column. Keep the handle in a static final
+     * field so the JIT can fold it into plain loads and stores.
+     */
+    public static VarHandle varHandle(StructLayout schema, String field) {
+        return new RecordSchema(schema).field(field).layout().arrayElementVarHandle();
+    }
+
+    /**
+     * The named field's values for all records as one contiguous segment,
+     * without copying. The view is only valid until this table next grows,
+     * is trimmed or is closed; using it afterwards throws IllegalStateException.
+     */
+    public MemorySegment column(String field) {
+        ensureOpen();
+        int i = index(field);
+        return columns[i].data().asSlice(0, size * fields[i].layout().byteSize());
+    }
+
+    /**
+     * Append a zero-filled record
+     * @return the new record's index
+     */
+    public long addRow() {
+        ensureOpen();
+        ensureCapacity(size + 1);
+        for (int i = 0; i < fields.length; i++) {
+            long width = fields[i].layout().byteSize();
+            columns[i].data().asSlice(size * width, width).fill((byte) 0);
+        }
+        return size++;
+    }
+
+    /**
+     * Append a copy of record, which must be schema().byteSize() bytes,
+     * splitting its fields into their columns
+     */
+    public void add(MemorySegment record) {
+        ensureOpen();
+        schema.checkRecord(record);
+        ensureCapacity(size + 1);
+        scatter(record, size);
+        size++;
+    }
+
+    /**
+     * Append copies of the records packed back to back in records, filling
+     * one column at a time
+     */
+    public void addAll(MemorySegment records) {
+        ensureOpen();
+        long count = schema.recordCount(records);
+        if (count == 0) {
+            return;
+        }
+        ensureCapacity(size + count);
+        for (int i = 0; i < fields.length; i++) {
+            long width = fields[i].layout().byteSize();
+            gather(records, fields[i].offset(), schema.recordSize(), columns[i].data(), size * width, width, count);
+        }
+        size += count;
+    }
+
+    /**
+     * Overwrite the record at index with a copy of record
+     */
+    public void set(long index, MemorySegment record) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        schema.checkRecord(record);
+        scatter(record, index);
+    }
+
+    /**
+     * Gather the record at index from its columns into dest, which must be
+     * schema().byteSize() bytes
+     */
+    public void get(long index, MemorySegment dest) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        schema.checkRecord(dest);
+        for (int i = 0; i < fields.length; i++) {
+            long width = fields[i].layout().byteSize();
+            MemorySegment.copy(columns[i].data(), index * width, dest, fields[i].offset(), width);
+        }
+    }
+
+    /**
+     * Copy the fields named in projection from the record at index into
+     * dest, laid out by projection, reading only the projected columns.
+     * Each projected field must exist in the schema with the same size.
+     */
+    public void project(long index, StructLayout projection, MemorySegment dest) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        RecordSchema target = new RecordSchema(projection);
+        target.checkRecord(dest);
+        for (RecordSchema.Field out : target.fields().values()) {
+            int i = indexes.get(schema.source(out).name());
+            long width = out.layout().byteSize();
+            MemorySegment.copy(columns[i].data(), index * width, dest, out.offset(), width);
+        }
+    }
+
+    /**
+     * Get the number of records, or Integer.MAX_VALUE if the table holds more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of records
+     */
+    public long longSize() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Check if the table has no records
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Get the number of records the table can hold before it grows, or
+     * Integer.MAX_VALUE if that is more
+     */
+    public int capacity() {
+        return (int) Math.min(longCapacity(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of records the table can hold before it grows
+     */
+    public long longCapacity() {
+        ensureOpen();
+        return capacity;
+    }
+
+    /**
+     * Make room for at least minCapacity records in every column
+     */
+    public void reserve(long minCapacity) {
+        ensureOpen();
+        if (minCapacity < 0) {
+            throw new IllegalArgumentException("minCapacity must not be negative: " + minCapacity);
+        }
+        if (minCapacity > capacity) {
+            reallocate(minCapacity);
+        }
+    }
+
+    /**
+     * Release spare capacity beyond the current size
+     */
+    public void trimToSize() {
+        ensureOpen();
+        if (capacity > size) {
+            reallocate(size);
+        }
+    }
+
+    /**
+     * Remove all records, keeping the capacity
+     */
+    public void clear() {
+        ensureOpen();
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            for (RecordBuffer column : columns) {
+                column.close();
+            }
+            closed = true;
+        }
+    }
+
+    private void ensureCapacity(long required) {
+        if (required > capacity) {
+            long grown = capacity + Math.max(capacity >> 1, 16);
+            reallocate(Math.max(required, grown));
+        }
+    }
+
+    private void reallocate(long newCapacity) {
+        try {
+            for (RecordBuffer column : columns) {
+                column.reallocate(newCapacity);
+            }
+        } finally {
+            // If a column failed to move, only what every column holds is usable
+            long usable = Long.MAX_VALUE;
+            for (RecordBuffer column : columns) {
+                usable = Math.min(usable, column.capacity());
+            }
+            capacity = usable;
+        }
+    }
+
+    private void scatter(MemorySegment record, long index) {
+        for (int i = 0; i < fields.length; i++) {
+            long width = fields[i].layout().byteSize();
+            MemorySegment.copy(record, fields[i].offset(), columns[i].data(), index * width, width);
+        }
+    }
+
+    /**
+     * Copy count values of width bytes, spaced stride bytes apart in src, to
+     * consecutive positions in dest. Common widths are moved as single loads
+     * and stores rather than one bulk copy per value.
+     */
+    private static void gather(MemorySegment src, long from, long stride, MemorySegment dest, long to, long width, long count) {
+        long end = to + count * width;
+        if (width == Long.BYTES) {
+            for (; to < end; from += stride, to += width) {
+                dest.set(ValueLayout.JAVA_LONG_UNALIGNED, to, src.get(ValueLayout.JAVA_LONG_UNALIGNED, from));
+            }
+        } else if (width == Integer.BYTES) {
+            for (; to < end; from += stride, to += width) {
+                dest.set(ValueLayout.JAVA_INT_UNALIGNED, to, src.get(ValueLayout.JAVA_INT_UNALIGNED, from));
+            }
+        } else if (width == Short.BYTES) {
+            for (; to < end; from += stride, to += width) {
+                dest.set(ValueLayout.JAVA_SHORT_UNALIGNED, to, src.get(ValueLayout.JAVA_SHORT_UNALIGNED, from));
+            }
+        } else if (width == Byte.BYTES) {
+            for (; to < end; from += stride, to += width) {
+                dest.set(ValueLayout.JAVA_BYTE, to, src.get(ValueLayout.JAVA_BYTE, from));
+            }
+        } else {
+            for (; to < end; from += stride, to += width) {
+                MemorySegment.copy(src, from, dest, to, width);
+            }
+        }
+    }
+
+    private int index(String field) {
+        Integer i = indexes.get(field);
+        if (i == null) {
+            throw new IllegalArgumentException("No such field: " + field);
+        }
+        return i;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("ColumnTable has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapColumnTable[closed]";
+        }
+        return "OffHeapColumnTable[size=" + size + ", columns=" + fields.length + "]";
+    }
+}
@@ -0,0 +1,275 @@
+package com.jstl;
+
+import com.jstl.internal.NativeCompressedLongList;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Off-heap append-only list of longs, compressed for sorted or slowly
+ * changing values such as timestamps and IDs.
+ *
+ * Values are stored in blocks of 128: each block keeps its first value and
+ * the smallest difference between neighbours, and bit-packs the remaining
+ * differences at the width of the largest. Monotonic timestamps typically
+ * take one byte per value or less; random values take slightly over eight.
+ * Any sequence round-trips exactly.
+ *
+ * {@link #get(long)} decodes at most one block prefix. Sequential reads
+ * should use {@link #decode(long, MemorySegment)}, {@link #toArray()} or
+ * {@link #forEach(LongConsumer)}, which unpack whole blocks with code
+ * specialised per bit width.
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapCompressedLongList implements AutoCloseable {
+    private static final int CHUNK = 4096;
+
+    private final MemorySegment handle;
+    private final Arena arena;
+    private final MemorySegment chunk;
+    private long size = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a new compressed list
+     */
+    public OffHeapCompressedLongList() {
+        try {
+            this.handle = (MemorySegment) NativeCompressedLongList.CREATE.invoke();
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native CompressedLongList");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create CompressedLongList", e);
+        }
+        this.arena = Arena.ofShared();
+        this.chunk = arena.allocateArray(ValueLayout.JAVA_LONG, CHUNK);
+    }
+
+    /**
+     * Append a value to the end of the list
+     */
+    public void add(long value) {
+        ensureOpen();
+        try {
+            if (((Integer) NativeCompressedLongList.ADD.invoke(handle, value)) == 0) {
+                throw new OutOfMemoryError("Failed to add value");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add value", e);
+        }
+        size++;
+    }
+
+    /**
+     * Append all values in a single native call
+     */
+    public void addAll(long[] values) {
+        ensureOpen();
+        if (values.length == 0) {
+            return;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            addAll(temp.allocateArray(ValueLayout.JAVA_LONG, values));
+        }
+    }
+
+    /**
+     * Append the longs held in a native segment in a single native call,
+     * without copying them to the Java heap first
+     */
+    public void addAll(MemorySegment values) {
+        ensureOpen();
+        if (values.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + values.byteSize());
+        }
+        if (!values.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+        long count = values.byteSize() / Long.BYTES;
+        if (count == 0) {
+            return;
+        }
+        try {
+            if (((Integer) NativeCompressedLongList.ADD_ALL.invoke(handle, values, count)) == 0) {
+                throw new OutOfMemoryError("Failed to add values");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add values", e);
+        }
+        size += count;
+    }
+
+    /**
+     * Get the value at the specified index
+     */
+    public long get(long index) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        try {
+            return (long) NativeCompressedLongList.GET.invoke(handle, index);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+    }
+
+    /**
+     * Decode values starting at index from into dest, filling it or
+     * stopping at the end of the list
+     * @return the number of values written
+     */
+    public long decode(long from, MemorySegment dest) {
+        ensureOpen();
+        Objects.checkIndex(from, size + 1);
+        if (!dest.isNative() || dest.isReadOnly()) {
+            throw new IllegalArgumentException("Segment must be writable native memory");
+        }
+        long count = Math.min(dest.byteSize() / Long.BYTES, size - from);
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            return (long) NativeCompressedLongList.DECODE.invoke(handle, from, count, dest);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to decode values", e);
+        }
+    }
+
+    /**
+     * Decode all values into a Java array
+     */
+    public long[] toArray() {
+        return toArray(0, longSize());
+    }
+
+    /**
+     * Decode the values in [fromIndex, toIndex) into a Java array
+     */
+    public long[] toArray(long fromIndex, long toIndex) {
+        ensureOpen();
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        long count = toIndex - fromIndex;
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many values for a Java array: " + count);
+        }
+        if (count == 0) {
+            return new long[0];
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment out = temp.allocateArray(ValueLayout.JAVA_LONG, count);
+            decode(fromIndex, out);
+            return out.toArray(ValueLayout.JAVA_LONG);
+        }
+    }
+
+    /**
+     * Pass every value, in order, to action, decoding a chunk at a time
+     */
+    public void forEach(LongConsumer action) {
+        ensureOpen();
+        for (long from = 0; from < size; from += CHUNK) {
+            long count = decode(from, chunk);
+            for (long i = 0; i < count; i++) {
+                action.accept(chunk.getAtIndex(ValueLayout.JAVA_LONG, i));
+            }
+        }
+    }
+
+    /**
+     * Get the number of values in the list, or Integer.MAX_VALUE if it
+     * holds more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of values in the list
+     */
+    public long longSize() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Check if the list is empty
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Remove all values from the list
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeCompressedLongList.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+        size = 0;
+    }
+
+    /**
+     * Release spare capacity in the packed storage
+     */
+    public void trimToSize() {
+        ensureOpen();
+        try {
+            if (((Integer) NativeCompressedLongList.TRIM_TO_SIZE.invoke(handle)) == 0) {
+                throw new OutOfMemoryError("Failed to trim");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to trim", e);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeCompressedLongList.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeCompressedLongList.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy CompressedLongList", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("CompressedLongList has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapCompressedLongList[closed]";
+        }
+        return "OffHeapCompressedLongList[size=" + size + ", bytes=" + sizeInBytes() + "]";
+    }
+}
@@ -0,0 +1,346 @@
+package com.jstl;
+
+import com.jstl.internal.NativeExpiringMap;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Off-heap long-to-long map whose entries expire after a time to live.
+ * Expiry times are kept in a hierarchical timer wheel in native memory, so
+ * reclaiming expired entries costs O(expired entries), never a scan of the map.
+ *
+ * Expired entries are never returned. They are reclaimed a few at a time
+ * (at most 64 per operation) as the map is used; call {@link #cleanUp()}
+ * periodically to reclaim everything that is due on a map that sits idle.
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapExpiringMap implements AutoCloseable {
+    private static final int DRAIN_BATCH = 64;
+
+    /**
+     * Receives entries reclaimed because their time to live ran out.
+     * Explicit remove and clear calls are not reported.
+     */
+    @FunctionalInterface
+    public interface ExpirationListener {
+        void onExpiration(long key, long value);
+    }
+
+    private final MemorySegment handle;
+    private final LongSupplier clock;
+    private final long defaultTtlMillis;
+    private final Arena arena;
+    private final MemorySegment expiredKeys;
+    private final MemorySegment expiredValues;
+    private final MemorySegment valueSlot;
+    private ExpirationListener listener;
+    private boolean closed = false;
+
+    /**
+     * Create a map whose entries expire defaultTtlMillis after they are put,
+     * timed by the system clock
+     */
+    public OffHeapExpiringMap(long defaultTtlMillis) {
+        this(defaultTtlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a map whose entries expire defaultTtlMillis after they are put,
+     * timed by clock in milliseconds. The clock should never go backwards;
+     * if it does, the map keeps its latest reading.
+     */
+    public OffHeapExpiringMap(long defaultTtlMillis, LongSupplier clock) {
+        if (defaultTtlMillis <= 0) {
+            throw new IllegalArgumentException("defaultTtlMillis must be positive: " + defaultTtlMillis);
+        }
+        this.clock = Objects.requireNonNull(clock);
+        this.defaultTtlMillis = defaultTtlMillis;
+        try {
+            this.handle = (MemorySegment) NativeExpiringMap.CREATE.invoke(clock.getAsLong());
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native ExpiringMap");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create ExpiringMap", e);
+        }
+        this.arena = Arena.ofShared();
+        this.expiredKeys = arena.allocateArray(ValueLayout.JAVA_LONG, DRAIN_BATCH);
+        this.expiredValues = arena.allocateArray(ValueLayout.JAVA_LONG, DRAIN_BATCH);
+        this.valueSlot = arena.allocate(ValueLayout.JAVA_LONG);
+    }
+
+    /**
+     * Insert or replace an entry with the default time to live
+     */
+    public void put(long key, long value) {
+        put(key, value, defaultTtlMillis);
+    }
+
+    /**
+     * Insert or replace an entry expiring ttlMillis from now.
+     * A ttlMillis of zero or less removes the key.
+     */
+    public void put(long key, long value, long ttlMillis) {
+        ensureOpen();
+        int result;
+        try {
+            result = (int) NativeExpiringMap.PUT.invoke(handle, key, value, ttlMillis, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put value", e);
+        }
+        if (result == 0) {
+            throw new OutOfMemoryError("Failed to insert entry");
+        }
+        drainExpirations();
+    }
+
+    /**
+     * Get the value for key, or 0 if absent or expired
+     */
+    public long get(long key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Get the value for key, or defaultValue if absent or expired
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        ensureOpen();
+        int found;
+        try {
+            found = (int) NativeExpiringMap.GET.invoke(handle, key, valueSlot, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+        if (found < 0) {
+            throw expiryFailed();
+        }
+        drainExpirations();
+        return found == 1 ? valueSlot.get(ValueLayout.JAVA_LONG, 0) : defaultValue;
+    }
+
+    /**
+     * Check if key is present and not expired
+     */
+    public boolean containsKey(long key) {
+        ensureOpen();
+        int result;
+        try {
+            result = (Integer) NativeExpiringMap.CONTAINS_KEY.invoke(handle, key, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check key", e);
+        }
+        if (result < 0) {
+            throw expiryFailed();
+        }
+        drainExpirations();
+        return result == 1;
+    }
+
+    /**
+     * Remove an entry
+     * @return true if the key was present and not expired
+     */
+    public boolean remove(long key) {
+        ensureOpen();
+        int result;
+        try {
+            result = (Integer) NativeExpiringMap.REMOVE.invoke(handle, key, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove entry", e);
+        }
+        if (result < 0) {
+            throw expiryFailed();
+        }
+        drainExpirations();
+        return result == 1;
+    }
+
+    /**
+     * Make a live entry expire ttlMillis from now, keeping its value.
+     * A ttlMillis of zero or less removes the entry.
+     * @return true if the key was present and not expired
+     */
+    public boolean setTimeToLive(long key, long ttlMillis) {
+        ensureOpen();
+        int result;
+        try {
+            result = (Integer) NativeExpiringMap.SET_TTL.invoke(handle, key, ttlMillis, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set time to live", e);
+        }
+        if (result < 0) {
+            throw expiryFailed();
+        }
+        drainExpirations();
+        return result == 1;
+    }
+
+    /**
+     * Get the milliseconds left before key expires, or -1 if absent or expired
+     */
+    public long timeToLive(long key) {
+        ensureOpen();
+        long ttl;
+        try {
+            ttl = (long) NativeExpiringMap.TIME_TO_LIVE.invoke(handle, key, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get time to live", e);
+        }
+        if (ttl < -1) {
+            throw expiryFailed();
+        }
+        drainExpirations();
+        return ttl;
+    }
+
+    /**
+     * Get the number of live entries. Reclaims every expired entry first.
+     */
+    public int size() {
+        ensureOpen();
+        long size;
+        try {
+            size = (long) NativeExpiringMap.SIZE.invoke(handle, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+        if (size < 0) {
+            throw expiryFailed();
+        }
+        drainExpirations();
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Check if the map has no live entries
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove all entries. Expirations not yet reported are dropped.
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeExpiringMap.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Reclaim every entry that has expired
+     * @return the number of entries reclaimed
+     */
+    public long cleanUp() {
+        ensureOpen();
+        long reclaimed;
+        try {
+            reclaimed = (long) NativeExpiringMap.CLEAN_UP.invoke(handle, clock.getAsLong());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clean up", e);
+        }
+        if (reclaimed < 0) {
+            throw expiryFailed();
+        }
+        drainExpirations();
+        return reclaimed;
+    }
+
+    /**
+     * Number of entries reclaimed because they expired
+     */
+    public long expiredCount() {
+        ensureOpen();
+        try {
+            return (long) NativeExpiringMap.EXPIRED_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get expired count", e);
+        }
+    }
+
+    /**
+     * Set the listener called with each reclaimed expired entry, or null for none.
+     * Entries are reported when they are reclaimed, not the moment they expire.
+     */
+    public void setExpirationListener(ExpirationListener listener) {
+        ensureOpen();
+        try {
+            NativeExpiringMap.RECORD_EXPIRATIONS.invoke(handle, listener != null ? 1 : 0);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set expiration listener", e);
+        }
+        this.listener = listener;
+    }
+
+    private void drainExpirations() {
+        while (listener != null && !closed) {
+            int count;
+            try {
+                count = (int) (long) NativeExpiringMap.DRAIN_EXPIRATIONS.invoke(handle, expiredKeys, expiredValues, (long) DRAIN_BATCH);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to drain expirations", e);
+            }
+            if (count == 0) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                listener.onExpiration(expiredKeys.getAtIndex(ValueLayout.JAVA_LONG, i),
+                                      expiredValues.getAtIndex(ValueLayout.JAVA_LONG, i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeExpiringMap.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy ExpiringMap", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    // Reported when an expired entry could not be buffered for the listener;
+    // the map is unchanged past that entry, which a later call reclaims
+    private static OutOfMemoryError expiryFailed() {
+        return new OutOfMemoryError("Failed to buffer an expired entry");
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("ExpiringMap has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapExpiringMap[closed]";
+        }
+        // size() would reclaim expired entries and call the listener
+        long stored;
+        try {
+            stored = (long) NativeExpiringMap.STORED_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get stored count", e);
+        }
+        return "OffHeapExpiringMap[stored=" + stored + "]";
+    }
+}
@@ -0,0 +1,150 @@
+package com.jstl;
+
+import com.jstl.internal.NativeFrozen;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Immutable off-heap long-to-long map, created by {@link OffHeapHashMap#freeze()}.
+ * Entries sit in one contiguous slot array indexed by a perfect hash, so a
+ * lookup reads one small per-bucket pilot and one slot: at most two cache
+ * misses, and about 18 bytes per entry with no allocator overhead.
+ *
+ * Lookups never modify native state, so any number of threads may read
+ * concurrently without synchronization. Close only after all readers are done.
+ * Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapFrozenMap implements AutoCloseable {
+    private final MemorySegment handle;
+    private boolean closed = false;
+
+    OffHeapFrozenMap(MemorySegment handle) {
+        if (handle == null || handle.address() == 0) {
+            throw new OutOfMemoryError("Failed to create native FrozenMap");
+        }
+        this.handle = handle;
+    }
+
+    /**
+     * Get the value for the specified key
+     * Returns 0 if key not found
+     */
+    public long get(long key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Get the value for the specified key, or return defaultValue if not found
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        ensureOpen();
+        try {
+            return (long) NativeFrozen.MAP_GET_OR_DEFAULT.invoke(handle, key, defaultValue);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+    }
+
+    /**
+     * Check if the map contains the specified key
+     */
+    public boolean containsKey(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeFrozen.MAP_CONTAINS_KEY.invoke(handle, key)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check key", e);
+        }
+    }
+
+    /**
+     * Look up many keys in a single native call, returning defaultValue for
+     * absent ones. Lookups are issued in groups so their cache misses overlap.
+     */
+    public long[] getAll(long[] keys, long defaultValue) {
+        ensureOpen();
+        if (keys.length == 0) {
+            return new long[0];
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocateArray(ValueLayout.JAVA_LONG, keys);
+            MemorySegment values = arena.allocateArray(ValueLayout.JAVA_LONG, keys.length);
+            NativeFrozen.MAP_GET_ALL.invoke(handle, segment, (long) keys.length, defaultValue, values);
+            return values.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get values", e);
+        }
+    }
+
+    /**
+     * Get the number of entries in the map, or Integer.MAX_VALUE if it
+     * holds more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of entries in the map
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativeFrozen.MAP_SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if the map is empty
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeFrozen.MAP_SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeFrozen.MAP_DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy FrozenMap", e);
+            }
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("FrozenMap has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapFrozenMap[closed]";
+        }
+        return "OffHeapFrozenMap[size=" + longSize() + "]";
+    }
+}
@@ -0,0 +1,134 @@
+package com.jstl;
+
+import com.jstl.internal.NativeFrozen;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Immutable off-heap set of longs, created by {@link OffHeapHashSet#freeze()}.
+ * Elements sit in one contiguous slot array indexed by a perfect hash, so a
+ * lookup reads one small per-bucket pilot and one slot: at most two cache
+ * misses, and about 10 bytes per element with no allocator overhead.
+ *
+ * Lookups never modify native state, so any number of threads may read
+ * concurrently without synchronization. Close only after all readers are done.
+ * Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapFrozenSet implements AutoCloseable {
+    private final MemorySegment handle;
+    private boolean closed = false;
+
+    OffHeapFrozenSet(MemorySegment handle) {
+        if (handle == null || handle.address() == 0) {
+            throw new OutOfMemoryError("Failed to create native FrozenSet");
+        }
+        this.handle = handle;
+    }
+
+    /**
+     * Check if the set contains an element
+     */
+    public boolean contains(long value) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeFrozen.SET_CONTAINS.invoke(handle, value)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check element", e);
+        }
+    }
+
+    /**
+     * Check many elements in a single native call.
+     * Lookups are issued in groups so their cache misses overlap.
+     */
+    public boolean[] containsAll(long[] values) {
+        ensureOpen();
+        boolean[] result = new boolean[values.length];
+        if (values.length == 0) {
+            return result;
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment segment = arena.allocateArray(ValueLayout.JAVA_LONG, values);
+            MemorySegment hits = arena.allocate(values.length);
+            NativeFrozen.SET_CONTAINS_ALL.invoke(handle, segment, (long) values.length, hits);
+            for (int i = 0; i < result.length; i++) {
+                result[i] = hits.get(ValueLayout.JAVA_BYTE, i) != 0;
+            }
+            return result;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check elements", e);
+        }
+    }
+
+    /**
+     * Get the number of elements in the set, or Integer.MAX_VALUE if it
+     * holds more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of elements in the set
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativeFrozen.SET_SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if the set is empty
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeFrozen.SET_SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeFrozen.SET_DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy FrozenSet", e);
+            }
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("FrozenSet has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapFrozenSet[closed]";
+        }
+        return "OffHeapFrozenSet[size=" + longSize() + "]";
+    }
+}
@@ -0,0 +1,344 @@
+package com.jstl;
+
+import com.jstl.internal.NativeGroupBy;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Off-heap hash aggregation, the equivalent of
+ * {@code SELECT key, COUNT(*), SUM(value), MIN(value), MAX(value) GROUP BY key}
+ * over rows held as parallel key and value columns.
+ *
+ * Each batch of rows is aggregated in a single native call. Groups live in
+ * a fixed set of hash partitions; with {@link #setParallelism} above one,
+ * large batches are scattered by partition and the partitions aggregated
+ * by several threads, none sharing a table. Only the aggregates chosen at
+ * construction are computed. Sums wrap around like Java long arithmetic.
+ *
+ * Batches accumulate, so rows can be fed in chunks.
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapGroupBy implements AutoCloseable {
+    /**
+     * A per-key aggregate over the values of a group
+     */
+    public enum Aggregate {
+        /** Number of rows */
+        COUNT(1),
+        /** Wrapping sum of values */
+        SUM(2),
+        MIN(4),
+        MAX(8);
+
+        private final int code;
+
+        Aggregate(int code) {
+            this.code = code;
+        }
+    }
+
+    private final MemorySegment handle;
+    private final Arena arena;
+    private final MemorySegment groupSlot;
+    private final EnumSet<Aggregate> aggregates;
+    private int parallelism = 1;
+    private boolean closed = false;
+
+    /**
+     * Create a new group-by computing the given aggregates
+     */
+    public OffHeapGroupBy(Aggregate... aggregates) {
+        if (aggregates.length == 0) {
+            throw new IllegalArgumentException("At least one aggregate is required");
+        }
+        this.aggregates = EnumSet.noneOf(Aggregate.class);
+        int mask = 0;
+        for (Aggregate aggregate : aggregates) {
+            this.aggregates.add(Objects.requireNonNull(aggregate));
+            mask |= aggregate.code;
+        }
+        try {
+            this.handle = (MemorySegment) NativeGroupBy.CREATE.invoke(mask);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native GroupBy");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create GroupBy", e);
+        }
+        this.arena = Arena.ofShared();
+        // jstl_groupby_find writes every aggregate, in declaration order
+        this.groupSlot = arena.allocateArray(ValueLayout.JAVA_LONG, Aggregate.values().length);
+    }
+
+    /**
+     * Set the number of threads used to aggregate each batch. Defaults to 1.
+     * Batches too small to benefit still run on the calling thread.
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.parallelism = threads;
+    }
+
+    /**
+     * Get the number of threads used to aggregate each batch
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Get the aggregates this group-by computes
+     */
+    public Set<Aggregate> aggregates() {
+        return EnumSet.copyOf(aggregates);
+    }
+
+    /**
+     * Aggregate the rows (keys.get(i), values.get(i)) in a single native call
+     */
+    public void add(OffHeapArrayList keys, OffHeapArrayList values) {
+        ensureOpen();
+        if (keys.longSize() != values.longSize()) {
+            throw new IllegalArgumentException("keys and values differ in size: " + keys.longSize() + " != " + values.longSize());
+        }
+        MemorySegment keyHandle = keys.nativeHandle();
+        MemorySegment valueHandle = values.nativeHandle();
+        try {
+            if (((Integer) NativeGroupBy.ADD_LISTS.invoke(handle, keyHandle, valueHandle, (long) parallelism)) == 0) {
+                throw new OutOfMemoryError("Failed to aggregate rows");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to aggregate rows", e);
+        }
+    }
+
+    /**
+     * Aggregate rows held as two native segments of longs, without copying
+     * them to the Java heap first
+     */
+    public void add(MemorySegment keys, MemorySegment values) {
+        ensureOpen();
+        if (keys.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + keys.byteSize());
+        }
+        if (keys.byteSize() != values.byteSize()) {
+            throw new IllegalArgumentException("keys and values differ in size: " + keys.byteSize() + " != " + values.byteSize() + " bytes");
+        }
+        if (!keys.isNative() || !values.isNative()) {
+            throw new IllegalArgumentException("Segments must be native memory");
+        }
+        long count = keys.byteSize() / Long.BYTES;
+        if (count == 0) {
+            return;
+        }
+        try {
+            if (((Integer) NativeGroupBy.ADD.invoke(handle, keys, values, count, (long) parallelism)) == 0) {
+                throw new OutOfMemoryError("Failed to aggregate rows");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to aggregate rows", e);
+        }
+    }
+
+    /**
+     * Aggregate the rows (keys[i], values[i]) in a single native call
+     */
+    public void add(long[] keys, long[] values) {
+        ensureOpen();
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        if (keys.length == 0) {
+            return;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            add(temp.allocateArray(ValueLayout.JAVA_LONG, keys), temp.allocateArray(ValueLayout.JAVA_LONG, values));
+        }
+    }
+
+    /**
+     * Check if any row had this key
+     */
+    public boolean containsKey(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeGroupBy.FIND.invoke(handle, key, groupSlot)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check key", e);
+        }
+    }
+
+    /**
+     * Get an aggregate of key's group (returns 0 if no row had the key)
+     */
+    public long get(long key, Aggregate aggregate) {
+        return getOrDefault(key, aggregate, 0);
+    }
+
+    /**
+     * Get an aggregate of key's group, or defaultValue if no row had the key
+     */
+    public long getOrDefault(long key, Aggregate aggregate, long defaultValue) {
+        ensureOpen();
+        checkAggregate(aggregate);
+        try {
+            if (((Integer) NativeGroupBy.FIND.invoke(handle, key, groupSlot)) == 0) {
+                return defaultValue;
+            }
+            return groupSlot.getAtIndex(ValueLayout.JAVA_LONG, aggregate.ordinal());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get aggregate", e);
+        }
+    }
+
+    /**
+     * Get the number of groups, or Integer.MAX_VALUE if there are more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of groups
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativeGroupBy.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if no rows have been aggregated
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Copy the key of every group into a Java array. The order is arbitrary
+     * but matches {@link #values} until more rows are added.
+     */
+    public long[] keys() {
+        long count = checkedSize();
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment out = temp.allocateArray(ValueLayout.JAVA_LONG, count);
+            NativeGroupBy.KEYS.invoke(handle, out, count);
+            return out.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to copy keys", e);
+        }
+    }
+
+    /**
+     * Copy one aggregate of every group into a Java array, in the same
+     * order as {@link #keys}
+     */
+    public long[] values(Aggregate aggregate) {
+        checkAggregate(aggregate);
+        long count = checkedSize();
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment out = temp.allocateArray(ValueLayout.JAVA_LONG, count);
+            NativeGroupBy.VALUES.invoke(handle, aggregate.code, out, count);
+            return out.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to copy values", e);
+        }
+    }
+
+    /**
+     * Copy one aggregate of every group into a new HashMap keyed by group
+     */
+    public OffHeapHashMap toHashMap(Aggregate aggregate) {
+        checkAggregate(aggregate);
+        OffHeapHashMap map = new OffHeapHashMap(longSize());
+        try {
+            if (((Integer) NativeGroupBy.TO_HASHMAP.invoke(handle, aggregate.code, map.nativeHandle())) == 0) {
+                throw new OutOfMemoryError("Failed to copy groups");
+            }
+            return map;
+        } catch (Throwable e) {
+            map.close();
+            throw new RuntimeException("Failed to copy groups", e);
+        }
+    }
+
+    /**
+     * Remove all groups
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeGroupBy.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeGroupBy.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeGroupBy.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy GroupBy", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    private void checkAggregate(Aggregate aggregate) {
+        if (!aggregates.contains(Objects.requireNonNull(aggregate))) {
+            throw new IllegalArgumentException("Aggregate was not computed: " + aggregate);
+        }
+    }
+
+    private long checkedSize() {
+        long count = longSize();
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many groups for a Java array: " + count);
+        }
+        return count;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("GroupBy has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapGroupBy[closed]";
+        }
+        return "OffHeapGroupBy[groups=" + longSize() + ", aggregates=" + aggregates + "]";
+    }
+}
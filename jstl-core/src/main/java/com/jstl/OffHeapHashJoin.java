@@ -0,0 +1,332 @@
+package com.jstl;
+
+import com.jstl.internal.NativeHashJoin;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Off-heap hash equi-join on long keys. One side is built into a hash
+ * table once; probe columns are then joined against it in a single native
+ * call each, appending results to OffHeapArrayLists.
+ *
+ * Build rows carry a long payload, or their row index if none is given,
+ * so an inner join yields either (probe index, payload) or
+ * (probe index, build index) pairs. Keys may repeat on both sides.
+ *
+ * The build side is radix-partitioned by key hash so every partition's
+ * table fits in cache. By default a probe looks rows up in place,
+ * prefetching ahead; with {@link #setPartitioned} it first scatters the
+ * probe rows into the same partitions and joins partition by partition.
+ * With {@link #setParallelism} above one, large builds and probes are
+ * split across threads.
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapHashJoin implements AutoCloseable {
+    // jstl_join_type_t
+    private static final int INNER = 0;
+    private static final int SEMI = 1;
+    private static final int ANTI = 2;
+
+    private final MemorySegment handle;
+    private int parallelism = 1;
+    private boolean partitioned = false;
+    private boolean closed = false;
+
+    /**
+     * Create a new join with an empty build side
+     */
+    public OffHeapHashJoin() {
+        try {
+            this.handle = (MemorySegment) NativeHashJoin.CREATE.invoke();
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native HashJoin");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create HashJoin", e);
+        }
+    }
+
+    /**
+     * Set the number of threads used to build and probe. Defaults to 1.
+     * Inputs too small to benefit still run on the calling thread.
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.parallelism = threads;
+    }
+
+    /**
+     * Get the number of threads used to build and probe
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Choose how probes run. A partitioned probe scatters the probe rows by
+     * build partition first, so lookups stay in cache at the cost of an
+     * extra pass; results then come out grouped by partition instead of in
+     * probe order. Defaults to false.
+     */
+    public void setPartitioned(boolean partitioned) {
+        this.partitioned = partitioned;
+    }
+
+    /**
+     * Check if probes scatter the probe rows by partition first
+     */
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Replace the build side with the rows of keys, each carrying its
+     * index in keys as payload
+     */
+    public void build(OffHeapArrayList keys) {
+        ensureOpen();
+        buildLists(keys.nativeHandle(), MemorySegment.NULL);
+    }
+
+    /**
+     * Replace the build side with the rows (keys.get(i), payloads.get(i))
+     */
+    public void build(OffHeapArrayList keys, OffHeapArrayList payloads) {
+        ensureOpen();
+        if (keys.longSize() != payloads.longSize()) {
+            throw new IllegalArgumentException("keys and payloads differ in size: " + keys.longSize() + " != " + payloads.longSize());
+        }
+        buildLists(keys.nativeHandle(), payloads.nativeHandle());
+    }
+
+    /**
+     * Replace the build side with rows held as two native segments of
+     * longs, without copying them to the Java heap first
+     */
+    public void build(MemorySegment keys, MemorySegment payloads) {
+        ensureOpen();
+        long count = checkColumn(keys);
+        if (payloads.byteSize() != keys.byteSize()) {
+            throw new IllegalArgumentException("keys and payloads differ in size: " + keys.byteSize() + " != " + payloads.byteSize() + " bytes");
+        }
+        checkColumn(payloads);
+        try {
+            if (((Integer) NativeHashJoin.BUILD.invoke(handle, keys, payloads, count, (long) parallelism)) == 0) {
+                throw new OutOfMemoryError("Failed to build join table");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to build join table", e);
+        }
+    }
+
+    /**
+     * Replace the build side with the entries of a HashMap, each value
+     * being the payload of its key
+     */
+    public void build(OffHeapHashMap map) {
+        ensureOpen();
+        MemorySegment mapHandle = map.nativeHandle();
+        try {
+            if (((Integer) NativeHashJoin.BUILD_HASHMAP.invoke(handle, mapHandle, (long) parallelism)) == 0) {
+                throw new OutOfMemoryError("Failed to build join table");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to build join table", e);
+        }
+    }
+
+    /**
+     * Inner join: for every build row whose key equals probeKeys.get(i),
+     * append i to probeIndexes and the build row's payload to payloads
+     * @return the number of matches appended
+     */
+    public long innerJoin(OffHeapArrayList probeKeys, OffHeapArrayList probeIndexes, OffHeapArrayList payloads) {
+        if (probeIndexes == payloads) {
+            throw new IllegalArgumentException("probeIndexes and payloads must be different lists");
+        }
+        return probeList(INNER, probeKeys, probeIndexes, payloads);
+    }
+
+    /**
+     * Inner join with probe keys held in a native segment of longs
+     * @return the number of matches appended
+     */
+    public long innerJoin(MemorySegment probeKeys, OffHeapArrayList probeIndexes, OffHeapArrayList payloads) {
+        if (probeIndexes == payloads) {
+            throw new IllegalArgumentException("probeIndexes and payloads must be different lists");
+        }
+        return probeSegment(INNER, probeKeys, probeIndexes, payloads);
+    }
+
+    /**
+     * Semi join: append i to probeIndexes for every probeKeys.get(i) that
+     * matches at least one build row
+     * @return the number of indexes appended
+     */
+    public long semiJoin(OffHeapArrayList probeKeys, OffHeapArrayList probeIndexes) {
+        return probeList(SEMI, probeKeys, probeIndexes, null);
+    }
+
+    /**
+     * Semi join with probe keys held in a native segment of longs
+     * @return the number of indexes appended
+     */
+    public long semiJoin(MemorySegment probeKeys, OffHeapArrayList probeIndexes) {
+        return probeSegment(SEMI, probeKeys, probeIndexes, null);
+    }
+
+    /**
+     * Anti join: append i to probeIndexes for every probeKeys.get(i) that
+     * matches no build row
+     * @return the number of indexes appended
+     */
+    public long antiJoin(OffHeapArrayList probeKeys, OffHeapArrayList probeIndexes) {
+        return probeList(ANTI, probeKeys, probeIndexes, null);
+    }
+
+    /**
+     * Anti join with probe keys held in a native segment of longs
+     * @return the number of indexes appended
+     */
+    public long antiJoin(MemorySegment probeKeys, OffHeapArrayList probeIndexes) {
+        return probeSegment(ANTI, probeKeys, probeIndexes, null);
+    }
+
+    /**
+     * Get the number of build rows
+     */
+    public long buildSize() {
+        ensureOpen();
+        try {
+            return (long) NativeHashJoin.BUILD_SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get build size", e);
+        }
+    }
+
+    /**
+     * Get the number of distinct build keys
+     */
+    public long distinctKeys() {
+        ensureOpen();
+        try {
+            return (long) NativeHashJoin.DISTINCT_KEYS.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get distinct keys", e);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeHashJoin.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeHashJoin.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy HashJoin", e);
+            }
+            closed = true;
+        }
+    }
+
+    // Number of build partitions, for tests
+    long partitions() {
+        ensureOpen();
+        try {
+            return (long) NativeHashJoin.PARTITIONS.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get partitions", e);
+        }
+    }
+
+    private void buildLists(MemorySegment keys, MemorySegment payloads) {
+        try {
+            if (((Integer) NativeHashJoin.BUILD_LISTS.invoke(handle, keys, payloads, (long) parallelism)) == 0) {
+                throw new OutOfMemoryError("Failed to build join table");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to build join table", e);
+        }
+    }
+
+    private long probeList(int type, OffHeapArrayList keys, OffHeapArrayList indexes, OffHeapArrayList payloads) {
+        ensureOpen();
+        if (keys == indexes || keys == payloads) {
+            throw new IllegalArgumentException("probeKeys must not also be an output list");
+        }
+        MemorySegment keyHandle = keys.nativeHandle();
+        MemorySegment indexHandle = indexes.nativeHandle();
+        MemorySegment payloadHandle = payloads == null ? MemorySegment.NULL : payloads.nativeHandle();
+        try {
+            long results = (long) NativeHashJoin.PROBE_LIST.invoke(handle, type, keyHandle, indexHandle, payloadHandle,
+                    partitioned ? 1 : 0, (long) parallelism);
+            if (results < 0) {
+                throw new OutOfMemoryError("Failed to join");
+            }
+            return results;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to join", e);
+        }
+    }
+
+    private long probeSegment(int type, MemorySegment keys, OffHeapArrayList indexes, OffHeapArrayList payloads) {
+        ensureOpen();
+        long count = checkColumn(keys);
+        MemorySegment indexHandle = indexes.nativeHandle();
+        MemorySegment payloadHandle = payloads == null ? MemorySegment.NULL : payloads.nativeHandle();
+        try {
+            long results = (long) NativeHashJoin.PROBE.invoke(handle, type, keys, count, indexHandle, payloadHandle,
+                    partitioned ? 1 : 0, (long) parallelism);
+            if (results < 0) {
+                throw new OutOfMemoryError("Failed to join");
+            }
+            return results;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to join", e);
+        }
+    }
+
+    // Number of longs in a native column segment
+    private static long checkColumn(MemorySegment column) {
+        if (column.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + column.byteSize());
+        }
+        if (!column.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+        return column.byteSize() / Long.BYTES;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("HashJoin has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapHashJoin[closed]";
+        }
+        return "OffHeapHashJoin[buildSize=" + buildSize() + ", distinctKeys=" + distinctKeys() + "]";
+    }
+}
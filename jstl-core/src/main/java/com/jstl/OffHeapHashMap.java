@@ -1,7 +1,12 @@
 package com.jstl;
 
+import com.jstl.internal.NativeFrozen;
 import com.jstl.internal.NativeHashMap;
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.function.LongUnaryOperator;
 
 /**
  * Off-heap HashMap backed by C++ std::unordered_map.
@@ -11,7 +16,27 @@ import java.lang.foreign.MemorySegment;
  * Auto-closeable to ensure native memory is freed.
  */
 public class OffHeapHashMap implements AutoCloseable {
+    /**
+     * How {@link #merge} combines an existing value with a new one
+     */
+    public enum Combiner {
+        /** Wrapping addition */
+        SUM(0),
+        MIN(1),
+        MAX(2),
+        /** Bitwise or */
+        OR(3);
+
+        private final int code;
+
+        Combiner(int code) {
+            this.code = code;
+        }
+    }
+
     private final MemorySegment handle;
+    private Arena arena;
+    private MemorySegment valueSlot;
     private boolean closed = false;
 
     /**
@@ -28,6 +53,40 @@ public class OffHeapHashMap implements AutoCloseable {
         }
     }
 
+    /**
+     * Create a new off-heap HashMap with room for expectedSize entries,
+     * so loading that many does not rehash
+     */
+    public OffHeapHashMap(long expectedSize) {
+        this(expectedSize, HashStrategy.IDENTITY);
+    }
+
+    /**
+     * Create a new off-heap HashMap hashing keys with the given strategy
+     */
+    public OffHeapHashMap(HashStrategy strategy) {
+        this(0, strategy);
+    }
+
+    /**
+     * Create a new off-heap HashMap with room for expectedSize entries,
+     * hashing keys with the given strategy
+     */
+    public OffHeapHashMap(long expectedSize, HashStrategy strategy) {
+        Objects.requireNonNull(strategy);
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        try {
+            this.handle = (MemorySegment) NativeHashMap.CREATE_WITH_STRATEGY.invoke(expectedSize, strategy.code);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native HashMap");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create HashMap", e);
+        }
+    }
+
     /**
      * Put a key-value pair into the map
      */
@@ -58,10 +117,11 @@ public class OffHeapHashMap implements AutoCloseable {
      */
     public long getOrDefault(long key, long defaultValue) {
         ensureOpen();
-        if (containsKey(key)) {
-            return get(key);
+        try {
+            return (long) NativeHashMap.GET_OR_DEFAULT.invoke(handle, key, defaultValue);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
         }
-        return defaultValue;
     }
 
     /**
@@ -89,12 +149,153 @@ public class OffHeapHashMap implements AutoCloseable {
     }
 
     /**
-     * Get the number of entries in the map
+     * Put a key-value pair only if the key is absent
+     * @return true if the entry was inserted
+     */
+    public boolean putIfAbsent(long key, long value) {
+        ensureOpen();
+        try {
+            int result = (int) NativeHashMap.PUT_IF_ABSENT.invoke(handle, key, value);
+            if (result < 0) {
+                throw new OutOfMemoryError("Failed to insert entry");
+            }
+            return result != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put entry", e);
+        }
+    }
+
+    /**
+     * Overwrite the value for key only if the key is present
+     * @return true if the value was replaced
+     */
+    public boolean replace(long key, long value) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeHashMap.REPLACE.invoke(handle, key, value)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to replace value", e);
+        }
+    }
+
+    /**
+     * Put a key-value pair and return the previous value,
+     * or defaultValue if the key was absent. Use
+     * {@link #getAndPut(long, long, long[])} when a previous value equal to
+     * defaultValue must be told apart from an absent key.
+     */
+    public long getAndPut(long key, long value, long defaultValue) {
+        ensureOpen();
+        return swap(key, value) ? valueSlot.get(ValueLayout.JAVA_LONG, 0) : defaultValue;
+    }
+
+    /**
+     * Put a key-value pair, copying the previous value into previous[0]
+     * if the key was present
+     * @return true if the key was present
+     */
+    public boolean getAndPut(long key, long value, long[] previous) {
+        ensureOpen();
+        if (previous.length == 0) {
+            throw new IllegalArgumentException("previous must hold at least one value");
+        }
+        if (!swap(key, value)) {
+            return false;
+        }
+        previous[0] = valueSlot.get(ValueLayout.JAVA_LONG, 0);
+        return true;
+    }
+
+    // Put a key-value pair, leaving the previous value in valueSlot;
+    // returns true if the key was present
+    private boolean swap(long key, long value) {
+        int result;
+        try {
+            result = (int) NativeHashMap.GET_AND_PUT.invoke(handle, key, value, valueSlot());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put entry", e);
+        }
+        if (result < 0) {
+            throw new OutOfMemoryError("Failed to insert entry");
+        }
+        return result != 0;
+    }
+
+    /**
+     * Remove the entry for key and return its value,
+     * or defaultValue if the key was absent
+     */
+    public long removeAndGet(long key, long defaultValue) {
+        ensureOpen();
+        try {
+            boolean removed = ((Integer) NativeHashMap.REMOVE_AND_GET.invoke(handle, key, valueSlot())) != 0;
+            return removed ? valueSlot.get(ValueLayout.JAVA_LONG, 0) : defaultValue;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove entry", e);
+        }
+    }
+
+    /**
+     * Add delta to the value for key, treating an absent key as 0
+     * @return the new value
+     */
+    public long addTo(long key, long delta) {
+        return merge(key, delta, Combiner.SUM);
+    }
+
+    /**
+     * Store value if key is absent, otherwise combine it into the existing value,
+     * all in one hash probe
+     * @return the resulting value
+     */
+    public long merge(long key, long value, Combiner combiner) {
+        ensureOpen();
+        Objects.requireNonNull(combiner);
+        try {
+            if (((Integer) NativeHashMap.MERGE.invoke(handle, key, value, combiner.code, valueSlot())) == 0) {
+                throw new OutOfMemoryError("Failed to insert entry");
+            }
+            return valueSlot.get(ValueLayout.JAVA_LONG, 0);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to merge value", e);
+        }
+    }
+
+    /**
+     * Get the value for key, computing and storing it if the key is absent
+     */
+    public long computeIfAbsent(long key, LongUnaryOperator mappingFunction) {
+        ensureOpen();
+        Objects.requireNonNull(mappingFunction);
+        boolean found;
+        try {
+            found = ((Integer) NativeHashMap.FIND.invoke(handle, key, valueSlot())) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+        if (found) {
+            return valueSlot.get(ValueLayout.JAVA_LONG, 0);
+        }
+        long value = mappingFunction.applyAsLong(key);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Get the number of entries in the map, or Integer.MAX_VALUE if it
+     * holds more
      */
     public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of entries in the map
+     */
+    public long longSize() {
         ensureOpen();
         try {
-            return ((Long) NativeHashMap.SIZE.invoke(handle)).intValue();
+            return (long) NativeHashMap.SIZE.invoke(handle);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to get size", e);
         }
@@ -124,6 +325,170 @@ public class OffHeapHashMap implements AutoCloseable {
         }
     }
 
+    /**
+     * Keep a Bloom filter over the keys so most lookups of absent
+     * keys (get, containsKey) return without probing the hash table.
+     * The filter follows inserts and removals and is rebuilt, a little per
+     * write, as the map grows.
+     * Calling this again rebuilds the filter with the new rate.
+     * @param falsePositiveRate fraction of absent lookups still probing the table, in (0, 1)
+     */
+    public void enableBloomFilter(double falsePositiveRate) {
+        ensureOpen();
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        try {
+            if (((Integer) NativeHashMap.ENABLE_BLOOM_FILTER.invoke(handle, falsePositiveRate)) == 0) {
+                throw new OutOfMemoryError("Failed to allocate Bloom filter");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to enable Bloom filter", e);
+        }
+    }
+
+    /**
+     * Drop the Bloom filter, if any
+     */
+    public void disableBloomFilter() {
+        ensureOpen();
+        try {
+            NativeHashMap.DISABLE_BLOOM_FILTER.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to disable Bloom filter", e);
+        }
+    }
+
+    /**
+     * Grow without stalling: when the table fills, a table twice the size
+     * takes over and each later write moves a few entries across,
+     * instead of one insert rehashing the whole map. Bounds worst-case
+     * latency on large maps at a small cost per operation while a
+     * migration runs. Disabling finishes any migration in progress.
+     */
+    public void setIncrementalRehash(boolean enabled) {
+        ensureOpen();
+        try {
+            if (((Integer) NativeHashMap.SET_INCREMENTAL_REHASH.invoke(handle, enabled ? 1 : 0)) == 0) {
+                throw new OutOfMemoryError("Failed to finish rehash");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set incremental rehash", e);
+        }
+    }
+
+    /**
+     * Check if an incremental rehash is moving entries to a larger table
+     */
+    public boolean isRehashing() {
+        ensureOpen();
+        try {
+            return ((Integer) NativeHashMap.IS_REHASHING.invoke(handle)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check rehash", e);
+        }
+    }
+
+    /**
+     * Make room for at least capacity entries, so growing to that size
+     * does not rehash. Finishes any incremental rehash in progress.
+     */
+    public void reserve(long capacity) {
+        ensureOpen();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        try {
+            if (((Integer) NativeHashMap.RESERVE.invoke(handle, capacity)) == 0) {
+                throw new OutOfMemoryError("Failed to reserve capacity");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to reserve capacity", e);
+        }
+    }
+
+    /**
+     * Get the number of entries that fit before the table next grows
+     */
+    public long capacity() {
+        ensureOpen();
+        try {
+            return (long) NativeHashMap.CAPACITY.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get capacity", e);
+        }
+    }
+
+    /**
+     * Shrink the bucket array to fit the current entries, returning memory
+     * after large removals. An empty map frees its buckets entirely.
+     */
+    public void trimToSize() {
+        ensureOpen();
+        try {
+            if (((Integer) NativeHashMap.SHRINK_TO_FIT.invoke(handle)) == 0) {
+                throw new OutOfMemoryError("Failed to shrink table");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to trim to size", e);
+        }
+    }
+
+    /**
+     * Set the average number of entries per bucket at which the table grows
+     * (1.0 by default). Lower values trade memory for shorter probe chains.
+     */
+    public void setMaxLoadFactor(double maxLoadFactor) {
+        ensureOpen();
+        if (!(maxLoadFactor > 0) || Double.isInfinite(maxLoadFactor)) {
+            throw new IllegalArgumentException("maxLoadFactor must be positive: " + maxLoadFactor);
+        }
+        try {
+            if (((Integer) NativeHashMap.SET_MAX_LOAD_FACTOR.invoke(handle, maxLoadFactor)) == 0) {
+                throw new OutOfMemoryError("Failed to rehash");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set max load factor", e);
+        }
+    }
+
+    /**
+     * Get the average number of entries per bucket at which the table grows
+     */
+    public double maxLoadFactor() {
+        ensureOpen();
+        try {
+            return (double) NativeHashMap.MAX_LOAD_FACTOR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get max load factor", e);
+        }
+    }
+
+    /**
+     * Get the strategy this map hashes keys with
+     */
+    public HashStrategy hashStrategy() {
+        ensureOpen();
+        try {
+            return HashStrategy.of((int) NativeHashMap.HASH_STRATEGY.invoke(handle));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get hash strategy", e);
+        }
+    }
+
+    /**
+     * Create an immutable copy of this map indexed by a perfect hash, for
+     * read-mostly lookup tables. This map is unchanged and stays usable.
+     */
+    public OffHeapFrozenMap freeze() {
+        ensureOpen();
+        try {
+            return new OffHeapFrozenMap((MemorySegment) NativeFrozen.FREEZE_MAP.invoke(handle));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to freeze map", e);
+        }
+    }
+
     @Override
     public void close() {
         if (!closed) {
@@ -132,10 +497,29 @@ public class OffHeapHashMap implements AutoCloseable {
             } catch (Throwable e) {
                 throw new RuntimeException("Failed to destroy HashMap", e);
             }
+            if (arena != null) {
+                arena.close();
+            }
             closed = true;
         }
     }
 
+    // Scratch slot the native side writes a returned value into. Allocated
+    // on first use, so maps that never need one create no arena. The arena
+    // is shared because close() may run on the finalizer thread.
+    private MemorySegment valueSlot() {
+        if (valueSlot == null) {
+            arena = Arena.ofShared();
+            valueSlot = arena.allocate(ValueLayout.JAVA_LONG);
+        }
+        return valueSlot;
+    }
+
+    MemorySegment nativeHandle() {
+        ensureOpen();
+        return handle;
+    }
+
     private void ensureOpen() {
         if (closed) {
             throw new IllegalStateException("HashMap has been closed");
@@ -153,6 +537,6 @@ public class OffHeapHashMap implements AutoCloseable {
         if (closed) {
             return "OffHeapHashMap[closed]";
         }
-        return "OffHeapHashMap[size=" + size() + "]";
+        return "OffHeapHashMap[size=" + longSize() + "]";
     }
 }
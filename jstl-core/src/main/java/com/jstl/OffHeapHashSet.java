@@ -1,7 +1,9 @@
 package com.jstl;
 
+import com.jstl.internal.NativeFrozen;
 import com.jstl.internal.NativeHashSet;
 import java.lang.foreign.MemorySegment;
+import java.util.Objects;
 
 /**
  * Off-heap HashSet backed by C++ std::unordered_set.
@@ -13,6 +15,7 @@ import java.lang.foreign.MemorySegment;
 public class OffHeapHashSet implements AutoCloseable {
     private final MemorySegment handle;
     private boolean closed = false;
+    private int parallelism = 1;
 
     /**
      * Create a new off-heap HashSet
@@ -28,6 +31,47 @@ public class OffHeapHashSet implements AutoCloseable {
         }
     }
 
+    /**
+     * Create a new off-heap HashSet with room for expectedSize elements,
+     * so loading that many does not rehash
+     */
+    public OffHeapHashSet(long expectedSize) {
+        this(expectedSize, HashStrategy.IDENTITY);
+    }
+
+    /**
+     * Create a new off-heap HashSet hashing elements with the given strategy
+     */
+    public OffHeapHashSet(HashStrategy strategy) {
+        this(0, strategy);
+    }
+
+    /**
+     * Create a new off-heap HashSet with room for expectedSize elements,
+     * hashing elements with the given strategy
+     */
+    public OffHeapHashSet(long expectedSize, HashStrategy strategy) {
+        Objects.requireNonNull(strategy);
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        try {
+            this.handle = (MemorySegment) NativeHashSet.CREATE_WITH_STRATEGY.invoke(expectedSize, strategy.code);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native HashSet");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create HashSet", e);
+        }
+    }
+
+    private OffHeapHashSet(MemorySegment handle) {
+        if (handle == null || handle.address() == 0) {
+            throw new OutOfMemoryError("Failed to create native HashSet");
+        }
+        this.handle = handle;
+    }
+
     /**
      * Add an element to the set
      * @return true if the element was added, false if it already existed
@@ -67,12 +111,20 @@ public class OffHeapHashSet implements AutoCloseable {
     }
 
     /**
-     * Get the number of elements in the set
+     * Get the number of elements in the set, or Integer.MAX_VALUE if it
+     * holds more
      */
     public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of elements in the set
+     */
+    public long longSize() {
         ensureOpen();
         try {
-            return ((Long) NativeHashSet.SIZE.invoke(handle)).intValue();
+            return (long) NativeHashSet.SIZE.invoke(handle);
         } catch (Throwable e) {
             throw new RuntimeException("Failed to get size", e);
         }
@@ -102,6 +154,286 @@ public class OffHeapHashSet implements AutoCloseable {
         }
     }
 
+    /**
+     * Keep a Bloom filter over the elements so most lookups of absent
+     * elements (contains) return without probing the hash table.
+     * The filter follows inserts and removals and is rebuilt, a little per
+     * write, as the set grows.
+     * Calling this again rebuilds the filter with the new rate.
+     * @param falsePositiveRate fraction of absent lookups still probing the table, in (0, 1)
+     */
+    public void enableBloomFilter(double falsePositiveRate) {
+        ensureOpen();
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        try {
+            if (((Integer) NativeHashSet.ENABLE_BLOOM_FILTER.invoke(handle, falsePositiveRate)) == 0) {
+                throw new OutOfMemoryError("Failed to allocate Bloom filter");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to enable Bloom filter", e);
+        }
+    }
+
+    /**
+     * Drop the Bloom filter, if any
+     */
+    public void disableBloomFilter() {
+        ensureOpen();
+        try {
+            NativeHashSet.DISABLE_BLOOM_FILTER.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to disable Bloom filter", e);
+        }
+    }
+
+    /**
+     * Grow without stalling: when the table fills, a table twice the size
+     * takes over and each later write moves a few entries across,
+     * instead of one insert rehashing the whole set. Bounds worst-case
+     * latency on large sets at a small cost per operation while a
+     * migration runs. Disabling finishes any migration in progress.
+     */
+    public void setIncrementalRehash(boolean enabled) {
+        ensureOpen();
+        try {
+            if (((Integer) NativeHashSet.SET_INCREMENTAL_REHASH.invoke(handle, enabled ? 1 : 0)) == 0) {
+                throw new OutOfMemoryError("Failed to finish rehash");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set incremental rehash", e);
+        }
+    }
+
+    /**
+     * Check if an incremental rehash is moving entries to a larger table
+     */
+    public boolean isRehashing() {
+        ensureOpen();
+        try {
+            return ((Integer) NativeHashSet.IS_REHASHING.invoke(handle)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check rehash", e);
+        }
+    }
+
+    /**
+     * Make room for at least capacity elements, so growing to that size
+     * does not rehash. Finishes any incremental rehash in progress.
+     */
+    public void reserve(long capacity) {
+        ensureOpen();
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        try {
+            if (((Integer) NativeHashSet.RESERVE.invoke(handle, capacity)) == 0) {
+                throw new OutOfMemoryError("Failed to reserve capacity");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to reserve capacity", e);
+        }
+    }
+
+    /**
+     * Get the number of elements that fit before the table next grows
+     */
+    public long capacity() {
+        ensureOpen();
+        try {
+            return (long) NativeHashSet.CAPACITY.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get capacity", e);
+        }
+    }
+
+    /**
+     * Shrink the bucket array to fit the current elements, returning memory
+     * after large removals. An empty set frees its buckets entirely.
+     */
+    public void trimToSize() {
+        ensureOpen();
+        try {
+            if (((Integer) NativeHashSet.SHRINK_TO_FIT.invoke(handle)) == 0) {
+                throw new OutOfMemoryError("Failed to shrink table");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to trim to size", e);
+        }
+    }
+
+    /**
+     * Set the average number of elements per bucket at which the table grows
+     * (1.0 by default). Lower values trade memory for shorter probe chains.
+     */
+    public void setMaxLoadFactor(double maxLoadFactor) {
+        ensureOpen();
+        if (!(maxLoadFactor > 0) || Double.isInfinite(maxLoadFactor)) {
+            throw new IllegalArgumentException("maxLoadFactor must be positive: " + maxLoadFactor);
+        }
+        try {
+            if (((Integer) NativeHashSet.SET_MAX_LOAD_FACTOR.invoke(handle, maxLoadFactor)) == 0) {
+                throw new OutOfMemoryError("Failed to rehash");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set max load factor", e);
+        }
+    }
+
+    /**
+     * Get the average number of elements per bucket at which the table grows
+     */
+    public double maxLoadFactor() {
+        ensureOpen();
+        try {
+            return (double) NativeHashSet.MAX_LOAD_FACTOR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get max load factor", e);
+        }
+    }
+
+    /**
+     * Get the strategy this set hashes elements with
+     */
+    public HashStrategy hashStrategy() {
+        ensureOpen();
+        try {
+            return HashStrategy.of((int) NativeHashSet.HASH_STRATEGY.invoke(handle));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get hash strategy", e);
+        }
+    }
+
+    /**
+     * Set the number of threads used to scan sets in retainAll, removeAll,
+     * intersectionSize, intersection and difference. Defaults to 1.
+     * Sets too small to benefit are still scanned on the calling thread.
+     */
+    public void setParallelism(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.parallelism = threads;
+    }
+
+    /**
+     * Get the number of threads used by the set algebra operations
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Add every element of the other set to this set
+     * @return number of elements added
+     */
+    public long addAll(OffHeapHashSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return (long) NativeHashSet.ADD_ALL.invoke(handle, otherHandle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add elements", e);
+        }
+    }
+
+    /**
+     * Keep only the elements also contained in the other set.
+     * Scans whichever set is smaller and probes the larger one.
+     * @return number of elements removed
+     */
+    public long retainAll(OffHeapHashSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return (long) NativeHashSet.RETAIN_ALL.invoke(handle, otherHandle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to retain elements", e);
+        }
+    }
+
+    /**
+     * Remove every element contained in the other set.
+     * Scans whichever set is smaller and probes the larger one.
+     * @return number of elements removed
+     */
+    public long removeAll(OffHeapHashSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return (long) NativeHashSet.REMOVE_ALL.invoke(handle, otherHandle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove elements", e);
+        }
+    }
+
+    /**
+     * Count the elements contained in both sets without materializing them
+     */
+    public long intersectionSize(OffHeapHashSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return (long) NativeHashSet.INTERSECTION_SIZE.invoke(handle, otherHandle, (long) parallelism);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute intersection size", e);
+        }
+    }
+
+    /**
+     * Create a new set with the elements of both sets; neither input is modified
+     */
+    public OffHeapHashSet union(OffHeapHashSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return new OffHeapHashSet((MemorySegment) NativeHashSet.UNION.invoke(handle, otherHandle));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute union", e);
+        }
+    }
+
+    /**
+     * Create a new set with the elements contained in both sets; neither input is modified
+     */
+    public OffHeapHashSet intersection(OffHeapHashSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return new OffHeapHashSet((MemorySegment) NativeHashSet.INTERSECTION.invoke(handle, otherHandle, (long) parallelism));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute intersection", e);
+        }
+    }
+
+    /**
+     * Create a new set with the elements of this set not contained in the other;
+     * neither input is modified
+     */
+    public OffHeapHashSet difference(OffHeapHashSet other) {
+        ensureOpen();
+        MemorySegment otherHandle = other.nativeHandle();
+        try {
+            return new OffHeapHashSet((MemorySegment) NativeHashSet.DIFFERENCE.invoke(handle, otherHandle, (long) parallelism));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute difference", e);
+        }
+    }
+
+    /**
+     * Create an immutable copy of this set indexed by a perfect hash, for
+     * read-mostly lookup tables. This set is unchanged and stays usable.
+     */
+    public OffHeapFrozenSet freeze() {
+        ensureOpen();
+        try {
+            return new OffHeapFrozenSet((MemorySegment) NativeFrozen.FREEZE_SET.invoke(handle));
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to freeze set", e);
+        }
+    }
+
     @Override
     public void close() {
         if (!closed) {
@@ -114,6 +446,11 @@ public class OffHeapHashSet implements AutoCloseable {
         }
     }
 
+    MemorySegment nativeHandle() {
+        ensureOpen();
+        return handle;
+    }
+
     private void ensureOpen() {
         if (closed) {
             throw new IllegalStateException("HashSet has been closed");
@@ -131,6 +468,6 @@ public class OffHeapHashSet implements AutoCloseable {
         if (closed) {
             return "OffHeapHashSet[closed]";
         }
-        return "OffHeapHashSet[size=" + size() + "]";
+        return "OffHeapHashSet[size=" + longSize() + "]";
     }
 }
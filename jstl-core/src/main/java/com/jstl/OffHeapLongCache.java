@@ -0,0 +1,348 @@
+package com.jstl;
+
+import com.jstl.internal.NativeCache;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Off-heap bounded long-to-long cache.
+ * Entries, recency lists and frequency counters all live in native memory,
+ * so lookups and hits allocate nothing on the Java heap.
+ *
+ * The default W-TinyLFU policy admits new entries through a small LRU window
+ * and keeps them only if they are used more often than the entry they would
+ * replace, which protects frequently used entries from one-off scans.
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapLongCache implements AutoCloseable {
+    /** Largest supported maximum size */
+    public static final long MAX_SIZE = 0xFFFF_FFFEL;
+
+    private static final int DRAIN_BATCH = 64;
+
+    /**
+     * Eviction policies
+     */
+    public enum Policy {
+        /** Evict the least recently used entry */
+        LRU(0),
+        /** LRU window in front of a frequency-filtered segmented LRU */
+        W_TINY_LFU(1);
+
+        private final int code;
+
+        Policy(int code) {
+            this.code = code;
+        }
+    }
+
+    /**
+     * Receives entries evicted to stay within the maximum size.
+     * Explicit remove and clear calls are not reported.
+     */
+    @FunctionalInterface
+    public interface EvictionListener {
+        void onEviction(long key, long value);
+    }
+
+    private final MemorySegment handle;
+    private final Arena arena;
+    private final MemorySegment valueSlot;
+    private final MemorySegment evictedKeys;
+    private final MemorySegment evictedValues;
+    private EvictionListener listener;
+    private boolean closed = false;
+
+    /**
+     * Create a W-TinyLFU cache holding at most maximumSize entries
+     */
+    public OffHeapLongCache(long maximumSize) {
+        this(maximumSize, Policy.W_TINY_LFU);
+    }
+
+    /**
+     * Create a cache holding at most maximumSize entries
+     */
+    public OffHeapLongCache(long maximumSize, Policy policy) {
+        if (maximumSize < 1 || maximumSize > MAX_SIZE) {
+            throw new IllegalArgumentException("maximumSize out of range: " + maximumSize);
+        }
+        Objects.requireNonNull(policy);
+        try {
+            this.handle = (MemorySegment) NativeCache.CREATE.invoke(maximumSize, policy.code);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native Cache");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create Cache", e);
+        }
+        this.arena = Arena.ofShared();
+        this.valueSlot = arena.allocate(ValueLayout.JAVA_LONG);
+        this.evictedKeys = arena.allocateArray(ValueLayout.JAVA_LONG, DRAIN_BATCH);
+        this.evictedValues = arena.allocateArray(ValueLayout.JAVA_LONG, DRAIN_BATCH);
+    }
+
+    /**
+     * Create a cache whose entries fit in roughly maxBytes of native memory
+     */
+    public static OffHeapLongCache withMemoryBudget(long maxBytes, Policy policy) {
+        long maximumSize = Math.min(maxBytes / entryBytes(), MAX_SIZE);
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maxBytes too small for one entry: " + maxBytes);
+        }
+        return new OffHeapLongCache(maximumSize, policy);
+    }
+
+    /**
+     * Approximate native bytes used per cached entry
+     */
+    public static long entryBytes() {
+        try {
+            return (long) NativeCache.ENTRY_BYTES.invoke();
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get entry size", e);
+        }
+    }
+
+    /**
+     * Get the cached value for key, or 0 if not cached. Counts a hit or miss.
+     */
+    public long get(long key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Get the cached value for key, or defaultValue if not cached. Counts a hit or miss.
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        ensureOpen();
+        try {
+            return (long) NativeCache.GET_OR_DEFAULT.invoke(handle, key, defaultValue);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+    }
+
+    /**
+     * Check if key is cached, without counting a hit or miss or marking it used
+     */
+    public boolean containsKey(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeCache.CONTAINS_KEY.invoke(handle, key)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check key", e);
+        }
+    }
+
+    /**
+     * Insert or update an entry, evicting entries if the cache is full
+     */
+    public void put(long key, long value) {
+        ensureOpen();
+        long pending;
+        try {
+            pending = (long) NativeCache.PUT.invoke(handle, key, value);
+            if (pending < 0) {
+                throw new OutOfMemoryError("Failed to insert entry");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put value", e);
+        }
+        if (pending > 0) {
+            drainEvictions();
+        }
+    }
+
+    /**
+     * Get the cached value for key, computing and caching it on a miss
+     */
+    public long computeIfAbsent(long key, LongUnaryOperator mappingFunction) {
+        ensureOpen();
+        Objects.requireNonNull(mappingFunction);
+        boolean hit;
+        try {
+            hit = ((Integer) NativeCache.GET.invoke(handle, key, valueSlot)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+        if (hit) {
+            return valueSlot.get(ValueLayout.JAVA_LONG, 0);
+        }
+        long value = mappingFunction.applyAsLong(key);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Remove an entry
+     * @return true if the key was cached
+     */
+    public boolean remove(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeCache.REMOVE.invoke(handle, key)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove entry", e);
+        }
+    }
+
+    /**
+     * Remove all entries. Statistics are kept.
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeCache.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Get the number of cached entries, or Integer.MAX_VALUE if it holds
+     * more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of cached entries
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativeCache.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Get the maximum number of entries
+     */
+    public long maximumSize() {
+        ensureOpen();
+        try {
+            return (long) NativeCache.CAPACITY.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get maximum size", e);
+        }
+    }
+
+    /**
+     * Number of lookups that found a cached value
+     */
+    public long hitCount() {
+        ensureOpen();
+        try {
+            return (long) NativeCache.HIT_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get hit count", e);
+        }
+    }
+
+    /**
+     * Number of lookups that found nothing
+     */
+    public long missCount() {
+        ensureOpen();
+        try {
+            return (long) NativeCache.MISS_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get miss count", e);
+        }
+    }
+
+    /**
+     * Number of entries evicted to stay within the maximum size
+     */
+    public long evictionCount() {
+        ensureOpen();
+        try {
+            return (long) NativeCache.EVICTION_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get eviction count", e);
+        }
+    }
+
+    /**
+     * Fraction of lookups that were hits, or 1.0 if there were none
+     */
+    public double hitRate() {
+        long hits = hitCount();
+        long requests = hits + missCount();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * Set the listener called with each evicted entry, or null for none.
+     * Evictions are buffered natively and delivered, oldest first, before
+     * the put that caused them returns.
+     */
+    public void setEvictionListener(EvictionListener listener) {
+        ensureOpen();
+        try {
+            NativeCache.RECORD_EVICTIONS.invoke(handle, listener != null ? 1 : 0);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set eviction listener", e);
+        }
+        this.listener = listener;
+    }
+
+    private void drainEvictions() {
+        while (listener != null && !closed) {
+            int count;
+            try {
+                count = (int) (long) NativeCache.DRAIN_EVICTIONS.invoke(handle, evictedKeys, evictedValues, (long) DRAIN_BATCH);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to drain evictions", e);
+            }
+            if (count == 0) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                listener.onEviction(evictedKeys.getAtIndex(ValueLayout.JAVA_LONG, i),
+                                    evictedValues.getAtIndex(ValueLayout.JAVA_LONG, i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeCache.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy Cache", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Cache has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapLongCache[closed]";
+        }
+        return "OffHeapLongCache[size=" + longSize() + ", maximumSize=" + maximumSize() + "]";
+    }
+}
@@ -0,0 +1,299 @@
+package com.jstl;
+
+import com.jstl.internal.NativeLongLog;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+
+/**
+ * Off-heap append-only log of longs that many threads can append to and
+ * read from at once, without locks.
+ *
+ * Values live in fixed-size native chunks that are never moved or freed
+ * while the log is open, so a reader can never see memory reallocated
+ * under it, unlike a growing OffHeapArrayList. An append reserves its slots
+ * with one atomic fetch-add, so appends from different threads write in
+ * parallel and never wait on each other. An append becomes visible once
+ * every append reserved before it has finished too. {@link #longSize} is
+ * that published length, and every read only looks below it. While
+ * appends arrive back to back on several threads, the published length may
+ * trail by up to one chunk until they pause or the chunk fills.
+ *
+ * Each appendAll lands as one contiguous run. For bulk scans,
+ * {@link #chunk} exposes the published part of a chunk as a read-only
+ * segment with no copy.
+ *
+ * Thread-safe, except that {@link #clear} and {@link #close} must not
+ * overlap any other call. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapLongLog implements AutoCloseable {
+    private static final int DEFAULT_CHUNK_BITS = 16;
+
+    private final MemorySegment handle;
+    private final int chunkBits;
+    private volatile boolean closed = false;
+
+    /**
+     * Create a new log with chunks of 65536 values (512 KB)
+     */
+    public OffHeapLongLog() {
+        this(DEFAULT_CHUNK_BITS);
+    }
+
+    /**
+     * Create a new log with chunks of 2^chunkBits values
+     * @param chunkBits in [10, 24]
+     */
+    public OffHeapLongLog(int chunkBits) {
+        if (chunkBits < 10 || chunkBits > 24) {
+            throw new IllegalArgumentException("chunkBits must be in [10, 24]: " + chunkBits);
+        }
+        this.chunkBits = chunkBits;
+        try {
+            this.handle = (MemorySegment) NativeLongLog.CREATE.invoke(chunkBits);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native LongLog");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create LongLog", e);
+        }
+    }
+
+    /**
+     * Append a value
+     * @return the index of the value
+     */
+    public long append(long value) {
+        ensureOpen();
+        try {
+            long index = (long) NativeLongLog.APPEND.invoke(handle, value);
+            if (index < 0) {
+                throw new OutOfMemoryError("Failed to append value");
+            }
+            return index;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to append value", e);
+        }
+    }
+
+    /**
+     * Append every value as one contiguous run in a single native call
+     * @return the index of the first value
+     */
+    public long appendAll(long[] values) {
+        ensureOpen();
+        if (values.length == 0) {
+            return longSize();
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            return appendAll(temp.allocateArray(ValueLayout.JAVA_LONG, values));
+        }
+    }
+
+    /**
+     * Append every value held in a native segment of longs as one
+     * contiguous run
+     * @return the index of the first value
+     */
+    public long appendAll(MemorySegment values) {
+        ensureOpen();
+        if (values.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + values.byteSize());
+        }
+        if (!values.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+        try {
+            long index = (long) NativeLongLog.APPEND_ALL.invoke(handle, values, values.byteSize() / Long.BYTES);
+            if (index < 0) {
+                throw new OutOfMemoryError("Failed to append values");
+            }
+            return index;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to append values", e);
+        }
+    }
+
+    /**
+     * Get a published value
+     * @throws IndexOutOfBoundsException if index is not below longSize()
+     */
+    public long get(long index) {
+        Objects.checkIndex(index, longSize());
+        try {
+            return (long) NativeLongLog.GET.invoke(handle, index);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+    }
+
+    /**
+     * Copy published values starting at index from into dest, filling it
+     * or stopping at the published length
+     * @return the number of values copied
+     */
+    public long read(long from, MemorySegment dest) {
+        ensureOpen();
+        if (from < 0) {
+            throw new IndexOutOfBoundsException("from is negative: " + from);
+        }
+        if (!dest.isNative() || dest.isReadOnly()) {
+            throw new IllegalArgumentException("Segment must be writable native memory");
+        }
+        try {
+            return (long) NativeLongLog.READ.invoke(handle, from, dest, dest.byteSize() / Long.BYTES);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to read values", e);
+        }
+    }
+
+    /**
+     * Copy up to maxCount published values starting at index from into a
+     * Java array, shorter if fewer are published
+     */
+    public long[] read(long from, int maxCount) {
+        if (maxCount < 0) {
+            throw new IllegalArgumentException("maxCount must not be negative: " + maxCount);
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment out = temp.allocateArray(ValueLayout.JAVA_LONG, maxCount);
+            long count = read(from, out);
+            return out.asSlice(0, count * Long.BYTES).toArray(ValueLayout.JAVA_LONG);
+        }
+    }
+
+    /**
+     * Read-only view of the published values of chunk number index, which
+     * holds values [index * chunkSize(), (index + 1) * chunkSize()). The
+     * view does not grow with later appends, and is only valid until the
+     * log is cleared or closed.
+     * @throws IndexOutOfBoundsException if index is not below chunkCount()
+     */
+    public MemorySegment chunk(long index) {
+        long published = longSize();
+        Objects.checkIndex(index, chunkCount(published));
+        long length = Math.min(chunkSize(), published - (index << chunkBits));
+        try {
+            MemorySegment base = (MemorySegment) NativeLongLog.CHUNK.invoke(handle, index);
+            return base.reinterpret(length * Long.BYTES).asReadOnly();
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get chunk", e);
+        }
+    }
+
+    /**
+     * Get the number of values in each chunk
+     */
+    public int chunkSize() {
+        return 1 << chunkBits;
+    }
+
+    /**
+     * Get the number of chunks holding published values
+     */
+    public long chunkCount() {
+        return chunkCount(longSize());
+    }
+
+    /**
+     * Get the number of published values, saturated to Integer.MAX_VALUE
+     */
+    public int size() {
+        long size = longSize();
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    /**
+     * Get the number of published values. Appends still in progress on
+     * other threads are not counted.
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativeLongLog.PUBLISHED.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if no value is published
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Get the maximum number of values the log can hold
+     */
+    public long capacity() {
+        ensureOpen();
+        try {
+            return (long) NativeLongLog.CAPACITY.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get capacity", e);
+        }
+    }
+
+    /**
+     * Remove all values and free the chunks. Must not overlap any other
+     * call, and invalidates every chunk view.
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeLongLog.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeLongLog.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeLongLog.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy LongLog", e);
+            }
+            closed = true;
+        }
+    }
+
+    private long chunkCount(long published) {
+        return (published + chunkSize() - 1) >> chunkBits;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("LongLog has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapLongLog[closed]";
+        }
+        return "OffHeapLongLog[size=" + longSize() + ", chunkSize=" + chunkSize() + "]";
+    }
+}
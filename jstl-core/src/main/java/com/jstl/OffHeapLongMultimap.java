@@ -0,0 +1,290 @@
+package com.jstl;
+
+import com.jstl.internal.NativeMultimap;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Off-heap multimap from long keys to growable lists of long values,
+ * for adjacency lists and inverted indexes.
+ *
+ * Keys live in one open-addressing table and all value lists share one
+ * native pool, so a key costs about 24 bytes rather than a separately
+ * allocated vector. A list that outgrows its region moves to the end of
+ * the pool; {@link #compact()} packs every list contiguously again.
+ *
+ * Values keep their insertion order per key.
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapLongMultimap implements AutoCloseable {
+    private final MemorySegment handle;
+    private final Arena arena;
+    private final MemorySegment countSlot;
+    private boolean closed = false;
+
+    /**
+     * Create a new off-heap multimap
+     */
+    public OffHeapLongMultimap() {
+        try {
+            this.handle = (MemorySegment) NativeMultimap.CREATE.invoke();
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native LongMultimap");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create LongMultimap", e);
+        }
+        this.arena = Arena.ofShared();
+        this.countSlot = arena.allocate(ValueLayout.JAVA_LONG);
+    }
+
+    /**
+     * Append value to key's list
+     */
+    public void put(long key, long value) {
+        ensureOpen();
+        try {
+            if (((Integer) NativeMultimap.PUT.invoke(handle, key, value)) == 0) {
+                throw new OutOfMemoryError("Failed to add value");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put value", e);
+        }
+    }
+
+    /**
+     * Append all values to key's list in a single native call
+     */
+    public void putAll(long key, long[] values) {
+        ensureOpen();
+        if (values.length == 0) {
+            return;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment segment = temp.allocateArray(ValueLayout.JAVA_LONG, values);
+            if (((Integer) NativeMultimap.PUT_ALL.invoke(handle, key, segment, (long) values.length)) == 0) {
+                throw new OutOfMemoryError("Failed to add values");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put values", e);
+        }
+    }
+
+    /**
+     * Append values[i] to keys[i]'s list for every i, in a single native call.
+     * Runs of equal keys are appended together, so grouped input is fastest.
+     */
+    public void putAll(long[] keys, long[] values) {
+        ensureOpen();
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        if (keys.length == 0) {
+            return;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment keySegment = temp.allocateArray(ValueLayout.JAVA_LONG, keys);
+            MemorySegment valueSegment = temp.allocateArray(ValueLayout.JAVA_LONG, values);
+            if (((Integer) NativeMultimap.PUT_PAIRS.invoke(handle, keySegment, valueSegment, (long) keys.length)) == 0) {
+                throw new OutOfMemoryError("Failed to add values");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put values", e);
+        }
+    }
+
+    /**
+     * Copy key's values, in insertion order, into a Java array (empty if absent)
+     */
+    public long[] get(long key) {
+        return view(key).toArray(ValueLayout.JAVA_LONG);
+    }
+
+    /**
+     * Read-only view of key's values in native memory, without copying
+     * (empty if absent). The view is only valid until this multimap is
+     * next modified or closed.
+     */
+    public MemorySegment view(long key) {
+        ensureOpen();
+        try {
+            MemorySegment data = (MemorySegment) NativeMultimap.VALUES.invoke(handle, key, countSlot);
+            long count = countSlot.get(ValueLayout.JAVA_LONG, 0);
+            if (count == 0) {
+                return MemorySegment.NULL;
+            }
+            return data.reinterpret(count * Long.BYTES).asReadOnly();
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get values", e);
+        }
+    }
+
+    /**
+     * Get the number of values stored for key
+     */
+    public long count(long key) {
+        ensureOpen();
+        try {
+            return (long) NativeMultimap.COUNT.invoke(handle, key);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to count values", e);
+        }
+    }
+
+    /**
+     * Check if key has any values
+     */
+    public boolean containsKey(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeMultimap.CONTAINS_KEY.invoke(handle, key)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check key", e);
+        }
+    }
+
+    /**
+     * Remove key and all its values
+     * @return the number of values removed
+     */
+    public long removeAll(long key) {
+        ensureOpen();
+        try {
+            return (long) NativeMultimap.REMOVE_ALL.invoke(handle, key);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove key", e);
+        }
+    }
+
+    /**
+     * Get the number of distinct keys, or Integer.MAX_VALUE if there are more
+     */
+    public int keyCount() {
+        return (int) Math.min(longKeyCount(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of distinct keys
+     */
+    public long longKeyCount() {
+        ensureOpen();
+        try {
+            return (long) NativeMultimap.KEY_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get key count", e);
+        }
+    }
+
+    /**
+     * Get the total number of values across all keys
+     */
+    public long size() {
+        ensureOpen();
+        try {
+            return (long) NativeMultimap.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if the multimap has no keys
+     */
+    public boolean isEmpty() {
+        return longKeyCount() == 0;
+    }
+
+    /**
+     * Copy all distinct keys, in no particular order, into a Java array
+     */
+    public long[] keys() {
+        long count = longKeyCount();
+        if (count == 0) {
+            return new long[0];
+        }
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many keys for a Java array: " + count);
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment out = temp.allocateArray(ValueLayout.JAVA_LONG, count);
+            NativeMultimap.KEYS.invoke(handle, out, count);
+            return out.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to copy keys", e);
+        }
+    }
+
+    /**
+     * Remove all keys and values
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeMultimap.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Pack all value lists contiguously with no spare capacity, releasing
+     * regions left behind by growth and removal. Best called once a bulk
+     * load is done; appending afterwards moves a list again.
+     */
+    public void compact() {
+        ensureOpen();
+        try {
+            if (((Integer) NativeMultimap.COMPACT.invoke(handle)) == 0) {
+                throw new OutOfMemoryError("Failed to compact");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compact", e);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeMultimap.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeMultimap.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy LongMultimap", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("LongMultimap has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapLongMultimap[closed]";
+        }
+        return "OffHeapLongMultimap[keys=" + longKeyCount() + ", size=" + size() + "]";
+    }
+}
@@ -0,0 +1,407 @@
+package com.jstl;
+
+import com.jstl.internal.NativePriorityQueue;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandle;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Off-heap priority queue of long priorities, each optionally paired with a
+ * long payload such as a row id. Unlike {@code PriorityQueue<Long>} no entry
+ * is ever boxed, so a queue of millions of entries puts no load on the GC.
+ *
+ * Entries live in a native 4-ary heap: half the depth of a binary heap,
+ * with the four children of a node adjacent in memory. Bulk offers run in
+ * one native call, and an offer that at least doubles the queue rebuilds
+ * the heap in linear time instead of sifting every entry.
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapLongPriorityQueue implements AutoCloseable {
+    /**
+     * Which priorities come out first
+     */
+    public enum Order {
+        /** Smallest priority first, like {@code java.util.PriorityQueue} */
+        MIN(0),
+        /** Largest priority first */
+        MAX(1);
+
+        final int code;
+
+        Order(int code) {
+            this.code = code;
+        }
+    }
+
+    private final MemorySegment handle;
+    private final Arena arena;
+    private final MemorySegment headSlot;
+    private final Order order;
+    private final boolean withPayloads;
+    private boolean closed = false;
+
+    /**
+     * Create a new queue polling the smallest priority first, without payloads
+     */
+    public OffHeapLongPriorityQueue() {
+        this(Order.MIN, false);
+    }
+
+    /**
+     * Create a new queue in the given order, without payloads
+     */
+    public OffHeapLongPriorityQueue(Order order) {
+        this(order, false);
+    }
+
+    /**
+     * Create a new queue in the given order
+     * @param withPayloads whether each priority carries a payload
+     */
+    public OffHeapLongPriorityQueue(Order order, boolean withPayloads) {
+        this.order = Objects.requireNonNull(order);
+        this.withPayloads = withPayloads;
+        try {
+            this.handle = (MemorySegment) NativePriorityQueue.CREATE.invoke(order.code, withPayloads ? 1 : 0);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native PriorityQueue");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create PriorityQueue", e);
+        }
+        this.arena = Arena.ofShared();
+        // jstl_pqueue_peek and jstl_pqueue_poll write priority, then payload
+        this.headSlot = arena.allocateArray(ValueLayout.JAVA_LONG, 2);
+    }
+
+    /**
+     * Get the order priorities come out in
+     */
+    public Order order() {
+        return order;
+    }
+
+    /**
+     * Check if each priority carries a payload
+     */
+    public boolean hasPayloads() {
+        return withPayloads;
+    }
+
+    /**
+     * Add a priority. With payloads, its payload is 0.
+     */
+    public void offer(long priority) {
+        ensureOpen();
+        offerEntry(priority, 0);
+    }
+
+    /**
+     * Add a priority with its payload
+     * @throws IllegalStateException if the queue was created without payloads
+     */
+    public void offer(long priority, long payload) {
+        ensureOpen();
+        checkPayloads();
+        offerEntry(priority, payload);
+    }
+
+    /**
+     * Add every priority in a single native call
+     */
+    public void offerAll(long[] priorities) {
+        ensureOpen();
+        if (priorities.length == 0) {
+            return;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            offerAll(temp.allocateArray(ValueLayout.JAVA_LONG, priorities));
+        }
+    }
+
+    /**
+     * Add the entries (priorities[i], payloads[i]) in a single native call
+     * @throws IllegalStateException if the queue was created without payloads
+     */
+    public void offerAll(long[] priorities, long[] payloads) {
+        ensureOpen();
+        checkPayloads();
+        if (priorities.length != payloads.length) {
+            throw new IllegalArgumentException("priorities and payloads differ in length: " + priorities.length + " != " + payloads.length);
+        }
+        if (priorities.length == 0) {
+            return;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            offerAll(temp.allocateArray(ValueLayout.JAVA_LONG, priorities), temp.allocateArray(ValueLayout.JAVA_LONG, payloads));
+        }
+    }
+
+    /**
+     * Add every priority held in a native segment of longs, without copying
+     * it to the Java heap first
+     */
+    public void offerAll(MemorySegment priorities) {
+        ensureOpen();
+        offerSegments(priorities, checkColumn(priorities), MemorySegment.NULL);
+    }
+
+    /**
+     * Add the entries held in two native segments of longs
+     * @throws IllegalStateException if the queue was created without payloads
+     */
+    public void offerAll(MemorySegment priorities, MemorySegment payloads) {
+        ensureOpen();
+        checkPayloads();
+        long count = checkColumn(priorities);
+        if (payloads.byteSize() != priorities.byteSize()) {
+            throw new IllegalArgumentException("priorities and payloads differ in size: " + priorities.byteSize() + " != " + payloads.byteSize() + " bytes");
+        }
+        checkColumn(payloads);
+        offerSegments(priorities, count, payloads);
+    }
+
+    /**
+     * Get the priority at the head without removing it
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long peek() {
+        readHead(NativePriorityQueue.PEEK);
+        return headSlot.getAtIndex(ValueLayout.JAVA_LONG, 0);
+    }
+
+    /**
+     * Get the payload of the head without removing it
+     * @throws NoSuchElementException if the queue is empty
+     * @throws IllegalStateException if the queue was created without payloads
+     */
+    public long peekPayload() {
+        ensureOpen();
+        checkPayloads();
+        readHead(NativePriorityQueue.PEEK);
+        return headSlot.getAtIndex(ValueLayout.JAVA_LONG, 1);
+    }
+
+    /**
+     * Remove the head and return its priority
+     * @throws NoSuchElementException if the queue is empty
+     */
+    public long poll() {
+        readHead(NativePriorityQueue.POLL);
+        return headSlot.getAtIndex(ValueLayout.JAVA_LONG, 0);
+    }
+
+    /**
+     * Remove the head and return its payload
+     * @throws NoSuchElementException if the queue is empty
+     * @throws IllegalStateException if the queue was created without payloads
+     */
+    public long pollPayload() {
+        ensureOpen();
+        checkPayloads();
+        readHead(NativePriorityQueue.POLL);
+        return headSlot.getAtIndex(ValueLayout.JAVA_LONG, 1);
+    }
+
+    /**
+     * Copy every priority into a Java array in poll order, leaving the
+     * queue unchanged
+     */
+    public long[] toSortedArray() {
+        long count = checkedSize();
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment out = temp.allocateArray(ValueLayout.JAVA_LONG, count);
+            NativePriorityQueue.SORTED.invoke(handle, out, MemorySegment.NULL);
+            return out.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to copy priorities", e);
+        }
+    }
+
+    /**
+     * Remove every entry, returning the priorities in poll order
+     */
+    public long[] drainSorted() {
+        long[] priorities = toSortedArray();
+        clear();
+        return priorities;
+    }
+
+    /**
+     * Remove every entry, appending the priorities to a list in poll order
+     */
+    public void drainSorted(OffHeapArrayList priorities) {
+        ensureOpen();
+        drainLists(priorities.nativeHandle(), MemorySegment.NULL);
+    }
+
+    /**
+     * Remove every entry, appending priorities and payloads to two lists in
+     * poll order
+     * @throws IllegalStateException if the queue was created without payloads
+     */
+    public void drainSorted(OffHeapArrayList priorities, OffHeapArrayList payloads) {
+        ensureOpen();
+        checkPayloads();
+        if (priorities == payloads) {
+            throw new IllegalArgumentException("priorities and payloads must be different lists");
+        }
+        drainLists(priorities.nativeHandle(), payloads.nativeHandle());
+    }
+
+    /**
+     * Get the number of entries, saturated to Integer.MAX_VALUE
+     */
+    public int size() {
+        long size = longSize();
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    /**
+     * Get the number of entries
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativePriorityQueue.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if the queue is empty
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativePriorityQueue.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativePriorityQueue.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativePriorityQueue.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy PriorityQueue", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    private void offerEntry(long priority, long payload) {
+        try {
+            if (((Integer) NativePriorityQueue.OFFER.invoke(handle, priority, payload)) < 0) {
+                throw new OutOfMemoryError("Failed to offer entry");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to offer entry", e);
+        }
+    }
+
+    private void offerSegments(MemorySegment priorities, long count, MemorySegment payloads) {
+        try {
+            if (((long) NativePriorityQueue.OFFER_ALL.invoke(handle, priorities, payloads, count)) < 0) {
+                throw new OutOfMemoryError("Failed to offer entries");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to offer entries", e);
+        }
+    }
+
+    private void readHead(MethodHandle function) {
+        ensureOpen();
+        int found;
+        try {
+            found = (Integer) function.invoke(handle, headSlot);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to read head", e);
+        }
+        if (found == 0) {
+            throw new NoSuchElementException("PriorityQueue is empty");
+        }
+    }
+
+    private void drainLists(MemorySegment priorities, MemorySegment payloads) {
+        try {
+            if (((Integer) NativePriorityQueue.DRAIN_TO_LISTS.invoke(handle, priorities, payloads)) == 0) {
+                throw new OutOfMemoryError("Failed to drain queue");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to drain queue", e);
+        }
+    }
+
+    private void checkPayloads() {
+        if (!withPayloads) {
+            throw new IllegalStateException("PriorityQueue was created without payloads");
+        }
+    }
+
+    private long checkedSize() {
+        long count = longSize();
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many entries for a Java array: " + count);
+        }
+        return count;
+    }
+
+    // Number of longs in a native column segment
+    private static long checkColumn(MemorySegment column) {
+        if (column.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + column.byteSize());
+        }
+        if (!column.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+        return column.byteSize() / Long.BYTES;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("PriorityQueue has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapLongPriorityQueue[closed]";
+        }
+        return "OffHeapLongPriorityQueue[size=" + longSize() + ", order=" + order + "]";
+    }
+}
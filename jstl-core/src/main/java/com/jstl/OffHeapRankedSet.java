@@ -0,0 +1,337 @@
+package com.jstl;
+
+import com.jstl.internal.NativeRankedSet;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Off-heap ordered set of longs with order statistics: rank, select,
+ * range counts and percentiles in O(log n) while keys are added and
+ * removed, with no copy or sort per query.
+ *
+ * Keys live in a native counted B+tree. Leaves hold up to 64 sorted keys,
+ * and every inner node records how many keys lie below each of its
+ * children, so positional queries descend the tree once. The tree takes
+ * about 8 to 13 bytes per key, against 40 or more for a node-per-key
+ * balanced tree.
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapRankedSet implements AutoCloseable {
+    private final MemorySegment handle;
+    private long size = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a new empty set
+     */
+    public OffHeapRankedSet() {
+        try {
+            this.handle = (MemorySegment) NativeRankedSet.CREATE.invoke();
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native RankedSet");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create RankedSet", e);
+        }
+    }
+
+    /**
+     * Add a key
+     * @return true if the key was not already present
+     */
+    public boolean add(long key) {
+        ensureOpen();
+        int added;
+        try {
+            added = (Integer) NativeRankedSet.ADD.invoke(handle, key);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add key", e);
+        }
+        if (added < 0) {
+            throw new OutOfMemoryError("Failed to add key");
+        }
+        size += added;
+        return added == 1;
+    }
+
+    /**
+     * Add every key in a single native call. Keys are sorted first, and an
+     * empty set is built bottom-up, several times faster than adding keys
+     * one by one.
+     * @return the number of keys that were not already present
+     */
+    public long addAll(long[] keys) {
+        ensureOpen();
+        if (keys.length == 0) {
+            return 0;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            return addAll(temp.allocateArray(ValueLayout.JAVA_LONG, keys));
+        }
+    }
+
+    /**
+     * Add every key held in a native segment of longs, without copying it
+     * to the Java heap first
+     * @return the number of keys that were not already present
+     */
+    public long addAll(MemorySegment keys) {
+        ensureOpen();
+        if (keys.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + keys.byteSize());
+        }
+        if (!keys.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+        long added;
+        try {
+            added = (long) NativeRankedSet.ADD_ALL.invoke(handle, keys, keys.byteSize() / Long.BYTES);
+            // A failed batch may still have added some keys
+            size = (long) NativeRankedSet.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add keys", e);
+        }
+        if (added < 0) {
+            throw new OutOfMemoryError("Failed to add keys");
+        }
+        return added;
+    }
+
+    /**
+     * Remove a key
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        ensureOpen();
+        int removed;
+        try {
+            removed = (Integer) NativeRankedSet.REMOVE.invoke(handle, key);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove key", e);
+        }
+        size -= removed;
+        return removed == 1;
+    }
+
+    /**
+     * Check if a key is present
+     */
+    public boolean contains(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeRankedSet.CONTAINS.invoke(handle, key)) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to check key", e);
+        }
+    }
+
+    /**
+     * Number of keys less than or equal to key, so a present key has
+     * {@code select(rank(key) - 1) == key}
+     */
+    public long rank(long key) {
+        return countBelow(key, true);
+    }
+
+    /**
+     * Number of keys strictly less than key
+     */
+    public long countLessThan(long key) {
+        return countBelow(key, false);
+    }
+
+    /**
+     * Key at the 0-based position in ascending order
+     * @throws IndexOutOfBoundsException if index is not below size()
+     */
+    public long select(long index) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        try {
+            return (long) NativeRankedSet.SELECT.invoke(handle, index);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to select key", e);
+        }
+    }
+
+    /**
+     * Count the keys in the inclusive range [lo, hi]
+     */
+    public long countInRange(long lo, long hi) {
+        ensureOpen();
+        try {
+            return (long) NativeRankedSet.COUNT_IN_RANGE.invoke(handle, lo, hi);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to count keys", e);
+        }
+    }
+
+    /**
+     * Nearest-rank percentile: the smallest key with at least p percent of
+     * the keys less than or equal to it, so percentile(50) is the lower
+     * median and percentile(100) the largest key
+     * @param p percentage in [0, 100]
+     * @throws NoSuchElementException if the set is empty
+     */
+    public long percentile(double p) {
+        if (!(p >= 0 && p <= 100)) {
+            throw new IllegalArgumentException("p must be in [0, 100]: " + p);
+        }
+        ensureNotEmpty();
+        // Multiply before dividing: p / 100 is inexact for most p, and a
+        // product that lands just above a whole rank would round up past it
+        long index = Math.max(0, (long) Math.ceil(p * size / 100) - 1);
+        return select(Math.min(index, size - 1));
+    }
+
+    /**
+     * Smallest key
+     * @throws NoSuchElementException if the set is empty
+     */
+    public long first() {
+        ensureNotEmpty();
+        return select(0);
+    }
+
+    /**
+     * Largest key
+     * @throws NoSuchElementException if the set is empty
+     */
+    public long last() {
+        ensureNotEmpty();
+        return select(size - 1);
+    }
+
+    /**
+     * Copy every key into a Java array in ascending order
+     */
+    public long[] toArray() {
+        ensureOpen();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many keys for a Java array: " + size);
+        }
+        return toArray(0, (int) size);
+    }
+
+    /**
+     * Copy up to count keys in ascending order, starting at position from,
+     * e.g. one page of a leaderboard
+     */
+    public long[] toArray(long fromIndex, int count) {
+        ensureOpen();
+        Objects.checkIndex(fromIndex, size + 1);
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        long n = Math.min(count, size - fromIndex);
+        if (n == 0) {
+            return new long[0];
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment out = temp.allocateArray(ValueLayout.JAVA_LONG, n);
+            NativeRankedSet.SLICE.invoke(handle, fromIndex, n, out);
+            return out.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to copy keys", e);
+        }
+    }
+
+    /**
+     * Get the number of keys, saturated to Integer.MAX_VALUE
+     */
+    public int size() {
+        ensureOpen();
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    /**
+     * Get the number of keys
+     */
+    public long longSize() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Check if the set is empty
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Remove all keys
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeRankedSet.CLEAR.invoke(handle);
+            size = (long) NativeRankedSet.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeRankedSet.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeRankedSet.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy RankedSet", e);
+            }
+            closed = true;
+        }
+    }
+
+    private long countBelow(long key, boolean inclusive) {
+        ensureOpen();
+        try {
+            return (long) NativeRankedSet.RANK.invoke(handle, key, inclusive ? 1 : 0);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compute rank", e);
+        }
+    }
+
+    private void ensureNotEmpty() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("RankedSet is empty");
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("RankedSet has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapRankedSet[closed]";
+        }
+        return "OffHeapRankedSet[size=" + size + "]";
+    }
+}
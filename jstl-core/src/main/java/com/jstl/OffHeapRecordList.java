@@ -0,0 +1,268 @@
+package com.jstl;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/**
+ * Off-heap list of fixed-size records laid out back to back (array of
+ * structs), described by a {@link StructLayout} schema of named value fields.
+ *
+ * Fields are read and written in place with plain memory access through
+ * {@link #varHandle(StructLayout, String)} and {@link #segment()}, so a record costs no
+ * native call per field; only growth calls into native code. Use this
+ * layout when whole records are read together, and {@link OffHeapColumnTable}
+ * when scans touch a few fields of many records.
+ *
+ * <pre>{@code
+ * StructLayout TRADE = MemoryLayout.structLayout(
+ *         ValueLayout.JAVA_DOUBLE.withName("price"),
+ *         ValueLayout.JAVA_LONG.withName("qty"));
+ * static final VarHandle PRICE = OffHeapRecordList.varHandle(TRADE, "price");
+ *
+ * try (OffHeapRecordList trades = new OffHeapRecordList(TRADE)) {
+ *     long row = trades.addRow();
+ *     PRICE.set(trades.segment(), row, 101.5);
+ * }
+ * }</pre>
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapRecordList implements AutoCloseable {
+    private final RecordSchema schema;
+    private final long recordSize;
+    private final RecordBuffer buffer;
+    private long size = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a new off-heap record list for the given schema
+     */
+    public OffHeapRecordList(StructLayout schema) {
+        this(schema, 0);
+    }
+
+    /**
+     * Create a new off-heap record list with room for initialCapacity records
+     */
+    public OffHeapRecordList(StructLayout schema, long initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        this.schema = new RecordSchema(schema);
+        this.recordSize = schema.byteSize();
+        this.buffer = new RecordBuffer(recordSize, initialCapacity);
+    }
+
+    /**
+     * Get the schema records are laid out by
+     */
+    public StructLayout schema() {
+        return schema.layout();
+    }
+
+    /**
+     * Accessor for the named field of schema, with coordinates
+     * {@code (MemorySegment segment, long row)}; pass {@link #segment()} as
+     * the segment. Keep the handle in a static final field so the JIT can
+     * fold it into plain loads and stores.
+     */
+    public static VarHandle varHandle(StructLayout schema, String field) {
+        new RecordSchema(schema).field(field);
+        return MemoryLayout.sequenceLayout(schema).varHandle(
+                MemoryLayout.PathElement.sequenceElement(), MemoryLayout.PathElement.groupElement(field));
+    }
+
+    /**
+     * All records as one segment of longSize() * schema().byteSize() bytes,
+     * without copying. The view is only valid until this list next grows,
+     * is trimmed or is closed; using it afterwards throws IllegalStateException.
+     */
+    public MemorySegment segment() {
+        ensureOpen();
+        return buffer.data().asSlice(0, size * recordSize);
+    }
+
+    /**
+     * The record at index as a segment of schema().byteSize() bytes, without
+     * copying. Valid under the same terms as {@link #segment()}.
+     */
+    public MemorySegment row(long index) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        return buffer.data().asSlice(index * recordSize, recordSize);
+    }
+
+    /**
+     * Append a zero-filled record
+     * @return the new record's index
+     */
+    public long addRow() {
+        ensureOpen();
+        buffer.ensureCapacity(size + 1);
+        buffer.data().asSlice(size * recordSize, recordSize).fill((byte) 0);
+        return size++;
+    }
+
+    /**
+     * Append a copy of record, which must be schema().byteSize() bytes
+     */
+    public void add(MemorySegment record) {
+        ensureOpen();
+        schema.checkRecord(record);
+        buffer.ensureCapacity(size + 1);
+        MemorySegment.copy(record, 0, buffer.data(), size * recordSize, recordSize);
+        size++;
+    }
+
+    /**
+     * Append copies of the records packed back to back in records, with a
+     * single copy of the whole run
+     */
+    public void addAll(MemorySegment records) {
+        ensureOpen();
+        long count = schema.recordCount(records);
+        if (count == 0) {
+            return;
+        }
+        buffer.ensureCapacity(size + count);
+        MemorySegment.copy(records, 0, buffer.data(), size * recordSize, records.byteSize());
+        size += count;
+    }
+
+    /**
+     * Overwrite the record at index with a copy of record
+     */
+    public void set(long index, MemorySegment record) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        schema.checkRecord(record);
+        MemorySegment.copy(record, 0, buffer.data(), index * recordSize, recordSize);
+    }
+
+    /**
+     * Copy the record at index into dest, which must be schema().byteSize() bytes
+     */
+    public void get(long index, MemorySegment dest) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        schema.checkRecord(dest);
+        MemorySegment.copy(buffer.data(), index * recordSize, dest, 0, recordSize);
+    }
+
+    /**
+     * Copy the fields named in projection from the record at index into
+     * dest, laid out by projection. Each projected field must exist in the
+     * schema with the same size.
+     */
+    public void project(long index, StructLayout projection, MemorySegment dest) {
+        ensureOpen();
+        Objects.checkIndex(index, size);
+        long base = index * recordSize;
+        RecordSchema target = new RecordSchema(projection);
+        target.checkRecord(dest);
+        for (RecordSchema.Field out : target.fields().values()) {
+            RecordSchema.Field in = schema.source(out);
+            MemorySegment.copy(buffer.data(), base + in.offset(), dest, out.offset(), out.layout().byteSize());
+        }
+    }
+
+    /**
+     * Get the number of records, or Integer.MAX_VALUE if the list holds more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of records
+     */
+    public long longSize() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Check if the list has no records
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Get the number of records the list can hold before it grows, or
+     * Integer.MAX_VALUE if that is more
+     */
+    public int capacity() {
+        return (int) Math.min(longCapacity(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of records the list can hold before it grows
+     */
+    public long longCapacity() {
+        ensureOpen();
+        return buffer.capacity();
+    }
+
+    /**
+     * Make room for at least minCapacity records
+     */
+    public void reserve(long minCapacity) {
+        ensureOpen();
+        if (minCapacity < 0) {
+            throw new IllegalArgumentException("minCapacity must not be negative: " + minCapacity);
+        }
+        if (minCapacity > buffer.capacity()) {
+            buffer.reallocate(minCapacity);
+        }
+    }
+
+    /**
+     * Release spare capacity beyond the current size
+     */
+    public void trimToSize() {
+        ensureOpen();
+        if (buffer.capacity() > size) {
+            buffer.reallocate(size);
+        }
+    }
+
+    /**
+     * Remove all records, keeping the capacity
+     */
+    public void clear() {
+        ensureOpen();
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            buffer.close();
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("RecordList has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapRecordList[closed]";
+        }
+        return "OffHeapRecordList[size=" + size + ", recordSize=" + recordSize + "]";
+    }
+}
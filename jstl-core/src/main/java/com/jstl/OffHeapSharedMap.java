@@ -0,0 +1,427 @@
+package com.jstl;
+
+import com.jstl.internal.NativeSharedMap;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+
+/**
+ * Off-heap HashMap of longs in a named POSIX shared-memory region, so one
+ * writer process fills it and any number of reader processes on the same
+ * host look it up in place. Every process maps the same physical pages:
+ * a table built once is neither copied nor rebuilt per JVM, and opening it
+ * takes well under a millisecond whatever its size.
+ *
+ * The region holds an open-addressed hash table with no pointers in it,
+ * only offsets, so it works at any mapping address. Its capacity is fixed
+ * at creation and all of its memory is reserved up front. The writer
+ * brackets every change with a version counter (a seqlock); a lookup that
+ * overlaps a change is retried, so readers never take a lock, never block
+ * the writer and never see a half-written entry. {@link #putAll} and
+ * {@link #clear} publish in small groups, so readers may see part of a
+ * batch before the rest.
+ *
+ * Regions live in /dev/shm on Linux, readable by the creating user only,
+ * and outlast every process until {@link #unlink} removes them. Not
+ * thread-safe: each thread uses its own handle, and only the handle that
+ * created a region can write to it. Auto-closeable to ensure the mapping
+ * is released.
+ */
+public class OffHeapSharedMap implements AutoCloseable {
+    // Error codes from jstl_shmmap.h
+    private static final int EXISTS = 1;
+    private static final int NOT_FOUND = 2;
+    private static final int INVALID = 3;
+    private static final int NO_MEMORY = 4;
+    private static final int UNSUPPORTED = 5;
+
+    private final MemorySegment handle;
+    private final String name;
+    private final boolean writer;
+    private final Arena arena;
+    private final MemorySegment valueSlot;
+    private boolean closed = false;
+
+    private OffHeapSharedMap(MemorySegment handle, String name, boolean writer) {
+        this.handle = handle;
+        this.name = name;
+        this.writer = writer;
+        this.arena = Arena.ofShared();
+        this.valueSlot = arena.allocate(ValueLayout.JAVA_LONG);
+    }
+
+    /**
+     * Create the shared region name holding up to maxEntries entries, and
+     * open it as its writer. The table takes 16 bytes per slot at a load
+     * factor of at most 3/4, all reserved now.
+     * @param name region name such as "prices" or "/prices"
+     * @throws IllegalStateException if a region with that name exists
+     */
+    public static OffHeapSharedMap create(String name, long maxEntries) {
+        String region = regionName(name);
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        MemorySegment handle;
+        int error;
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment errorSlot = temp.allocate(ValueLayout.JAVA_INT);
+            handle = (MemorySegment) NativeSharedMap.CREATE.invoke(temp.allocateUtf8String(region), maxEntries, errorSlot);
+            error = errorSlot.get(ValueLayout.JAVA_INT, 0);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create SharedMap " + region, e);
+        }
+        if (handle == null || handle.address() == 0) {
+            throw failure(error, region, "create");
+        }
+        return new OffHeapSharedMap(handle, region, true);
+    }
+
+    /**
+     * Open an existing shared region read-only
+     * @param name region name such as "prices" or "/prices"
+     * @throws IllegalArgumentException if there is no such region, or it is
+     *         not a SharedMap
+     */
+    public static OffHeapSharedMap open(String name) {
+        String region = regionName(name);
+        MemorySegment handle;
+        int error;
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment errorSlot = temp.allocate(ValueLayout.JAVA_INT);
+            handle = (MemorySegment) NativeSharedMap.OPEN.invoke(temp.allocateUtf8String(region), errorSlot);
+            error = errorSlot.get(ValueLayout.JAVA_INT, 0);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to open SharedMap " + region, e);
+        }
+        if (handle == null || handle.address() == 0) {
+            throw failure(error, region, "open");
+        }
+        return new OffHeapSharedMap(handle, region, false);
+    }
+
+    /**
+     * Remove the shared region name. Handles already open keep working
+     * until closed, and the memory is freed once the last one is.
+     * @return true if the region existed
+     */
+    public static boolean unlink(String name) {
+        String region = regionName(name);
+        try (Arena temp = Arena.ofConfined()) {
+            return ((Integer) NativeSharedMap.UNLINK.invoke(temp.allocateUtf8String(region))) != 0;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to unlink SharedMap " + region, e);
+        }
+    }
+
+    /**
+     * Put a key-value pair into the map
+     * @throws IllegalStateException if the map already holds maxEntries()
+     */
+    public void put(long key, long value) {
+        ensureWriter();
+        int result;
+        try {
+            result = (Integer) NativeSharedMap.PUT.invoke(handle, key, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put entry", e);
+        }
+        if (result < 0) {
+            throw new IllegalStateException("SharedMap is full: " + maxEntries() + " entries");
+        }
+    }
+
+    /**
+     * Put keys[i] -> values[i] for every i in a single native call
+     * @return the number of keys that were not already present
+     * @throws IllegalStateException if the map fills; earlier entries stay
+     */
+    public long putAll(long[] keys, long[] values) {
+        ensureWriter();
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length: "
+                    + keys.length + " != " + values.length);
+        }
+        if (keys.length == 0) {
+            return 0;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            return putAll(temp.allocateArray(ValueLayout.JAVA_LONG, keys), temp.allocateArray(ValueLayout.JAVA_LONG, values));
+        }
+    }
+
+    /**
+     * Put entries from two native segments of longs, keys and values,
+     * without copying them to the Java heap first
+     * @return the number of keys that were not already present
+     * @throws IllegalStateException if the map fills; earlier entries stay
+     */
+    public long putAll(MemorySegment keys, MemorySegment values) {
+        ensureWriter();
+        checkColumn(keys);
+        checkColumn(values);
+        if (keys.byteSize() != values.byteSize()) {
+            throw new IllegalArgumentException("keys and values differ in length: "
+                    + keys.byteSize() / Long.BYTES + " != " + values.byteSize() / Long.BYTES);
+        }
+        long added;
+        try {
+            added = (long) NativeSharedMap.PUT_ALL.invoke(handle, keys, values, keys.byteSize() / Long.BYTES);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put entries", e);
+        }
+        if (added < 0) {
+            throw new IllegalStateException("SharedMap is full: " + maxEntries() + " entries");
+        }
+        return added;
+    }
+
+    /**
+     * Remove the entry for the specified key
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        ensureWriter();
+        try {
+            return ((Integer) NativeSharedMap.REMOVE.invoke(handle, key)) == 1;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove entry", e);
+        }
+    }
+
+    /**
+     * Remove all entries from the map
+     */
+    public void clear() {
+        ensureWriter();
+        try {
+            NativeSharedMap.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Get the value for the specified key
+     * Returns 0 if key not found
+     */
+    public long get(long key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Get the value for the specified key, or return defaultValue if not found
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        return lookup(key) ? valueSlot.get(ValueLayout.JAVA_LONG, 0) : defaultValue;
+    }
+
+    /**
+     * Check if the map contains the specified key
+     */
+    public boolean containsKey(long key) {
+        return lookup(key);
+    }
+
+    /**
+     * Look up many keys in a single native call, returning defaultValue for
+     * absent ones
+     */
+    public long[] getAll(long[] keys, long defaultValue) {
+        ensureOpen();
+        if (keys.length == 0) {
+            return new long[0];
+        }
+        long found;
+        long[] result;
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment segment = temp.allocateArray(ValueLayout.JAVA_LONG, keys);
+            MemorySegment values = temp.allocateArray(ValueLayout.JAVA_LONG, keys.length);
+            found = (long) NativeSharedMap.GET_ALL.invoke(handle, segment, (long) keys.length, defaultValue, values);
+            result = values.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get values", e);
+        }
+        if (found < 0) {
+            throw stalledWriter();
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of entries in the map, or Integer.MAX_VALUE if it
+     * holds more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of entries in the map
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativeSharedMap.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if the map is empty
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Get the maximum number of entries, fixed when the region was created
+     */
+    public long maxEntries() {
+        ensureOpen();
+        try {
+            return (long) NativeSharedMap.MAX_ENTRIES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get capacity", e);
+        }
+    }
+
+    /**
+     * Get the number of changes the writer has published. Readers can
+     * cache anything derived from the map and reuse it while this stays
+     * the same.
+     */
+    public long version() {
+        ensureOpen();
+        try {
+            return (long) NativeSharedMap.VERSION.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get version", e);
+        }
+    }
+
+    /**
+     * Check if this handle created the region and may write to it
+     */
+    public boolean isWriter() {
+        return writer;
+    }
+
+    /**
+     * Get the region name, with its leading slash
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Size of the shared region in bytes, counted once however many
+     * processes map it
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeSharedMap.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeSharedMap.CLOSE.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to close SharedMap", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    private boolean lookup(long key) {
+        ensureOpen();
+        int found;
+        try {
+            found = (Integer) NativeSharedMap.GET.invoke(handle, key, valueSlot);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+        if (found < 0) {
+            throw stalledWriter();
+        }
+        return found == 1;
+    }
+
+    // POSIX names are one path component with a leading slash
+    private static String regionName(String name) {
+        Objects.requireNonNull(name, "name");
+        String region = name.startsWith("/") ? name : "/" + name;
+        if (region.length() < 2 || region.length() > 255 || region.indexOf('/', 1) >= 0 || region.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Invalid shared memory name: " + name);
+        }
+        return region;
+    }
+
+    private static RuntimeException failure(int error, String region, String action) {
+        if (error == NO_MEMORY) {
+            throw new OutOfMemoryError("Not enough shared memory for SharedMap " + region);
+        }
+        if (error == EXISTS) {
+            return new IllegalStateException("Shared memory region already exists: " + region);
+        }
+        if (error == NOT_FOUND) {
+            return new IllegalArgumentException("No shared memory region named " + region);
+        }
+        if (error == INVALID) {
+            return new IllegalArgumentException("Shared memory region " + region + " is not an initialized SharedMap");
+        }
+        if (error == UNSUPPORTED) {
+            return new UnsupportedOperationException("Shared memory is not supported on this platform");
+        }
+        return new RuntimeException("Failed to " + action + " SharedMap " + region);
+    }
+
+    private static IllegalStateException stalledWriter() {
+        return new IllegalStateException("SharedMap writer stopped in the middle of an update");
+    }
+
+    private static void checkColumn(MemorySegment column) {
+        if (column.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + column.byteSize());
+        }
+        if (!column.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+    }
+
+    private void ensureWriter() {
+        ensureOpen();
+        if (!writer) {
+            throw new UnsupportedOperationException("SharedMap " + name + " is open read-only");
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("SharedMap has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapSharedMap[closed]";
+        }
+        return "OffHeapSharedMap[name=" + name + ", size=" + longSize() + ", " + (writer ? "writer" : "reader") + "]";
+    }
+}
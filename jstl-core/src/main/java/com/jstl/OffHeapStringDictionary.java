@@ -0,0 +1,314 @@
+package com.jstl;
+
+import com.jstl.internal.NativeStringDictionary;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Off-heap dictionary assigning dense int ids 0, 1, 2, ... to distinct
+ * strings in first-seen order, for dictionary-encoding string data into
+ * the long collections.
+ *
+ * Strings are stored as UTF-8 in an append-only native arena and never
+ * move, with an open-addressing table over them whose slots point straight
+ * at the bytes. A string costs its UTF-8 length plus about 45 bytes, about
+ * half a {@code HashMap<String, Integer>} entry with its key, and nothing
+ * on the Java heap.
+ *
+ * Strings may be given as Java Strings or as UTF-8 bytes in a
+ * {@link MemorySegment}. Single lookups, {@link #bytesOf(int)} and
+ * {@link #valueOf(int, MemorySegment)} allocate nothing on the Java heap
+ * beyond the returned view.
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapStringDictionary implements AutoCloseable {
+    private static final long MIN_SCRATCH = 256;
+
+    private final MemorySegment handle;
+    private Arena arena;
+    private MemorySegment lengthSlot;
+    private MemorySegment scratch;
+    private boolean closed = false;
+
+    /**
+     * Create a new empty dictionary
+     */
+    public OffHeapStringDictionary() {
+        try {
+            this.handle = (MemorySegment) NativeStringDictionary.CREATE.invoke();
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native StringDictionary");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create StringDictionary", e);
+        }
+        this.arena = Arena.ofShared();
+        this.lengthSlot = arena.allocate(ValueLayout.JAVA_LONG);
+        this.scratch = arena.allocate(MIN_SCRATCH);
+    }
+
+    /**
+     * Get the id of value, adding it if absent
+     */
+    public int idOf(String value) {
+        ensureOpen();
+        return intern(encode(value));
+    }
+
+    /**
+     * Get the id of the string whose UTF-8 bytes fill utf8, adding it if absent
+     */
+    public int idOf(MemorySegment utf8) {
+        ensureOpen();
+        return intern(nativeBytes(utf8));
+    }
+
+    /**
+     * Get the ids of all values in a single native call, adding any absent
+     */
+    public int[] idsOf(String[] values) {
+        ensureOpen();
+        if (values.length == 0) {
+            return new int[0];
+        }
+        byte[][] encoded = new byte[values.length][];
+        long total = 0;
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+            total += encoded[i].length;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment bytes = temp.allocate(Math.max(total, 1));
+            MemorySegment offsets = temp.allocateArray(ValueLayout.JAVA_LONG, values.length + 1L);
+            long offset = 0;
+            for (int i = 0; i < values.length; i++) {
+                offsets.setAtIndex(ValueLayout.JAVA_LONG, i, offset);
+                MemorySegment.copy(encoded[i], 0, bytes, ValueLayout.JAVA_BYTE, offset, encoded[i].length);
+                offset += encoded[i].length;
+            }
+            offsets.setAtIndex(ValueLayout.JAVA_LONG, values.length, offset);
+            MemorySegment ids = temp.allocateArray(ValueLayout.JAVA_INT, values.length);
+            if (((Integer) NativeStringDictionary.INTERN_ALL.invoke(handle, bytes, offsets, (long) values.length, ids)) == 0) {
+                throw new OutOfMemoryError("Failed to add strings");
+            }
+            return ids.toArray(ValueLayout.JAVA_INT);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add strings", e);
+        }
+    }
+
+    /**
+     * Get the id of value, or -1 if it has not been added
+     */
+    public int find(String value) {
+        ensureOpen();
+        return lookup(encode(value));
+    }
+
+    /**
+     * Get the id of the string whose UTF-8 bytes fill utf8, or -1 if it has
+     * not been added
+     */
+    public int find(MemorySegment utf8) {
+        ensureOpen();
+        return lookup(nativeBytes(utf8));
+    }
+
+    /**
+     * Check if value has been added
+     */
+    public boolean contains(String value) {
+        return find(value) >= 0;
+    }
+
+    /**
+     * Decode the string with the given id
+     */
+    public String valueOf(int id) {
+        return new String(bytesOf(id).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copy the UTF-8 bytes of id to the start of dest
+     * @return the number of bytes copied
+     */
+    public int valueOf(int id, MemorySegment dest) {
+        MemorySegment bytes = bytesOf(id);
+        if (bytes.byteSize() > dest.byteSize()) {
+            throw new IllegalArgumentException("String " + id + " is " + bytes.byteSize()
+                    + " bytes, buffer holds " + dest.byteSize());
+        }
+        MemorySegment.copy(bytes, 0, dest, 0, bytes.byteSize());
+        return (int) bytes.byteSize();
+    }
+
+    /**
+     * Read-only view of the UTF-8 bytes of id, without copying. Strings
+     * never move, so the view stays valid until this dictionary is cleared
+     * or closed; using it afterwards throws IllegalStateException.
+     */
+    public MemorySegment bytesOf(int id) {
+        ensureOpen();
+        try {
+            MemorySegment bytes = (MemorySegment) NativeStringDictionary.BYTES.invoke(handle, id, lengthSlot);
+            if (bytes.address() == 0) {
+                throw new IndexOutOfBoundsException("Index " + id + " out of bounds for length " + size());
+            }
+            return bytes.reinterpret(lengthSlot.get(ValueLayout.JAVA_LONG, 0), arena, null).asReadOnly();
+        } catch (IndexOutOfBoundsException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get string", e);
+        }
+    }
+
+    /**
+     * Get the number of distinct strings
+     */
+    public int size() {
+        ensureOpen();
+        try {
+            return (int) (long) NativeStringDictionary.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if the dictionary is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove all strings; ids restart from 0. Views from {@link #bytesOf(int)}
+     * become invalid.
+     */
+    public void clear() {
+        ensureOpen();
+        arena.close();
+        try {
+            NativeStringDictionary.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        } finally {
+            arena = Arena.ofShared();
+            lengthSlot = arena.allocate(ValueLayout.JAVA_LONG);
+            scratch = arena.allocate(MIN_SCRATCH);
+        }
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeStringDictionary.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            arena.close();
+            try {
+                NativeStringDictionary.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy StringDictionary", e);
+            }
+            closed = true;
+        }
+    }
+
+    private int intern(MemorySegment utf8) {
+        try {
+            long id = (long) NativeStringDictionary.INTERN.invoke(handle, utf8, utf8.byteSize());
+            if (id < 0) {
+                throw new OutOfMemoryError("Failed to add string");
+            }
+            return (int) id;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to add string", e);
+        }
+    }
+
+    private int lookup(MemorySegment utf8) {
+        try {
+            return (int) (long) NativeStringDictionary.FIND.invoke(handle, utf8, utf8.byteSize());
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to find string", e);
+        }
+    }
+
+    // UTF-8 encoding of value in the scratch buffer, matching
+    // String.getBytes(UTF_8) but without allocating on the Java heap
+    private MemorySegment encode(String value) {
+        MemorySegment target = scratchFor(value.length() * 3L);
+        long n = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) c);
+            } else if (c < 0x800) {
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0xC0 | c >> 6));
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0xF0 | cp >> 18));
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0x80 | cp >> 12 & 0x3F));
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0x80 | cp >> 6 & 0x3F));
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) '?');
+            } else {
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0xE0 | c >> 12));
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0x80 | c >> 6 & 0x3F));
+                target.set(ValueLayout.JAVA_BYTE, n++, (byte) (0x80 | c & 0x3F));
+            }
+        }
+        return target.asSlice(0, n);
+    }
+
+    private MemorySegment nativeBytes(MemorySegment utf8) {
+        if (utf8.isNative()) {
+            return utf8;
+        }
+        MemorySegment target = scratchFor(utf8.byteSize());
+        MemorySegment.copy(utf8, 0, target, 0, utf8.byteSize());
+        return target;
+    }
+
+    private MemorySegment scratchFor(long size) {
+        if (size > scratch.byteSize()) {
+            scratch = arena.allocate(Math.max(size, scratch.byteSize() * 2));
+        }
+        return scratch.asSlice(0, size);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("StringDictionary has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapStringDictionary[closed]";
+        }
+        return "OffHeapStringDictionary[size=" + size() + "]";
+    }
+}
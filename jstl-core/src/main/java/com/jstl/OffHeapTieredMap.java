@@ -0,0 +1,451 @@
+package com.jstl;
+
+import com.jstl.internal.NativeTieredMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Off-heap HashMap of longs that stays within a memory budget by spilling
+ * to disk. Recently used entries live in a native hash table, the hot
+ * tier. Once the hot tier plus the per-run indexes outgrow the budget, the
+ * least recently used half of it is written out as a sorted run file,
+ * which is then read back through a read-only memory mapping: the cold
+ * tier. A map far larger than memory keeps working, with slower lookups
+ * instead of an OutOfMemoryError.
+ *
+ * A lookup tries the hot tier first, then each run from newest to oldest.
+ * Every run keeps a Bloom filter and one fence key per 512 keys in memory,
+ * so runs that cannot hold the key are skipped without touching the disk,
+ * and a run that might costs a binary search within a single 4 KB page of
+ * keys. Overwritten and removed entries stay in older runs, shadowed by
+ * newer ones, until maxRuns runs exist; a background thread then merges
+ * every run into one, dropping them. Adding a key that is not in the hot
+ * tier costs a lookup in the runs as well, which keeps {@link #size}
+ * exact.
+ *
+ * Run files are created in the given directory and deleted straight away,
+ * so they take disk space only while the map uses them and never outlive
+ * the process. The page cache decides how much of them stays in memory;
+ * {@link #sizeInBytes} and the budget count the native heap only. Not
+ * thread-safe, apart from the merge thread, which needs no coordination.
+ * Auto-closeable to ensure native memory and disk space are released.
+ */
+public class OffHeapTieredMap implements AutoCloseable {
+    private static final long MIN_BUDGET = 1L << 20;
+    private static final int DEFAULT_MAX_RUNS = 4;
+    private static final int OUT_OF_MEMORY = -2;  // native result when an allocation failed
+
+    private final MemorySegment handle;
+    private final Path directory;
+    private final long memoryBudget;
+    private final Arena arena;
+    private final MemorySegment valueSlot;
+    private boolean closed = false;
+
+    /**
+     * Create a map spilling to directory, merging once 4 runs exist
+     * @param memoryBudget native memory for the hot tier and run indexes,
+     *        at least 1 MB
+     */
+    public OffHeapTieredMap(Path directory, long memoryBudget) {
+        this(directory, memoryBudget, DEFAULT_MAX_RUNS);
+    }
+
+    /**
+     * Create a map spilling to directory
+     * @param memoryBudget native memory for the hot tier and run indexes,
+     *        at least 1 MB
+     * @param maxRuns run count that starts a background merge, at least 2;
+     *        fewer runs mean faster lookups but more rewriting
+     * @throws IllegalArgumentException if directory is not a writable
+     *         directory
+     */
+    public OffHeapTieredMap(Path directory, long memoryBudget, int maxRuns) {
+        Objects.requireNonNull(directory, "directory");
+        if (memoryBudget < MIN_BUDGET) {
+            throw new IllegalArgumentException("memoryBudget must be at least 1 MB: " + memoryBudget);
+        }
+        if (maxRuns < 2) {
+            throw new IllegalArgumentException("maxRuns must be at least 2: " + maxRuns);
+        }
+        this.directory = directory.toAbsolutePath();
+        this.memoryBudget = memoryBudget;
+        try (Arena temp = Arena.ofConfined()) {
+            this.handle = (MemorySegment) NativeTieredMap.CREATE.invoke(
+                    temp.allocateUtf8String(this.directory.toString()), memoryBudget, maxRuns);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create TieredMap", e);
+        }
+        if (handle == null || handle.address() == 0) {
+            throw new IllegalArgumentException("Cannot create run files in " + this.directory);
+        }
+        this.arena = Arena.ofShared();
+        this.valueSlot = arena.allocate(ValueLayout.JAVA_LONG);
+    }
+
+    /**
+     * Put a key-value pair into the map
+     * @throws UncheckedIOException if a spill this triggered could not be
+     *         written; the entry is kept in memory, over the budget
+     * @throws OutOfMemoryError if native memory ran out; the entry may have
+     *         been kept
+     */
+    public void put(long key, long value) {
+        ensureOpen();
+        int result;
+        try {
+            result = (Integer) NativeTieredMap.PUT.invoke(handle, key, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put entry", e);
+        }
+        if (result == OUT_OF_MEMORY) {
+            throw new OutOfMemoryError("Failed to put entry");
+        }
+        if (result < 0) {
+            throw spillFailed();
+        }
+    }
+
+    /**
+     * Put keys[i] -> values[i] for every i in a single native call
+     * @return the number of keys that were not already present
+     * @throws UncheckedIOException if a spill could not be written; entries
+     *         up to that point are kept
+     * @throws OutOfMemoryError if native memory ran out; entries before
+     *         that point are kept
+     */
+    public long putAll(long[] keys, long[] values) {
+        ensureOpen();
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("keys and values differ in length: "
+                    + keys.length + " != " + values.length);
+        }
+        if (keys.length == 0) {
+            return 0;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            return putAll(temp.allocateArray(ValueLayout.JAVA_LONG, keys), temp.allocateArray(ValueLayout.JAVA_LONG, values));
+        }
+    }
+
+    /**
+     * Put entries from two native segments of longs, keys and values,
+     * without copying them to the Java heap first
+     * @return the number of keys that were not already present
+     * @throws UncheckedIOException if a spill could not be written; entries
+     *         up to that point are kept
+     * @throws OutOfMemoryError if native memory ran out; entries before
+     *         that point are kept
+     */
+    public long putAll(MemorySegment keys, MemorySegment values) {
+        ensureOpen();
+        checkColumn(keys);
+        checkColumn(values);
+        if (keys.byteSize() != values.byteSize()) {
+            throw new IllegalArgumentException("keys and values differ in length: "
+                    + keys.byteSize() / Long.BYTES + " != " + values.byteSize() / Long.BYTES);
+        }
+        long added;
+        try {
+            added = (long) NativeTieredMap.PUT_ALL.invoke(handle, keys, values, keys.byteSize() / Long.BYTES);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to put entries", e);
+        }
+        if (added == OUT_OF_MEMORY) {
+            throw new OutOfMemoryError("Failed to put entries");
+        }
+        if (added < 0) {
+            throw spillFailed();
+        }
+        return added;
+    }
+
+    /**
+     * Get the value for the specified key
+     * Returns 0 if key not found
+     */
+    public long get(long key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * Get the value for the specified key, or return defaultValue if not found
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        return lookup(key) ? valueSlot.get(ValueLayout.JAVA_LONG, 0) : defaultValue;
+    }
+
+    /**
+     * Check if the map contains the specified key
+     */
+    public boolean containsKey(long key) {
+        return lookup(key);
+    }
+
+    /**
+     * Look up many keys in a single native call, returning defaultValue for
+     * absent ones
+     */
+    public long[] getAll(long[] keys, long defaultValue) {
+        ensureOpen();
+        if (keys.length == 0) {
+            return new long[0];
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment segment = temp.allocateArray(ValueLayout.JAVA_LONG, keys);
+            MemorySegment values = temp.allocateArray(ValueLayout.JAVA_LONG, keys.length);
+            NativeTieredMap.GET_ALL.invoke(handle, segment, (long) keys.length, defaultValue, values);
+            return values.toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get values", e);
+        }
+    }
+
+    /**
+     * Remove the entry for the specified key. A key held in a run is
+     * shadowed by a removal marker, which the next merge drops.
+     * @return true if the key was present
+     * @throws UncheckedIOException if a spill this triggered could not be
+     *         written; the key is removed all the same
+     * @throws OutOfMemoryError if native memory ran out; the key may have
+     *         been removed
+     */
+    public boolean remove(long key) {
+        ensureOpen();
+        int result;
+        try {
+            result = (Integer) NativeTieredMap.REMOVE.invoke(handle, key);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to remove entry", e);
+        }
+        if (result == OUT_OF_MEMORY) {
+            throw new OutOfMemoryError("Failed to remove entry");
+        }
+        if (result < 0) {
+            throw spillFailed();
+        }
+        return result == 1;
+    }
+
+    /**
+     * Get the number of entries in the map, or Integer.MAX_VALUE if it
+     * holds more
+     */
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of entries in the map, in memory and on disk
+     */
+    public long longSize() {
+        ensureOpen();
+        try {
+            return (long) NativeTieredMap.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get size", e);
+        }
+    }
+
+    /**
+     * Check if the map is empty
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Get the number of entries in the hot tier, including removal markers
+     */
+    public long hotSize() {
+        ensureOpen();
+        try {
+            return (long) NativeTieredMap.HOT_SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get hot tier size", e);
+        }
+    }
+
+    /**
+     * Get the number of run files a lookup may have to search
+     */
+    public int runCount() {
+        ensureOpen();
+        try {
+            return (int) (long) NativeTieredMap.RUN_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get run count", e);
+        }
+    }
+
+    /**
+     * Get the bytes of run data on disk
+     */
+    public long diskBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeTieredMap.DISK_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get disk size", e);
+        }
+    }
+
+    /**
+     * Get the number of merges completed so far
+     */
+    public long mergeCount() {
+        ensureOpen();
+        try {
+            return (long) NativeTieredMap.MERGE_COUNT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get merge count", e);
+        }
+    }
+
+    /**
+     * Write the whole hot tier out as a new run now, freeing its memory
+     * @throws UncheckedIOException if the run could not be written; the
+     *         hot tier is left as it was
+     * @throws OutOfMemoryError if native memory ran out; the hot tier is
+     *         left as it was
+     */
+    public void spill() {
+        ensureOpen();
+        int result;
+        try {
+            result = (Integer) NativeTieredMap.SPILL.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to spill", e);
+        }
+        if (result == OUT_OF_MEMORY) {
+            throw new OutOfMemoryError("Failed to spill");
+        }
+        if (result == 0) {
+            throw spillFailed();
+        }
+    }
+
+    /**
+     * Wait for any background merge, then merge all runs into one in the
+     * calling thread, so a lookup searches at most one run
+     * @throws UncheckedIOException if the merged run could not be written;
+     *         the runs are left as they were
+     * @throws OutOfMemoryError if native memory ran out; the runs are left
+     *         as they were
+     */
+    public void compact() {
+        ensureOpen();
+        int result;
+        try {
+            result = (Integer) NativeTieredMap.COMPACT.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to compact", e);
+        }
+        if (result == OUT_OF_MEMORY) {
+            throw new OutOfMemoryError("Failed to compact");
+        }
+        if (result == 0) {
+            throw new UncheckedIOException(new IOException("Failed to write a merged run in " + directory));
+        }
+    }
+
+    /**
+     * Remove all entries from the map, deleting every run
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativeTieredMap.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+    }
+
+    /**
+     * Get the directory run files are created in
+     */
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Get the memory budget in bytes
+     */
+    public long memoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Approximate native memory in bytes: the hot tier plus the Bloom
+     * filters and fences of every run. Mapped run data is left to the page
+     * cache and not counted.
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativeTieredMap.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativeTieredMap.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy TieredMap", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    private boolean lookup(long key) {
+        ensureOpen();
+        try {
+            return ((Integer) NativeTieredMap.GET.invoke(handle, key, valueSlot)) == 1;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get value", e);
+        }
+    }
+
+    private UncheckedIOException spillFailed() {
+        return new UncheckedIOException(new IOException("Failed to write a run in " + directory));
+    }
+
+    private static void checkColumn(MemorySegment column) {
+        if (column.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + column.byteSize());
+        }
+        if (!column.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("TieredMap has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapTieredMap[closed]";
+        }
+        return "OffHeapTieredMap[size=" + longSize() + ", hot=" + hotSize() + ", runs=" + runCount() + "]";
+    }
+}
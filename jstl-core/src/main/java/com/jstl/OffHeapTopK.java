@@ -0,0 +1,411 @@
+package com.jstl;
+
+import com.jstl.OffHeapLongPriorityQueue.Order;
+import com.jstl.internal.NativePriorityQueue;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Objects;
+
+/**
+ * Off-heap top-k: keeps the k largest (or smallest) long priorities of a
+ * stream, each optionally paired with a long payload such as a row id.
+ *
+ * The k entries kept live in a native 4-ary heap whose root is the worst
+ * of them. Once k entries are held, the root's priority is the threshold
+ * an offer must strictly beat; it is cached on the Java side, so the
+ * offers that do not beat it, which over a long stream is nearly all of
+ * them, return without a native call. Among equal priorities the first
+ * offered is kept.
+ *
+ * Not thread-safe. Auto-closeable to ensure native memory is freed.
+ */
+public class OffHeapTopK implements AutoCloseable {
+    private final MemorySegment handle;
+    private final Arena arena;
+    private final MemorySegment headSlot;
+    private final long k;
+    private final Order order;
+    private final boolean withPayloads;
+    private long size = 0;
+    private long threshold = 0;
+    private boolean closed = false;
+
+    /**
+     * Create a top-k keeping the k largest priorities, without payloads
+     */
+    public OffHeapTopK(long k) {
+        this(k, Order.MAX, false);
+    }
+
+    /**
+     * Create a top-k keeping the k largest priorities
+     * @param withPayloads whether each priority carries a payload
+     */
+    public OffHeapTopK(long k, boolean withPayloads) {
+        this(k, Order.MAX, withPayloads);
+    }
+
+    /**
+     * Create a top-k keeping the k best priorities: the largest for
+     * {@link Order#MAX}, the smallest for {@link Order#MIN}
+     * @param withPayloads whether each priority carries a payload
+     */
+    public OffHeapTopK(long k, Order order, boolean withPayloads) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.k = k;
+        this.order = Objects.requireNonNull(order);
+        this.withPayloads = withPayloads;
+        try {
+            this.handle = (MemorySegment) NativePriorityQueue.CREATE_TOPK.invoke(k, order.code, withPayloads ? 1 : 0);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native TopK");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create TopK", e);
+        }
+        this.arena = Arena.ofShared();
+        // jstl_pqueue_peek writes priority, then payload
+        this.headSlot = arena.allocateArray(ValueLayout.JAVA_LONG, 2);
+    }
+
+    /**
+     * Get the maximum number of entries kept
+     */
+    public long k() {
+        return k;
+    }
+
+    /**
+     * Get which priorities are kept: the largest for MAX, the smallest for MIN
+     */
+    public Order order() {
+        return order;
+    }
+
+    /**
+     * Check if each priority carries a payload
+     */
+    public boolean hasPayloads() {
+        return withPayloads;
+    }
+
+    /**
+     * Offer a priority. With payloads, its payload is 0.
+     * @return true if it is now among the entries kept
+     */
+    public boolean offer(long priority) {
+        ensureOpen();
+        return offerEntry(priority, 0);
+    }
+
+    /**
+     * Offer a priority with its payload
+     * @return true if it is now among the entries kept
+     * @throws IllegalStateException if the top-k was created without payloads
+     */
+    public boolean offer(long priority, long payload) {
+        ensureOpen();
+        checkPayloads();
+        return offerEntry(priority, payload);
+    }
+
+    /**
+     * Offer every priority in a single native call
+     * @return the number of priorities that were kept at the time they were offered
+     */
+    public long offerAll(long[] priorities) {
+        ensureOpen();
+        if (priorities.length == 0) {
+            return 0;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            return offerAll(temp.allocateArray(ValueLayout.JAVA_LONG, priorities));
+        }
+    }
+
+    /**
+     * Offer the entries (priorities[i], payloads[i]) in a single native call
+     * @return the number of entries that were kept at the time they were offered
+     * @throws IllegalStateException if the top-k was created without payloads
+     */
+    public long offerAll(long[] priorities, long[] payloads) {
+        ensureOpen();
+        checkPayloads();
+        if (priorities.length != payloads.length) {
+            throw new IllegalArgumentException("priorities and payloads differ in length: " + priorities.length + " != " + payloads.length);
+        }
+        if (priorities.length == 0) {
+            return 0;
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            return offerAll(temp.allocateArray(ValueLayout.JAVA_LONG, priorities), temp.allocateArray(ValueLayout.JAVA_LONG, payloads));
+        }
+    }
+
+    /**
+     * Offer every priority held in a native segment of longs, without
+     * copying it to the Java heap first
+     * @return the number of priorities that were kept at the time they were offered
+     */
+    public long offerAll(MemorySegment priorities) {
+        ensureOpen();
+        return offerSegments(priorities, checkColumn(priorities), MemorySegment.NULL);
+    }
+
+    /**
+     * Offer the entries held in two native segments of longs
+     * @return the number of entries that were kept at the time they were offered
+     * @throws IllegalStateException if the top-k was created without payloads
+     */
+    public long offerAll(MemorySegment priorities, MemorySegment payloads) {
+        ensureOpen();
+        checkPayloads();
+        long count = checkColumn(priorities);
+        if (payloads.byteSize() != priorities.byteSize()) {
+            throw new IllegalArgumentException("priorities and payloads differ in size: " + priorities.byteSize() + " != " + payloads.byteSize() + " bytes");
+        }
+        checkColumn(payloads);
+        return offerSegments(priorities, count, payloads);
+    }
+
+    /**
+     * Check if k entries are held, so offers must beat {@link #threshold}
+     */
+    public boolean isFull() {
+        ensureOpen();
+        return size == k;
+    }
+
+    /**
+     * Get the priority an offer must strictly beat to be kept: the worst
+     * priority kept
+     * @throws IllegalStateException if fewer than k entries are held, when
+     *         every offer is kept
+     */
+    public long threshold() {
+        ensureOpen();
+        if (size < k) {
+            throw new IllegalStateException("TopK is not full: " + size + " < " + k);
+        }
+        return threshold;
+    }
+
+    /**
+     * Copy the priorities kept into a Java array, best first
+     */
+    public long[] toSortedArray() {
+        return sorted(false);
+    }
+
+    /**
+     * Copy the payloads kept into a Java array, in the order of
+     * {@link #toSortedArray}
+     * @throws IllegalStateException if the top-k was created without payloads
+     */
+    public long[] toSortedPayloads() {
+        ensureOpen();
+        checkPayloads();
+        return sorted(true);
+    }
+
+    /**
+     * Remove every entry, appending the priorities to a list best first
+     */
+    public void drainSorted(OffHeapArrayList priorities) {
+        ensureOpen();
+        drainLists(priorities.nativeHandle(), MemorySegment.NULL);
+    }
+
+    /**
+     * Remove every entry, appending priorities and payloads to two lists
+     * best first
+     * @throws IllegalStateException if the top-k was created without payloads
+     */
+    public void drainSorted(OffHeapArrayList priorities, OffHeapArrayList payloads) {
+        ensureOpen();
+        checkPayloads();
+        if (priorities == payloads) {
+            throw new IllegalArgumentException("priorities and payloads must be different lists");
+        }
+        drainLists(priorities.nativeHandle(), payloads.nativeHandle());
+    }
+
+    /**
+     * Get the number of entries kept, at most k, saturated to Integer.MAX_VALUE
+     */
+    public int size() {
+        long size = longSize();
+        return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+    }
+
+    /**
+     * Get the number of entries kept, at most k
+     */
+    public long longSize() {
+        ensureOpen();
+        return size;
+    }
+
+    /**
+     * Check if no entry is kept
+     */
+    public boolean isEmpty() {
+        return longSize() == 0;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        ensureOpen();
+        try {
+            NativePriorityQueue.CLEAR.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to clear", e);
+        }
+        size = 0;
+    }
+
+    /**
+     * Approximate native memory used, in bytes
+     */
+    public long sizeInBytes() {
+        ensureOpen();
+        try {
+            return (long) NativePriorityQueue.SIZE_IN_BYTES.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get memory size", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            try {
+                NativePriorityQueue.DESTROY.invoke(handle);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to destroy TopK", e);
+            }
+            arena.close();
+            closed = true;
+        }
+    }
+
+    // Whether a full top-k would keep this priority
+    private boolean beatsThreshold(long priority) {
+        return order == Order.MAX ? priority > threshold : priority < threshold;
+    }
+
+    private boolean offerEntry(long priority, long payload) {
+        if (size == k && !beatsThreshold(priority)) {
+            return false;
+        }
+        try {
+            if (((Integer) NativePriorityQueue.OFFER.invoke(handle, priority, payload)) < 0) {
+                throw new OutOfMemoryError("Failed to offer entry");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to offer entry", e);
+        }
+        if (size < k) {
+            size++;
+        }
+        if (size == k) {
+            refreshThreshold();
+        }
+        return true;
+    }
+
+    private long offerSegments(MemorySegment priorities, long count, MemorySegment payloads) {
+        long kept;
+        try {
+            kept = (long) NativePriorityQueue.OFFER_ALL.invoke(handle, priorities, payloads, count);
+            if (kept < 0) {
+                throw new OutOfMemoryError("Failed to offer entries");
+            }
+            size = (long) NativePriorityQueue.SIZE.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to offer entries", e);
+        }
+        if (size == k) {
+            refreshThreshold();
+        }
+        return kept;
+    }
+
+    private void refreshThreshold() {
+        try {
+            NativePriorityQueue.PEEK.invoke(handle, headSlot);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to read threshold", e);
+        }
+        threshold = headSlot.getAtIndex(ValueLayout.JAVA_LONG, 0);
+    }
+
+    private long[] sorted(boolean payloads) {
+        ensureOpen();
+        // size is at most k, which may exceed what a Java array holds
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many entries for a Java array: " + size);
+        }
+        try (Arena temp = Arena.ofConfined()) {
+            MemorySegment outPriorities = temp.allocateArray(ValueLayout.JAVA_LONG, size);
+            MemorySegment outPayloads = payloads ? temp.allocateArray(ValueLayout.JAVA_LONG, size) : MemorySegment.NULL;
+            NativePriorityQueue.SORTED.invoke(handle, outPriorities, outPayloads);
+            return (payloads ? outPayloads : outPriorities).toArray(ValueLayout.JAVA_LONG);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to copy entries", e);
+        }
+    }
+
+    private void drainLists(MemorySegment priorities, MemorySegment payloads) {
+        try {
+            if (((Integer) NativePriorityQueue.DRAIN_TO_LISTS.invoke(handle, priorities, payloads)) == 0) {
+                throw new OutOfMemoryError("Failed to drain top-k");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to drain top-k", e);
+        }
+        size = 0;
+    }
+
+    private void checkPayloads() {
+        if (!withPayloads) {
+            throw new IllegalStateException("TopK was created without payloads");
+        }
+    }
+
+    // Number of longs in a native column segment
+    private static long checkColumn(MemorySegment column) {
+        if (column.byteSize() % Long.BYTES != 0) {
+            throw new IllegalArgumentException("Segment size is not a multiple of 8 bytes: " + column.byteSize());
+        }
+        if (!column.isNative()) {
+            throw new IllegalArgumentException("Segment must be native memory");
+        }
+        return column.byteSize() / Long.BYTES;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("TopK has been closed");
+        }
+    }
+
+    @Override
+    protected void finalize() throws Throwable {
+        close();
+        super.finalize();
+    }
+
+    @Override
+    public String toString() {
+        if (closed) {
+            return "OffHeapTopK[closed]";
+        }
+        return "OffHeapTopK[k=" + k + ", size=" + size + ", order=" + order + "]";
+    }
+}
@@ -0,0 +1,99 @@
+package com.jstl;
+
+import com.jstl.internal.NativeRecords;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Growable native storage for fixed-size records, backing the record list
+ * and each column of a column table. The data view is scoped to an arena
+ * that is closed whenever the storage moves, so a view taken before the
+ * move fails with IllegalStateException instead of reading freed memory.
+ */
+final class RecordBuffer {
+    private static final long MIN_CAPACITY = 16;
+
+    private final MemorySegment handle;
+    private final long recordSize;
+    private long capacity;
+    private Arena scope;
+    private MemorySegment data;
+
+    RecordBuffer(long recordSize, long capacity) {
+        if (capacity > Long.MAX_VALUE / recordSize) {
+            throw new OutOfMemoryError("Record buffer too large: " + capacity + " records");
+        }
+        try {
+            this.handle = (MemorySegment) NativeRecords.CREATE.invoke(recordSize, capacity);
+            if (handle == null || handle.address() == 0) {
+                throw new OutOfMemoryError("Failed to create native record buffer");
+            }
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to create record buffer", e);
+        }
+        this.recordSize = recordSize;
+        this.capacity = capacity;
+        this.scope = Arena.ofShared();
+        this.data = view();
+    }
+
+    /**
+     * Storage for capacity() records, valid until the buffer next moves
+     */
+    MemorySegment data() {
+        return data;
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Grow, by at least half the current capacity, to hold required records
+     */
+    void ensureCapacity(long required) {
+        if (required > capacity) {
+            long grown = capacity + Math.max(capacity >> 1, MIN_CAPACITY);
+            reallocate(Math.max(required, Math.min(grown, Long.MAX_VALUE / recordSize)));
+        }
+    }
+
+    /**
+     * Move to storage for exactly capacity records, keeping those that fit
+     */
+    void reallocate(long capacity) {
+        if (capacity > Long.MAX_VALUE / recordSize) {
+            throw new OutOfMemoryError("Record buffer too large: " + capacity + " records");
+        }
+        scope.close();
+        try {
+            if (((Integer) NativeRecords.REALLOCATE.invoke(handle, capacity)) == 0) {
+                throw new OutOfMemoryError("Failed to reallocate " + capacity + " records");
+            }
+            this.capacity = capacity;
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to reallocate record buffer", e);
+        } finally {
+            scope = Arena.ofShared();
+            data = view();
+        }
+    }
+
+    void close() {
+        scope.close();
+        try {
+            NativeRecords.DESTROY.invoke(handle);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to destroy record buffer", e);
+        }
+    }
+
+    private MemorySegment view() {
+        try {
+            MemorySegment address = (MemorySegment) NativeRecords.DATA.invoke(handle);
+            return address.reinterpret(capacity * recordSize, scope, null);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get record buffer data", e);
+        }
+    }
+}
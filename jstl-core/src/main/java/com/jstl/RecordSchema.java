@@ -0,0 +1,99 @@
+package com.jstl;
+
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.PaddingLayout;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Named value fields of a struct layout, as used by the record list and
+ * the column table. Padding is skipped; nested groups and sequences are
+ * rejected so every field maps to a single value.
+ */
+final class RecordSchema {
+
+    /**
+     * One value field and its byte offset within the struct
+     */
+    record Field(String name, ValueLayout layout, long offset) {
+    }
+
+    private final StructLayout layout;
+    private final Map<String, Field> fields;
+
+    RecordSchema(StructLayout layout) {
+        if (layout.byteSize() % layout.byteAlignment() != 0) {
+            throw new IllegalArgumentException("Schema size " + layout.byteSize()
+                    + " is not a multiple of its alignment " + layout.byteAlignment() + "; add trailing padding");
+        }
+        Map<String, Field> byName = new LinkedHashMap<>();
+        long offset = 0;
+        for (MemoryLayout member : layout.memberLayouts()) {
+            if (member instanceof ValueLayout value) {
+                String name = member.name().orElseThrow(
+                        () -> new IllegalArgumentException("Schema field has no name: " + member));
+                if (byName.put(name, new Field(name, value, offset)) != null) {
+                    throw new IllegalArgumentException("Duplicate schema field: " + name);
+                }
+            } else if (!(member instanceof PaddingLayout)) {
+                throw new IllegalArgumentException("Schema fields must be value layouts: " + member);
+            }
+            offset += member.byteSize();
+        }
+        if (byName.isEmpty()) {
+            throw new IllegalArgumentException("Schema has no fields: " + layout);
+        }
+        this.layout = layout;
+        this.fields = Collections.unmodifiableMap(byName);
+    }
+
+    StructLayout layout() {
+        return layout;
+    }
+
+    long recordSize() {
+        return layout.byteSize();
+    }
+
+    Map<String, Field> fields() {
+        return fields;
+    }
+
+    Field field(String name) {
+        Field field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("No such field: " + name);
+        }
+        return field;
+    }
+
+    /**
+     * The field a projected field is copied from, checked to be the same size
+     */
+    Field source(Field projected) {
+        Field field = field(projected.name());
+        if (field.layout().byteSize() != projected.layout().byteSize()) {
+            throw new IllegalArgumentException("Field " + projected.name() + " is " + field.layout().byteSize()
+                    + " bytes in the schema but " + projected.layout().byteSize() + " in the projection");
+        }
+        return field;
+    }
+
+    void checkRecord(MemorySegment record) {
+        if (record.byteSize() != layout.byteSize()) {
+            throw new IllegalArgumentException("Record is " + record.byteSize() + " bytes, schema is " + layout.byteSize());
+        }
+    }
+
+    long recordCount(MemorySegment records) {
+        if (records.byteSize() % layout.byteSize() != 0) {
+            throw new IllegalArgumentException("Records span " + records.byteSize()
+                    + " bytes, not a multiple of the " + layout.byteSize() + "-byte schema");
+        }
+        return records.byteSize() / layout.byteSize();
+    }
+}
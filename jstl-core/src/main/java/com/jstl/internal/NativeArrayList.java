@@ -22,6 +22,25 @@ public class NativeArrayList {
     private static final FunctionDescriptor IS_EMPTY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
     private static final FunctionDescriptor CAPACITY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
     private static final FunctionDescriptor RESERVE_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SORT_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SORT_DESCENDING_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PARALLEL_SORT_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor BINARY_SEARCH_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SUM_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor MIN_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor MAX_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor COUNT_BETWEEN_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor MEAN_DESC = FunctionDescriptor.of(ValueLayout.JAVA_DOUBLE, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor HISTOGRAM_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor DOT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor DATA_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor TRUNCATE_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_RANGE_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor RETAIN_BETWEEN_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_ALL_IN_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SWAP_REMOVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SHRINK_TO_FIT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CREATE_WITH_CAPACITY_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
 
     // Method handles
     public static final MethodHandle CREATE;
@@ -35,6 +54,25 @@ public class NativeArrayList {
     public static final MethodHandle IS_EMPTY;
     public static final MethodHandle CAPACITY;
     public static final MethodHandle RESERVE;
+    public static final MethodHandle SORT;
+    public static final MethodHandle SORT_DESCENDING;
+    public static final MethodHandle PARALLEL_SORT;
+    public static final MethodHandle BINARY_SEARCH;
+    public static final MethodHandle SUM;
+    public static final MethodHandle MIN;
+    public static final MethodHandle MAX;
+    public static final MethodHandle COUNT_BETWEEN;
+    public static final MethodHandle MEAN;
+    public static final MethodHandle HISTOGRAM;
+    public static final MethodHandle DOT;
+    public static final MethodHandle DATA;
+    public static final MethodHandle TRUNCATE;
+    public static final MethodHandle REMOVE_RANGE;
+    public static final MethodHandle RETAIN_BETWEEN;
+    public static final MethodHandle REMOVE_ALL_IN;
+    public static final MethodHandle SWAP_REMOVE;
+    public static final MethodHandle SHRINK_TO_FIT;
+    public static final MethodHandle CREATE_WITH_CAPACITY;
 
     static {
         NativeLoader.loadLibrary();
@@ -85,6 +123,82 @@ public class NativeArrayList {
                 SYMBOL_LOOKUP.find("jstl_arraylist_reserve").orElseThrow(),
                 RESERVE_DESC
             );
+            SORT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_sort").orElseThrow(),
+                SORT_DESC
+            );
+            SORT_DESCENDING = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_sort_descending").orElseThrow(),
+                SORT_DESCENDING_DESC
+            );
+            PARALLEL_SORT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_parallel_sort").orElseThrow(),
+                PARALLEL_SORT_DESC
+            );
+            BINARY_SEARCH = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_binary_search").orElseThrow(),
+                BINARY_SEARCH_DESC
+            );
+            SUM = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_sum").orElseThrow(),
+                SUM_DESC
+            );
+            MIN = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_min").orElseThrow(),
+                MIN_DESC
+            );
+            MAX = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_max").orElseThrow(),
+                MAX_DESC
+            );
+            COUNT_BETWEEN = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_count_between").orElseThrow(),
+                COUNT_BETWEEN_DESC
+            );
+            MEAN = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_mean").orElseThrow(),
+                MEAN_DESC
+            );
+            HISTOGRAM = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_histogram").orElseThrow(),
+                HISTOGRAM_DESC
+            );
+            DOT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_dot").orElseThrow(),
+                DOT_DESC
+            );
+            DATA = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_data").orElseThrow(),
+                DATA_DESC
+            );
+            TRUNCATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_truncate").orElseThrow(),
+                TRUNCATE_DESC
+            );
+            REMOVE_RANGE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_remove_range").orElseThrow(),
+                REMOVE_RANGE_DESC
+            );
+            RETAIN_BETWEEN = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_retain_between").orElseThrow(),
+                RETAIN_BETWEEN_DESC
+            );
+            REMOVE_ALL_IN = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_remove_all_in").orElseThrow(),
+                REMOVE_ALL_IN_DESC
+            );
+            SWAP_REMOVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_swap_remove").orElseThrow(),
+                SWAP_REMOVE_DESC
+            );
+            SHRINK_TO_FIT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_shrink_to_fit").orElseThrow(),
+                SHRINK_TO_FIT_DESC
+            );
+            CREATE_WITH_CAPACITY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_arraylist_create_with_capacity").orElseThrow(),
+                CREATE_WITH_CAPACITY_DESC
+            );
         } catch (Throwable e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -0,0 +1,158 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for BitSet native functions
+ */
+public class NativeBitSet {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Set operation codes (jstl_bitset_op_t)
+    public static final int AND = 0;
+    public static final int OR = 1;
+    public static final int AND_NOT = 2;
+    public static final int XOR = 3;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ADD_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor ADD_RANGE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor ADD_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor ADD_HASHSET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ADD_ARRAYLIST_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CONTAINS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CARDINALITY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RANK_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SELECT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor COMBINE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor COMBINE_IN_PLACE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor AND_CARDINALITY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RUN_OPTIMIZE_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor TO_ARRAY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor TO_HASHSET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor TO_ARRAYLIST_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle ADD;
+    public static final MethodHandle ADD_RANGE;
+    public static final MethodHandle ADD_ALL;
+    public static final MethodHandle ADD_HASHSET;
+    public static final MethodHandle ADD_ARRAYLIST;
+    public static final MethodHandle CONTAINS;
+    public static final MethodHandle REMOVE;
+    public static final MethodHandle CARDINALITY;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle RANK;
+    public static final MethodHandle SELECT;
+    public static final MethodHandle COMBINE;
+    public static final MethodHandle COMBINE_IN_PLACE;
+    public static final MethodHandle AND_CARDINALITY;
+    public static final MethodHandle RUN_OPTIMIZE;
+    public static final MethodHandle SIZE_IN_BYTES;
+    public static final MethodHandle TO_ARRAY;
+    public static final MethodHandle TO_HASHSET;
+    public static final MethodHandle TO_ARRAYLIST;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            ADD = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_add").orElseThrow(),
+                ADD_DESC
+            );
+            ADD_RANGE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_add_range").orElseThrow(),
+                ADD_RANGE_DESC
+            );
+            ADD_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_add_all").orElseThrow(),
+                ADD_ALL_DESC
+            );
+            ADD_HASHSET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_add_hashset").orElseThrow(),
+                ADD_HASHSET_DESC
+            );
+            ADD_ARRAYLIST = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_add_arraylist").orElseThrow(),
+                ADD_ARRAYLIST_DESC
+            );
+            CONTAINS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_contains").orElseThrow(),
+                CONTAINS_DESC
+            );
+            REMOVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_remove").orElseThrow(),
+                REMOVE_DESC
+            );
+            CARDINALITY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_cardinality").orElseThrow(),
+                CARDINALITY_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            RANK = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_rank").orElseThrow(),
+                RANK_DESC
+            );
+            SELECT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_select").orElseThrow(),
+                SELECT_DESC
+            );
+            COMBINE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_combine").orElseThrow(),
+                COMBINE_DESC
+            );
+            COMBINE_IN_PLACE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_combine_in_place").orElseThrow(),
+                COMBINE_IN_PLACE_DESC
+            );
+            AND_CARDINALITY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_and_cardinality").orElseThrow(),
+                AND_CARDINALITY_DESC
+            );
+            RUN_OPTIMIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_run_optimize").orElseThrow(),
+                RUN_OPTIMIZE_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+            TO_ARRAY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_to_array").orElseThrow(),
+                TO_ARRAY_DESC
+            );
+            TO_HASHSET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_to_hashset").orElseThrow(),
+                TO_HASHSET_DESC
+            );
+            TO_ARRAYLIST = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bitset_to_arraylist").orElseThrow(),
+                TO_ARRAYLIST_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
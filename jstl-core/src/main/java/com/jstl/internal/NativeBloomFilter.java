@@ -0,0 +1,80 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for BloomFilter native functions
+ */
+public class NativeBloomFilter {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_DOUBLE);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PUT_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PUT_ALL_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor MIGHT_CONTAIN_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor MIGHT_CONTAIN_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor BIT_SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor HASH_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle PUT;
+    public static final MethodHandle PUT_ALL;
+    public static final MethodHandle MIGHT_CONTAIN;
+    public static final MethodHandle MIGHT_CONTAIN_ALL;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle BIT_SIZE;
+    public static final MethodHandle HASH_COUNT;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            PUT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_put").orElseThrow(),
+                PUT_DESC
+            );
+            PUT_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_put_all").orElseThrow(),
+                PUT_ALL_DESC
+            );
+            MIGHT_CONTAIN = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_might_contain").orElseThrow(),
+                MIGHT_CONTAIN_DESC
+            );
+            MIGHT_CONTAIN_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_might_contain_all").orElseThrow(),
+                MIGHT_CONTAIN_ALL_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            BIT_SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_bit_size").orElseThrow(),
+                BIT_SIZE_DESC
+            );
+            HASH_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_bloomfilter_hash_count").orElseThrow(),
+                HASH_COUNT_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for Cache native functions
+ */
+public class NativeCache {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ENTRY_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor GET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor GET_OR_DEFAULT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CONTAINS_KEY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PUT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CAPACITY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor HIT_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MISS_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor EVICTION_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RECORD_EVICTIONS_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor DRAIN_EVICTIONS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle ENTRY_BYTES;
+    public static final MethodHandle GET;
+    public static final MethodHandle GET_OR_DEFAULT;
+    public static final MethodHandle CONTAINS_KEY;
+    public static final MethodHandle PUT;
+    public static final MethodHandle REMOVE;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle CAPACITY;
+    public static final MethodHandle HIT_COUNT;
+    public static final MethodHandle MISS_COUNT;
+    public static final MethodHandle EVICTION_COUNT;
+    public static final MethodHandle RECORD_EVICTIONS;
+    public static final MethodHandle DRAIN_EVICTIONS;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            ENTRY_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_entry_bytes").orElseThrow(),
+                ENTRY_BYTES_DESC
+            );
+            GET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_get").orElseThrow(),
+                GET_DESC
+            );
+            GET_OR_DEFAULT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_get_or_default").orElseThrow(),
+                GET_OR_DEFAULT_DESC
+            );
+            CONTAINS_KEY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_contains_key").orElseThrow(),
+                CONTAINS_KEY_DESC
+            );
+            PUT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_put").orElseThrow(),
+                PUT_DESC
+            );
+            REMOVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_remove").orElseThrow(),
+                REMOVE_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_size").orElseThrow(),
+                SIZE_DESC
+            );
+            CAPACITY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_capacity").orElseThrow(),
+                CAPACITY_DESC
+            );
+            HIT_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_hit_count").orElseThrow(),
+                HIT_COUNT_DESC
+            );
+            MISS_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_miss_count").orElseThrow(),
+                MISS_COUNT_DESC
+            );
+            EVICTION_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_eviction_count").orElseThrow(),
+                EVICTION_COUNT_DESC
+            );
+            RECORD_EVICTIONS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_record_evictions").orElseThrow(),
+                RECORD_EVICTIONS_DESC
+            );
+            DRAIN_EVICTIONS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_cache_drain_evictions").orElseThrow(),
+                DRAIN_EVICTIONS_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for CompressedLongList native functions
+ */
+public class NativeCompressedLongList {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ADD_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor ADD_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor GET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor DECODE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor TRIM_TO_SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle ADD;
+    public static final MethodHandle ADD_ALL;
+    public static final MethodHandle GET;
+    public static final MethodHandle DECODE;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle TRIM_TO_SIZE;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            ADD = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_add").orElseThrow(),
+                ADD_DESC
+            );
+            ADD_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_add_all").orElseThrow(),
+                ADD_ALL_DESC
+            );
+            GET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_get").orElseThrow(),
+                GET_DESC
+            );
+            DECODE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_decode").orElseThrow(),
+                DECODE_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_size").orElseThrow(),
+                SIZE_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            TRIM_TO_SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_trim_to_size").orElseThrow(),
+                TRIM_TO_SIZE_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_compressed_list_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
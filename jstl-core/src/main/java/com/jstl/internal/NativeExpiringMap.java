@@ -0,0 +1,116 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for ExpiringMap native functions
+ */
+public class NativeExpiringMap {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PUT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor GET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CONTAINS_KEY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SET_TTL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor TIME_TO_LIVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor STORED_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAN_UP_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor EXPIRED_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RECORD_EXPIRATIONS_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor DRAIN_EXPIRATIONS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle PUT;
+    public static final MethodHandle GET;
+    public static final MethodHandle CONTAINS_KEY;
+    public static final MethodHandle REMOVE;
+    public static final MethodHandle SET_TTL;
+    public static final MethodHandle TIME_TO_LIVE;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle STORED_COUNT;
+    public static final MethodHandle CLEAN_UP;
+    public static final MethodHandle EXPIRED_COUNT;
+    public static final MethodHandle RECORD_EXPIRATIONS;
+    public static final MethodHandle DRAIN_EXPIRATIONS;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            PUT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_put").orElseThrow(),
+                PUT_DESC
+            );
+            GET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_get").orElseThrow(),
+                GET_DESC
+            );
+            CONTAINS_KEY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_contains_key").orElseThrow(),
+                CONTAINS_KEY_DESC
+            );
+            REMOVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_remove").orElseThrow(),
+                REMOVE_DESC
+            );
+            SET_TTL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_set_ttl").orElseThrow(),
+                SET_TTL_DESC
+            );
+            TIME_TO_LIVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_time_to_live").orElseThrow(),
+                TIME_TO_LIVE_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_size").orElseThrow(),
+                SIZE_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            STORED_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_stored_count").orElseThrow(),
+                STORED_COUNT_DESC
+            );
+            CLEAN_UP = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_clean_up").orElseThrow(),
+                CLEAN_UP_DESC
+            );
+            EXPIRED_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_expired_count").orElseThrow(),
+                EXPIRED_COUNT_DESC
+            );
+            RECORD_EXPIRATIONS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_record_expirations").orElseThrow(),
+                RECORD_EXPIRATIONS_DESC
+            );
+            DRAIN_EXPIRATIONS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_expiringmap_drain_expirations").orElseThrow(),
+                DRAIN_EXPIRATIONS_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
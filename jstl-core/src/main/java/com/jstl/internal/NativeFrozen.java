@@ -0,0 +1,104 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for FrozenMap and FrozenSet native functions
+ */
+public class NativeFrozen {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor FREEZE_MAP_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MAP_DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MAP_GET_OR_DEFAULT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor MAP_CONTAINS_KEY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor MAP_GET_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MAP_SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MAP_SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor FREEZE_SET_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_CONTAINS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SET_CONTAINS_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle FREEZE_MAP;
+    public static final MethodHandle MAP_DESTROY;
+    public static final MethodHandle MAP_GET_OR_DEFAULT;
+    public static final MethodHandle MAP_CONTAINS_KEY;
+    public static final MethodHandle MAP_GET_ALL;
+    public static final MethodHandle MAP_SIZE;
+    public static final MethodHandle MAP_SIZE_IN_BYTES;
+    public static final MethodHandle FREEZE_SET;
+    public static final MethodHandle SET_DESTROY;
+    public static final MethodHandle SET_CONTAINS;
+    public static final MethodHandle SET_CONTAINS_ALL;
+    public static final MethodHandle SET_SIZE;
+    public static final MethodHandle SET_SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            FREEZE_MAP = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_freeze").orElseThrow(),
+                FREEZE_MAP_DESC
+            );
+            MAP_DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenmap_destroy").orElseThrow(),
+                MAP_DESTROY_DESC
+            );
+            MAP_GET_OR_DEFAULT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenmap_get_or_default").orElseThrow(),
+                MAP_GET_OR_DEFAULT_DESC
+            );
+            MAP_CONTAINS_KEY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenmap_contains_key").orElseThrow(),
+                MAP_CONTAINS_KEY_DESC
+            );
+            MAP_GET_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenmap_get_all").orElseThrow(),
+                MAP_GET_ALL_DESC
+            );
+            MAP_SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenmap_size").orElseThrow(),
+                MAP_SIZE_DESC
+            );
+            MAP_SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenmap_size_in_bytes").orElseThrow(),
+                MAP_SIZE_IN_BYTES_DESC
+            );
+            FREEZE_SET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_freeze").orElseThrow(),
+                FREEZE_SET_DESC
+            );
+            SET_DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenset_destroy").orElseThrow(),
+                SET_DESTROY_DESC
+            );
+            SET_CONTAINS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenset_contains").orElseThrow(),
+                SET_CONTAINS_DESC
+            );
+            SET_CONTAINS_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenset_contains_all").orElseThrow(),
+                SET_CONTAINS_ALL_DESC
+            );
+            SET_SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenset_size").orElseThrow(),
+                SET_SIZE_DESC
+            );
+            SET_SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_frozenset_size_in_bytes").orElseThrow(),
+                SET_SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for GroupBy native functions
+ */
+public class NativeGroupBy {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ADD_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor ADD_LISTS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor FIND_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor KEYS_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor VALUES_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor TO_HASHMAP_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle ADD;
+    public static final MethodHandle ADD_LISTS;
+    public static final MethodHandle FIND;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle KEYS;
+    public static final MethodHandle VALUES;
+    public static final MethodHandle TO_HASHMAP;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            ADD = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_add").orElseThrow(),
+                ADD_DESC
+            );
+            ADD_LISTS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_add_lists").orElseThrow(),
+                ADD_LISTS_DESC
+            );
+            FIND = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_find").orElseThrow(),
+                FIND_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_size").orElseThrow(),
+                SIZE_DESC
+            );
+            KEYS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_keys").orElseThrow(),
+                KEYS_DESC
+            );
+            VALUES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_values").orElseThrow(),
+                VALUES_DESC
+            );
+            TO_HASHMAP = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_to_hashmap").orElseThrow(),
+                TO_HASHMAP_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_groupby_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
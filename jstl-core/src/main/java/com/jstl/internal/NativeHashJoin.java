@@ -0,0 +1,92 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for HashJoin native functions
+ */
+public class NativeHashJoin {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor BUILD_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor BUILD_LISTS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor BUILD_HASHMAP_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PROBE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PROBE_LIST_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor BUILD_SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DISTINCT_KEYS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PARTITIONS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle BUILD;
+    public static final MethodHandle BUILD_LISTS;
+    public static final MethodHandle BUILD_HASHMAP;
+    public static final MethodHandle PROBE;
+    public static final MethodHandle PROBE_LIST;
+    public static final MethodHandle BUILD_SIZE;
+    public static final MethodHandle DISTINCT_KEYS;
+    public static final MethodHandle PARTITIONS;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            BUILD = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_build").orElseThrow(),
+                BUILD_DESC
+            );
+            BUILD_LISTS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_build_lists").orElseThrow(),
+                BUILD_LISTS_DESC
+            );
+            BUILD_HASHMAP = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_build_hashmap").orElseThrow(),
+                BUILD_HASHMAP_DESC
+            );
+            PROBE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_probe").orElseThrow(),
+                PROBE_DESC
+            );
+            PROBE_LIST = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_probe_list").orElseThrow(),
+                PROBE_LIST_DESC
+            );
+            BUILD_SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_build_size").orElseThrow(),
+                BUILD_SIZE_DESC
+            );
+            DISTINCT_KEYS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_distinct_keys").orElseThrow(),
+                DISTINCT_KEYS_DESC
+            );
+            PARTITIONS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_partitions").orElseThrow(),
+                PARTITIONS_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashjoin_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -20,6 +20,24 @@ public class NativeHashMap {
     private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
     private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
     private static final FunctionDescriptor IS_EMPTY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ENABLE_BLOOM_FILTER_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_DOUBLE);
+    private static final FunctionDescriptor DISABLE_BLOOM_FILTER_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor GET_OR_DEFAULT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor FIND_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PUT_IF_ABSENT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REPLACE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor GET_AND_PUT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor REMOVE_AND_GET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MERGE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_INCREMENTAL_REHASH_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor IS_REHASHING_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RESERVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CAPACITY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SHRINK_TO_FIT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_MAX_LOAD_FACTOR_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_DOUBLE);
+    private static final FunctionDescriptor MAX_LOAD_FACTOR_DESC = FunctionDescriptor.of(ValueLayout.JAVA_DOUBLE, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CREATE_WITH_STRATEGY_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor HASH_STRATEGY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
 
     // Method handles
     public static final MethodHandle CREATE;
@@ -31,6 +49,24 @@ public class NativeHashMap {
     public static final MethodHandle SIZE;
     public static final MethodHandle CLEAR;
     public static final MethodHandle IS_EMPTY;
+    public static final MethodHandle ENABLE_BLOOM_FILTER;
+    public static final MethodHandle DISABLE_BLOOM_FILTER;
+    public static final MethodHandle GET_OR_DEFAULT;
+    public static final MethodHandle FIND;
+    public static final MethodHandle PUT_IF_ABSENT;
+    public static final MethodHandle REPLACE;
+    public static final MethodHandle GET_AND_PUT;
+    public static final MethodHandle REMOVE_AND_GET;
+    public static final MethodHandle MERGE;
+    public static final MethodHandle SET_INCREMENTAL_REHASH;
+    public static final MethodHandle IS_REHASHING;
+    public static final MethodHandle RESERVE;
+    public static final MethodHandle CAPACITY;
+    public static final MethodHandle SHRINK_TO_FIT;
+    public static final MethodHandle SET_MAX_LOAD_FACTOR;
+    public static final MethodHandle MAX_LOAD_FACTOR;
+    public static final MethodHandle CREATE_WITH_STRATEGY;
+    public static final MethodHandle HASH_STRATEGY;
 
     static {
         NativeLoader.loadLibrary();
@@ -73,6 +109,78 @@ public class NativeHashMap {
                 SYMBOL_LOOKUP.find("jstl_hashmap_is_empty").orElseThrow(),
                 IS_EMPTY_DESC
             );
+            ENABLE_BLOOM_FILTER = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_enable_bloom_filter").orElseThrow(),
+                ENABLE_BLOOM_FILTER_DESC
+            );
+            DISABLE_BLOOM_FILTER = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_disable_bloom_filter").orElseThrow(),
+                DISABLE_BLOOM_FILTER_DESC
+            );
+            GET_OR_DEFAULT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_get_or_default").orElseThrow(),
+                GET_OR_DEFAULT_DESC
+            );
+            FIND = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_find").orElseThrow(),
+                FIND_DESC
+            );
+            PUT_IF_ABSENT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_put_if_absent").orElseThrow(),
+                PUT_IF_ABSENT_DESC
+            );
+            REPLACE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_replace").orElseThrow(),
+                REPLACE_DESC
+            );
+            GET_AND_PUT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_get_and_put").orElseThrow(),
+                GET_AND_PUT_DESC
+            );
+            REMOVE_AND_GET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_remove_and_get").orElseThrow(),
+                REMOVE_AND_GET_DESC
+            );
+            MERGE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_merge").orElseThrow(),
+                MERGE_DESC
+            );
+            SET_INCREMENTAL_REHASH = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_set_incremental_rehash").orElseThrow(),
+                SET_INCREMENTAL_REHASH_DESC
+            );
+            IS_REHASHING = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_is_rehashing").orElseThrow(),
+                IS_REHASHING_DESC
+            );
+            RESERVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_reserve").orElseThrow(),
+                RESERVE_DESC
+            );
+            CAPACITY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_capacity").orElseThrow(),
+                CAPACITY_DESC
+            );
+            SHRINK_TO_FIT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_shrink_to_fit").orElseThrow(),
+                SHRINK_TO_FIT_DESC
+            );
+            SET_MAX_LOAD_FACTOR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_set_max_load_factor").orElseThrow(),
+                SET_MAX_LOAD_FACTOR_DESC
+            );
+            MAX_LOAD_FACTOR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_max_load_factor").orElseThrow(),
+                MAX_LOAD_FACTOR_DESC
+            );
+            CREATE_WITH_STRATEGY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_create_with_strategy").orElseThrow(),
+                CREATE_WITH_STRATEGY_DESC
+            );
+            HASH_STRATEGY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashmap_hash_strategy").orElseThrow(),
+                HASH_STRATEGY_DESC
+            );
         } catch (Throwable e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -19,6 +19,24 @@ public class NativeHashSet {
     private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
     private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
     private static final FunctionDescriptor IS_EMPTY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ADD_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RETAIN_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor INTERSECTION_SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor UNION_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor INTERSECTION_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor DIFFERENCE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor ENABLE_BLOOM_FILTER_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_DOUBLE);
+    private static final FunctionDescriptor DISABLE_BLOOM_FILTER_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_INCREMENTAL_REHASH_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor IS_REHASHING_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RESERVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CAPACITY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SHRINK_TO_FIT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SET_MAX_LOAD_FACTOR_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_DOUBLE);
+    private static final FunctionDescriptor MAX_LOAD_FACTOR_DESC = FunctionDescriptor.of(ValueLayout.JAVA_DOUBLE, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CREATE_WITH_STRATEGY_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor HASH_STRATEGY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
 
     // Method handles
     public static final MethodHandle CREATE;
@@ -29,6 +47,24 @@ public class NativeHashSet {
     public static final MethodHandle SIZE;
     public static final MethodHandle CLEAR;
     public static final MethodHandle IS_EMPTY;
+    public static final MethodHandle ADD_ALL;
+    public static final MethodHandle RETAIN_ALL;
+    public static final MethodHandle REMOVE_ALL;
+    public static final MethodHandle INTERSECTION_SIZE;
+    public static final MethodHandle UNION;
+    public static final MethodHandle INTERSECTION;
+    public static final MethodHandle DIFFERENCE;
+    public static final MethodHandle ENABLE_BLOOM_FILTER;
+    public static final MethodHandle DISABLE_BLOOM_FILTER;
+    public static final MethodHandle SET_INCREMENTAL_REHASH;
+    public static final MethodHandle IS_REHASHING;
+    public static final MethodHandle RESERVE;
+    public static final MethodHandle CAPACITY;
+    public static final MethodHandle SHRINK_TO_FIT;
+    public static final MethodHandle SET_MAX_LOAD_FACTOR;
+    public static final MethodHandle MAX_LOAD_FACTOR;
+    public static final MethodHandle CREATE_WITH_STRATEGY;
+    public static final MethodHandle HASH_STRATEGY;
 
     static {
         NativeLoader.loadLibrary();
@@ -67,6 +103,78 @@ public class NativeHashSet {
                 SYMBOL_LOOKUP.find("jstl_hashset_is_empty").orElseThrow(),
                 IS_EMPTY_DESC
             );
+            ADD_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_add_all").orElseThrow(),
+                ADD_ALL_DESC
+            );
+            RETAIN_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_retain_all").orElseThrow(),
+                RETAIN_ALL_DESC
+            );
+            REMOVE_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_remove_all").orElseThrow(),
+                REMOVE_ALL_DESC
+            );
+            INTERSECTION_SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_intersection_size").orElseThrow(),
+                INTERSECTION_SIZE_DESC
+            );
+            UNION = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_union").orElseThrow(),
+                UNION_DESC
+            );
+            INTERSECTION = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_intersection").orElseThrow(),
+                INTERSECTION_DESC
+            );
+            DIFFERENCE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_difference").orElseThrow(),
+                DIFFERENCE_DESC
+            );
+            ENABLE_BLOOM_FILTER = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_enable_bloom_filter").orElseThrow(),
+                ENABLE_BLOOM_FILTER_DESC
+            );
+            DISABLE_BLOOM_FILTER = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_disable_bloom_filter").orElseThrow(),
+                DISABLE_BLOOM_FILTER_DESC
+            );
+            SET_INCREMENTAL_REHASH = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_set_incremental_rehash").orElseThrow(),
+                SET_INCREMENTAL_REHASH_DESC
+            );
+            IS_REHASHING = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_is_rehashing").orElseThrow(),
+                IS_REHASHING_DESC
+            );
+            RESERVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_reserve").orElseThrow(),
+                RESERVE_DESC
+            );
+            CAPACITY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_capacity").orElseThrow(),
+                CAPACITY_DESC
+            );
+            SHRINK_TO_FIT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_shrink_to_fit").orElseThrow(),
+                SHRINK_TO_FIT_DESC
+            );
+            SET_MAX_LOAD_FACTOR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_set_max_load_factor").orElseThrow(),
+                SET_MAX_LOAD_FACTOR_DESC
+            );
+            MAX_LOAD_FACTOR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_max_load_factor").orElseThrow(),
+                MAX_LOAD_FACTOR_DESC
+            );
+            CREATE_WITH_STRATEGY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_create_with_strategy").orElseThrow(),
+                CREATE_WITH_STRATEGY_DESC
+            );
+            HASH_STRATEGY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_hashset_hash_strategy").orElseThrow(),
+                HASH_STRATEGY_DESC
+            );
         } catch (Throwable e) {
             throw new ExceptionInInitializerError(e);
         }
@@ -0,0 +1,92 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for LongLog native functions
+ */
+public class NativeLongLog {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor APPEND_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor APPEND_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PUBLISHED_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor GET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor READ_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CHUNK_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CAPACITY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle APPEND;
+    public static final MethodHandle APPEND_ALL;
+    public static final MethodHandle PUBLISHED;
+    public static final MethodHandle GET;
+    public static final MethodHandle READ;
+    public static final MethodHandle CHUNK;
+    public static final MethodHandle CAPACITY;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            APPEND = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_append").orElseThrow(),
+                APPEND_DESC
+            );
+            APPEND_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_append_all").orElseThrow(),
+                APPEND_ALL_DESC
+            );
+            PUBLISHED = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_published").orElseThrow(),
+                PUBLISHED_DESC
+            );
+            GET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_get").orElseThrow(),
+                GET_DESC
+            );
+            READ = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_read").orElseThrow(),
+                READ_DESC
+            );
+            CHUNK = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_chunk").orElseThrow(),
+                CHUNK_DESC
+            );
+            CAPACITY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_capacity").orElseThrow(),
+                CAPACITY_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_longlog_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for LongMultimap native functions
+ */
+public class NativeMultimap {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PUT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PUT_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PUT_PAIRS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor VALUES_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CONTAINS_KEY_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor KEY_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor KEYS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor COMPACT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle PUT;
+    public static final MethodHandle PUT_ALL;
+    public static final MethodHandle PUT_PAIRS;
+    public static final MethodHandle COUNT;
+    public static final MethodHandle VALUES;
+    public static final MethodHandle CONTAINS_KEY;
+    public static final MethodHandle REMOVE_ALL;
+    public static final MethodHandle KEY_COUNT;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle KEYS;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle COMPACT;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            PUT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_put").orElseThrow(),
+                PUT_DESC
+            );
+            PUT_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_put_all").orElseThrow(),
+                PUT_ALL_DESC
+            );
+            PUT_PAIRS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_put_pairs").orElseThrow(),
+                PUT_PAIRS_DESC
+            );
+            COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_count").orElseThrow(),
+                COUNT_DESC
+            );
+            VALUES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_values").orElseThrow(),
+                VALUES_DESC
+            );
+            CONTAINS_KEY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_contains_key").orElseThrow(),
+                CONTAINS_KEY_DESC
+            );
+            REMOVE_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_remove_all").orElseThrow(),
+                REMOVE_ALL_DESC
+            );
+            KEY_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_key_count").orElseThrow(),
+                KEY_COUNT_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_size").orElseThrow(),
+                SIZE_DESC
+            );
+            KEYS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_keys").orElseThrow(),
+                KEYS_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            COMPACT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_compact").orElseThrow(),
+                COMPACT_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_multimap_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for PriorityQueue native functions
+ */
+public class NativePriorityQueue {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor CREATE_TOPK_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor OFFER_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor OFFER_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PEEK_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor POLL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SORTED_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DRAIN_TO_LISTS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle CREATE_TOPK;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle OFFER;
+    public static final MethodHandle OFFER_ALL;
+    public static final MethodHandle PEEK;
+    public static final MethodHandle POLL;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle SORTED;
+    public static final MethodHandle DRAIN_TO_LISTS;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_create").orElseThrow(),
+                CREATE_DESC
+            );
+            CREATE_TOPK = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_create_topk").orElseThrow(),
+                CREATE_TOPK_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            OFFER = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_offer").orElseThrow(),
+                OFFER_DESC
+            );
+            OFFER_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_offer_all").orElseThrow(),
+                OFFER_ALL_DESC
+            );
+            PEEK = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_peek").orElseThrow(),
+                PEEK_DESC
+            );
+            POLL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_poll").orElseThrow(),
+                POLL_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_size").orElseThrow(),
+                SIZE_DESC
+            );
+            SORTED = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_sorted").orElseThrow(),
+                SORTED_DESC
+            );
+            DRAIN_TO_LISTS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_drain_to_lists").orElseThrow(),
+                DRAIN_TO_LISTS_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_pqueue_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
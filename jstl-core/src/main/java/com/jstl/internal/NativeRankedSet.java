@@ -0,0 +1,104 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for RankedSet native functions
+ */
+public class NativeRankedSet {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor ADD_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor ADD_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CONTAINS_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor RANK_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor SELECT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor COUNT_IN_RANGE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SLICE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle ADD;
+    public static final MethodHandle ADD_ALL;
+    public static final MethodHandle REMOVE;
+    public static final MethodHandle CONTAINS;
+    public static final MethodHandle RANK;
+    public static final MethodHandle SELECT;
+    public static final MethodHandle COUNT_IN_RANGE;
+    public static final MethodHandle SLICE;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            ADD = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_add").orElseThrow(),
+                ADD_DESC
+            );
+            ADD_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_add_all").orElseThrow(),
+                ADD_ALL_DESC
+            );
+            REMOVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_remove").orElseThrow(),
+                REMOVE_DESC
+            );
+            CONTAINS = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_contains").orElseThrow(),
+                CONTAINS_DESC
+            );
+            RANK = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_rank").orElseThrow(),
+                RANK_DESC
+            );
+            SELECT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_select").orElseThrow(),
+                SELECT_DESC
+            );
+            COUNT_IN_RANGE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_count_in_range").orElseThrow(),
+                COUNT_IN_RANGE_DESC
+            );
+            SLICE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_slice").orElseThrow(),
+                SLICE_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_size").orElseThrow(),
+                SIZE_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_rankedset_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
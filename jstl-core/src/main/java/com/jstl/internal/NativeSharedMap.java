@@ -0,0 +1,116 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for SharedMap native functions
+ */
+public class NativeSharedMap {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor OPEN_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLOSE_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor UNLINK_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor IS_WRITER_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PUT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PUT_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor REMOVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor GET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor GET_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MAX_ENTRIES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor VERSION_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle OPEN;
+    public static final MethodHandle CLOSE;
+    public static final MethodHandle UNLINK;
+    public static final MethodHandle IS_WRITER;
+    public static final MethodHandle PUT;
+    public static final MethodHandle PUT_ALL;
+    public static final MethodHandle REMOVE;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle GET;
+    public static final MethodHandle GET_ALL;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle MAX_ENTRIES;
+    public static final MethodHandle VERSION;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_create").orElseThrow(),
+                CREATE_DESC
+            );
+            OPEN = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_open").orElseThrow(),
+                OPEN_DESC
+            );
+            CLOSE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_close").orElseThrow(),
+                CLOSE_DESC
+            );
+            UNLINK = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_unlink").orElseThrow(),
+                UNLINK_DESC
+            );
+            IS_WRITER = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_is_writer").orElseThrow(),
+                IS_WRITER_DESC
+            );
+            PUT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_put").orElseThrow(),
+                PUT_DESC
+            );
+            PUT_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_put_all").orElseThrow(),
+                PUT_ALL_DESC
+            );
+            REMOVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_remove").orElseThrow(),
+                REMOVE_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            GET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_get").orElseThrow(),
+                GET_DESC
+            );
+            GET_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_get_all").orElseThrow(),
+                GET_ALL_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_size").orElseThrow(),
+                SIZE_DESC
+            );
+            MAX_ENTRIES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_max_entries").orElseThrow(),
+                MAX_ENTRIES_DESC
+            );
+            VERSION = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_version").orElseThrow(),
+                VERSION_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_shmmap_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.jstl.internal;
+
+import java.lang.foreign.*;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Panama FFM bindings for TieredMap native functions
+ */
+public class NativeTieredMap {
+    private static final Linker LINKER = Linker.nativeLinker();
+    private static final SymbolLookup SYMBOL_LOOKUP;
+
+    // Function descriptors
+    private static final FunctionDescriptor CREATE_DESC = FunctionDescriptor.of(ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_INT);
+    private static final FunctionDescriptor DESTROY_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor PUT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor PUT_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor GET_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor GET_ALL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG, ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor REMOVE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS, ValueLayout.JAVA_LONG);
+    private static final FunctionDescriptor SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor HOT_SIZE_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor RUN_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor DISK_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor MERGE_COUNT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SPILL_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor COMPACT_DESC = FunctionDescriptor.of(ValueLayout.JAVA_INT, ValueLayout.ADDRESS);
+    private static final FunctionDescriptor CLEAR_DESC = FunctionDescriptor.ofVoid(ValueLayout.ADDRESS);
+    private static final FunctionDescriptor SIZE_IN_BYTES_DESC = FunctionDescriptor.of(ValueLayout.JAVA_LONG, ValueLayout.ADDRESS);
+
+    // Method handles
+    public static final MethodHandle CREATE;
+    public static final MethodHandle DESTROY;
+    public static final MethodHandle PUT;
+    public static final MethodHandle PUT_ALL;
+    public static final MethodHandle GET;
+    public static final MethodHandle GET_ALL;
+    public static final MethodHandle REMOVE;
+    public static final MethodHandle SIZE;
+    public static final MethodHandle HOT_SIZE;
+    public static final MethodHandle RUN_COUNT;
+    public static final MethodHandle DISK_BYTES;
+    public static final MethodHandle MERGE_COUNT;
+    public static final MethodHandle SPILL;
+    public static final MethodHandle COMPACT;
+    public static final MethodHandle CLEAR;
+    public static final MethodHandle SIZE_IN_BYTES;
+
+    static {
+        NativeLoader.loadLibrary();
+        SYMBOL_LOOKUP = SymbolLookup.loaderLookup();
+
+        try {
+            CREATE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_create").orElseThrow(),
+                CREATE_DESC
+            );
+            DESTROY = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_destroy").orElseThrow(),
+                DESTROY_DESC
+            );
+            PUT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_put").orElseThrow(),
+                PUT_DESC
+            );
+            PUT_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_put_all").orElseThrow(),
+                PUT_ALL_DESC
+            );
+            GET = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_get").orElseThrow(),
+                GET_DESC
+            );
+            GET_ALL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_get_all").orElseThrow(),
+                GET_ALL_DESC
+            );
+            REMOVE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_remove").orElseThrow(),
+                REMOVE_DESC
+            );
+            SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_size").orElseThrow(),
+                SIZE_DESC
+            );
+            HOT_SIZE = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_hot_size").orElseThrow(),
+                HOT_SIZE_DESC
+            );
+            RUN_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_run_count").orElseThrow(),
+                RUN_COUNT_DESC
+            );
+            DISK_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_disk_bytes").orElseThrow(),
+                DISK_BYTES_DESC
+            );
+            MERGE_COUNT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_merge_count").orElseThrow(),
+                MERGE_COUNT_DESC
+            );
+            SPILL = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_spill").orElseThrow(),
+                SPILL_DESC
+            );
+            COMPACT = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_compact").orElseThrow(),
+                COMPACT_DESC
+            );
+            CLEAR = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_clear").orElseThrow(),
+                CLEAR_DESC
+            );
+            SIZE_IN_BYTES = LINKER.downcallHandle(
+                SYMBOL_LOOKUP.find("jstl_tieredmap_size_in_bytes").orElseThrow(),
+                SIZE_IN_BYTES_DESC
+            );
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
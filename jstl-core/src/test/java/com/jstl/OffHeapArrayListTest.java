@@ -5,6 +5,12 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("OffHeapArrayList Tests")
@@ -304,4 +310,365 @@ class OffHeapArrayListTest {
         assertEquals(10, list.get(0));
         assertEquals(3, list.get(1));
     }
+
+    @Test
+    @DisplayName("Should sort elements in ascending order")
+    void testSort() {
+        Random random = new Random(42);
+        long[] expected = new long[20000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = random.nextLong();
+            list.add(expected[i]);
+        }
+        list.add(Long.MIN_VALUE);
+        list.add(Long.MAX_VALUE);
+
+        list.sort();
+        Arrays.sort(expected);
+
+        assertEquals(Long.MIN_VALUE, list.get(0));
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], list.get(i + 1));
+        }
+        assertEquals(Long.MAX_VALUE, list.get(expected.length + 1));
+    }
+
+    @Test
+    @DisplayName("Should sort a sub-range only")
+    void testSortRange() {
+        long[] values = {9, 8, 7, 6, 5, 4, 3, 2, 1};
+        for (long v : values) {
+            list.add(v);
+        }
+
+        list.sort(2, 6);
+
+        long[] expected = {9, 8, 4, 5, 6, 7, 3, 2, 1};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], list.get(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> list.sort(5, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.sort(6, 2));
+    }
+
+    @Test
+    @DisplayName("Should sort elements in descending order")
+    void testSortDescending() {
+        for (long i = 0; i < 1000; i++) {
+            list.add((i * 7919) % 1000 - 500);
+        }
+
+        list.sortDescending();
+
+        assertEquals(499, list.get(0));
+        for (int i = 1; i < 1000; i++) {
+            assertTrue(list.get(i - 1) >= list.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should sort in parallel")
+    void testParallelSort() {
+        Random random = new Random(7);
+        long[] expected = new long[300_000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = random.nextInt(1_000_000) - 500_000;
+            list.add(expected[i]);
+        }
+
+        list.parallelSort(4);
+        Arrays.sort(expected);
+
+        assertEquals(expected.length, list.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], list.get(i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> list.parallelSort(0));
+    }
+
+    @Test
+    @DisplayName("Should binary search a sorted list")
+    void testBinarySearch() {
+        for (long i = 0; i < 100; i++) {
+            list.add(i * 10);
+        }
+
+        assertEquals(0, list.binarySearch(0));
+        assertEquals(42, list.binarySearch(420));
+        assertEquals(99, list.binarySearch(990));
+        assertEquals(-1, list.binarySearch(-5));
+        assertEquals(-44, list.binarySearch(421));
+        assertEquals(-101, list.binarySearch(1000));
+    }
+
+    @Test
+    @DisplayName("Should compute sum, min, max and mean")
+    void testAggregates() {
+        for (long i = 1; i <= 1001; i++) {
+            list.add(i - 500);
+        }
+
+        assertEquals(1001, list.sum());
+        assertEquals(-499, list.min());
+        assertEquals(501, list.max());
+        assertEquals(1.0, list.mean(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should handle aggregates on empty list")
+    void testAggregatesOnEmptyList() {
+        assertEquals(0, list.sum());
+        assertEquals(0, list.countBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertTrue(Double.isNaN(list.mean()));
+        assertThrows(NoSuchElementException.class, () -> list.min());
+        assertThrows(NoSuchElementException.class, () -> list.max());
+    }
+
+    @Test
+    @DisplayName("Should count elements in range")
+    void testCountBetween() {
+        for (long i = 0; i < 100; i++) {
+            list.add(i);
+        }
+
+        assertEquals(11, list.countBetween(10, 20));
+        assertEquals(100, list.countBetween(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, list.countBetween(200, 300));
+        assertEquals(0, list.countBetween(20, 10));
+    }
+
+    @Test
+    @DisplayName("Should compute histogram")
+    void testHistogram() {
+        for (long i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        list.add(-1);
+        list.add(1000);
+
+        assertArrayEquals(new long[] {25, 25, 25, 25}, list.histogram(0, 99, 4));
+        assertArrayEquals(new long[] {34, 33, 33}, list.histogram(0, 99, 3));
+        // 9 values over 6 buckets: widths 2, 2, 2, 1, 1, 1, none left empty
+        assertArrayEquals(new long[] {2, 2, 2, 1, 1, 1}, list.histogram(0, 8, 6));
+        assertArrayEquals(new long[] {1, 1, 1, 0, 0}, list.histogram(0, 2, 5));
+        assertArrayEquals(new long[] {1, 101}, list.histogram(Long.MIN_VALUE, Long.MAX_VALUE, 2));
+        assertEquals(102, Arrays.stream(list.histogram(10)).sum());
+        assertThrows(IllegalArgumentException.class, () -> list.histogram(0, 99, 0));
+    }
+
+    @Test
+    @DisplayName("Should compute dot product")
+    void testDot() {
+        try (OffHeapArrayList other = new OffHeapArrayList()) {
+            for (long i = 1; i <= 10; i++) {
+                list.add(i);
+                other.add(-i);
+            }
+
+            assertEquals(-385, list.dot(other));
+
+            other.add(1);
+            assertThrows(IllegalArgumentException.class, () -> list.dot(other));
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute aggregates in parallel")
+    void testParallelAggregates() {
+        Random random = new Random(11);
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long count = 0;
+        int n = 300_000;
+        for (int i = 0; i < n; i++) {
+            long v = random.nextLong();
+            list.add(v);
+            sum += v;
+            min = Math.min(min, v);
+            if (v >= 0) {
+                count++;
+            }
+        }
+
+        list.setParallelism(4);
+
+        assertEquals(4, list.getParallelism());
+        assertEquals(sum, list.sum());
+        assertEquals(min, list.min());
+        assertEquals(count, list.countBetween(0, Long.MAX_VALUE));
+        assertEquals(n, Arrays.stream(list.histogram(16)).sum());
+        assertThrows(IllegalArgumentException.class, () -> list.setParallelism(0));
+    }
+
+    @Test
+    @DisplayName("Should remove elements matching a predicate")
+    void testRemoveIf() {
+        for (long i = 0; i < 10000; i++) {
+            list.add(i);
+        }
+
+        long removed = list.removeIf(v -> v % 3 == 0);
+
+        assertEquals(3334, removed);
+        assertEquals(6666, list.size());
+        assertEquals(1, list.get(0));
+        assertEquals(2, list.get(1));
+        assertEquals(4, list.get(2));
+        assertEquals(9998, list.get(6665));
+        assertEquals(0, list.removeIf(v -> false));
+    }
+
+    @Test
+    @DisplayName("Should keep untested elements when predicate throws")
+    void testRemoveIfThrows() {
+        for (long i = 0; i < 10; i++) {
+            list.add(i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> list.removeIf(v -> {
+            if (v == 5) {
+                throw new IllegalStateException("boom");
+            }
+            return v % 2 == 0;
+        }));
+
+        long[] expected = {1, 3, 5, 6, 7, 8, 9};
+        assertEquals(expected.length, list.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], list.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove a range of elements")
+    void testRemoveRange() {
+        for (long i = 0; i < 10; i++) {
+            list.add(i);
+        }
+
+        list.removeRange(2, 7);
+
+        assertEquals(5, list.size());
+        assertEquals(1, list.get(1));
+        assertEquals(7, list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.removeRange(3, 6));
+    }
+
+    @Test
+    @DisplayName("Should retain only elements within bounds")
+    void testRetainBetween() {
+        for (long i = -50; i < 50; i++) {
+            list.add(i);
+        }
+
+        assertEquals(90, list.retainBetween(0, 9));
+        assertEquals(10, list.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, list.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove all elements contained in a set")
+    void testRemoveAllIn() {
+        try (OffHeapHashSet expired = new OffHeapHashSet()) {
+            for (long i = 0; i < 100; i++) {
+                list.add(i % 10);
+            }
+            expired.add(3);
+            expired.add(7);
+            expired.add(42);
+
+            assertEquals(20, list.removeAllIn(expired));
+            assertEquals(80, list.size());
+            assertEquals(0, list.get(0));
+            assertEquals(4, list.get(3));
+
+            expired.close();
+            assertThrows(IllegalStateException.class, () -> list.removeAllIn(expired));
+        }
+    }
+
+    @Test
+    @DisplayName("Should swap-remove element in constant time")
+    void testSwapRemove() {
+        list.add(10);
+        list.add(20);
+        list.add(30);
+        list.add(40);
+
+        assertEquals(20, list.swapRemove(1));
+        assertEquals(3, list.size());
+        assertEquals(10, list.get(0));
+        assertEquals(40, list.get(1));
+        assertEquals(30, list.get(2));
+
+        assertEquals(30, list.swapRemove(2));
+        assertEquals(2, list.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.swapRemove(2));
+    }
+
+    @Test
+    @DisplayName("Should presize and trim capacity")
+    void testCapacityConstructorAndTrim() {
+        try (OffHeapArrayList sized = new OffHeapArrayList(10_000)) {
+            assertTrue(sized.capacity() >= 10_000);
+            assertTrue(sized.isEmpty());
+            for (long i = 0; i < 100; i++) {
+                sized.add(i);
+            }
+            sized.trimToSize();
+            assertEquals(100, sized.capacity());
+            assertEquals(99, sized.get(99));
+            sized.clear();
+            sized.trimToSize();
+            assertEquals(0, sized.capacity());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapArrayList(-1));
+    }
+
+    @Test
+    @DisplayName("Should index and size with 64-bit values")
+    void testLongIndexes() {
+        try (OffHeapArrayList sized = new OffHeapArrayList(10L)) {
+            for (long i = 0; i < 10; i++) {
+                sized.add(i * 10);
+            }
+            assertEquals(10L, sized.longSize());
+            assertTrue(sized.longCapacity() >= 10L);
+            assertEquals(30, sized.get(3L));
+            sized.set(3L, 31);
+            assertEquals(31, sized.get(3L));
+            assertEquals(4L, sized.longBinarySearch(40));
+            assertEquals(-4L, sized.longBinarySearch(25));
+            assertEquals(90, sized.swapRemove(9L));
+            sized.removeRange(0L, 2L);
+            assertEquals(7L, sized.longSize());
+            assertThrows(IndexOutOfBoundsException.class, () -> sized.swapRemove(7L));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream elements sequentially and in parallel")
+    void testStream() {
+        assertEquals(0, list.stream().count());
+        long n = 100_003;
+        for (long i = 0; i < n; i++) {
+            list.add(i);
+        }
+        assertEquals(n * (n - 1) / 2, list.stream().sum());
+        assertEquals(n * (n - 1) / 2, list.stream().parallel().sum());
+        assertArrayEquals(new long[] {0, 1, 2}, list.stream().limit(3).toArray());
+        assertEquals(n - 1, list.stream().parallel().max().getAsLong());
+        assertEquals(n / 2 + 1, list.stream().filter(v -> v % 2 == 0).count());
+
+        PrimitiveIterator.OfLong it = list.stream().iterator();
+        assertEquals(0, it.nextLong());
+        list.clear();
+        assertThrows(ConcurrentModificationException.class, () -> {
+            while (it.hasNext()) {
+                it.nextLong();
+            }
+        });
+    }
 }
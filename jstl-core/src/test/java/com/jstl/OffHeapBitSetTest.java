@@ -0,0 +1,246 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapBitSet Tests")
+class OffHeapBitSetTest {
+
+    private OffHeapBitSet bits;
+
+    @BeforeEach
+    void setUp() {
+        bits = new OffHeapBitSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bits != null) {
+            bits.close();
+        }
+    }
+
+    private static long[] toLongs(TreeSet<Long> set) {
+        return set.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Test
+    @DisplayName("Should create empty bitset")
+    void testCreateEmpty() {
+        assertEquals(0, bits.cardinality());
+        assertTrue(bits.isEmpty());
+        assertEquals(0, bits.toArray().length);
+    }
+
+    @Test
+    @DisplayName("Should add, check and remove values")
+    void testAddContainsRemove() {
+        assertTrue(bits.add(5));
+        assertFalse(bits.add(5));
+        assertTrue(bits.add(-5));
+        assertTrue(bits.add(Long.MAX_VALUE));
+        assertTrue(bits.add(Long.MIN_VALUE));
+
+        assertEquals(4, bits.cardinality());
+        assertTrue(bits.contains(5));
+        assertTrue(bits.contains(Long.MIN_VALUE));
+        assertFalse(bits.contains(6));
+
+        assertTrue(bits.remove(5));
+        assertFalse(bits.remove(5));
+        assertFalse(bits.contains(5));
+        assertArrayEquals(new long[] {Long.MIN_VALUE, -5, Long.MAX_VALUE}, bits.toArray());
+    }
+
+    @Test
+    @DisplayName("Should match a TreeSet under random updates")
+    void testRandomAgainstTreeSet() {
+        Random random = new Random(42);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            // Mix of sparse, dense and negative values across several chunks
+            long value = random.nextInt(3) == 0 ? random.nextLong() : random.nextInt(300_000) - 100_000;
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(value), bits.remove(value));
+            } else {
+                assertEquals(expected.add(value), bits.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), bits.cardinality());
+        assertArrayEquals(toLongs(expected), bits.toArray());
+        bits.runOptimize();
+        assertArrayEquals(toLongs(expected), bits.toArray());
+    }
+
+    @Test
+    @DisplayName("Should add ranges compactly")
+    void testAddRange() {
+        bits.addRange(1_000_000, 11_000_000);
+        assertEquals(10_000_000, bits.cardinality());
+        assertTrue(bits.contains(1_000_000));
+        assertTrue(bits.contains(10_999_999));
+        assertFalse(bits.contains(11_000_000));
+        assertFalse(bits.contains(999_999));
+        // Runs take a few bytes per chunk instead of 40 bytes per value
+        assertTrue(bits.sizeInBytes() < 100_000, "bytes: " + bits.sizeInBytes());
+
+        assertTrue(bits.remove(5_000_000));
+        assertFalse(bits.contains(5_000_000));
+        assertEquals(9_999_999, bits.cardinality());
+
+        bits.addRange(-10, 10);
+        assertEquals(10_000_019, bits.cardinality());
+        bits.addRange(3, 3);
+        assertThrows(IllegalArgumentException.class, () -> bits.addRange(5, 4));
+    }
+
+    @Test
+    @DisplayName("Should compress dense values")
+    void testDenseMemory() {
+        for (long i = 0; i < 1_000_000; i++) {
+            bits.add(i * 2);
+        }
+        // Bitmaps: one bit per possible value, 1/8 byte per slot
+        assertTrue(bits.sizeInBytes() < 300_000, "bytes: " + bits.sizeInBytes());
+
+        try (OffHeapBitSet consecutive = new OffHeapBitSet()) {
+            for (long i = 0; i < 1_000_000; i++) {
+                consecutive.add(i);
+            }
+            long before = consecutive.sizeInBytes();
+            consecutive.runOptimize();
+            assertTrue(consecutive.sizeInBytes() < before / 10);
+            assertEquals(1_000_000, consecutive.cardinality());
+            assertTrue(consecutive.contains(999_999));
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute rank and select")
+    void testRankSelect() {
+        long[] values = {-70_000, -3, 0, 7, 65_535, 65_536, 200_000, 1L << 40};
+        bits.addAll(values);
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], bits.select(i));
+            assertEquals(i + 1, bits.rank(values[i]));
+        }
+        assertEquals(0, bits.rank(-70_001));
+        assertEquals(4, bits.rank(65_534));
+        assertEquals(values.length, bits.rank(Long.MAX_VALUE));
+        assertEquals(-70_000, bits.first());
+        assertEquals(1L << 40, bits.last());
+        assertThrows(IndexOutOfBoundsException.class, () -> bits.select(values.length));
+        assertThrows(IndexOutOfBoundsException.class, () -> bits.select(-1));
+
+        bits.clear();
+        assertThrows(NoSuchElementException.class, () -> bits.first());
+    }
+
+    @Test
+    @DisplayName("Should combine bitsets")
+    void testSetOperations() {
+        Random random = new Random(7);
+        TreeSet<Long> a = new TreeSet<>();
+        TreeSet<Long> b = new TreeSet<>();
+        try (OffHeapBitSet other = new OffHeapBitSet()) {
+            for (int i = 0; i < 40_000; i++) {
+                long x = random.nextInt(200_000);
+                long y = random.nextInt(20_000) + 150_000;
+                a.add(x);
+                b.add(y);
+                bits.add(x);
+                other.add(y);
+            }
+            other.addRange(190_000, 400_000);
+            for (long v = 190_000; v < 400_000; v++) {
+                b.add(v);
+            }
+
+            TreeSet<Long> and = new TreeSet<>(a);
+            and.retainAll(b);
+            TreeSet<Long> or = new TreeSet<>(a);
+            or.addAll(b);
+            TreeSet<Long> andNot = new TreeSet<>(a);
+            andNot.removeAll(b);
+            TreeSet<Long> xor = new TreeSet<>(or);
+            xor.removeAll(and);
+
+            try (OffHeapBitSet r = OffHeapBitSet.and(bits, other)) {
+                assertArrayEquals(toLongs(and), r.toArray());
+            }
+            try (OffHeapBitSet r = OffHeapBitSet.or(bits, other)) {
+                assertArrayEquals(toLongs(or), r.toArray());
+            }
+            try (OffHeapBitSet r = OffHeapBitSet.andNot(bits, other)) {
+                assertArrayEquals(toLongs(andNot), r.toArray());
+            }
+            try (OffHeapBitSet r = OffHeapBitSet.xor(bits, other)) {
+                assertArrayEquals(toLongs(xor), r.toArray());
+            }
+            assertEquals(and.size(), bits.andCardinality(other));
+
+            bits.xor(other);
+            assertArrayEquals(toLongs(xor), bits.toArray());
+            bits.and(other);
+            xor.retainAll(b);
+            assertArrayEquals(toLongs(xor), bits.toArray());
+            bits.andNot(bits);
+            assertTrue(bits.isEmpty());
+            bits.or(other);
+            assertEquals(b.size(), bits.cardinality());
+        }
+    }
+
+    @Test
+    @DisplayName("Should convert from and to HashSet and ArrayList")
+    void testConversions() {
+        try (OffHeapHashSet set = new OffHeapHashSet();
+             OffHeapArrayList list = new OffHeapArrayList()) {
+            for (long i = 100; i > -100; i -= 3) {
+                set.add(i);
+                list.add(i);
+                list.add(i);
+            }
+
+            try (OffHeapBitSet fromSet = OffHeapBitSet.fromHashSet(set);
+                 OffHeapBitSet fromList = OffHeapBitSet.fromArrayList(list)) {
+                assertEquals(set.size(), fromSet.cardinality());
+                assertArrayEquals(fromSet.toArray(), fromList.toArray());
+
+                try (OffHeapHashSet back = fromSet.toHashSet()) {
+                    assertEquals(set.size(), back.size());
+                    assertTrue(back.contains(-98));
+                }
+                try (OffHeapArrayList sorted = fromList.toArrayList()) {
+                    assertEquals(set.size(), sorted.size());
+                    for (int i = 1; i < sorted.size(); i++) {
+                        assertTrue(sorted.get(i - 1) < sorted.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed bitset")
+    void testClosedBitSet() {
+        try (OffHeapBitSet other = new OffHeapBitSet()) {
+            other.close();
+            assertThrows(IllegalStateException.class, () -> bits.and(other));
+        }
+        bits.close();
+        assertThrows(IllegalStateException.class, () -> bits.add(1));
+        assertThrows(IllegalStateException.class, () -> bits.cardinality());
+        assertThrows(IllegalStateException.class, () -> bits.toArray());
+    }
+}
@@ -0,0 +1,137 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapBloomFilter Tests")
+class OffHeapBloomFilterTest {
+
+    private OffHeapBloomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new OffHeapBloomFilter(10_000, 0.01);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (filter != null) {
+            filter.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should report added keys")
+    void testPutAndMightContain() {
+        assertFalse(filter.mightContain(42));
+        filter.put(42);
+        filter.put(-7);
+        filter.put(Long.MIN_VALUE);
+
+        assertTrue(filter.mightContain(42));
+        assertTrue(filter.mightContain(-7));
+        assertTrue(filter.mightContain(Long.MIN_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should have no false negatives")
+    void testNoFalseNegatives() {
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 7919L - 3_000_000L;
+        }
+        filter.putAll(keys);
+
+        for (long key : keys) {
+            assertTrue(filter.mightContain(key));
+        }
+        boolean[] hits = filter.mightContainAll(keys);
+        for (boolean hit : hits) {
+            assertTrue(hit);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay near the configured false-positive rate")
+    void testFalsePositiveRate() {
+        for (long i = 0; i < 10_000; i++) {
+            filter.put(i);
+        }
+
+        long[] absent = new long[100_000];
+        for (int i = 0; i < absent.length; i++) {
+            absent[i] = 1_000_000L + i;
+        }
+        int falsePositives = 0;
+        for (boolean hit : filter.mightContainAll(absent)) {
+            if (hit) falsePositives++;
+        }
+        // Target is 1%; allow generous slack for block-load variance
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("Should match mightContain in batch lookups")
+    void testMightContainAll() {
+        for (long i = 0; i < 1000; i += 2) {
+            filter.put(i);
+        }
+        long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+
+        boolean[] hits = filter.mightContainAll(keys);
+        assertEquals(keys.length, hits.length);
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(filter.mightContain(keys[i]), hits[i]);
+        }
+        assertEquals(0, filter.mightContainAll(new long[0]).length);
+    }
+
+    @Test
+    @DisplayName("Should clear all keys")
+    void testClear() {
+        filter.put(1);
+        filter.put(2);
+        filter.clear();
+
+        assertFalse(filter.mightContain(1));
+        assertFalse(filter.mightContain(2));
+    }
+
+    @Test
+    @DisplayName("Should size bits and hashes from the parameters")
+    void testSizing() {
+        assertTrue(filter.bitSize() >= 10_000 * 9);
+        assertEquals(0, filter.bitSize() % 512);
+        assertTrue(filter.hashCount() >= 5 && filter.hashCount() <= 10);
+
+        try (OffHeapBloomFilter tighter = new OffHeapBloomFilter(10_000, 0.0001)) {
+            assertTrue(tighter.bitSize() > filter.bitSize());
+            assertTrue(tighter.hashCount() > filter.hashCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject invalid parameters")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBloomFilter(-1, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBloomFilter(100, 1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapBloomFilter(100, Double.NaN));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed filter")
+    void testClosedFilter() {
+        filter.close();
+        assertThrows(IllegalStateException.class, () -> filter.put(1));
+        assertThrows(IllegalStateException.class, () -> filter.mightContain(1));
+        filter = null;
+    }
+}
@@ -0,0 +1,168 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+
+import static com.jstl.OffHeapRecordListTest.PRICE;
+import static com.jstl.OffHeapRecordListTest.PRICE_AND_ID;
+import static com.jstl.OffHeapRecordListTest.QTY;
+import static com.jstl.OffHeapRecordListTest.TRADE;
+import static com.jstl.OffHeapRecordListTest.trades;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapColumnTable Tests")
+class OffHeapColumnTableTest {
+
+    private OffHeapColumnTable table;
+    private Arena arena;
+
+    @BeforeEach
+    void setUp() {
+        table = new OffHeapColumnTable(TRADE);
+        arena = Arena.ofConfined();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (table != null) {
+            table.close();
+        }
+        arena.close();
+    }
+
+    @Test
+    @DisplayName("Should create empty table")
+    void testCreateEmpty() {
+        assertTrue(table.isEmpty());
+        assertEquals(0, table.size());
+        assertEquals(0, table.column("price").byteSize());
+        assertThrows(IllegalArgumentException.class, () -> table.column("missing"));
+    }
+
+    @Test
+    @DisplayName("Should split appended records into contiguous columns")
+    void testColumns() {
+        MemorySegment batch = trades(arena, 1_000);
+        table.addAll(batch);
+        assertEquals(1_000, table.size());
+
+        MemorySegment prices = table.column("price");
+        MemorySegment ids = table.column("id");
+        assertEquals(1_000 * Double.BYTES, prices.byteSize());
+        assertEquals(1_000 * Integer.BYTES, ids.byteSize());
+        assertEquals(0, prices.address() % 64);
+        double total = 0;
+        for (long i = 0; i < 1_000; i++) {
+            total += prices.getAtIndex(ValueLayout.JAVA_DOUBLE, i);
+            assertEquals(i, ids.getAtIndex(ValueLayout.JAVA_INT, i));
+        }
+        assertEquals(100_000 + 999 * 1_000 / 2.0, total);
+
+        VarHandle qty = OffHeapColumnTable.varHandle(TRADE, "qty");
+        MemorySegment quantities = table.column("qty");
+        qty.set(quantities, 5L, -1L);
+        assertEquals(-1L, (long) qty.get(quantities, 5L));
+    }
+
+    @Test
+    @DisplayName("Should split fields of every width")
+    void testMixedWidths() {
+        StructLayout mixed = MemoryLayout.structLayout(
+                ValueLayout.JAVA_BYTE.withName("flag"),
+                MemoryLayout.paddingLayout(1),
+                ValueLayout.JAVA_SHORT.withName("venue"),
+                ValueLayout.JAVA_INT.withName("size"),
+                ValueLayout.JAVA_LONG.withName("ts"));
+        MemorySegment batch = arena.allocateArray(mixed, 300);
+        for (int i = 0; i < 300; i++) {
+            long base = i * mixed.byteSize();
+            batch.set(ValueLayout.JAVA_BYTE, base, (byte) i);
+            batch.set(ValueLayout.JAVA_SHORT, base + 2, (short) (i * 3));
+            batch.set(ValueLayout.JAVA_INT, base + 4, i * 7);
+            batch.set(ValueLayout.JAVA_LONG, base + 8, i * 11L);
+        }
+        try (OffHeapColumnTable mixedTable = new OffHeapColumnTable(mixed)) {
+            mixedTable.addAll(batch);
+            for (int i = 0; i < 300; i++) {
+                assertEquals((byte) i, mixedTable.column("flag").get(ValueLayout.JAVA_BYTE, i));
+                assertEquals((short) (i * 3), mixedTable.column("venue").getAtIndex(ValueLayout.JAVA_SHORT, i));
+                assertEquals(i * 7, mixedTable.column("size").getAtIndex(ValueLayout.JAVA_INT, i));
+                assertEquals(i * 11L, mixedTable.column("ts").getAtIndex(ValueLayout.JAVA_LONG, i));
+            }
+            MemorySegment record = arena.allocate(mixed);
+            mixedTable.get(299, record);
+            assertEquals(-1, record.mismatch(batch.asSlice(299 * mixed.byteSize())));
+        }
+    }
+
+    @Test
+    @DisplayName("Should gather, overwrite and project records")
+    void testRows() {
+        MemorySegment batch = trades(arena, 20);
+        for (int i = 0; i < 20; i++) {
+            table.add(batch.asSlice(i * TRADE.byteSize(), TRADE.byteSize()));
+        }
+        MemorySegment record = arena.allocate(TRADE);
+        for (int i = 0; i < 20; i++) {
+            table.get(i, record);
+            assertEquals(-1, record.mismatch(batch.asSlice(i * TRADE.byteSize(), TRADE.byteSize())));
+        }
+
+        PRICE.set(record, 1.25);
+        table.set(0, record);
+        assertEquals(1.25, table.column("price").getAtIndex(ValueLayout.JAVA_DOUBLE, 0));
+        assertEquals(190L, table.column("qty").getAtIndex(ValueLayout.JAVA_LONG, 0));
+
+        MemorySegment out = arena.allocate(PRICE_AND_ID);
+        table.project(12, PRICE_AND_ID, out);
+        assertEquals(12, out.get(ValueLayout.JAVA_INT, 0));
+        assertEquals(112.0, out.get(ValueLayout.JAVA_DOUBLE, 8));
+
+        long row = table.addRow();
+        table.get(row, record);
+        assertEquals(0L, (long) QTY.get(record));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.get(22, record));
+        StructLayout wrongSize = MemoryLayout.structLayout(ValueLayout.JAVA_INT.withName("qty"));
+        assertThrows(IllegalArgumentException.class, () -> table.project(0, wrongSize, arena.allocate(wrongSize)));
+    }
+
+    @Test
+    @DisplayName("Should keep records across growth and trimming")
+    void testGrowth() {
+        table.addRow();
+        MemorySegment stale = table.column("ts");
+        table.addAll(trades(arena, 5_000));
+        assertThrows(IllegalStateException.class, () -> stale.get(ValueLayout.JAVA_LONG, 0));
+        assertEquals(5_001, table.size());
+        assertEquals(5_001L, table.longSize());
+
+        table.reserve(20_000);
+        assertTrue(table.capacity() >= 20_000);
+        table.trimToSize();
+        assertEquals(5_001, table.capacity());
+        assertEquals(5_001L, table.longCapacity());
+        assertEquals(1_000L + 4_999, table.column("ts").getAtIndex(ValueLayout.JAVA_LONG, 5_000));
+
+        table.clear();
+        assertTrue(table.isEmpty());
+        assertEquals(5_001, table.capacity());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed table")
+    void testClosedTable() {
+        table.close();
+        assertThrows(IllegalStateException.class, () -> table.addRow());
+        assertThrows(IllegalStateException.class, () -> table.column("price"));
+        assertThrows(IllegalStateException.class, () -> table.size());
+    }
+}
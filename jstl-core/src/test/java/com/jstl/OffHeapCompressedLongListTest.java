@@ -0,0 +1,150 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapCompressedLongList Tests")
+class OffHeapCompressedLongListTest {
+
+    private OffHeapCompressedLongList list;
+
+    @BeforeEach
+    void setUp() {
+        list = new OffHeapCompressedLongList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (list != null) {
+            list.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should create empty list")
+    void testCreateEmpty() {
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.size());
+        assertEquals(0, list.toArray().length);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+    }
+
+    @Test
+    @DisplayName("Should round-trip values across block boundaries")
+    void testAddAndGet() {
+        long[] expected = new long[1_000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = 1_700_000_000_000L + i * 3L + (i % 7);
+            list.add(expected[i]);
+        }
+        assertEquals(1_000, list.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], list.get(i));
+        }
+        assertArrayEquals(expected, list.toArray());
+        assertArrayEquals(Arrays.copyOfRange(expected, 100, 900), list.toArray(100, 900));
+    }
+
+    @Test
+    @DisplayName("Should round-trip any sequence, including extreme deltas")
+    void testArbitraryValues() {
+        Random random = new Random(42);
+        long[] expected = new long[10_000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = switch (i / 1_000 % 4) {
+                case 0 -> random.nextLong();
+                case 1 -> i % 2 == 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+                case 2 -> 42;
+                default -> 5_000_000 - i * 17L;
+            };
+        }
+        list.addAll(Arrays.copyOf(expected, 333));
+        for (int i = 333; i < 555; i++) {
+            list.add(expected[i]);
+        }
+        list.addAll(Arrays.copyOfRange(expected, 555, expected.length));
+
+        assertArrayEquals(expected, list.toArray());
+        for (int i = 0; i < expected.length; i += 13) {
+            assertEquals(expected[i], list.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should store monotonic timestamps in about one byte each")
+    void testCompression() {
+        Random random = new Random(7);
+        long[] timestamps = new long[1_000_000];
+        long ts = 1_700_000_000_000L;
+        for (int i = 0; i < timestamps.length; i++) {
+            ts += random.nextInt(50);
+            timestamps[i] = ts;
+        }
+        list.addAll(timestamps);
+        list.trimToSize();
+        long bytes = list.sizeInBytes();
+        assertTrue(bytes < timestamps.length * Long.BYTES / 6, "bytes: " + bytes);
+        assertArrayEquals(timestamps, list.toArray());
+    }
+
+    @Test
+    @DisplayName("Should decode into segments and visit values in order")
+    void testDecodeAndForEach() {
+        try (Arena arena = Arena.ofConfined()) {
+            long[] values = new long[20_000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = i * 1_000L;
+            }
+            list.addAll(arena.allocateArray(ValueLayout.JAVA_LONG, values));
+            assertEquals(values.length, list.size());
+
+            MemorySegment out = arena.allocateArray(ValueLayout.JAVA_LONG, 300);
+            assertEquals(300, list.decode(130, out));
+            assertEquals(130_000L, out.getAtIndex(ValueLayout.JAVA_LONG, 0));
+            assertEquals(429_000L, out.getAtIndex(ValueLayout.JAVA_LONG, 299));
+            assertEquals(100, list.decode(19_900, out));
+            assertEquals(0, list.decode(20_000, out));
+            assertThrows(IndexOutOfBoundsException.class, () -> list.decode(20_001, out));
+            assertThrows(IllegalArgumentException.class, () -> list.decode(0, out.asReadOnly()));
+
+            long[] sum = {0};
+            long[] count = {0};
+            list.forEach(v -> {
+                assertEquals(count[0] * 1_000L, v);
+                sum[0] += v;
+                count[0]++;
+            });
+            assertEquals(values.length, count[0]);
+            assertEquals(1_000L * (values.length - 1) * values.length / 2, sum[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should clear and reuse the list")
+    void testClear() {
+        list.addAll(new long[] {5, 6, 7});
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.add(9);
+        assertArrayEquals(new long[] {9}, list.toArray());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed list")
+    void testClosedList() {
+        list.close();
+        assertThrows(IllegalStateException.class, () -> list.add(1));
+        assertThrows(IllegalStateException.class, () -> list.get(0));
+        assertThrows(IllegalStateException.class, () -> list.toArray());
+    }
+}
@@ -0,0 +1,207 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapExpiringMap Tests")
+class OffHeapExpiringMapTest {
+
+    private final long[] now = {1_000_000};
+    private OffHeapExpiringMap map;
+
+    @BeforeEach
+    void setUp() {
+        map = new OffHeapExpiringMap(1_000, () -> now[0]);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (map != null) {
+            map.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should create empty map")
+    void testCreateEmpty() {
+        assertEquals(0, map.size());
+        assertTrue(map.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapExpiringMap(0));
+    }
+
+    @Test
+    @DisplayName("Should expire entries after their time to live")
+    void testExpiry() {
+        map.put(1, 10);
+        map.put(2, 20, 5_000);
+        assertEquals(10, map.get(1));
+        assertEquals(1_000, map.timeToLive(1));
+
+        now[0] += 999;
+        assertTrue(map.containsKey(1));
+        assertEquals(1, map.timeToLive(1));
+
+        now[0] += 1;
+        assertFalse(map.containsKey(1));
+        assertEquals(0, map.get(1));
+        assertEquals(-7, map.getOrDefault(1, -7));
+        assertEquals(-1, map.timeToLive(1));
+        assertEquals(20, map.get(2));
+        assertEquals(1, map.size());
+
+        now[0] += 4_000;
+        assertTrue(map.isEmpty());
+        assertEquals(2, map.expiredCount());
+    }
+
+    @Test
+    @DisplayName("Should replace, remove and retime entries")
+    void testUpdates() {
+        map.put(1, 10);
+        now[0] += 800;
+        map.put(1, 11);
+        now[0] += 800;
+        assertEquals(11, map.get(1));
+
+        assertTrue(map.setTimeToLive(1, 10_000));
+        now[0] += 9_999;
+        assertEquals(11, map.get(1));
+        assertFalse(map.setTimeToLive(2, 100));
+
+        assertTrue(map.remove(1));
+        assertFalse(map.remove(1));
+        assertEquals(0, map.expiredCount());
+
+        map.put(3, 30);
+        map.put(3, 31, 0);
+        assertFalse(map.containsKey(3));
+
+        map.put(4, 40, Long.MAX_VALUE);
+        now[0] += 1L << 50;
+        assertEquals(40, map.get(4));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reclaim expired entries without reads")
+    void testCleanUp() {
+        for (long i = 0; i < 100_000; i++) {
+            map.put(i, i, 1 + i % 5_000);
+        }
+        now[0] += 2_500;
+        long reclaimed = map.cleanUp();
+        // Each operation reclaims a few due entries on its own
+        assertTrue(reclaimed > 0 && reclaimed <= 50_000, "reclaimed: " + reclaimed);
+        assertEquals(50_000, map.expiredCount());
+        assertEquals(50_000, map.size());
+
+        now[0] += 2_500;
+        map.cleanUp();
+        assertEquals(100_000, map.expiredCount());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    @DisplayName("Should match a reference map under random updates and clock jumps")
+    void testRandomAgainstReference() {
+        Random random = new Random(42);
+        Map<Long, long[]> expected = new HashMap<>();  // key -> {value, expires}
+        for (int i = 0; i < 50_000; i++) {
+            now[0] += random.nextInt(100) == 0 ? random.nextInt(10_000_000) : random.nextInt(50);
+            long key = random.nextInt(2_000);
+            long[] entry = expected.get(key);
+            boolean live = entry != null && entry[1] > now[0];
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    long ttl = random.nextBoolean() ? random.nextInt(2_000) : random.nextInt(100_000_000);
+                    map.put(key, i, ttl);
+                    if (ttl > 0) {
+                        expected.put(key, new long[] {i, now[0] + ttl});
+                    } else {
+                        expected.remove(key);
+                    }
+                }
+                case 1 -> assertEquals(live ? entry[0] : -1, map.getOrDefault(key, -1));
+                case 2 -> {
+                    assertEquals(live, map.remove(key));
+                    expected.remove(key);
+                }
+                default -> assertEquals(live ? entry[1] - now[0] : -1, map.timeToLive(key));
+            }
+        }
+        long live = expected.values().stream().filter(e -> e[1] > now[0]).count();
+        assertEquals(live, map.size());
+    }
+
+    @Test
+    @DisplayName("Should report expired entries to the listener")
+    void testExpirationListener() {
+        List<long[]> expired = new ArrayList<>();
+        map.setExpirationListener((key, value) -> expired.add(new long[] {key, value}));
+        for (long i = 0; i < 200; i++) {
+            map.put(i, i * 10, 100 + i);
+        }
+        map.put(1_000, 1, 100);
+        assertTrue(map.remove(1_000));
+
+        now[0] += 150;
+        map.cleanUp();
+        assertEquals(51, expired.size());
+        for (long[] entry : expired) {
+            assertEquals(entry[0] * 10, entry[1]);
+            assertTrue(entry[0] <= 50);
+        }
+
+        map.setExpirationListener(null);
+        now[0] += 1_000;
+        map.cleanUp();
+        assertEquals(51, expired.size());
+        assertEquals(200, map.expiredCount());
+    }
+
+    @Test
+    @DisplayName("Should drop unreported expirations on clear")
+    void testClearDropsPendingExpirations() {
+        List<Long> expired = new ArrayList<>();
+        map.setExpirationListener((key, value) -> {
+            expired.add(key);
+            if (expired.size() == 1) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+        for (long i = 0; i < 10; i++) {
+            map.put(i, i, 100);
+        }
+        now[0] += 150;
+        assertEquals("OffHeapExpiringMap[stored=10]", map.toString());
+        assertTrue(expired.isEmpty());
+
+        assertThrows(IllegalStateException.class, () -> map.cleanUp());
+        assertEquals(1, expired.size());
+        map.clear();
+        map.put(100, 1, 1_000);
+        assertEquals(1, map.size());
+        assertEquals(1, expired.size());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed map")
+    void testClosedMap() {
+        map.close();
+        assertThrows(IllegalStateException.class, () -> map.put(1, 1));
+        assertThrows(IllegalStateException.class, () -> map.get(1));
+        assertThrows(IllegalStateException.class, () -> map.cleanUp());
+    }
+}
@@ -0,0 +1,143 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapFrozenMap Tests")
+class OffHeapFrozenMapTest {
+
+    private OffHeapHashMap map;
+
+    @BeforeEach
+    void setUp() {
+        map = new OffHeapHashMap();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (map != null) {
+            map.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should freeze empty and tiny maps")
+    void testSmallMaps() {
+        try (OffHeapFrozenMap frozen = map.freeze()) {
+            assertTrue(frozen.isEmpty());
+            assertEquals(-1, frozen.getOrDefault(0, -1));
+            assertFalse(frozen.containsKey(0));
+        }
+        map.put(0, 7);
+        try (OffHeapFrozenMap frozen = map.freeze()) {
+            assertEquals(1, frozen.size());
+            assertEquals(7, frozen.get(0));
+            assertFalse(frozen.containsKey(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should match the source map for present and absent keys")
+    void testLookups() {
+        Random random = new Random(42);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextLong();
+            map.put(key, i);
+            expected.put(key, (long) i);
+        }
+
+        try (OffHeapFrozenMap frozen = map.freeze()) {
+            assertEquals(expected.size(), frozen.size());
+            for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), frozen.getOrDefault(entry.getKey(), -1));
+            }
+            for (int i = 0; i < 100_000; i++) {
+                long key = random.nextLong();
+                assertEquals(expected.containsKey(key), frozen.containsKey(key));
+            }
+            // A perfect hash stores each entry once, in 16-byte slots plus pilots
+            assertTrue(frozen.sizeInBytes() < 20L * expected.size(), "bytes: " + frozen.sizeInBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay unchanged when the source map changes")
+    void testSnapshot() {
+        map.put(1, 10);
+        try (OffHeapFrozenMap frozen = map.freeze()) {
+            map.put(1, 11);
+            map.put(2, 20);
+            assertEquals(10, frozen.get(1));
+            assertFalse(frozen.containsKey(2));
+        }
+        assertEquals(11, map.get(1));
+    }
+
+    @Test
+    @DisplayName("Should look up keys in bulk")
+    void testGetAll() {
+        for (long i = 0; i < 1_000; i++) {
+            map.put(i * 3, i);
+        }
+        try (OffHeapFrozenMap frozen = map.freeze()) {
+            long[] keys = new long[3_000];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = i;
+            }
+            long[] values = frozen.getAll(keys, -1);
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals(i % 3 == 0 ? i / 3 : -1, values[i]);
+            }
+            assertEquals(0, frozen.getAll(new long[0], -1).length);
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve concurrent readers")
+    void testConcurrentReads() throws InterruptedException {
+        for (long i = 0; i < 50_000; i++) {
+            map.put(i, i * 2);
+        }
+        try (OffHeapFrozenMap frozen = map.freeze()) {
+            AtomicLong mismatches = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    for (long i = 0; i < 100_000; i++) {
+                        if (frozen.getOrDefault(i, -1) != (i < 50_000 ? i * 2 : -1)) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(0, mismatches.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed map")
+    void testClosedMap() {
+        OffHeapFrozenMap frozen = map.freeze();
+        frozen.close();
+        assertThrows(IllegalStateException.class, () -> frozen.get(1));
+        map.close();
+        assertThrows(IllegalStateException.class, () -> map.freeze());
+    }
+}
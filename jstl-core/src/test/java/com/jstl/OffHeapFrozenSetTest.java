@@ -0,0 +1,82 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapFrozenSet Tests")
+class OffHeapFrozenSetTest {
+
+    private OffHeapHashSet set;
+
+    @BeforeEach
+    void setUp() {
+        set = new OffHeapHashSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (set != null) {
+            set.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should freeze empty and tiny sets")
+    void testSmallSets() {
+        try (OffHeapFrozenSet frozen = set.freeze()) {
+            assertTrue(frozen.isEmpty());
+            assertFalse(frozen.contains(0));
+        }
+        set.add(Long.MIN_VALUE);
+        set.add(Long.MAX_VALUE);
+        try (OffHeapFrozenSet frozen = set.freeze()) {
+            assertEquals(2, frozen.size());
+            assertTrue(frozen.contains(Long.MIN_VALUE));
+            assertTrue(frozen.contains(Long.MAX_VALUE));
+            assertFalse(frozen.contains(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Should match the source set")
+    void testContains() {
+        Random random = new Random(7);
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(1_000_000);
+            set.add(value);
+            expected.add(value);
+        }
+
+        try (OffHeapFrozenSet frozen = set.freeze()) {
+            assertEquals(expected.size(), frozen.size());
+            long[] probes = new long[200_000];
+            for (int i = 0; i < probes.length; i++) {
+                probes[i] = random.nextInt(1_100_000);
+                assertEquals(expected.contains(probes[i]), frozen.contains(probes[i]));
+            }
+            boolean[] hits = frozen.containsAll(probes);
+            for (int i = 0; i < probes.length; i++) {
+                assertEquals(expected.contains(probes[i]), hits[i]);
+            }
+            assertTrue(frozen.sizeInBytes() < 12L * expected.size(), "bytes: " + frozen.sizeInBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed set")
+    void testClosedSet() {
+        OffHeapFrozenSet frozen = set.freeze();
+        frozen.close();
+        assertThrows(IllegalStateException.class, () -> frozen.contains(1));
+        assertThrows(IllegalStateException.class, () -> frozen.containsAll(new long[] {1}));
+    }
+}
@@ -0,0 +1,207 @@
+package com.jstl;
+
+import com.jstl.OffHeapGroupBy.Aggregate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapGroupBy Tests")
+class OffHeapGroupByTest {
+
+    private OffHeapGroupBy groupBy;
+
+    @BeforeEach
+    void setUp() {
+        groupBy = new OffHeapGroupBy(Aggregate.values());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (groupBy != null) {
+            groupBy.close();
+        }
+    }
+
+    // key -> {count, sum, min, max}
+    private static void reference(Map<Long, long[]> expected, long key, long value) {
+        long[] group = expected.get(key);
+        if (group == null) {
+            expected.put(key, new long[] {1, value, value, value});
+        } else {
+            group[0]++;
+            group[1] += value;
+            group[2] = Math.min(group[2], value);
+            group[3] = Math.max(group[3], value);
+        }
+    }
+
+    private void assertMatches(Map<Long, long[]> expected) {
+        assertEquals(expected.size(), groupBy.longSize());
+        for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+            for (Aggregate aggregate : Aggregate.values()) {
+                assertEquals(entry.getValue()[aggregate.ordinal()], groupBy.get(entry.getKey(), aggregate),
+                        aggregate + " of " + entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should create empty group-by")
+    void testCreateEmpty() {
+        assertTrue(groupBy.isEmpty());
+        assertEquals(0, groupBy.size());
+        assertEquals(0, groupBy.keys().length);
+        assertEquals(0, groupBy.values(Aggregate.SUM).length);
+        assertFalse(groupBy.containsKey(0));
+        assertEquals(EnumSet.allOf(Aggregate.class), groupBy.aggregates());
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapGroupBy());
+    }
+
+    @Test
+    @DisplayName("Should compute count, sum, min and max per key")
+    void testAggregates() {
+        groupBy.add(new long[] {1, 2, 1, 3, 1, 2}, new long[] {10, -5, 30, 7, 20, 5});
+
+        assertEquals(3, groupBy.size());
+        assertEquals(3, groupBy.get(1, Aggregate.COUNT));
+        assertEquals(60, groupBy.get(1, Aggregate.SUM));
+        assertEquals(10, groupBy.get(1, Aggregate.MIN));
+        assertEquals(30, groupBy.get(1, Aggregate.MAX));
+        assertEquals(0, groupBy.get(2, Aggregate.SUM));
+        assertEquals(-5, groupBy.get(2, Aggregate.MIN));
+        assertEquals(1, groupBy.get(3, Aggregate.COUNT));
+
+        assertTrue(groupBy.containsKey(3));
+        assertFalse(groupBy.containsKey(4));
+        assertEquals(0, groupBy.get(4, Aggregate.MAX));
+        assertEquals(-1, groupBy.getOrDefault(4, Aggregate.MAX, -1));
+
+        assertThrows(IllegalArgumentException.class, () -> groupBy.add(new long[2], new long[1]));
+    }
+
+    @Test
+    @DisplayName("Should only expose the chosen aggregates")
+    void testSelectedAggregates() {
+        try (OffHeapGroupBy sums = new OffHeapGroupBy(Aggregate.SUM, Aggregate.SUM)) {
+            sums.add(new long[] {5, 5, 6}, new long[] {Long.MAX_VALUE, 1, 2});
+            assertEquals(EnumSet.of(Aggregate.SUM), sums.aggregates());
+            assertEquals(Long.MIN_VALUE, sums.get(5, Aggregate.SUM));
+            assertEquals(2, sums.get(6, Aggregate.SUM));
+            assertThrows(IllegalArgumentException.class, () -> sums.get(5, Aggregate.COUNT));
+            assertThrows(IllegalArgumentException.class, () -> sums.values(Aggregate.MAX));
+            assertThrows(IllegalArgumentException.class, () -> sums.toHashMap(Aggregate.MIN));
+        }
+    }
+
+    @Test
+    @DisplayName("Should aggregate OffHeapArrayList columns in batches across threads")
+    void testArrayListsInParallel() {
+        Random random = new Random(42);
+        Map<Long, long[]> expected = new HashMap<>();
+        groupBy.setParallelism(4);
+        assertEquals(4, groupBy.getParallelism());
+        assertThrows(IllegalArgumentException.class, () -> groupBy.setParallelism(0));
+
+        for (int batch = 0; batch < 3; batch++) {
+            try (OffHeapArrayList keys = new OffHeapArrayList();
+                 OffHeapArrayList values = new OffHeapArrayList()) {
+                int n = batch == 1 ? 1_000 : 400_000;  // small batches stay on the calling thread
+                for (int i = 0; i < n; i++) {
+                    long key = random.nextInt(batch == 2 ? 200_000 : 500) - 100;
+                    long value = random.nextLong();
+                    keys.add(key);
+                    values.add(value);
+                    reference(expected, key, value);
+                }
+                groupBy.add(keys, values);
+                keys.add(1);
+                assertThrows(IllegalArgumentException.class, () -> groupBy.add(keys, values));
+            }
+            assertMatches(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Should aggregate native segments and reject heap ones")
+    void testSegments() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment keys = arena.allocateArray(ValueLayout.JAVA_LONG, 7, 8, 7);
+            MemorySegment values = arena.allocateArray(ValueLayout.JAVA_LONG, 1, 2, 3);
+            groupBy.add(keys, values);
+            assertEquals(4, groupBy.get(7, Aggregate.SUM));
+            assertEquals(2, groupBy.get(8, Aggregate.MAX));
+
+            groupBy.add(keys.asSlice(0, 0), values.asSlice(0, 0));
+            assertEquals(2, groupBy.size());
+
+            assertThrows(IllegalArgumentException.class, () -> groupBy.add(keys, values.asSlice(0, 16)));
+            assertThrows(IllegalArgumentException.class, () -> groupBy.add(keys.asSlice(0, 12), values.asSlice(0, 12)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> groupBy.add(MemorySegment.ofArray(new long[3]), values));
+        }
+    }
+
+    @Test
+    @DisplayName("Should copy keys, values and a HashMap in matching order")
+    void testExport() {
+        Map<Long, long[]> expected = new HashMap<>();
+        long[] keys = new long[50_000];
+        long[] values = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (i * 31L) % 7_001;
+            values[i] = i;
+            reference(expected, keys[i], values[i]);
+        }
+        groupBy.add(keys, values);
+
+        long[] groupKeys = groupBy.keys();
+        long[] counts = groupBy.values(Aggregate.COUNT);
+        long[] maxima = groupBy.values(Aggregate.MAX);
+        assertEquals(expected.size(), groupKeys.length);
+        for (int i = 0; i < groupKeys.length; i++) {
+            assertEquals(expected.get(groupKeys[i])[0], counts[i]);
+            assertEquals(expected.get(groupKeys[i])[3], maxima[i]);
+        }
+
+        try (OffHeapHashMap sums = groupBy.toHashMap(Aggregate.SUM)) {
+            assertEquals(expected.size(), sums.longSize());
+            for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+                assertEquals(entry.getValue()[1], sums.get(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should clear groups")
+    void testClear() {
+        groupBy.add(new long[] {1, 2, 3}, new long[] {1, 2, 3});
+        assertTrue(groupBy.sizeInBytes() > 0);
+        groupBy.clear();
+        assertTrue(groupBy.isEmpty());
+        assertFalse(groupBy.containsKey(1));
+
+        groupBy.add(new long[] {1}, new long[] {9});
+        assertEquals(1, groupBy.get(1, Aggregate.COUNT));
+        assertEquals(9, groupBy.get(1, Aggregate.MIN));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed group-by")
+    void testClosedGroupBy() {
+        groupBy.close();
+        assertThrows(IllegalStateException.class, () -> groupBy.add(new long[1], new long[1]));
+        assertThrows(IllegalStateException.class, () -> groupBy.get(1, Aggregate.SUM));
+        assertThrows(IllegalStateException.class, () -> groupBy.keys());
+    }
+}
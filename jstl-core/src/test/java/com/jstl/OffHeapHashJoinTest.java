@@ -0,0 +1,213 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapHashJoin Tests")
+class OffHeapHashJoinTest {
+
+    private OffHeapHashJoin join;
+    private OffHeapArrayList indexes;
+    private OffHeapArrayList payloads;
+
+    @BeforeEach
+    void setUp() {
+        join = new OffHeapHashJoin();
+        indexes = new OffHeapArrayList();
+        payloads = new OffHeapArrayList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        join.close();
+        indexes.close();
+        payloads.close();
+    }
+
+    private static OffHeapArrayList listOf(long... values) {
+        OffHeapArrayList list = new OffHeapArrayList();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    // "index:payload" pairs of the inner join results, sorted
+    private List<String> pairs() {
+        List<String> pairs = new ArrayList<>();
+        for (long i = 0; i < indexes.longSize(); i++) {
+            pairs.add(indexes.get(i) + ":" + payloads.get(i));
+        }
+        pairs.sort(null);
+        return pairs;
+    }
+
+    @Test
+    @DisplayName("Should join against an empty build side")
+    void testEmptyBuild() {
+        try (OffHeapArrayList probe = listOf(1, 2, 3)) {
+            assertEquals(0, join.buildSize());
+            assertEquals(0, join.innerJoin(probe, indexes, payloads));
+            assertEquals(0, join.semiJoin(probe, indexes));
+            assertEquals(3, join.antiJoin(probe, indexes));
+            assertArrayEquals(new long[] {0, 1, 2}, indexes.stream().toArray());
+        }
+    }
+
+    @Test
+    @DisplayName("Should produce inner, semi and anti join results")
+    void testJoinTypes() {
+        try (OffHeapArrayList buildKeys = listOf(10, 20, 10, 30);
+             OffHeapArrayList buildPayloads = listOf(100, 200, 101, 300);
+             OffHeapArrayList probe = listOf(10, 40, 30, 10, 20)) {
+            join.build(buildKeys, buildPayloads);
+            assertEquals(4, join.buildSize());
+            assertEquals(3, join.distinctKeys());
+
+            assertEquals(6, join.innerJoin(probe, indexes, payloads));
+            // Probe order, then build order for a repeated key
+            assertArrayEquals(new long[] {0, 0, 2, 3, 3, 4}, indexes.stream().toArray());
+            assertArrayEquals(new long[] {100, 101, 300, 100, 101, 200}, payloads.stream().toArray());
+
+            indexes.clear();
+            assertEquals(4, join.semiJoin(probe, indexes));
+            assertArrayEquals(new long[] {0, 2, 3, 4}, indexes.stream().toArray());
+
+            indexes.clear();
+            assertEquals(1, join.antiJoin(probe, indexes));
+            assertArrayEquals(new long[] {1}, indexes.stream().toArray());
+        }
+    }
+
+    @Test
+    @DisplayName("Should use build row indexes as payloads by default and append results")
+    void testIndexPairs() {
+        try (OffHeapArrayList buildKeys = listOf(5, 6, 5);
+             OffHeapArrayList probe = listOf(6, 5)) {
+            join.build(buildKeys);
+            payloads.add(-1);
+            indexes.add(-1);
+            assertEquals(3, join.innerJoin(probe, indexes, payloads));
+            assertArrayEquals(new long[] {-1, 0, 1, 1}, indexes.stream().toArray());
+            assertArrayEquals(new long[] {-1, 1, 0, 2}, payloads.stream().toArray());
+
+            assertThrows(IllegalArgumentException.class, () -> join.innerJoin(probe, indexes, indexes));
+            assertThrows(IllegalArgumentException.class, () -> join.semiJoin(probe, probe));
+            assertThrows(IllegalArgumentException.class, () -> join.build(buildKeys, probe));
+        }
+    }
+
+    @Test
+    @DisplayName("Should build from a HashMap and probe native segments")
+    void testHashMapAndSegments() {
+        try (OffHeapHashMap map = new OffHeapHashMap();
+             Arena arena = Arena.ofConfined()) {
+            for (long key = 0; key < 1_000; key++) {
+                map.put(key * 3, key);
+            }
+            join.build(map);
+            assertEquals(1_000, join.distinctKeys());
+
+            MemorySegment probe = arena.allocateArray(ValueLayout.JAVA_LONG, 3, 4, 2_997, 3_000);
+            assertEquals(2, join.innerJoin(probe, indexes, payloads));
+            assertArrayEquals(new long[] {0, 2}, indexes.stream().toArray());
+            assertArrayEquals(new long[] {1, 999}, payloads.stream().toArray());
+
+            MemorySegment buildKeys = arena.allocateArray(ValueLayout.JAVA_LONG, 4, 3_000);
+            MemorySegment buildPayloads = arena.allocateArray(ValueLayout.JAVA_LONG, 44, 3_333);
+            join.build(buildKeys, buildPayloads);
+            indexes.clear();
+            assertEquals(2, join.antiJoin(probe, indexes));
+            assertArrayEquals(new long[] {0, 2}, indexes.stream().toArray());
+
+            assertThrows(IllegalArgumentException.class, () -> join.build(buildKeys, buildPayloads.asSlice(0, 8)));
+            assertThrows(IllegalArgumentException.class, () -> join.semiJoin(probe.asSlice(0, 12), indexes));
+            assertThrows(IllegalArgumentException.class,
+                    () -> join.semiJoin(MemorySegment.ofArray(new long[2]), indexes));
+        }
+    }
+
+    @Test
+    @DisplayName("Should match a reference join in every probe mode")
+    void testRandomAgainstReference() {
+        Random random = new Random(42);
+        int buildRows = 200_000;
+        int probeRows = 300_000;
+        Map<Long, List<Long>> reference = new HashMap<>();
+        try (OffHeapArrayList buildKeys = new OffHeapArrayList();
+             OffHeapArrayList buildPayloads = new OffHeapArrayList();
+             OffHeapArrayList probe = new OffHeapArrayList()) {
+            for (int i = 0; i < buildRows; i++) {
+                long key = random.nextInt(150_000);
+                long payload = random.nextLong();
+                buildKeys.add(key);
+                buildPayloads.add(payload);
+                reference.computeIfAbsent(key, k -> new ArrayList<>()).add(payload);
+            }
+            List<String> expectedPairs = new ArrayList<>();
+            List<Long> expectedSemi = new ArrayList<>();
+            List<Long> expectedAnti = new ArrayList<>();
+            for (int i = 0; i < probeRows; i++) {
+                long key = random.nextInt(300_000);
+                probe.add(key);
+                List<Long> matches = reference.get(key);
+                if (matches == null) {
+                    expectedAnti.add((long) i);
+                } else {
+                    expectedSemi.add((long) i);
+                    for (long payload : matches) {
+                        expectedPairs.add(i + ":" + payload);
+                    }
+                }
+            }
+            expectedPairs.sort(null);
+
+            for (int threads : new int[] {1, 4}) {
+                join.setParallelism(threads);
+                join.build(buildKeys, buildPayloads);
+                assertTrue(join.partitions() > 1);
+                assertEquals(reference.size(), join.distinctKeys());
+                for (boolean partitioned : new boolean[] {false, true}) {
+                    join.setPartitioned(partitioned);
+                    indexes.clear();
+                    payloads.clear();
+                    assertEquals(expectedPairs.size(), join.innerJoin(probe, indexes, payloads));
+                    assertEquals(expectedPairs, pairs());
+
+                    indexes.clear();
+                    assertEquals(expectedSemi.size(), join.semiJoin(probe, indexes));
+                    long[] semi = indexes.stream().sorted().toArray();
+                    assertArrayEquals(expectedSemi.stream().mapToLong(Long::longValue).toArray(), semi);
+
+                    indexes.clear();
+                    assertEquals(expectedAnti.size(), join.antiJoin(probe, indexes));
+                    long[] anti = indexes.stream().sorted().toArray();
+                    assertArrayEquals(expectedAnti.stream().mapToLong(Long::longValue).toArray(), anti);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> join.setParallelism(0));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed join")
+    void testClosedJoin() {
+        join.close();
+        assertThrows(IllegalStateException.class, () -> join.build(indexes));
+        assertThrows(IllegalStateException.class, () -> join.semiJoin(payloads, indexes));
+        assertThrows(IllegalStateException.class, () -> join.buildSize());
+    }
+}
@@ -315,4 +315,236 @@ class OffHeapHashMapTest {
         assertEquals(30, map.get(1000000));
         assertEquals(3, map.size());
     }
+
+    @Test
+    @DisplayName("Should keep lookups exact with Bloom filter enabled")
+    void testBloomFilter() {
+        map.enableBloomFilter(0.01);
+        for (long i = 0; i < 10000; i++) {
+            map.put(i, i * 10);
+        }
+        map.put(5, 55);  // Overwrite keeps the key in the filter
+        for (long i = 0; i < 10000; i += 3) {
+            map.remove(i);
+        }
+
+        for (long i = 0; i < 10000; i++) {
+            assertEquals(i % 3 != 0, map.containsKey(i));
+        }
+        assertEquals(55, map.get(5));
+        assertEquals(0, map.get(3));
+        assertFalse(map.containsKey(-1));
+
+        map.clear();
+        assertFalse(map.containsKey(1));
+        map.put(1, 2);
+        assertEquals(2, map.get(1));
+
+        map.disableBloomFilter();
+        assertEquals(2, map.get(1));
+        assertThrows(IllegalArgumentException.class, () -> map.enableBloomFilter(0));
+    }
+
+    @Test
+    @DisplayName("Should run compound operations in one call")
+    void testCompoundOperations() {
+        assertEquals(-1, map.getOrDefault(1, -1));
+        assertTrue(map.putIfAbsent(1, 10));
+        assertFalse(map.putIfAbsent(1, 11));
+        assertEquals(10, map.getOrDefault(1, -1));
+
+        assertTrue(map.replace(1, 12));
+        assertFalse(map.replace(2, 20));
+        assertFalse(map.containsKey(2));
+
+        assertEquals(-1, map.getAndPut(2, 20, -1));
+        assertEquals(20, map.getAndPut(2, 21, -1));
+        assertEquals(21, map.get(2));
+
+        // An old value equal to the default is still reported as present
+        long[] previous = {99};
+        assertFalse(map.getAndPut(4, -1, previous));
+        assertEquals(99, previous[0]);
+        assertEquals(-1, map.getAndPut(4, -1, -1));  // Ambiguous without the flag
+        assertTrue(map.getAndPut(4, 40, previous));
+        assertEquals(-1, previous[0]);
+        assertEquals(40, map.removeAndGet(4, 0));
+        assertThrows(IllegalArgumentException.class, () -> map.getAndPut(5, 1, new long[0]));
+
+        assertEquals(21, map.removeAndGet(2, -1));
+        assertEquals(-1, map.removeAndGet(2, -1));
+        assertEquals(1, map.size());
+
+        assertEquals(7, map.computeIfAbsent(3, key -> key + 4));
+        assertEquals(7, map.computeIfAbsent(3, key -> { throw new AssertionError(); }));
+    }
+
+    @Test
+    @DisplayName("Should merge values with native combiners")
+    void testMerge() {
+        for (int i = 0; i < 1000; i++) {
+            map.addTo(i % 10, 1);
+        }
+        assertEquals(10, map.size());
+        assertEquals(100, map.get(7));
+        assertEquals(95, map.addTo(7, -5));
+        assertEquals(Long.MAX_VALUE, map.addTo(-1, Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE, map.addTo(-1, 1));  // Wraps like Java addition
+
+        assertEquals(5, map.merge(100, 5, OffHeapHashMap.Combiner.MIN));
+        assertEquals(3, map.merge(100, 3, OffHeapHashMap.Combiner.MIN));
+        assertEquals(3, map.merge(100, 9, OffHeapHashMap.Combiner.MIN));
+        assertEquals(9, map.merge(100, 9, OffHeapHashMap.Combiner.MAX));
+        assertEquals(0b1011, map.merge(100, 0b0010, OffHeapHashMap.Combiner.OR));
+    }
+
+    @Test
+    @DisplayName("Should keep the Bloom filter in sync with compound operations")
+    void testCompoundOperationsWithBloomFilter() {
+        map.enableBloomFilter(0.01);
+        for (long i = 0; i < 5000; i++) {
+            map.addTo(i, i);
+            map.putIfAbsent(i + 5000, i);
+            map.getAndPut(i + 10000, i, 0);
+        }
+        for (long i = 0; i < 15000; i += 2) {
+            map.removeAndGet(i, 0);
+        }
+        for (long i = 0; i < 15000; i++) {
+            assertEquals(i % 2 != 0, map.containsKey(i));
+            assertEquals(i % 2 != 0 ? i % 5000 : -1, map.getOrDefault(i, -1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep lookups exact while an incremental rehash runs")
+    void testIncrementalRehash() {
+        map.setIncrementalRehash(true);
+        map.enableBloomFilter(0.01);
+        boolean migrated = false;
+        for (long i = 0; i < 100_000; i++) {
+            map.put(i, i * 2);
+            migrated |= map.isRehashing();
+            if (i % 3 == 0) {
+                map.addTo(i / 3, 1);
+            }
+        }
+        assertTrue(migrated);
+        // Keys below 33_334 were also incremented once
+        for (long i = 0; i < 100_000; i += 5) {
+            assertEquals(i * 2 + (i < 33_334 ? 1 : 0), map.removeAndGet(i, -1));
+        }
+        assertEquals(80_000, map.size());
+        for (long i = 0; i < 100_000; i++) {
+            long expected = i % 5 == 0 ? -1 : i * 2 + (i < 33_334 ? 1 : 0);
+            assertEquals(expected, map.getOrDefault(i, -1));
+        }
+
+        try (OffHeapFrozenMap frozen = map.freeze()) {
+            assertEquals(80_000, frozen.size());
+            assertEquals(3, frozen.get(1));
+        }
+        map.setIncrementalRehash(false);
+        assertFalse(map.isRehashing());
+        assertEquals(80_000, map.size());
+    }
+
+    @Test
+    @DisplayName("Should leave a running rehash alone on lookups")
+    void testLookupsDuringRehash() {
+        map.setIncrementalRehash(true);
+        map.enableBloomFilter(0.01);
+        long i = 0;
+        while (!map.isRehashing()) {
+            map.put(i, i);
+            i++;
+        }
+        for (long key = 0; key < 2 * i; key++) {
+            assertEquals(key < i, map.containsKey(key));
+            assertEquals(key < i ? key : -1, map.getOrDefault(key, -1));
+        }
+        assertTrue(map.isRehashing());
+
+        // Every key stays visible while the filter is rebuilt alongside growth
+        for (long key = i; key < 200_000; key++) {
+            map.put(key, key);
+            assertTrue(map.containsKey(key - key / 2));
+        }
+        for (long key = 0; key < 200_000; key += 2) {
+            map.remove(key);
+        }
+        for (long key = 0; key < 200_000; key++) {
+            assertEquals(key % 2 != 0, map.containsKey(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Should presize, trim and tune the table")
+    void testCapacity() {
+        try (OffHeapHashMap sized = new OffHeapHashMap(50_000)) {
+            long capacity = sized.capacity();
+            assertTrue(capacity >= 50_000);
+            for (long i = 0; i < 50_000; i++) {
+                sized.put(i, i);
+            }
+            assertEquals(capacity, sized.capacity());  // No rehash during the load
+
+            for (long i = 100; i < 50_000; i++) {
+                sized.remove(i);
+            }
+            sized.trimToSize();
+            assertTrue(sized.capacity() >= 100 && sized.capacity() < 1_000, "capacity: " + sized.capacity());
+            assertEquals(99, sized.get(99));
+            assertEquals(100L, sized.longSize());
+
+            sized.setMaxLoadFactor(0.5);
+            assertEquals(0.5, sized.maxLoadFactor());
+            assertTrue(sized.capacity() >= 100);
+            assertEquals(42, sized.get(42));
+        }
+        assertEquals(1.0, map.maxLoadFactor());
+        assertThrows(IllegalArgumentException.class, () -> map.setMaxLoadFactor(0));
+        assertThrows(IllegalArgumentException.class, () -> map.reserve(-1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapHashMap(-1));
+    }
+
+    @Test
+    @DisplayName("Should give the same results under every hash strategy")
+    void testHashStrategies() {
+        assertEquals(HashStrategy.IDENTITY, map.hashStrategy());
+        for (HashStrategy strategy : HashStrategy.values()) {
+            try (OffHeapHashMap hashed = new OffHeapHashMap(strategy)) {
+                assertEquals(strategy, hashed.hashStrategy());
+                hashed.setIncrementalRehash(true);
+                for (long i = 0; i < 20_000; i++) {
+                    hashed.put(i << 10, i);
+                    hashed.addTo(-i - 1, 1);
+                }
+                hashed.trimToSize();
+                for (long i = 0; i < 20_000; i++) {
+                    assertEquals(i, hashed.get(i << 10));
+                    assertEquals(-5, hashed.getOrDefault((i << 10) + 1, -5));
+                }
+                assertEquals(1, hashed.get(-7));
+                assertEquals(40_000, hashed.size());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should spread keys that are multiples of the bucket count when mixing")
+    void testMixedHashSpreadsCollidingKeys() {
+        // With identity hashing every one of these keys lands in bucket 0
+        try (OffHeapHashMap mixed = new OffHeapHashMap(2_000, HashStrategy.MIX)) {
+            long buckets = mixed.capacity();
+            for (long i = 0; i < 2_000; i++) {
+                mixed.put(i * buckets, i);
+            }
+            assertEquals(buckets, mixed.capacity());
+            for (long i = 0; i < 2_000; i++) {
+                assertEquals(i, mixed.get(i * buckets));
+            }
+        }
+        assertThrows(NullPointerException.class, () -> new OffHeapHashMap(null));
+    }
 }
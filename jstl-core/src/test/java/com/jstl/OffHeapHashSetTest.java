@@ -356,4 +356,297 @@ class OffHeapHashSetTest {
         // Should still have exactly n elements
         assertEquals(n, set.size());
     }
+
+    @Test
+    @DisplayName("Should add all elements of another set")
+    void testAddAll() {
+        try (OffHeapHashSet other = new OffHeapHashSet()) {
+            for (long i = 0; i < 10; i++) {
+                set.add(i);
+                other.add(i + 5);
+            }
+
+            assertEquals(5, set.addAll(other));
+            assertEquals(15, set.size());
+            assertTrue(set.contains(14));
+            assertEquals(0, set.addAll(set));
+        }
+    }
+
+    @Test
+    @DisplayName("Should retain only common elements")
+    void testRetainAll() {
+        try (OffHeapHashSet small = new OffHeapHashSet();
+             OffHeapHashSet large = new OffHeapHashSet()) {
+            for (long i = 0; i < 100; i++) {
+                set.add(i);
+                large.add(i * 2);
+            }
+            small.add(10);
+            small.add(11);
+            small.add(1000);
+
+            // This set is the smaller side
+            assertEquals(50, set.retainAll(large));
+            assertEquals(50, set.size());
+            assertTrue(set.contains(98));
+            assertFalse(set.contains(99));
+
+            // The other set is the smaller side
+            assertEquals(49, set.retainAll(small));
+            assertEquals(1, set.size());
+            assertTrue(set.contains(10));
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove all elements of another set")
+    void testRemoveAllSet() {
+        try (OffHeapHashSet other = new OffHeapHashSet()) {
+            for (long i = 0; i < 100; i++) {
+                set.add(i);
+            }
+            for (long i = 90; i < 300; i++) {
+                other.add(i);
+            }
+
+            assertEquals(10, set.removeAll(other));
+            assertEquals(90, set.size());
+            assertFalse(set.contains(95));
+
+            assertEquals(90, set.removeAll(set));
+            assertTrue(set.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute union, intersection and difference")
+    void testSetAlgebra() {
+        try (OffHeapHashSet other = new OffHeapHashSet()) {
+            for (long i = 0; i < 10; i++) {
+                set.add(i);
+                other.add(i + 5);
+            }
+
+            assertEquals(5, set.intersectionSize(other));
+            try (OffHeapHashSet union = set.union(other);
+                 OffHeapHashSet intersection = set.intersection(other);
+                 OffHeapHashSet difference = set.difference(other)) {
+                assertEquals(15, union.size());
+                assertEquals(5, intersection.size());
+                assertTrue(intersection.contains(5));
+                assertTrue(intersection.contains(9));
+                assertEquals(5, difference.size());
+                assertTrue(difference.contains(0));
+                assertFalse(difference.contains(5));
+            }
+
+            // Inputs are left untouched
+            assertEquals(10, set.size());
+            assertEquals(10, other.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should run set algebra in parallel")
+    void testParallelSetAlgebra() {
+        try (OffHeapHashSet other = new OffHeapHashSet()) {
+            for (long i = 0; i < 200_000; i++) {
+                set.add(i);
+                other.add(i * 3);
+            }
+            set.setParallelism(4);
+
+            assertEquals(4, set.getParallelism());
+            assertEquals(66_667, set.intersectionSize(other));
+            try (OffHeapHashSet intersection = set.intersection(other);
+                 OffHeapHashSet difference = set.difference(other)) {
+                assertEquals(66_667, intersection.size());
+                assertEquals(133_333, difference.size());
+            }
+            assertEquals(133_333, set.retainAll(other));
+            assertEquals(66_667, set.size());
+            assertThrows(IllegalArgumentException.class, () -> set.setParallelism(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject set algebra with closed set")
+    void testSetAlgebraWithClosedSet() {
+        OffHeapHashSet other = new OffHeapHashSet();
+        other.close();
+
+        assertThrows(IllegalStateException.class, () -> set.addAll(other));
+        assertThrows(IllegalStateException.class, () -> set.intersection(other));
+    }
+
+    @Test
+    @DisplayName("Should keep lookups exact with Bloom filter enabled")
+    void testBloomFilter() {
+        for (long i = 0; i < 5000; i++) {
+            set.add(i);
+        }
+        set.enableBloomFilter(0.01);
+
+        // Growth past the filter's sizing triggers a rebuild
+        for (long i = 5000; i < 20000; i++) {
+            set.add(i);
+        }
+        for (long i = 0; i < 20000; i += 2) {
+            set.remove(i);
+        }
+
+        for (long i = 0; i < 20000; i++) {
+            assertEquals(i % 2 != 0, set.contains(i));
+        }
+        assertFalse(set.contains(-1));
+
+        try (OffHeapHashSet other = new OffHeapHashSet()) {
+            for (long i = 100000; i < 100010; i++) {
+                other.add(i);
+            }
+            set.addAll(other);
+            assertTrue(set.contains(100005));
+            set.removeAll(other);
+            assertFalse(set.contains(100005));
+        }
+
+        set.clear();
+        assertFalse(set.contains(1));
+        set.add(1);
+        assertTrue(set.contains(1));
+
+        set.disableBloomFilter();
+        assertTrue(set.contains(1));
+        assertFalse(set.contains(3));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid Bloom filter rates")
+    void testBloomFilterInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> set.enableBloomFilter(0));
+        assertThrows(IllegalArgumentException.class, () -> set.enableBloomFilter(1.5));
+    }
+
+    @Test
+    @DisplayName("Should keep set operations exact while an incremental rehash runs")
+    void testIncrementalRehash() {
+        set.setIncrementalRehash(true);
+        set.enableBloomFilter(0.01);
+        boolean migrated = false;
+        for (long i = 0; i < 100_000; i++) {
+            assertTrue(set.add(i));
+            assertFalse(set.add(i / 2));
+            migrated |= set.isRehashing();
+        }
+        assertTrue(migrated);
+        for (long i = 0; i < 100_000; i += 2) {
+            assertTrue(set.remove(i));
+        }
+        assertEquals(50_000, set.size());
+
+        try (OffHeapHashSet other = new OffHeapHashSet()) {
+            other.setIncrementalRehash(true);
+            for (long i = 0; i < 20_000; i++) {
+                other.add(i);
+            }
+            assertEquals(10_000, set.intersectionSize(other));
+            set.retainAll(other);
+            assertEquals(10_000, set.size());
+        }
+        for (long i = 0; i < 100_000; i++) {
+            assertEquals(i < 20_000 && i % 2 != 0, set.contains(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave a running rehash alone on lookups")
+    void testLookupsDuringRehash() {
+        set.setIncrementalRehash(true);
+        set.enableBloomFilter(0.01);
+        long i = 0;
+        while (!set.isRehashing()) {
+            set.add(i++);
+        }
+        for (long value = 0; value < 2 * i; value++) {
+            assertEquals(value < i, set.contains(value));
+        }
+        assertTrue(set.isRehashing());
+        for (long value = i; value < 200_000; value++) {
+            set.add(value);
+            assertTrue(set.contains(value - value / 2));
+        }
+        assertEquals(200_000, set.size());
+    }
+
+    @Test
+    @DisplayName("Should presize, trim and tune the table")
+    void testCapacity() {
+        try (OffHeapHashSet sized = new OffHeapHashSet(50_000)) {
+            long capacity = sized.capacity();
+            assertTrue(capacity >= 50_000);
+            for (long i = 0; i < 50_000; i++) {
+                sized.add(i);
+            }
+            assertEquals(capacity, sized.capacity());
+            assertEquals(50_000L, sized.longSize());
+
+            sized.setIncrementalRehash(true);
+            sized.reserve(200_000);
+            assertTrue(sized.capacity() >= 200_000);
+            sized.clear();
+            sized.trimToSize();
+            assertTrue(sized.capacity() < 100, "capacity: " + sized.capacity());
+            sized.setMaxLoadFactor(2);
+            sized.add(7);
+            assertTrue(sized.contains(7));
+            assertEquals(2.0, sized.maxLoadFactor());
+        }
+        assertThrows(IllegalArgumentException.class, () -> set.setMaxLoadFactor(Double.NaN));
+
+        // Rebuilt and derived tables keep the configured load factor
+        set.setMaxLoadFactor(0.5);
+        for (long i = 0; i < 1000; i++) {
+            set.add(i);
+        }
+        try (OffHeapHashSet small = new OffHeapHashSet()) {
+            small.add(1);
+            small.add(2);
+            try (OffHeapHashSet union = set.union(small)) {
+                assertEquals(0.5, union.maxLoadFactor());
+            }
+            assertEquals(998, set.retainAll(small));
+        }
+        assertEquals(0.5, set.maxLoadFactor());
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapHashSet(-1));
+    }
+
+    @Test
+    @DisplayName("Should keep the hash strategy in derived sets")
+    void testHashStrategies() {
+        assertEquals(HashStrategy.IDENTITY, set.hashStrategy());
+        try (OffHeapHashSet seeded = new OffHeapHashSet(HashStrategy.SEEDED);
+             OffHeapHashSet other = new OffHeapHashSet(1_000, HashStrategy.MIX)) {
+            for (long i = 0; i < 10_000; i++) {
+                seeded.add(i * 1024);
+            }
+            for (long i = 0; i < 1_000; i++) {
+                other.add(i * 2048);
+            }
+            assertEquals(HashStrategy.SEEDED, seeded.hashStrategy());
+            assertEquals(HashStrategy.MIX, other.hashStrategy());
+            assertEquals(1_000, seeded.intersectionSize(other));
+
+            try (OffHeapHashSet union = seeded.union(other);
+                 OffHeapHashSet difference = other.difference(seeded)) {
+                assertEquals(HashStrategy.SEEDED, union.hashStrategy());
+                assertEquals(10_000, union.size());
+                assertEquals(HashStrategy.MIX, difference.hashStrategy());
+                assertTrue(difference.isEmpty());
+            }
+            seeded.retainAll(other);
+            assertEquals(1_000, seeded.size());
+            assertTrue(seeded.contains(2048 * 999));
+        }
+    }
 }
@@ -0,0 +1,213 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapLongCache Tests")
+class OffHeapLongCacheTest {
+
+    private OffHeapLongCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new OffHeapLongCache(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should put and get values")
+    void testPutAndGet() {
+        cache.put(1, 100);
+        cache.put(2, 200);
+        cache.put(1, 150);
+
+        assertEquals(150, cache.get(1));
+        assertEquals(200, cache.get(2));
+        assertEquals(0, cache.get(3));
+        assertEquals(-1, cache.getOrDefault(3, -1));
+        assertEquals(2, cache.size());
+        assertEquals(2L, cache.longSize());
+        assertEquals(100, cache.maximumSize());
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses")
+    void testStatistics() {
+        cache.put(1, 10);
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+        assertTrue(cache.containsKey(1));  // Not counted
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(2.0 / 3, cache.hitRate(), 1e-9);
+        assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    @DisplayName("Should evict least recently used entry")
+    void testLruEviction() {
+        try (OffHeapLongCache lru = new OffHeapLongCache(3, OffHeapLongCache.Policy.LRU)) {
+            lru.put(1, 10);
+            lru.put(2, 20);
+            lru.put(3, 30);
+            lru.get(1);
+            lru.put(4, 40);
+
+            assertFalse(lru.containsKey(2));
+            assertTrue(lru.containsKey(1));
+            assertTrue(lru.containsKey(3));
+            assertTrue(lru.containsKey(4));
+            assertEquals(3, lru.size());
+            assertEquals(1, lru.evictionCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay within maximum size")
+    void testBounded() {
+        for (long i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(9_900, cache.evictionCount());
+    }
+
+    @Test
+    @DisplayName("Should keep frequently used entries through a scan")
+    void testScanResistance() {
+        for (int round = 0; round < 5; round++) {
+            for (long key = 0; key < 50; key++) {
+                cache.computeIfAbsent(key, k -> k);
+            }
+        }
+        // One-off keys must not flush the hot set
+        for (long key = 1_000; key < 11_000; key++) {
+            cache.computeIfAbsent(key, k -> k);
+        }
+        int retained = 0;
+        for (long key = 0; key < 50; key++) {
+            if (cache.containsKey(key)) retained++;
+        }
+        assertTrue(retained >= 45, "hot entries retained: " + retained);
+    }
+
+    @Test
+    @DisplayName("Should beat LRU hit rate on skewed access with scans")
+    void testHitRateAgainstLru() {
+        try (OffHeapLongCache lru = new OffHeapLongCache(100, OffHeapLongCache.Policy.LRU)) {
+            Random random = new Random(3);
+            long scan = 1_000_000;
+            for (int i = 0; i < 200_000; i++) {
+                long key;
+                if (random.nextInt(10) < 7) {
+                    // Skewed: small keys are far more popular
+                    key = (long) Math.pow(10_000, random.nextDouble()) - 1;
+                } else {
+                    key = scan++;
+                }
+                cache.computeIfAbsent(key, k -> k);
+                lru.computeIfAbsent(key, k -> k);
+            }
+            assertTrue(cache.hitRate() > lru.hitRate(),
+                "W-TinyLFU " + cache.hitRate() + " vs LRU " + lru.hitRate());
+        }
+    }
+
+    @Test
+    @DisplayName("Should compute missing values once")
+    void testComputeIfAbsent() {
+        int[] calls = {0};
+        assertEquals(42, cache.computeIfAbsent(7, k -> { calls[0]++; return k * 6; }));
+        assertEquals(42, cache.computeIfAbsent(7, k -> { calls[0]++; return -1; }));
+        assertEquals(1, calls[0]);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    @DisplayName("Should report evictions to the listener")
+    void testEvictionListener() {
+        List<long[]> evicted = new ArrayList<>();
+        try (OffHeapLongCache lru = new OffHeapLongCache(10, OffHeapLongCache.Policy.LRU)) {
+            lru.setEvictionListener((key, value) -> evicted.add(new long[] {key, value}));
+            for (long i = 0; i < 200; i++) {
+                lru.put(i, i * 2);
+            }
+            lru.remove(199);  // Explicit removals are not reported
+
+            assertEquals(190, evicted.size());
+            for (int i = 0; i < evicted.size(); i++) {
+                assertEquals(i, evicted.get(i)[0]);
+                assertEquals(i * 2L, evicted.get(i)[1]);
+            }
+
+            // Entries dropped by clear() are not evictions
+            lru.clear();
+            for (long i = 500; i < 511; i++) {
+                lru.put(i, i);
+            }
+            assertEquals(191, evicted.size());
+            assertEquals(500, evicted.get(190)[0]);
+
+            lru.setEvictionListener(null);
+            lru.put(1_000, 1);
+            lru.put(1_001, 1);
+            assertEquals(191, evicted.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove and clear entries")
+    void testRemoveAndClear() {
+        cache.put(1, 10);
+        cache.put(2, 20);
+        assertTrue(cache.remove(1));
+        assertFalse(cache.remove(1));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.put(3, 30);
+        assertEquals(30, cache.get(3));
+    }
+
+    @Test
+    @DisplayName("Should size cache from a memory budget")
+    void testMemoryBudget() {
+        long perEntry = OffHeapLongCache.entryBytes();
+        assertTrue(perEntry > 16);
+        try (OffHeapLongCache budgeted = OffHeapLongCache.withMemoryBudget(perEntry * 1000, OffHeapLongCache.Policy.LRU)) {
+            assertEquals(1000, budgeted.maximumSize());
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> OffHeapLongCache.withMemoryBudget(1, OffHeapLongCache.Policy.LRU));
+    }
+
+    @Test
+    @DisplayName("Should reject invalid sizes and closed use")
+    void testInvalidAndClosed() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapLongCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapLongCache(OffHeapLongCache.MAX_SIZE + 1));
+
+        cache.close();
+        assertThrows(IllegalStateException.class, () -> cache.get(1));
+        assertThrows(IllegalStateException.class, () -> cache.put(1, 1));
+    }
+}
@@ -0,0 +1,163 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapLongLog Tests")
+class OffHeapLongLogTest {
+
+    private OffHeapLongLog log;
+
+    @BeforeEach
+    void setUp() {
+        log = new OffHeapLongLog(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        log.close();
+    }
+
+    @Test
+    @DisplayName("Should append and read values in order")
+    void testAppendAndRead() {
+        assertTrue(log.isEmpty());
+        assertEquals(0, log.append(7));
+        assertEquals(1, log.append(8));
+        assertEquals(2, log.appendAll(new long[] {9, 10, 11}));
+        assertEquals(5, log.appendAll(new long[0]));
+        assertEquals(5, log.size());
+        assertEquals(9, log.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(-1));
+
+        assertArrayEquals(new long[] {8, 9, 10, 11}, log.read(1, 10));
+        assertArrayEquals(new long[0], log.read(5, 10));
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment dest = arena.allocateArray(ValueLayout.JAVA_LONG, 2);
+            assertEquals(2, log.read(3, dest));
+            assertEquals(10, dest.getAtIndex(ValueLayout.JAVA_LONG, 0));
+            assertThrows(IllegalArgumentException.class, () -> log.read(0, MemorySegment.ofArray(new long[2])));
+            assertThrows(IllegalArgumentException.class, () -> log.appendAll(MemorySegment.ofArray(new long[2])));
+            assertEquals(5, log.appendAll(arena.allocateArray(ValueLayout.JAVA_LONG, 12, 13)));
+        }
+        assertEquals(7, log.longSize());
+
+        log.clear();
+        assertTrue(log.isEmpty());
+        assertEquals(0, log.append(1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapLongLog(9));
+    }
+
+    @Test
+    @DisplayName("Should expose published chunks as read-only views")
+    void testChunks() {
+        int chunkSize = log.chunkSize();
+        assertEquals(1024, chunkSize);
+        assertEquals(0, log.chunkCount());
+        long[] values = new long[chunkSize * 2 + 100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 3L;
+        }
+        log.appendAll(values);
+        assertEquals(3, log.chunkCount());
+
+        long total = 0;
+        for (long c = 0; c < log.chunkCount(); c++) {
+            MemorySegment chunk = log.chunk(c);
+            assertTrue(chunk.isReadOnly());
+            for (long i = 0; i < chunk.byteSize() / Long.BYTES; i++) {
+                assertEquals((c * chunkSize + i) * 3, chunk.getAtIndex(ValueLayout.JAVA_LONG, i));
+                total++;
+            }
+        }
+        assertEquals(values.length, total);
+        assertEquals(100 * Long.BYTES, log.chunk(2).byteSize());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.chunk(3));
+        assertTrue(log.capacity() >= 1L << 30);
+    }
+
+    @Test
+    @DisplayName("Should publish every append from concurrent writers to concurrent readers")
+    void testConcurrentAppends() throws InterruptedException {
+        int writers = 4;
+        int perWriter = 50_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong errors = new AtomicLong();
+        Thread reader = new Thread(() -> {
+            long seen = 0;
+            while (!done.get()) {
+                long published = log.longSize();
+                if (published < seen) {
+                    errors.incrementAndGet();
+                }
+                seen = published;
+                // Every published slot has been written: values are never 0
+                for (long v : log.read(Math.max(0, published - 2_000), 2_000)) {
+                    if (v == 0) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            long tag = (long) (w + 1) << 32;
+            Thread writer = new Thread(() -> {
+                for (int i = 1; i <= perWriter; ) {
+                    if (i % 5 == 0 && i + 3 <= perWriter) {
+                        log.appendAll(new long[] {tag | i, tag | (i + 1), tag | (i + 2), tag | (i + 3)});
+                        i += 4;
+                    } else {
+                        log.append(tag | i);
+                        i++;
+                    }
+                }
+            });
+            threads.add(writer);
+            writer.start();
+        }
+        for (Thread writer : threads) {
+            writer.join();
+        }
+        done.set(true);
+        reader.join();
+
+        assertEquals(0, errors.get());
+        assertEquals((long) writers * perWriter, log.longSize());
+        // Each writer's values appear exactly once, in its own order
+        long[] next = new long[writers + 1];
+        for (long v : log.read(0, writers * perWriter)) {
+            int writer = (int) (v >>> 32);
+            assertEquals(next[writer] + 1, v & 0xFFFFFFFFL);
+            next[writer]++;
+        }
+        for (int w = 1; w <= writers; w++) {
+            assertEquals(perWriter, next[w]);
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed log")
+    void testClosedLog() {
+        log.close();
+        assertThrows(IllegalStateException.class, () -> log.append(1));
+        assertThrows(IllegalStateException.class, () -> log.get(0));
+        assertThrows(IllegalStateException.class, () -> log.size());
+        assertEquals("OffHeapLongLog[closed]", log.toString());
+    }
+}
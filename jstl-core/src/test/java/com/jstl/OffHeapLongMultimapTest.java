@@ -0,0 +1,166 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapLongMultimap Tests")
+class OffHeapLongMultimapTest {
+
+    private OffHeapLongMultimap multimap;
+
+    @BeforeEach
+    void setUp() {
+        multimap = new OffHeapLongMultimap();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (multimap != null) {
+            multimap.close();
+        }
+    }
+
+    private static long[] toLongs(List<Long> list) {
+        return list.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Test
+    @DisplayName("Should create empty multimap")
+    void testCreateEmpty() {
+        assertTrue(multimap.isEmpty());
+        assertEquals(0, multimap.size());
+        assertEquals(0, multimap.get(1).length);
+        assertEquals(0, multimap.view(1).byteSize());
+        assertEquals(0, multimap.keys().length);
+    }
+
+    @Test
+    @DisplayName("Should keep values per key in insertion order")
+    void testPutAndGet() {
+        multimap.put(1, 10);
+        multimap.put(2, 20);
+        multimap.put(1, 11);
+        multimap.put(1, 10);
+        multimap.putAll(3, new long[] {30, 31, 32});
+
+        assertArrayEquals(new long[] {10, 11, 10}, multimap.get(1));
+        assertArrayEquals(new long[] {20}, multimap.get(2));
+        assertEquals(3, multimap.count(3));
+        assertEquals(0, multimap.count(4));
+        assertTrue(multimap.containsKey(2));
+        assertFalse(multimap.containsKey(4));
+        assertEquals(3, multimap.keyCount());
+        assertEquals(7, multimap.size());
+
+        long[] keys = multimap.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(new long[] {1, 2, 3}, keys);
+    }
+
+    @Test
+    @DisplayName("Should expose values as a read-only native view")
+    void testView() {
+        multimap.putAll(5, new long[] {1, 2, 3});
+        MemorySegment view = multimap.view(5);
+        assertEquals(3 * Long.BYTES, view.byteSize());
+        assertEquals(2, view.getAtIndex(ValueLayout.JAVA_LONG, 1));
+        assertTrue(view.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> view.setAtIndex(ValueLayout.JAVA_LONG, 0, 9));
+    }
+
+    @Test
+    @DisplayName("Should remove keys and clear")
+    void testRemoveAndClear() {
+        multimap.putAll(1, new long[] {1, 2});
+        multimap.put(2, 3);
+        assertEquals(2, multimap.removeAll(1));
+        assertEquals(0, multimap.removeAll(1));
+        assertFalse(multimap.containsKey(1));
+        assertEquals(1, multimap.size());
+
+        multimap.clear();
+        assertTrue(multimap.isEmpty());
+        multimap.put(1, 5);
+        assertArrayEquals(new long[] {5}, multimap.get(1));
+    }
+
+    @Test
+    @DisplayName("Should match a HashMap of lists under random updates and compaction")
+    void testRandomAgainstReference() {
+        Random random = new Random(42);
+        Map<Long, List<Long>> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(5_000) - 2_500;
+            int op = random.nextInt(20);
+            if (op < 16) {
+                long value = random.nextLong();
+                multimap.put(key, value);
+                expected.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+            } else if (op < 17) {
+                List<Long> removed = expected.remove(key);
+                assertEquals(removed == null ? 0 : removed.size(), multimap.removeAll(key));
+            } else if (op < 18 && i % 1_000 == 0) {
+                multimap.compact();
+            } else {
+                List<Long> values = expected.get(key);
+                assertArrayEquals(values == null ? new long[0] : toLongs(values), multimap.get(key));
+            }
+        }
+
+        assertEquals(expected.size(), multimap.keyCount());
+        assertEquals(expected.values().stream().mapToLong(List::size).sum(), multimap.size());
+        long before = multimap.sizeInBytes();
+        multimap.compact();
+        assertTrue(multimap.sizeInBytes() <= before);
+        for (Map.Entry<Long, List<Long>> entry : expected.entrySet()) {
+            assertArrayEquals(toLongs(entry.getValue()), multimap.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should bulk load key-value pairs")
+    void testPutAllPairs() {
+        int n = 200_000;
+        long[] keys = new long[n];
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i % 1_000;
+            values[i] = i;
+        }
+        multimap.putAll(keys, values);
+        multimap.compact();
+
+        assertEquals(1_000, multimap.keyCount());
+        assertEquals(n, multimap.size());
+        long[] list = multimap.get(7);
+        assertEquals(200, list.length);
+        assertEquals(7, list[0]);
+        assertEquals(1_007, list[1]);
+        // 8 bytes per value plus a small per-key slot once packed
+        assertTrue(multimap.sizeInBytes() < n * Long.BYTES + 100_000, "bytes: " + multimap.sizeInBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> multimap.putAll(new long[1], new long[2]));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed multimap")
+    void testClosedMultimap() {
+        multimap.close();
+        assertThrows(IllegalStateException.class, () -> multimap.put(1, 1));
+        assertThrows(IllegalStateException.class, () -> multimap.get(1));
+        assertThrows(IllegalStateException.class, () -> multimap.keys());
+    }
+}
@@ -0,0 +1,153 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Collections;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapLongPriorityQueue Tests")
+class OffHeapLongPriorityQueueTest {
+
+    private OffHeapLongPriorityQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new OffHeapLongPriorityQueue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    @Test
+    @DisplayName("Should poll the smallest priority first")
+    void testMinOrder() {
+        assertTrue(queue.isEmpty());
+        queue.offer(5);
+        queue.offer(-3);
+        queue.offer(8);
+        queue.offer(-3);
+        assertEquals(4, queue.size());
+        assertEquals(-3, queue.peek());
+        assertEquals(-3, queue.poll());
+        assertEquals(-3, queue.poll());
+        assertEquals(5, queue.poll());
+        assertEquals(8, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertThrows(NoSuchElementException.class, () -> queue.peek());
+        assertThrows(NoSuchElementException.class, () -> queue.poll());
+    }
+
+    @Test
+    @DisplayName("Should poll the largest priority first with payloads")
+    void testMaxOrderWithPayloads() {
+        try (OffHeapLongPriorityQueue max = new OffHeapLongPriorityQueue(OffHeapLongPriorityQueue.Order.MAX, true)) {
+            max.offer(10, 100);
+            max.offer(30, 300);
+            max.offer(20, 200);
+            max.offer(Long.MIN_VALUE);
+            assertEquals(30, max.peek());
+            assertEquals(300, max.peekPayload());
+            assertEquals(300, max.pollPayload());
+            assertEquals(20, max.peek());
+            assertArrayEquals(new long[] {20, 10, Long.MIN_VALUE}, max.toSortedArray());
+            assertEquals(3, max.size());
+
+            try (OffHeapArrayList priorities = new OffHeapArrayList();
+                 OffHeapArrayList payloads = new OffHeapArrayList()) {
+                max.drainSorted(priorities, payloads);
+                assertArrayEquals(new long[] {20, 10, Long.MIN_VALUE}, priorities.stream().toArray());
+                assertArrayEquals(new long[] {200, 100, 0}, payloads.stream().toArray());
+                assertThrows(IllegalArgumentException.class, () -> max.drainSorted(priorities, priorities));
+            }
+            assertTrue(max.isEmpty());
+        }
+        assertThrows(IllegalStateException.class, () -> queue.offer(1, 2));
+        assertThrows(IllegalStateException.class, () -> queue.offerAll(new long[1], new long[1]));
+    }
+
+    @Test
+    @DisplayName("Should offer arrays and native segments in bulk")
+    void testOfferAll() {
+        queue.offerAll(new long[] {7, 3, 9});
+        queue.offerAll(new long[] {1});
+        queue.offerAll(new long[0]);
+        try (Arena arena = Arena.ofConfined()) {
+            queue.offerAll(arena.allocateArray(ValueLayout.JAVA_LONG, 4, 2, 8, 6, 5));
+            assertThrows(IllegalArgumentException.class, () -> queue.offerAll(MemorySegment.ofArray(new long[2])));
+            assertThrows(IllegalArgumentException.class,
+                    () -> queue.offerAll(arena.allocateArray(ValueLayout.JAVA_LONG, 1).asSlice(0, 4)));
+        }
+        assertArrayEquals(new long[] {1, 2, 3, 4, 5, 6, 7, 8, 9}, queue.drainSorted());
+        assertTrue(queue.isEmpty());
+        assertArrayEquals(new long[0], queue.drainSorted());
+    }
+
+    @Test
+    @DisplayName("Should match java.util.PriorityQueue under mixed operations")
+    void testRandomAgainstReference() {
+        Random random = new Random(42);
+        for (OffHeapLongPriorityQueue.Order order : OffHeapLongPriorityQueue.Order.values()) {
+            PriorityQueue<Long> reference = order == OffHeapLongPriorityQueue.Order.MIN
+                    ? new PriorityQueue<>() : new PriorityQueue<>(Collections.reverseOrder());
+            try (OffHeapLongPriorityQueue tested = new OffHeapLongPriorityQueue(order, true)) {
+                for (int round = 0; round < 200; round++) {
+                    int batch = random.nextInt(500);
+                    long[] priorities = new long[batch];
+                    long[] payloads = new long[batch];
+                    for (int i = 0; i < batch; i++) {
+                        priorities[i] = random.nextInt(1_000) - 500;
+                        payloads[i] = priorities[i] * 31;
+                        reference.add(priorities[i]);
+                    }
+                    if (round % 3 == 0) {
+                        tested.offerAll(priorities, payloads);
+                    } else {
+                        for (int i = 0; i < batch; i++) {
+                            tested.offer(priorities[i], payloads[i]);
+                        }
+                    }
+                    int polls = random.nextInt(400);
+                    for (int i = 0; i < polls && !reference.isEmpty(); i++) {
+                        long expected = reference.poll();
+                        assertEquals(expected, tested.peek());
+                        assertEquals(expected * 31, tested.peekPayload());
+                        assertEquals(expected, tested.poll());
+                    }
+                    assertEquals(reference.size(), tested.longSize());
+                }
+                long[] expected = new long[reference.size()];
+                for (int i = 0; i < expected.length; i++) {
+                    expected[i] = reference.poll();
+                }
+                assertArrayEquals(expected, tested.toSortedArray());
+                try (OffHeapArrayList drained = new OffHeapArrayList()) {
+                    tested.drainSorted(drained);
+                    assertArrayEquals(expected, drained.stream().toArray());
+                }
+                assertTrue(tested.sizeInBytes() > 0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed queue")
+    void testClosedQueue() {
+        queue.close();
+        assertThrows(IllegalStateException.class, () -> queue.offer(1));
+        assertThrows(IllegalStateException.class, () -> queue.poll());
+        assertThrows(IllegalStateException.class, () -> queue.size());
+        assertEquals("OffHeapLongPriorityQueue[closed]", queue.toString());
+    }
+}
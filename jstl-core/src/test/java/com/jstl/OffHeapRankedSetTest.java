@@ -0,0 +1,158 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapRankedSet Tests")
+class OffHeapRankedSetTest {
+
+    private OffHeapRankedSet set;
+
+    @BeforeEach
+    void setUp() {
+        set = new OffHeapRankedSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        set.close();
+    }
+
+    @Test
+    @DisplayName("Should answer rank, select and range queries")
+    void testOrderStatistics() {
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(30));
+        assertTrue(set.add(10));
+        assertTrue(set.add(20));
+        assertFalse(set.add(20));
+        assertTrue(set.add(-5));
+        assertEquals(4, set.size());
+
+        assertEquals(-5, set.first());
+        assertEquals(30, set.last());
+        assertEquals(3, set.rank(20));
+        assertEquals(2, set.countLessThan(20));
+        assertEquals(2, set.rank(15));
+        assertEquals(0, set.rank(-6));
+        assertEquals(20, set.select(set.rank(20) - 1));
+        assertEquals(2, set.countInRange(10, 20));
+        assertEquals(4, set.countInRange(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, set.countInRange(21, 29));
+        assertEquals(0, set.countInRange(30, 10));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.select(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.select(-1));
+
+        assertTrue(set.remove(10));
+        assertFalse(set.remove(10));
+        assertFalse(set.contains(10));
+        assertTrue(set.contains(30));
+        assertArrayEquals(new long[] {-5, 20, 30}, set.toArray());
+        assertArrayEquals(new long[] {20, 30}, set.toArray(1, 5));
+        assertArrayEquals(new long[0], set.toArray(3, 5));
+    }
+
+    @Test
+    @DisplayName("Should compute nearest-rank percentiles")
+    void testPercentile() {
+        assertThrows(NoSuchElementException.class, () -> set.percentile(50));
+        assertThrows(NoSuchElementException.class, () -> set.first());
+        for (long key = 1; key <= 100; key++) {
+            set.add(key * 10);
+        }
+        assertEquals(10, set.percentile(0));
+        assertEquals(10, set.percentile(1));
+        assertEquals(500, set.percentile(50));
+        assertEquals(990, set.percentile(99));
+        assertEquals(1000, set.percentile(100));
+        assertEquals(10, set.percentile(0.5));
+        // p / 100 * size overshoots these by one rank in floating point
+        assertEquals(70, set.percentile(7));
+        assertEquals(140, set.percentile(14));
+        assertEquals(280, set.percentile(28));
+        assertEquals(550, set.percentile(55));
+        assertEquals(560, set.percentile(56));
+        for (int p = 1; p <= 100; p++) {
+            assertEquals(p * 10L, set.percentile(p), "p" + p);
+        }
+        assertThrows(IllegalArgumentException.class, () -> set.percentile(101));
+        assertThrows(IllegalArgumentException.class, () -> set.percentile(Double.NaN));
+    }
+
+    @Test
+    @DisplayName("Should add arrays and native segments in bulk")
+    void testAddAll() {
+        assertEquals(3, set.addAll(new long[] {5, 1, 5, 3}));
+        assertEquals(1, set.addAll(new long[] {3, 4}));
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment keys = arena.allocateArray(ValueLayout.JAVA_LONG, 2, 9, 1);
+            assertEquals(2, set.addAll(keys));
+            assertThrows(IllegalArgumentException.class, () -> set.addAll(MemorySegment.ofArray(new long[2])));
+            assertThrows(IllegalArgumentException.class, () -> set.addAll(keys.asSlice(0, 12)));
+        }
+        assertArrayEquals(new long[] {1, 2, 3, 4, 5, 9}, set.toArray());
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.rank(Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Should match a TreeSet under random adds and removes")
+    void testRandomAgainstReference() {
+        Random random = new Random(42);
+        TreeSet<Long> reference = new TreeSet<>();
+        long[] initial = new long[50_000];
+        for (int i = 0; i < initial.length; i++) {
+            initial[i] = random.nextInt(200_000);
+            reference.add(initial[i]);
+        }
+        assertEquals(reference.size(), set.addAll(initial));
+
+        for (int round = 0; round < 20; round++) {
+            boolean grow = round % 4 < 2;
+            for (int i = 0; i < 20_000; i++) {
+                long key = random.nextInt(200_000);
+                if (random.nextInt(100) < (grow ? 70 : 30)) {
+                    assertEquals(reference.add(key), set.add(key));
+                } else {
+                    assertEquals(reference.remove(key), set.remove(key));
+                }
+            }
+            assertEquals(reference.size(), set.longSize());
+            long[] sorted = reference.stream().mapToLong(Long::longValue).toArray();
+            for (int i = 0; i < 200; i++) {
+                int index = random.nextInt(sorted.length);
+                assertEquals(sorted[index], set.select(index));
+                long key = random.nextInt(200_000);
+                assertEquals(reference.headSet(key, true).size(), set.rank(key));
+                long hi = key + random.nextInt(10_000);
+                assertEquals(reference.subSet(key, true, hi, true).size(), set.countInRange(key, hi));
+            }
+            assertArrayEquals(Arrays.copyOfRange(sorted, 100, 1_100), set.toArray(100, 1_000));
+        }
+        assertArrayEquals(reference.stream().mapToLong(Long::longValue).toArray(), set.toArray());
+        assertTrue(set.sizeInBytes() > 8L * set.longSize());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed set")
+    void testClosedSet() {
+        set.close();
+        assertThrows(IllegalStateException.class, () -> set.add(1));
+        assertThrows(IllegalStateException.class, () -> set.rank(1));
+        assertThrows(IllegalStateException.class, () -> set.size());
+        assertEquals("OffHeapRankedSet[closed]", set.toString());
+    }
+}
@@ -0,0 +1,188 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapRecordList Tests")
+class OffHeapRecordListTest {
+
+    static final StructLayout TRADE = MemoryLayout.structLayout(
+            ValueLayout.JAVA_DOUBLE.withName("price"),
+            ValueLayout.JAVA_LONG.withName("qty"),
+            ValueLayout.JAVA_LONG.withName("ts"),
+            ValueLayout.JAVA_INT.withName("id"),
+            MemoryLayout.paddingLayout(4));
+
+    static final StructLayout PRICE_AND_ID = MemoryLayout.structLayout(
+            ValueLayout.JAVA_INT.withName("id"),
+            MemoryLayout.paddingLayout(4),
+            ValueLayout.JAVA_DOUBLE.withName("price"));
+
+    static final VarHandle PRICE = TRADE.varHandle(MemoryLayout.PathElement.groupElement("price"));
+    static final VarHandle QTY = TRADE.varHandle(MemoryLayout.PathElement.groupElement("qty"));
+    static final VarHandle TS = TRADE.varHandle(MemoryLayout.PathElement.groupElement("ts"));
+    static final VarHandle ID = TRADE.varHandle(MemoryLayout.PathElement.groupElement("id"));
+
+    private OffHeapRecordList list;
+    private Arena arena;
+
+    @BeforeEach
+    void setUp() {
+        list = new OffHeapRecordList(TRADE);
+        arena = Arena.ofConfined();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (list != null) {
+            list.close();
+        }
+        arena.close();
+    }
+
+    static MemorySegment trades(Arena arena, int count) {
+        MemorySegment records = arena.allocateArray(TRADE, count);
+        for (int i = 0; i < count; i++) {
+            MemorySegment record = records.asSlice(i * TRADE.byteSize(), TRADE.byteSize());
+            PRICE.set(record, 100.0 + i);
+            QTY.set(record, (long) i * 10);
+            TS.set(record, 1_000L + i);
+            ID.set(record, i);
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("Should create empty list")
+    void testCreateEmpty() {
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.size());
+        assertEquals(0, list.segment().byteSize());
+        assertEquals(TRADE, list.schema());
+    }
+
+    @Test
+    @DisplayName("Should read and write fields in place through var handles")
+    void testVarHandles() {
+        VarHandle price = OffHeapRecordList.varHandle(TRADE, "price");
+        VarHandle id = OffHeapRecordList.varHandle(TRADE, "id");
+        for (int i = 0; i < 1_000; i++) {
+            long row = list.addRow();
+            assertEquals(i, row);
+            MemorySegment rows = list.segment();
+            price.set(rows, row, i * 0.5);
+            id.set(rows, row, -i);
+        }
+        assertEquals(1_000, list.size());
+        assertEquals(1_000L, list.longSize());
+        MemorySegment rows = list.segment();
+        assertEquals(1_000 * TRADE.byteSize(), rows.byteSize());
+        for (long i = 0; i < 1_000; i++) {
+            assertEquals(i * 0.5, (double) price.get(rows, i));
+            assertEquals((int) -i, (int) id.get(rows, i));
+            assertEquals(0L, (long) QTY.get(list.row(i)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> OffHeapRecordList.varHandle(TRADE, "missing"));
+    }
+
+    @Test
+    @DisplayName("Should append, overwrite and copy whole records")
+    void testAddAndGet() {
+        MemorySegment batch = trades(arena, 500);
+        list.addAll(batch.asSlice(0, 499 * TRADE.byteSize()));
+        list.add(batch.asSlice(499 * TRADE.byteSize()));
+        assertEquals(500, list.size());
+        assertEquals(-1, list.segment().mismatch(batch));
+
+        MemorySegment record = arena.allocate(TRADE);
+        list.get(42, record);
+        assertEquals(142.0, (double) PRICE.get(record));
+        assertEquals(420L, (long) QTY.get(record));
+
+        PRICE.set(record, 7.5);
+        list.set(3, record);
+        assertEquals(7.5, (double) PRICE.get(list.row(3)));
+        assertEquals(42, (int) ID.get(list.row(3)));
+
+        assertThrows(IllegalArgumentException.class, () -> list.add(arena.allocate(8)));
+        assertThrows(IllegalArgumentException.class, () -> list.addAll(arena.allocate(TRADE.byteSize() + 1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.row(500));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(500, record));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, record));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(500, record));
+    }
+
+    @Test
+    @DisplayName("Should project selected fields of a record")
+    void testProject() {
+        list.addAll(trades(arena, 10));
+        MemorySegment out = arena.allocate(PRICE_AND_ID);
+        list.project(7, PRICE_AND_ID, out);
+        assertEquals(7, out.get(ValueLayout.JAVA_INT, 0));
+        assertEquals(107.0, out.get(ValueLayout.JAVA_DOUBLE, 8));
+
+        StructLayout wrongSize = MemoryLayout.structLayout(ValueLayout.JAVA_INT.withName("price"));
+        assertThrows(IllegalArgumentException.class, () -> list.project(0, wrongSize, arena.allocate(wrongSize)));
+        StructLayout unknown = MemoryLayout.structLayout(ValueLayout.JAVA_LONG.withName("venue"));
+        assertThrows(IllegalArgumentException.class, () -> list.project(0, unknown, arena.allocate(unknown)));
+    }
+
+    @Test
+    @DisplayName("Should invalidate stale segments when the list grows")
+    void testGrowth() {
+        list.addRow();
+        MemorySegment stale = list.segment();
+        long capacity = list.capacity();
+        for (long i = 1; i <= capacity; i++) {
+            list.addRow();
+        }
+        assertThrows(IllegalStateException.class, () -> stale.get(ValueLayout.JAVA_LONG, 0));
+
+        list.reserve(10_000);
+        assertTrue(list.capacity() >= 10_000);
+        list.trimToSize();
+        assertEquals(list.size(), list.capacity());
+        assertEquals(list.longSize(), list.longCapacity());
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        list.addRow();
+        assertEquals(0L, (long) TS.get(list.row(0)));
+    }
+
+    @Test
+    @DisplayName("Should reject unsupported schemas")
+    void testInvalidSchema() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRecordList(
+                MemoryLayout.structLayout(ValueLayout.JAVA_LONG)));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRecordList(
+                MemoryLayout.structLayout(ValueLayout.JAVA_LONG.withName("a"), ValueLayout.JAVA_INT.withName("b"))));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRecordList(
+                MemoryLayout.structLayout(ValueLayout.JAVA_LONG.withName("a"), ValueLayout.JAVA_LONG.withName("a"))));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRecordList(
+                MemoryLayout.structLayout(MemoryLayout.sequenceLayout(2, ValueLayout.JAVA_LONG).withName("pair"))));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapRecordList(TRADE, -1));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed list")
+    void testClosedList() {
+        list.addRow();
+        MemorySegment rows = list.segment();
+        list.close();
+        assertThrows(IllegalStateException.class, () -> list.addRow());
+        assertThrows(IllegalStateException.class, () -> list.segment());
+        assertThrows(IllegalStateException.class, () -> rows.get(ValueLayout.JAVA_LONG, 0));
+    }
+}
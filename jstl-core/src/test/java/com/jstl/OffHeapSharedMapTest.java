@@ -0,0 +1,238 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.ValueLayout;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapSharedMap Tests")
+class OffHeapSharedMapTest {
+
+    private String name;
+    private OffHeapSharedMap writer;
+
+    @BeforeEach
+    void setUp() {
+        name = "jstl-test-" + ProcessHandle.current().pid() + "-" + System.nanoTime();
+        writer = OffHeapSharedMap.create(name, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.close();
+        OffHeapSharedMap.unlink(name);
+    }
+
+    @Test
+    @DisplayName("Should share entries with a reader handle")
+    void testPutAndGetFromReader() {
+        writer.put(1, 100);
+        writer.put(2, 200);
+        writer.put(0, 7);
+        try (OffHeapSharedMap reader = OffHeapSharedMap.open(name)) {
+            assertFalse(reader.isWriter());
+            assertTrue(writer.isWriter());
+            assertEquals("/" + name, reader.name());
+            assertEquals(3, reader.size());
+            assertEquals(100, reader.get(1));
+            assertEquals(7, reader.get(0));
+            assertTrue(reader.containsKey(0));
+            assertEquals(0, reader.get(3));
+            assertEquals(-1, reader.getOrDefault(3, -1));
+            assertFalse(reader.containsKey(3));
+
+            // Later writes are visible without reopening
+            writer.put(1, 101);
+            writer.put(3, 300);
+            assertEquals(101, reader.get(1));
+            assertEquals(300, reader.get(3));
+            assertEquals(4, reader.longSize());
+            assertEquals(1000, reader.maxEntries());
+            assertEquals(writer.sizeInBytes(), reader.sizeInBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject writes through a reader handle")
+    void testReaderIsReadOnly() {
+        try (OffHeapSharedMap reader = OffHeapSharedMap.open("/" + name)) {
+            assertThrows(UnsupportedOperationException.class, () -> reader.put(1, 1));
+            assertThrows(UnsupportedOperationException.class, () -> reader.putAll(new long[] {1}, new long[] {1}));
+            assertThrows(UnsupportedOperationException.class, () -> reader.remove(1));
+            assertThrows(UnsupportedOperationException.class, reader::clear);
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove entries and keep probe chains intact")
+    void testRemoveMatchesHashMap() {
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(1500) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, writer.remove(key));
+            } else if (expected.size() < 1000 || expected.containsKey(key)) {
+                writer.put(key, i);
+                expected.put(key, (long) i);
+            }
+        }
+        try (OffHeapSharedMap reader = OffHeapSharedMap.open(name)) {
+            assertEquals(expected.size(), reader.longSize());
+            for (long key = -100; key < 1400; key++) {
+                Long value = expected.get(key);
+                assertEquals(value != null, reader.containsKey(key), "key " + key);
+                if (value != null) {
+                    assertEquals(value.longValue(), reader.get(key));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should put and get in bulk")
+    void testPutAllAndGetAll() {
+        long[] keys = new long[500];
+        long[] values = new long[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 3L;
+            values[i] = i;
+        }
+        assertEquals(500, writer.putAll(keys, values));
+        assertEquals(0, writer.putAll(new long[] {0, 3}, new long[] {9, 9}));
+        assertEquals(0, writer.putAll(new long[0], new long[0]));
+        assertThrows(IllegalArgumentException.class, () -> writer.putAll(new long[2], new long[1]));
+
+        try (Arena arena = Arena.ofConfined()) {
+            assertEquals(1, writer.putAll(arena.allocateArray(ValueLayout.JAVA_LONG, 1, 3),
+                    arena.allocateArray(ValueLayout.JAVA_LONG, 10, 30)));
+        }
+
+        try (OffHeapSharedMap reader = OffHeapSharedMap.open(name)) {
+            assertArrayEquals(new long[] {9, 30, 10, 2, -1, -1}, reader.getAll(new long[] {0, 3, 1, 6, 7, 4}, -1));
+            assertArrayEquals(new long[0], reader.getAll(new long[0], -1));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse entries past maxEntries")
+    void testFull() {
+        long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i + 1;
+        }
+        assertEquals(1000, writer.putAll(keys, keys));
+        writer.put(5, 55);
+        assertThrows(IllegalStateException.class, () -> writer.put(5000, 1));
+        assertThrows(IllegalStateException.class, () -> writer.putAll(new long[] {6000, 7000}, new long[2]));
+        assertTrue(writer.remove(1));
+        writer.put(5000, 1);
+        assertEquals(1000, writer.longSize());
+    }
+
+    @Test
+    @DisplayName("Should clear and count versions")
+    void testClearAndVersion() {
+        long before = writer.version();
+        writer.put(1, 1);
+        writer.put(0, 0);
+        assertTrue(writer.version() > before);
+        try (OffHeapSharedMap reader = OffHeapSharedMap.open(name)) {
+            long seen = reader.version();
+            assertEquals(writer.version(), seen);
+            writer.clear();
+            assertTrue(reader.isEmpty());
+            assertFalse(reader.containsKey(0));
+            assertFalse(reader.containsKey(1));
+            assertTrue(reader.version() > seen);
+        }
+    }
+
+    @Test
+    @DisplayName("Should report missing, existing and invalid regions")
+    void testCreateAndOpenErrors() {
+        assertThrows(IllegalStateException.class, () -> OffHeapSharedMap.create(name, 10));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSharedMap.open(name + "-missing"));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSharedMap.create("a/b", 10));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSharedMap.open("/"));
+        assertThrows(IllegalArgumentException.class, () -> OffHeapSharedMap.create(name + "-x", 0));
+        assertFalse(OffHeapSharedMap.unlink(name + "-missing"));
+    }
+
+    @Test
+    @DisplayName("Should keep open handles working after unlink")
+    void testUnlink() {
+        writer.put(1, 10);
+        try (OffHeapSharedMap reader = OffHeapSharedMap.open(name)) {
+            assertTrue(OffHeapSharedMap.unlink(name));
+            assertThrows(IllegalArgumentException.class, () -> OffHeapSharedMap.open(name));
+            writer.put(2, 20);
+            assertEquals(20, reader.get(2));
+        }
+        // The name is free again
+        try (OffHeapSharedMap again = OffHeapSharedMap.create(name, 10)) {
+            assertTrue(again.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Should never show a torn entry to concurrent readers")
+    void testConcurrentReaders() throws InterruptedException {
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong errors = new AtomicLong();
+        Thread[] readers = new Thread[2];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                try (OffHeapSharedMap reader = OffHeapSharedMap.open(name)) {
+                    Random random = new Random();
+                    while (!done.get()) {
+                        long key = random.nextInt(900) + 1;
+                        // Every value written for key is key + a multiple of 10000
+                        if (reader.containsKey(key) && reader.getOrDefault(key, key) % 10_000 != key) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    errors.incrementAndGet();
+                }
+            });
+            readers[t].start();
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(900) + 1;
+            if (random.nextInt(4) == 0) {
+                writer.remove(key);
+            } else {
+                writer.put(key, key + 10_000L * (i % 100));
+            }
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(0, errors.get());
+    }
+
+    @Test
+    @DisplayName("Should throw after close")
+    void testClosed() {
+        OffHeapSharedMap reader = OffHeapSharedMap.open(name);
+        reader.close();
+        reader.close();
+        assertEquals("OffHeapSharedMap[closed]", reader.toString());
+        assertThrows(IllegalStateException.class, () -> reader.get(1));
+        assertThrows(IllegalStateException.class, reader::size);
+        assertTrue(writer.toString().contains("writer"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapStringDictionary Tests")
+class OffHeapStringDictionaryTest {
+
+    private OffHeapStringDictionary dict;
+
+    @BeforeEach
+    void setUp() {
+        dict = new OffHeapStringDictionary();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dict != null) {
+            dict.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should create empty dictionary")
+    void testCreateEmpty() {
+        assertTrue(dict.isEmpty());
+        assertEquals(0, dict.size());
+        assertEquals(-1, dict.find("a"));
+        assertThrows(IndexOutOfBoundsException.class, () -> dict.valueOf(0));
+    }
+
+    @Test
+    @DisplayName("Should assign dense ids in first-seen order")
+    void testIdOf() {
+        assertEquals(0, dict.idOf("apple"));
+        assertEquals(1, dict.idOf("banana"));
+        assertEquals(0, dict.idOf("apple"));
+        assertEquals(2, dict.idOf(""));
+        assertEquals(3, dict.size());
+
+        assertEquals(1, dict.find("banana"));
+        assertEquals(-1, dict.find("cherry"));
+        assertTrue(dict.contains(""));
+        assertEquals("banana", dict.valueOf(1));
+        assertEquals("", dict.valueOf(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> dict.valueOf(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> dict.valueOf(-1));
+    }
+
+    @Test
+    @DisplayName("Should encode non-ASCII strings exactly as UTF-8")
+    void testUnicode() {
+        String[] values = {"café", "日本語", "emoji 😀", "lone \uD800 surrogate", "\u0000nul"};
+        for (String value : values) {
+            int id = dict.idOf(value);
+            assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), dict.bytesOf(id).toArray(ValueLayout.JAVA_BYTE), value);
+            assertEquals(new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8), dict.valueOf(id));
+        }
+        assertEquals(values.length, dict.size());
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4}, dict.idsOf(values));
+    }
+
+    @Test
+    @DisplayName("Should accept and return UTF-8 bytes in segments")
+    void testSegments() {
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment key = arena.allocateUtf8String("segment-key");
+            MemorySegment utf8 = key.asSlice(0, key.byteSize() - 1);  // drop the terminator
+            int id = dict.idOf(utf8);
+            assertEquals(id, dict.idOf("segment-key"));
+            assertEquals(id, dict.find(MemorySegment.ofArray("segment-key".getBytes(StandardCharsets.UTF_8))));
+
+            MemorySegment view = dict.bytesOf(id);
+            assertTrue(view.isReadOnly());
+            assertEquals(-1, view.mismatch(utf8));
+
+            MemorySegment buffer = arena.allocate(64);
+            assertEquals(11, dict.valueOf(id, buffer));
+            assertEquals(-1, buffer.asSlice(0, 11).mismatch(utf8));
+            assertThrows(IllegalArgumentException.class, () -> dict.valueOf(id, arena.allocate(4)));
+
+            dict.clear();
+            assertThrows(IllegalStateException.class, () -> view.get(ValueLayout.JAVA_BYTE, 0));
+        }
+    }
+
+    @Test
+    @DisplayName("Should match a HashMap under bulk and single inserts")
+    void testAgainstReference() {
+        Random random = new Random(42);
+        Map<String, Integer> expected = new HashMap<>();
+        String[] batch = new String[1_000];
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = "k" + random.nextInt(50_000) + "-".repeat(random.nextInt(40));
+            }
+            int[] ids = round % 2 == 0 ? dict.idsOf(batch) : null;
+            for (int i = 0; i < batch.length; i++) {
+                int id = ids != null ? ids[i] : dict.idOf(batch[i]);
+                Integer previous = expected.putIfAbsent(batch[i], id);
+                assertEquals(previous == null ? id : previous, id);
+            }
+        }
+        assertEquals(expected.size(), dict.size());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), dict.find(entry.getKey()));
+            assertEquals(entry.getKey(), dict.valueOf(entry.getValue()));
+        }
+        assertTrue(dict.sizeInBytes() < expected.size() * 100L, "bytes: " + dict.sizeInBytes());
+    }
+
+    @Test
+    @DisplayName("Should restart ids after clear")
+    void testClear() {
+        dict.idOf("a");
+        dict.idOf("b");
+        dict.clear();
+        assertTrue(dict.isEmpty());
+        assertEquals(-1, dict.find("a"));
+        assertEquals(0, dict.idOf("b"));
+        assertEquals(0, dict.idsOf(new String[0]).length);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed dictionary")
+    void testClosedDictionary() {
+        dict.idOf("x");
+        MemorySegment view = dict.bytesOf(0);
+        dict.close();
+        assertThrows(IllegalStateException.class, () -> dict.idOf("x"));
+        assertThrows(IllegalStateException.class, () -> dict.valueOf(0));
+        assertThrows(IllegalStateException.class, () -> view.get(ValueLayout.JAVA_BYTE, 0));
+    }
+}
@@ -0,0 +1,226 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.ValueLayout;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapTieredMap Tests")
+class OffHeapTieredMapTest {
+
+    private static final long BUDGET = 1L << 20;
+
+    @TempDir
+    Path dir;
+
+    private OffHeapTieredMap map;
+
+    @BeforeEach
+    void setUp() {
+        map = new OffHeapTieredMap(dir, BUDGET, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        map.close();
+    }
+
+    @Test
+    @DisplayName("Should put and get from the hot tier")
+    void testPutAndGet() {
+        map.put(1, 100);
+        map.put(2, 200);
+        map.put(1, 101);
+        assertEquals(2, map.size());
+        assertEquals(101, map.get(1));
+        assertEquals(0, map.get(3));
+        assertEquals(-1, map.getOrDefault(3, -1));
+        assertTrue(map.containsKey(2));
+        assertFalse(map.containsKey(3));
+        assertEquals(2, map.hotSize());
+        assertEquals(0, map.runCount());
+    }
+
+    @Test
+    @DisplayName("Should find spilled entries and shadow them with newer ones")
+    void testSpill() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i * 10L);
+        }
+        map.spill();
+        assertEquals(0, map.hotSize());
+        assertEquals(1, map.runCount());
+        assertTrue(map.diskBytes() > 0);
+        assertEquals(1000, map.longSize());
+        assertEquals(990, map.get(99));
+        assertFalse(map.containsKey(1000));
+
+        map.put(5, -5);
+        assertTrue(map.remove(6));
+        assertFalse(map.remove(6));
+        assertFalse(map.remove(1000));
+        map.spill();
+        assertEquals(2, map.runCount());
+        assertEquals(-5, map.get(5));
+        assertFalse(map.containsKey(6));
+        assertEquals(999, map.longSize());
+
+        map.compact();
+        assertEquals(1, map.runCount());
+        assertEquals(-5, map.get(5));
+        assertFalse(map.containsKey(6));
+        assertEquals(70, map.get(7));
+        assertEquals(999, map.longSize());
+        assertTrue(map.mergeCount() >= 1);
+    }
+
+    @Test
+    @DisplayName("Should spill a hot tier larger than one write batch")
+    void testSpillInBatches() {
+        // Over 8192 entries, so the run is written in more than one pass
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextLong();
+            map.put(key, i);
+            expected.put(key, (long) i);
+        }
+        assertEquals(0, map.runCount());
+        map.spill();
+        assertEquals(0, map.hotSize());
+        assertEquals(1, map.runCount());
+        assertEquals(expected.size(), map.longSize());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.getOrDefault(entry.getKey(), -1), "key " + entry.getKey());
+        }
+
+        int seen = 0;
+        for (Iterator<Long> keys = expected.keySet().iterator(); keys.hasNext();) {
+            long key = keys.next();
+            if (seen++ % 3 == 0) {
+                assertTrue(map.remove(key));
+                keys.remove();
+                assertFalse(map.containsKey(key));
+            }
+        }
+        map.spill();
+        map.compact();
+        assertEquals(expected.size(), map.longSize());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.getOrDefault(entry.getKey(), -1), "key " + entry.getKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay within the memory budget and match a HashMap")
+    void testBudgetMatchesHashMap() {
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 300_000; i++) {
+            long key = random.nextInt(120_000);
+            int op = random.nextInt(10);
+            if (op == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key), "key " + key);
+            } else if (op < 3) {
+                assertEquals(expected.getOrDefault(key, -1L), map.getOrDefault(key, -1), "key " + key);
+            } else {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            }
+            if (i % 50_000 == 0) {
+                // The budget allows some slack for spill granularity
+                assertTrue(map.sizeInBytes() < BUDGET + BUDGET / 2, "memory " + map.sizeInBytes());
+            }
+        }
+        assertTrue(map.runCount() > 0);
+        assertTrue(map.hotSize() < expected.size());
+        assertEquals(expected.size(), map.longSize());
+        for (long key = 0; key < 120_000; key++) {
+            assertEquals(expected.getOrDefault(key, -1L), map.getOrDefault(key, -1), "key " + key);
+        }
+        map.compact();
+        assertEquals(expected.size(), map.longSize());
+        assertEquals(expected.getOrDefault(7L, -1L), map.getOrDefault(7, -1));
+    }
+
+    @Test
+    @DisplayName("Should put and get in bulk")
+    void testPutAllAndGetAll() {
+        long[] keys = new long[500];
+        long[] values = new long[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i * 3L;
+            values[i] = i;
+        }
+        assertEquals(500, map.putAll(keys, values));
+        map.spill();
+        assertEquals(0, map.putAll(new long[] {0, 3}, new long[] {9, 9}));
+        assertEquals(0, map.putAll(new long[0], new long[0]));
+        assertThrows(IllegalArgumentException.class, () -> map.putAll(new long[2], new long[1]));
+
+        try (Arena arena = Arena.ofConfined()) {
+            assertEquals(1, map.putAll(arena.allocateArray(ValueLayout.JAVA_LONG, 1, 3),
+                    arena.allocateArray(ValueLayout.JAVA_LONG, 10, 30)));
+        }
+        assertArrayEquals(new long[] {9, 30, 10, 2, -1, -1}, map.getAll(new long[] {0, 3, 1, 6, 7, 4}, -1));
+        assertArrayEquals(new long[0], map.getAll(new long[0], -1));
+        assertEquals(501, map.longSize());
+    }
+
+    @Test
+    @DisplayName("Should leave no files behind")
+    void testRunFilesAreUnlinked() throws IOException {
+        for (int i = 0; i < 200_000; i++) {
+            map.put(i, i);
+        }
+        map.spill();
+        assertTrue(map.runCount() > 0);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(0, map.runCount());
+        assertEquals(0, map.diskBytes());
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    @DisplayName("Should validate arguments")
+    void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapTieredMap(dir, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapTieredMap(dir, BUDGET, 1));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapTieredMap(dir.resolve("missing"), BUDGET));
+        assertThrows(NullPointerException.class, () -> new OffHeapTieredMap(null, BUDGET));
+        assertEquals(dir.toAbsolutePath(), map.directory());
+        assertEquals(BUDGET, map.memoryBudget());
+    }
+
+    @Test
+    @DisplayName("Should throw after close")
+    void testClosed() {
+        OffHeapTieredMap other = new OffHeapTieredMap(dir, BUDGET);
+        other.put(1, 1);
+        assertTrue(other.toString().contains("size=1"));
+        other.close();
+        other.close();
+        assertEquals("OffHeapTieredMap[closed]", other.toString());
+        assertThrows(IllegalStateException.class, () -> other.get(1));
+        assertThrows(IllegalStateException.class, other::size);
+        assertThrows(IllegalStateException.class, other::spill);
+    }
+}
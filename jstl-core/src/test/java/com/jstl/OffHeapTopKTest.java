@@ -0,0 +1,128 @@
+package com.jstl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OffHeapTopK Tests")
+class OffHeapTopKTest {
+
+    private OffHeapTopK topK;
+
+    @BeforeEach
+    void setUp() {
+        topK = new OffHeapTopK(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        topK.close();
+    }
+
+    @Test
+    @DisplayName("Should keep the k largest priorities")
+    void testKeepsLargest() {
+        assertTrue(topK.isEmpty());
+        assertFalse(topK.isFull());
+        assertThrows(IllegalStateException.class, () -> topK.threshold());
+        assertTrue(topK.offer(5));
+        assertTrue(topK.offer(1));
+        assertTrue(topK.offer(9));
+        assertTrue(topK.isFull());
+        assertEquals(1, topK.threshold());
+
+        // Must strictly beat the threshold
+        assertFalse(topK.offer(1));
+        assertFalse(topK.offer(0));
+        assertTrue(topK.offer(7));
+        assertEquals(5, topK.threshold());
+        assertEquals(3, topK.size());
+        assertArrayEquals(new long[] {9, 7, 5}, topK.toSortedArray());
+
+        topK.clear();
+        assertTrue(topK.isEmpty());
+        assertTrue(topK.offer(-1));
+        assertArrayEquals(new long[] {-1}, topK.toSortedArray());
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapTopK(0));
+    }
+
+    @Test
+    @DisplayName("Should keep the k smallest priorities with payloads")
+    void testKeepsSmallestWithPayloads() {
+        try (OffHeapTopK smallest = new OffHeapTopK(2, OffHeapLongPriorityQueue.Order.MIN, true)) {
+            assertEquals(3, smallest.offerAll(new long[] {40, 10, 30}, new long[] {4, 1, 3}));
+            assertEquals(30, smallest.threshold());
+            assertFalse(smallest.offer(35, 99));
+            assertTrue(smallest.offer(20, 2));
+            assertArrayEquals(new long[] {10, 20}, smallest.toSortedArray());
+            assertArrayEquals(new long[] {1, 2}, smallest.toSortedPayloads());
+
+            try (OffHeapArrayList priorities = new OffHeapArrayList();
+                 OffHeapArrayList payloads = new OffHeapArrayList()) {
+                smallest.drainSorted(priorities, payloads);
+                assertArrayEquals(new long[] {10, 20}, priorities.stream().toArray());
+                assertArrayEquals(new long[] {1, 2}, payloads.stream().toArray());
+            }
+            assertTrue(smallest.isEmpty());
+            assertFalse(smallest.isFull());
+        }
+        assertThrows(IllegalStateException.class, () -> topK.offer(1, 2));
+        assertThrows(IllegalStateException.class, () -> topK.toSortedPayloads());
+    }
+
+    @Test
+    @DisplayName("Should match a sorted reference over a random stream")
+    void testRandomAgainstReference() {
+        Random random = new Random(42);
+        int count = 200_000;
+        long[] priorities = new long[count];
+        for (int i = 0; i < count; i++) {
+            priorities[i] = random.nextInt(1_000_000);
+        }
+        long[] sorted = priorities.clone();
+        Arrays.sort(sorted);
+
+        for (int k : new int[] {1, 10, 1_000}) {
+            long[] expected = new long[k];
+            for (int i = 0; i < k; i++) {
+                expected[i] = sorted[count - 1 - i];
+            }
+            try (OffHeapTopK single = new OffHeapTopK(k, true);
+                 OffHeapTopK bulk = new OffHeapTopK(k);
+                 Arena arena = Arena.ofConfined()) {
+                for (int i = 0; i < count; i++) {
+                    single.offer(priorities[i], i);
+                }
+                int half = count / 2;
+                bulk.offerAll(Arrays.copyOf(priorities, half));
+                bulk.offerAll(arena.allocateArray(ValueLayout.JAVA_LONG, Arrays.copyOfRange(priorities, half, count)));
+
+                assertArrayEquals(expected, single.toSortedArray());
+                assertArrayEquals(expected, bulk.toSortedArray());
+                assertEquals(expected[k - 1], bulk.threshold());
+                long[] rows = single.toSortedPayloads();
+                for (int i = 0; i < k; i++) {
+                    assertEquals(expected[i], priorities[(int) rows[i]]);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should throw exception when using closed top-k")
+    void testClosedTopK() {
+        topK.close();
+        assertThrows(IllegalStateException.class, () -> topK.offer(1));
+        assertThrows(IllegalStateException.class, () -> topK.toSortedArray());
+        assertThrows(IllegalStateException.class, () -> topK.size());
+        assertEquals("OffHeapTopK[closed]", topK.toString());
+    }
+}
@@ -0,0 +1,84 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapArrayList;
+import com.jstl.OffHeapCompressedLongList;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.SplittableRandom;
+
+/**
+ * Compares memory and sequential scan cost of OffHeapCompressedLongList
+ * with a plain OffHeapArrayList, for millisecond timestamps, sequential IDs
+ * and random values. "decode" copies every value out, to a long[] for the
+ * plain list and to a native segment for the compressed one; "scan" sums
+ * them through a stream or forEach.
+ *
+ * Usage: CompressedListBenchmark [values]
+ */
+public class CompressedListBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.println("=== Compressed List Benchmark (" + n + " values) ===\n");
+        System.out.println(String.format("%-12s %-12s %12s %12s %12s", "values", "list", "bytes/value", "decode ns", "scan ns"));
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] timestamps = new long[n];
+        long[] ids = new long[n];
+        long[] noise = new long[n];
+        long ts = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            ts += random.nextInt(20);
+            timestamps[i] = ts;
+            ids[i] = 1_000_000 + i;
+            noise[i] = random.nextLong();
+        }
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment out = arena.allocateArray(ValueLayout.JAVA_LONG, n);
+            for (int round = 0; round < 3; round++) {
+                boolean print = round == 2;
+                run("timestamps", timestamps, out, print);
+                run("ids", ids, out, print);
+                run("random", noise, out, print);
+            }
+        }
+    }
+
+    private static void run(String label, long[] values, MemorySegment out, boolean print) {
+        int n = values.length;
+        try (OffHeapArrayList plain = new OffHeapArrayList(n);
+             OffHeapCompressedLongList compressed = new OffHeapCompressedLongList()) {
+            for (long value : values) {
+                plain.add(value);
+            }
+            compressed.addAll(values);
+            compressed.trimToSize();
+
+            long start = System.nanoTime();
+            long[] copy = plain.stream().toArray();
+            long plainDecode = System.nanoTime() - start;
+            start = System.nanoTime();
+            long plainSum = plain.stream().sum();
+            long plainScan = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            compressed.decode(0, out);
+            long decode = System.nanoTime() - start;
+            long[] sum = {0};
+            start = System.nanoTime();
+            compressed.forEach(v -> sum[0] += v);
+            long scan = System.nanoTime() - start;
+
+            if (plainSum != sum[0] || copy[n - 1] != out.getAtIndex(ValueLayout.JAVA_LONG, n - 1)) {
+                throw new AssertionError("Lists disagree for " + label);
+            }
+            if (print) {
+                System.out.println(String.format("%-12s %-12s %12.2f %12.2f %12.2f", label, "ArrayList",
+                        8.0, (double) plainDecode / n, (double) plainScan / n));
+                System.out.println(String.format("%-12s %-12s %12.2f %12.2f %12.2f", "", "compressed",
+                        (double) compressed.sizeInBytes() / n, (double) decode / n, (double) scan / n));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapArrayList;
+import com.jstl.OffHeapGroupBy;
+import com.jstl.OffHeapGroupBy.Aggregate;
+import com.jstl.OffHeapHashMap;
+import java.util.SplittableRandom;
+
+/**
+ * Compares GROUP BY key SUM(value) over two OffHeapArrayList columns done
+ * as a Java loop (get + get + OffHeapHashMap.get + put per row) with
+ * OffHeapGroupBy, on one thread and on all available processors, for a few
+ * group counts.
+ *
+ * Usage: GroupByBenchmark [rows]
+ */
+public class GroupByBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("=== Group By Benchmark (" + n + " rows, " + threads + " processors) ===\n");
+        System.out.println(String.format("%-10s %-22s %12s", "groups", "method", "ns/row"));
+
+        for (int groups : new int[] {100, 100_000, 2_000_000}) {
+            SplittableRandom random = new SplittableRandom(42);
+            try (OffHeapArrayList keys = new OffHeapArrayList(n);
+                 OffHeapArrayList values = new OffHeapArrayList(n)) {
+                for (int i = 0; i < n; i++) {
+                    keys.add(random.nextInt(groups) * 7919L);
+                    values.add(random.nextInt(1_000));
+                }
+                for (int round = 0; round < 2; round++) {
+                    boolean print = round == 1;
+                    long loopSum = javaLoop(keys, values, groups, print);
+                    long nativeSum = groupBy(keys, values, 1, groups, print);
+                    if (threads > 1) {
+                        groupBy(keys, values, threads, groups, print);
+                    }
+                    if (loopSum != nativeSum) {
+                        throw new AssertionError("Sums differ: " + loopSum + " != " + nativeSum);
+                    }
+                }
+            }
+        }
+    }
+
+    private static long javaLoop(OffHeapArrayList keys, OffHeapArrayList values, int groups, boolean print) {
+        long n = keys.longSize();
+        try (OffHeapHashMap sums = new OffHeapHashMap()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < n; i++) {
+                long key = keys.get(i);
+                sums.put(key, sums.get(key) + values.get(i));
+            }
+            long elapsed = System.nanoTime() - start;
+            report(groups, "Java loop", elapsed, n, print);
+            return sums.get(0);
+        }
+    }
+
+    private static long groupBy(OffHeapArrayList keys, OffHeapArrayList values, int threads, int groups, boolean print) {
+        long n = keys.longSize();
+        try (OffHeapGroupBy groupBy = new OffHeapGroupBy(Aggregate.SUM)) {
+            groupBy.setParallelism(threads);
+            long start = System.nanoTime();
+            groupBy.add(keys, values);
+            long elapsed = System.nanoTime() - start;
+            report(groups, "OffHeapGroupBy x" + threads, elapsed, n, print);
+            return groupBy.get(0, Aggregate.SUM);
+        }
+    }
+
+    private static void report(int groups, String method, long elapsed, long n, boolean print) {
+        if (print) {
+            System.out.println(String.format("%-10d %-22s %12.1f", groups, method, (double) elapsed / n));
+        }
+    }
+}
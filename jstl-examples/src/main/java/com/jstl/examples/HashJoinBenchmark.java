@@ -0,0 +1,104 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapArrayList;
+import com.jstl.OffHeapHashJoin;
+import com.jstl.OffHeapHashMap;
+import java.util.SplittableRandom;
+
+/**
+ * Compares an inner join of a probe column against a build column of
+ * distinct keys done as a Java loop (OffHeapArrayList.get + OffHeapHashMap
+ * lookup per probe row) with OffHeapHashJoin probing in place and
+ * partitioned, on one thread and on all available processors. About half
+ * of the probe keys match.
+ *
+ * Usage: HashJoinBenchmark [buildRows] [probeRows]
+ */
+public class HashJoinBenchmark {
+    public static void main(String[] args) {
+        int buildRows = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int probeRows = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.println("=== Hash Join Benchmark (" + buildRows + " build rows, " + probeRows
+                + " probe rows, " + threads + " processors) ===\n");
+
+        SplittableRandom random = new SplittableRandom(42);
+        try (OffHeapArrayList buildKeys = new OffHeapArrayList(buildRows);
+             OffHeapArrayList buildPayloads = new OffHeapArrayList(buildRows);
+             OffHeapArrayList probeKeys = new OffHeapArrayList(probeRows)) {
+            for (int i = 0; i < buildRows; i++) {
+                buildKeys.add(i * 0x9E3779B97F4A7C15L);
+                buildPayloads.add(i);
+            }
+            for (int i = 0; i < probeRows; i++) {
+                probeKeys.add(random.nextInt(buildRows * 2) * 0x9E3779B97F4A7C15L);
+            }
+
+            for (int round = 0; round < 2; round++) {
+                boolean print = round == 1;
+                long expected = javaLoop(buildKeys, buildPayloads, probeKeys, print);
+                for (int t : threads > 1 ? new int[] {1, threads} : new int[] {1}) {
+                    for (boolean partitioned : new boolean[] {false, true}) {
+                        long matches = nativeJoin(buildKeys, buildPayloads, probeKeys, t, partitioned, print);
+                        if (matches != expected) {
+                            throw new AssertionError("Match counts differ: " + matches + " != " + expected);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static long javaLoop(OffHeapArrayList buildKeys, OffHeapArrayList buildPayloads,
+                                 OffHeapArrayList probeKeys, boolean print) {
+        try (OffHeapHashMap table = new OffHeapHashMap(buildKeys.longSize());
+             OffHeapArrayList indexes = new OffHeapArrayList();
+             OffHeapArrayList payloads = new OffHeapArrayList()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < buildKeys.longSize(); i++) {
+                table.put(buildKeys.get(i), buildPayloads.get(i));
+            }
+            long build = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long n = probeKeys.longSize();
+            for (long i = 0; i < n; i++) {
+                long key = probeKeys.get(i);
+                if (table.containsKey(key)) {
+                    indexes.add(i);
+                    payloads.add(table.get(key));
+                }
+            }
+            long probe = System.nanoTime() - start;
+            report("Java loop", build, buildKeys.longSize(), probe, n, print);
+            return indexes.longSize();
+        }
+    }
+
+    private static long nativeJoin(OffHeapArrayList buildKeys, OffHeapArrayList buildPayloads,
+                                   OffHeapArrayList probeKeys, int threads, boolean partitioned, boolean print) {
+        try (OffHeapHashJoin join = new OffHeapHashJoin();
+             OffHeapArrayList indexes = new OffHeapArrayList();
+             OffHeapArrayList payloads = new OffHeapArrayList()) {
+            join.setParallelism(threads);
+            join.setPartitioned(partitioned);
+            long start = System.nanoTime();
+            join.build(buildKeys, buildPayloads);
+            long build = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long matches = join.innerJoin(probeKeys, indexes, payloads);
+            long probe = System.nanoTime() - start;
+            report("HashJoin x" + threads + (partitioned ? " partitioned" : ""), build, buildKeys.longSize(),
+                    probe, probeKeys.longSize(), print);
+            return matches;
+        }
+    }
+
+    private static void report(String label, long build, long buildRows, long probe, long probeRows, boolean print) {
+        if (print) {
+            System.out.println(String.format("%-26s build %6.1f ns/row   probe %6.1f ns/row", label,
+                    (double) build / buildRows, (double) probe / probeRows));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.jstl.examples;
+
+import com.jstl.HashStrategy;
+import com.jstl.OffHeapHashMap;
+import java.util.SplittableRandom;
+
+/**
+ * Compares put and get cost of each HashStrategy over several key
+ * distributions. The "bucket multiples" keys are all multiples of the
+ * table's bucket count, the worst case for identity hashing; they use a
+ * smaller key count because that case degrades to a list scan.
+ *
+ * Usage: HashStrategyBenchmark [keys]
+ */
+public class HashStrategyBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        System.out.println("=== Hash Strategy Benchmark (" + n + " keys) ===\n");
+        System.out.println(String.format("%-18s %-9s %10s %10s %10s", "keys", "strategy", "put ns", "hit ns", "miss ns"));
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] sequential = new long[n];
+        long[] strided = new long[n];
+        long[] shuffled = new long[n];
+        for (int i = 0; i < n; i++) {
+            sequential[i] = i;
+            strided[i] = (long) i * 1024;
+            shuffled[i] = random.nextLong();
+        }
+
+        // Warm up the downcalls before measuring
+        run("warm-up", HashStrategy.MIX, sequential, 0, false);
+
+        for (HashStrategy strategy : HashStrategy.values()) {
+            run("sequential", strategy, sequential, 0, true);
+        }
+        for (HashStrategy strategy : HashStrategy.values()) {
+            run("stride 1024", strategy, strided, 0, true);
+        }
+        for (HashStrategy strategy : HashStrategy.values()) {
+            run("random", strategy, shuffled, 0, true);
+        }
+
+        int small = Math.min(n, 20_000);
+        long buckets;
+        try (OffHeapHashMap probe = new OffHeapHashMap(small)) {
+            buckets = probe.capacity();  // one bucket per entry at the default load factor
+        }
+        long[] colliding = new long[small];
+        for (int i = 0; i < small; i++) {
+            colliding[i] = i * buckets;
+        }
+        for (HashStrategy strategy : HashStrategy.values()) {
+            // Presized so the bucket count stays the one the keys are multiples of
+            run("bucket multiples", strategy, colliding, small, true);
+        }
+    }
+
+    private static void run(String label, HashStrategy strategy, long[] keys, long expectedSize, boolean print) {
+        int n = keys.length;
+        try (OffHeapHashMap map = new OffHeapHashMap(expectedSize, strategy)) {
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                map.put(keys[i], i);
+            }
+            long put = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                map.get(keys[(int) ((i * 7919L) % n)]);
+            }
+            long hit = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                map.getOrDefault(keys[i] + 1, 0);
+            }
+            long miss = System.nanoTime() - start;
+
+            if (print) {
+                System.out.println(String.format("%-18s %-9s %10.1f %10.1f %10.1f", label, strategy,
+                        (double) put / n, (double) hit / n, (double) miss / n));
+            }
+        }
+    }
+}
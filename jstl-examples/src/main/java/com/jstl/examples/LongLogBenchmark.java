@@ -0,0 +1,131 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapArrayList;
+import com.jstl.OffHeapLongLog;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares appending from several threads to an OffHeapArrayList guarded
+ * by a lock with OffHeapLongLog, one value at a time and in batches, while
+ * a reader thread keeps scanning the published values chunk by chunk.
+ * Throughput only scales with threads when there are cores to run them.
+ *
+ * Usage: LongLogBenchmark [valuesPerThread] [maxThreads]
+ */
+public class LongLogBenchmark {
+    private static final int BATCH = 1_024;
+
+    public static void main(String[] args) {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.println("=== Long Log Benchmark (" + perThread + " values per thread, "
+                + Runtime.getRuntime().availableProcessors() + " processors) ===\n");
+
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                lockedList(threads, perThread, print);
+                log(threads, perThread, false, print);
+                log(threads, perThread, true, print);
+            }
+        }
+    }
+
+    private static void lockedList(int threads, int perThread, boolean print) {
+        try (OffHeapArrayList list = new OffHeapArrayList()) {
+            long elapsed = run(threads, t -> {
+                for (int i = 0; i < perThread; i++) {
+                    synchronized (list) {
+                        list.add(i);
+                    }
+                }
+            });
+            report("synchronized ArrayList", threads, elapsed, (long) threads * perThread, list.longSize(), print);
+        }
+    }
+
+    private static void log(int threads, int perThread, boolean batched, boolean print) {
+        try (OffHeapLongLog log = new OffHeapLongLog()) {
+            AtomicBoolean done = new AtomicBoolean();
+            long[] scanned = new long[1];
+            Thread reader = new Thread(() -> {
+                long sum = 0;
+                long chunk = 0;
+                while (!done.get()) {
+                    if (chunk < log.chunkCount() - 1) {
+                        MemorySegment values = log.chunk(chunk++);
+                        for (long i = 0; i < values.byteSize() / Long.BYTES; i++) {
+                            sum += values.getAtIndex(ValueLayout.JAVA_LONG, i);
+                        }
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                scanned[0] = sum;
+            });
+            reader.start();
+            long elapsed = run(threads, t -> {
+                if (batched) {
+                    long[] batch = new long[BATCH];
+                    for (int i = 0; i < perThread; i += BATCH) {
+                        int n = Math.min(BATCH, perThread - i);
+                        for (int j = 0; j < n; j++) {
+                            batch[j] = i + j;
+                        }
+                        log.appendAll(n == BATCH ? batch : Arrays.copyOf(batch, n));
+                    }
+                } else {
+                    for (int i = 0; i < perThread; i++) {
+                        log.append(i);
+                    }
+                }
+            });
+            done.set(true);
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            report(batched ? "LongLog appendAll" : "LongLog append", threads, elapsed, (long) threads * perThread,
+                    log.longSize(), print);
+        }
+    }
+
+    private interface Task {
+        void run(int thread);
+    }
+
+    private static long run(int threads, Task task) {
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> task.run(id));
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String label, int threads, long elapsed, long expected, long actual, boolean print) {
+        if (actual != expected) {
+            throw new AssertionError(label + " holds " + actual + " values, expected " + expected);
+        }
+        if (print) {
+            System.out.println(String.format("%-24s x%-2d %7.2f ns/value   %8.1f M values/s", label, threads,
+                    (double) elapsed / expected, expected * 1e3 / elapsed));
+        }
+    }
+}
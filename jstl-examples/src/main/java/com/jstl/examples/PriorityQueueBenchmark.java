@@ -0,0 +1,161 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapLongPriorityQueue;
+import com.jstl.OffHeapTopK;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Compares a boxed java.util.PriorityQueue with OffHeapLongPriorityQueue on
+ * offering then polling every priority, and a bounded top-k kept in a boxed
+ * PriorityQueue with OffHeapTopK over a stream of random priorities, offered
+ * one at a time and in chunks of a native segment.
+ *
+ * Usage: PriorityQueueBenchmark [queueSize] [streamSize] [k]
+ */
+public class PriorityQueueBenchmark {
+    private static final int CHUNK = 1 << 16;
+
+    public static void main(String[] args) {
+        int queueSize = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int streamSize = args.length > 1 ? Integer.parseInt(args[1]) : 100_000_000;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+        System.out.println("=== Priority Queue Benchmark (" + queueSize + " entries, top-" + k + " of "
+                + streamSize + ") ===\n");
+
+        long[] priorities = new long[queueSize];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < queueSize; i++) {
+            priorities[i] = random.nextLong();
+        }
+
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            long expected = javaQueue(priorities, print);
+            check(expected, offHeapQueue(priorities, false, print));
+            check(expected, offHeapQueue(priorities, true, print));
+
+            long expectedTop = javaTopK(streamSize, k, print);
+            check(expectedTop, offHeapTopK(streamSize, k, false, print));
+            check(expectedTop, offHeapTopK(streamSize, k, true, print));
+        }
+    }
+
+    private static long javaQueue(long[] priorities, boolean print) {
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        long start = System.nanoTime();
+        for (long priority : priorities) {
+            queue.add(priority);
+        }
+        long offer = System.nanoTime() - start;
+        start = System.nanoTime();
+        long checksum = 0;
+        while (!queue.isEmpty()) {
+            checksum = checksum * 31 + queue.poll();
+        }
+        long poll = System.nanoTime() - start;
+        report("PriorityQueue<Long>", offer, poll, priorities.length, print);
+        return checksum;
+    }
+
+    private static long offHeapQueue(long[] priorities, boolean bulk, boolean print) {
+        try (OffHeapLongPriorityQueue queue = new OffHeapLongPriorityQueue()) {
+            long start = System.nanoTime();
+            if (bulk) {
+                queue.offerAll(priorities);
+            } else {
+                for (long priority : priorities) {
+                    queue.offer(priority);
+                }
+            }
+            long offer = System.nanoTime() - start;
+            start = System.nanoTime();
+            long checksum = 0;
+            if (bulk) {
+                for (long priority : queue.drainSorted()) {
+                    checksum = checksum * 31 + priority;
+                }
+            } else {
+                while (!queue.isEmpty()) {
+                    checksum = checksum * 31 + queue.poll();
+                }
+            }
+            long poll = System.nanoTime() - start;
+            report(bulk ? "OffHeap offerAll/drain" : "OffHeap offer/poll", offer, poll, priorities.length, print);
+            return checksum;
+        }
+    }
+
+    private static long javaTopK(int streamSize, int k, boolean print) {
+        PriorityQueue<Long> top = new PriorityQueue<>(k);
+        SplittableRandom random = new SplittableRandom(7);
+        long start = System.nanoTime();
+        for (int i = 0; i < streamSize; i++) {
+            long priority = random.nextLong();
+            if (top.size() < k) {
+                top.add(priority);
+            } else if (priority > top.peek()) {
+                top.poll();
+                top.add(priority);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        reportTopK("PriorityQueue<Long> top-k", elapsed, streamSize, print);
+        long checksum = 0;
+        while (!top.isEmpty()) {
+            checksum += top.poll();
+        }
+        return checksum;
+    }
+
+    private static long offHeapTopK(int streamSize, int k, boolean chunked, boolean print) {
+        try (OffHeapTopK top = new OffHeapTopK(k);
+             Arena arena = Arena.ofConfined()) {
+            SplittableRandom random = new SplittableRandom(7);
+            MemorySegment chunk = arena.allocateArray(ValueLayout.JAVA_LONG, CHUNK);
+            long start = System.nanoTime();
+            if (chunked) {
+                for (int done = 0; done < streamSize; done += CHUNK) {
+                    int n = Math.min(CHUNK, streamSize - done);
+                    for (int i = 0; i < n; i++) {
+                        chunk.setAtIndex(ValueLayout.JAVA_LONG, i, random.nextLong());
+                    }
+                    top.offerAll(chunk.asSlice(0, (long) n * Long.BYTES));
+                }
+            } else {
+                for (int i = 0; i < streamSize; i++) {
+                    top.offer(random.nextLong());
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            reportTopK(chunked ? "OffHeapTopK offerAll" : "OffHeapTopK offer", elapsed, streamSize, print);
+            long checksum = 0;
+            for (long priority : top.toSortedArray()) {
+                checksum += priority;
+            }
+            return checksum;
+        }
+    }
+
+    private static void check(long expected, long actual) {
+        if (expected != actual) {
+            throw new AssertionError("Checksums differ: " + actual + " != " + expected);
+        }
+    }
+
+    private static void report(String label, long offer, long poll, long n, boolean print) {
+        if (print) {
+            System.out.println(String.format("%-26s offer %6.1f ns/entry   poll %6.1f ns/entry", label,
+                    (double) offer / n, (double) poll / n));
+        }
+    }
+
+    private static void reportTopK(String label, long elapsed, long n, boolean print) {
+        if (print) {
+            System.out.println(String.format("%-26s %6.2f ns/offer", label, (double) elapsed / n));
+        }
+    }
+}
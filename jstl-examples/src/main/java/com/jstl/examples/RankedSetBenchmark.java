@@ -0,0 +1,131 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapRankedSet;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Compares ways of answering percentile queries over a changing set of
+ * longs: sorting a copy of a long[] per query, a TreeSet (which has no
+ * rank, so a percentile walks the set), and OffHeapRankedSet. Each round
+ * adds a batch of keys, then computes p50, p99 and a rank.
+ *
+ * Usage: RankedSetBenchmark [keys] [rounds]
+ */
+public class RankedSetBenchmark {
+    private static final int BATCH = 1_000;
+
+    public static void main(String[] args) {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        System.out.println("=== Ranked Set Benchmark (" + keys + " keys, " + rounds + " rounds of "
+                + BATCH + " adds + 3 queries) ===\n");
+
+        long[] initial = new long[keys];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < keys; i++) {
+            initial[i] = random.nextLong();
+        }
+
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            long expected = sortCopy(initial, rounds, print);
+            check(expected, treeSet(initial, rounds, print));
+            check(expected, rankedSet(initial, rounds, print));
+        }
+    }
+
+    private static long sortCopy(long[] initial, int rounds, boolean print) {
+        long start = System.nanoTime();
+        long[] keys = initial.clone();
+        int size = keys.length;
+        long load = System.nanoTime() - start;
+        SplittableRandom random = new SplittableRandom(7);
+        long checksum = 0;
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            keys = Arrays.copyOf(keys, size + BATCH);
+            for (int i = 0; i < BATCH; i++) {
+                keys[size++] = random.nextLong();
+            }
+            long[] sorted = keys.clone();
+            Arrays.sort(sorted);
+            checksum += percentile(sorted, 50) + percentile(sorted, 99) + rankOf(sorted, 0);
+        }
+        report("sorted copy per query", load, System.nanoTime() - start, initial.length, rounds, print);
+        return checksum;
+    }
+
+    private static long treeSet(long[] initial, int rounds, boolean print) {
+        long start = System.nanoTime();
+        TreeSet<Long> set = new TreeSet<>();
+        for (long key : initial) {
+            set.add(key);
+        }
+        long load = System.nanoTime() - start;
+        SplittableRandom random = new SplittableRandom(7);
+        long checksum = 0;
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < BATCH; i++) {
+                set.add(random.nextLong());
+            }
+            checksum += walk(set, 50) + walk(set, 99) + set.headSet(0L, true).size();
+        }
+        report("TreeSet<Long>", load, System.nanoTime() - start, initial.length, rounds, print);
+        return checksum;
+    }
+
+    private static long rankedSet(long[] initial, int rounds, boolean print) {
+        try (OffHeapRankedSet set = new OffHeapRankedSet()) {
+            long start = System.nanoTime();
+            set.addAll(initial);
+            long load = System.nanoTime() - start;
+            SplittableRandom random = new SplittableRandom(7);
+            long checksum = 0;
+            start = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                for (int i = 0; i < BATCH; i++) {
+                    set.add(random.nextLong());
+                }
+                checksum += set.percentile(50) + set.percentile(99) + set.rank(0);
+            }
+            report("OffHeapRankedSet", load, System.nanoTime() - start, initial.length, rounds, print);
+            return checksum;
+        }
+    }
+
+    // Nearest-rank percentile of a sorted array
+    private static long percentile(long[] sorted, double p) {
+        int index = Math.max(0, (int) Math.ceil(p * sorted.length / 100) - 1);
+        return sorted[index];
+    }
+
+    private static long rankOf(long[] sorted, long key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static long walk(TreeSet<Long> set, double p) {
+        int index = Math.max(0, (int) Math.ceil(p * set.size() / 100) - 1);
+        var iterator = set.iterator();
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    private static void check(long expected, long actual) {
+        if (expected != actual) {
+            throw new AssertionError("Checksums differ: " + actual + " != " + expected);
+        }
+    }
+
+    private static void report(String label, long load, long queries, long keys, int rounds, boolean print) {
+        if (print) {
+            System.out.println(String.format("%-24s load %7.1f ns/key   round %10.1f us", label,
+                    (double) load / keys, queries / 1e3 / rounds));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapArrayList;
+import com.jstl.OffHeapColumnTable;
+import com.jstl.OffHeapRecordList;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Compares storing trades as four parallel OffHeapArrayLists, as an
+ * OffHeapRecordList (array of structs) and as an OffHeapColumnTable
+ * (struct of arrays): the cost to load them, to read every field of every
+ * record, and to scan the notional (price * qty) of every trade.
+ *
+ * Usage: RecordLayoutBenchmark [trades]
+ */
+public class RecordLayoutBenchmark {
+    private static final StructLayout TRADE = MemoryLayout.structLayout(
+            ValueLayout.JAVA_DOUBLE.withName("price"),
+            ValueLayout.JAVA_LONG.withName("qty"),
+            ValueLayout.JAVA_LONG.withName("ts"),
+            ValueLayout.JAVA_LONG.withName("id"));
+
+    private static final VarHandle ROW_PRICE = OffHeapRecordList.varHandle(TRADE, "price");
+    private static final VarHandle ROW_QTY = OffHeapRecordList.varHandle(TRADE, "qty");
+    private static final VarHandle ROW_TS = OffHeapRecordList.varHandle(TRADE, "ts");
+    private static final VarHandle ROW_ID = OffHeapRecordList.varHandle(TRADE, "id");
+
+    private static final VarHandle COLUMN_PRICE = OffHeapColumnTable.varHandle(TRADE, "price");
+    private static final VarHandle COLUMN_LONG = OffHeapColumnTable.varHandle(TRADE, "qty");
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        System.out.println("=== Record Layout Benchmark (" + n + " trades) ===\n");
+        System.out.println(String.format("%-22s %10s %12s %10s", "layout", "load ms", "records ns", "scan ns"));
+
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment batch = arena.allocateArray(TRADE, n);
+            for (long i = 0; i < n; i++) {
+                ROW_PRICE.set(batch, i, 100.0 + i % 97);
+                ROW_QTY.set(batch, i, 1 + i % 13);
+                ROW_TS.set(batch, i, 1_700_000_000_000L + i);
+                ROW_ID.set(batch, i, i);
+            }
+
+            // Warm up each path before measuring
+            for (int round = 0; round < 5; round++) {
+                boolean print = round == 4;
+                parallelLists(batch, n, print);
+                recordList(batch, print);
+                columnTable(batch, print);
+            }
+        }
+    }
+
+    private static void parallelLists(MemorySegment batch, int n, boolean print) {
+        try (OffHeapArrayList price = new OffHeapArrayList(n);
+             OffHeapArrayList qty = new OffHeapArrayList(n);
+             OffHeapArrayList ts = new OffHeapArrayList(n);
+             OffHeapArrayList id = new OffHeapArrayList(n)) {
+            long start = System.nanoTime();
+            for (long i = 0; i < n; i++) {
+                price.add(Double.doubleToRawLongBits((double) ROW_PRICE.get(batch, i)));
+                qty.add((long) ROW_QTY.get(batch, i));
+                ts.add((long) ROW_TS.get(batch, i));
+                id.add((long) ROW_ID.get(batch, i));
+            }
+            long load = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long check = 0;
+            for (long i = 0; i < n; i++) {
+                check += price.get(i) ^ qty.get(i) ^ ts.get(i) ^ id.get(i);
+            }
+            long records = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double notional = 0;
+            for (long i = 0; i < n; i++) {
+                notional += Double.longBitsToDouble(price.get(i)) * qty.get(i);
+            }
+            long scan = System.nanoTime() - start;
+            report("parallel ArrayLists", n, load, records, scan, print, check, notional);
+        }
+    }
+
+    private static void recordList(MemorySegment batch, boolean print) {
+        try (OffHeapRecordList trades = new OffHeapRecordList(TRADE)) {
+            long start = System.nanoTime();
+            trades.addAll(batch);
+            long load = System.nanoTime() - start;
+            MemorySegment rows = trades.segment();
+
+            start = System.nanoTime();
+            long check = readRows(rows, trades.longSize());
+            long records = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double notional = scanRows(rows, trades.longSize());
+            long scan = System.nanoTime() - start;
+            report("OffHeapRecordList", trades.longSize(), load, records, scan, print, check, notional);
+        }
+    }
+
+    private static long readRows(MemorySegment rows, long n) {
+        long check = 0;
+        for (long i = 0; i < n; i++) {
+            check += Double.doubleToRawLongBits((double) ROW_PRICE.get(rows, i))
+                    ^ (long) ROW_QTY.get(rows, i) ^ (long) ROW_TS.get(rows, i) ^ (long) ROW_ID.get(rows, i);
+        }
+        return check;
+    }
+
+    private static double scanRows(MemorySegment rows, long n) {
+        double notional = 0;
+        for (long i = 0; i < n; i++) {
+            notional += (double) ROW_PRICE.get(rows, i) * (long) ROW_QTY.get(rows, i);
+        }
+        return notional;
+    }
+
+    private static void columnTable(MemorySegment batch, boolean print) {
+        try (OffHeapColumnTable trades = new OffHeapColumnTable(TRADE)) {
+            long start = System.nanoTime();
+            trades.addAll(batch);
+            long load = System.nanoTime() - start;
+            MemorySegment price = trades.column("price");
+            MemorySegment qty = trades.column("qty");
+
+            start = System.nanoTime();
+            long check = readColumns(price, qty, trades.column("ts"), trades.column("id"), trades.longSize());
+            long records = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            double notional = scanColumns(price, qty, trades.longSize());
+            long scan = System.nanoTime() - start;
+            report("OffHeapColumnTable", trades.longSize(), load, records, scan, print, check, notional);
+        }
+    }
+
+    private static long readColumns(MemorySegment price, MemorySegment qty, MemorySegment ts, MemorySegment id, long n) {
+        long check = 0;
+        for (long i = 0; i < n; i++) {
+            check += Double.doubleToRawLongBits((double) COLUMN_PRICE.get(price, i))
+                    ^ (long) COLUMN_LONG.get(qty, i) ^ (long) COLUMN_LONG.get(ts, i) ^ (long) COLUMN_LONG.get(id, i);
+        }
+        return check;
+    }
+
+    private static double scanColumns(MemorySegment price, MemorySegment qty, long n) {
+        double notional = 0;
+        for (long i = 0; i < n; i++) {
+            notional += (double) COLUMN_PRICE.get(price, i) * (long) COLUMN_LONG.get(qty, i);
+        }
+        return notional;
+    }
+
+    private static void report(String label, long n, long load, long records, long scan,
+                               boolean print, long check, double notional) {
+        if (print) {
+            System.out.println(String.format("%-22s %10.1f %12.2f %10.2f   (check %d, notional %.0f)", label,
+                    load / 1_000_000.0, (double) records / n, (double) scan / n, check, notional));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapHashMap;
+import java.util.Arrays;
+
+/**
+ * Measures put latency while an OffHeapHashMap grows, with and without
+ * incremental rehashing. A full rehash stalls a single put for the whole
+ * table; incremental rehashing spreads that work over later operations.
+ *
+ * Usage: RehashLatencyBenchmark [entries]
+ */
+public class RehashLatencyBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        System.out.println("=== Rehash Latency Benchmark (" + n + " puts) ===\n");
+
+        // Warm up the downcalls before measuring
+        run(100_000, false);
+        run(100_000, true);
+
+        report("full rehash", run(n, false));
+        report("incremental rehash", run(n, true));
+    }
+
+    private static long[] run(int n, boolean incremental) {
+        long[] latencies = new long[n];
+        try (OffHeapHashMap map = new OffHeapHashMap()) {
+            map.setIncrementalRehash(incremental);
+            for (int i = 0; i < n; i++) {
+                long key = i * 0x9E3779B97F4A7C15L;
+                long start = System.nanoTime();
+                map.put(key, i);
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        return latencies;
+    }
+
+    private static void report(String label, long[] latencies) {
+        long total = 0;
+        for (long latency : latencies) {
+            total += latency;
+        }
+        Arrays.sort(latencies);
+        int n = latencies.length;
+        System.out.println(label + ":");
+        System.out.println("  mean   " + String.format("%,d", total / n) + " ns");
+        System.out.println("  p50    " + String.format("%,d", latencies[n / 2]) + " ns");
+        System.out.println("  p99.9  " + String.format("%,d", latencies[(int) (n * 0.999)]) + " ns");
+        System.out.println("  p99.99 " + String.format("%,d", latencies[(int) (n * 0.9999)]) + " ns");
+        System.out.println("  max    " + String.format("%.2f", latencies[n - 1] / 1_000_000.0) + " ms\n");
+    }
+}
@@ -0,0 +1,153 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapHashMap;
+import com.jstl.OffHeapSharedMap;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares every JVM building its own copy of a lookup table with one
+ * writer filling an OffHeapSharedMap that reader JVMs attach to. The
+ * writer builds the table once, then starts reader processes that open
+ * it, time the attach and look up every key, one at a time and in bulk.
+ *
+ * Usage: SharedMapBenchmark [entries] [readers]
+ */
+public class SharedMapBenchmark {
+    private static final int BATCH = 4_096;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("--reader")) {
+            reader(args[1], Integer.parseInt(args[2]));
+            return;
+        }
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        System.out.println("=== Shared Map Benchmark (" + entries + " entries, " + readers + " reader processes) ===\n");
+
+        long start = System.nanoTime();
+        try (OffHeapHashMap copy = new OffHeapHashMap(entries)) {
+            for (int i = 0; i < entries; i++) {
+                copy.put(keyOf(i), i);
+            }
+            System.out.println(String.format("%-36s %8.1f ms per process", "private OffHeapHashMap build",
+                    (System.nanoTime() - start) / 1e6));
+        }
+
+        String name = "jstl-bench-" + ProcessHandle.current().pid();
+        start = System.nanoTime();
+        try (OffHeapSharedMap map = OffHeapSharedMap.create(name, entries)) {
+            long[] keys = new long[BATCH];
+            long[] values = new long[BATCH];
+            for (int base = 0; base < entries; base += BATCH) {
+                int n = Math.min(BATCH, entries - base);
+                if (n < BATCH) {
+                    keys = new long[n];
+                    values = new long[n];
+                }
+                for (int i = 0; i < n; i++) {
+                    keys[i] = keyOf(base + i);
+                    values[i] = base + i;
+                }
+                map.putAll(keys, values);
+            }
+            System.out.println(String.format("%-36s %8.1f ms, %6d MB shared", "OffHeapSharedMap build (once)",
+                    (System.nanoTime() - start) / 1e6, map.sizeInBytes() >> 20));
+
+            List<Process> processes = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                processes.add(new ProcessBuilder(javaCommand(name, entries)).inheritIO().start());
+            }
+            for (Process process : processes) {
+                if (process.waitFor() != 0) {
+                    throw new AssertionError("Reader exited with " + process.exitValue());
+                }
+            }
+        } finally {
+            OffHeapSharedMap.unlink(name);
+        }
+    }
+
+    private static void reader(String name, int entries) {
+        // The first open also loads the native library
+        long start = System.nanoTime();
+        OffHeapSharedMap.open(name).close();
+        long firstOpen = System.nanoTime() - start;
+        start = System.nanoTime();
+        try (OffHeapSharedMap map = OffHeapSharedMap.open(name)) {
+            long attach = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < entries; i++) {
+                checksum += map.get(keyOf(i));
+            }
+            long single = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long[] keys = new long[BATCH];
+            for (int base = 0; base < entries; base += BATCH) {
+                int n = Math.min(BATCH, entries - base);
+                for (int i = 0; i < n; i++) {
+                    keys[i] = keyOf(base + i);
+                }
+                long[] values = map.getAll(keys, -1);
+                for (int i = 0; i < n; i++) {
+                    checksum -= values[i];
+                }
+            }
+            long bulk = System.nanoTime() - start;
+
+            if (checksum != 0) {
+                throw new AssertionError("Reader saw different values one at a time and in bulk");
+            }
+            System.out.println(String.format(
+                    "reader %-8d first open %6.1f ms   open %6.1f us   get %6.1f ns/key   getAll %6.1f ns/key",
+                    ProcessHandle.current().pid(), firstOpen / 1e6, attach / 1e3, (double) single / entries,
+                    (double) bulk / entries));
+        }
+    }
+
+    private static List<String> javaCommand(String name, int entries) {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("--enable-preview");
+        command.add("--enable-native-access=ALL-UNNAMED");
+        String libraryPath = System.getProperty("java.library.path");
+        if (libraryPath != null) {
+            command.add("-Djava.library.path=" + libraryPath);
+        }
+        command.add("-cp");
+        command.add(classPath());
+        command.add(SharedMapBenchmark.class.getName());
+        command.add("--reader");
+        command.add(name);
+        command.add(Integer.toString(entries));
+        return command;
+    }
+
+    // Where this class and the library were loaded from. Under mvn exec:java
+    // java.class.path is Maven's own, so it cannot be handed to the readers.
+    private static String classPath() {
+        CodeSource app = SharedMapBenchmark.class.getProtectionDomain().getCodeSource();
+        CodeSource library = OffHeapSharedMap.class.getProtectionDomain().getCodeSource();
+        if (app == null || library == null) {
+            return System.getProperty("java.class.path");
+        }
+        try {
+            return Path.of(app.getLocation().toURI()) + File.pathSeparator + Path.of(library.getLocation().toURI());
+        } catch (URISyntaxException e) {
+            return System.getProperty("java.class.path");
+        }
+    }
+
+    // Odd multiplier, so distinct i give distinct, well spread keys
+    private static long keyOf(int i) {
+        return i * 0x9E3779B97F4A7C15L;
+    }
+}
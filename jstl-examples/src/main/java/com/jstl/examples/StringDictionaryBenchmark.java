@@ -0,0 +1,99 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapStringDictionary;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares dictionary-encoding strings with OffHeapStringDictionary against
+ * an on-heap HashMap<String, Integer>: the cost per new string, per repeat
+ * lookup, and the memory held once loaded (Java heap growth for the map,
+ * including its own copies of the keys, and native bytes for the
+ * dictionary). Lookups use separate String instances, so the map compares
+ * key bytes rather than references.
+ *
+ * Usage: StringDictionaryBenchmark [strings]
+ */
+public class StringDictionaryBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        System.out.println("=== String Dictionary Benchmark (" + n + " strings) ===\n");
+        System.out.println(String.format("%-30s %10s %10s %14s", "dictionary", "add ns", "lookup ns", "bytes/string"));
+
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = "customer-" + (i * 2_654_435_761L % 1_000_000_007L);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            heapMap(keys, print);
+            offHeap(keys, false, print);
+            offHeap(keys, true, print);
+        }
+    }
+
+    private static void heapMap(String[] keys, boolean print) {
+        int n = keys.length;
+        long before = usedHeap();
+        Map<String, Integer> map = new HashMap<>();
+        long start = System.nanoTime();
+        for (String key : keys) {
+            // The map owns its keys, as it would when they arrive from input
+            map.putIfAbsent(new String(key.toCharArray()), map.size());
+        }
+        long add = System.nanoTime() - start;
+        long bytes = usedHeap() - before;
+
+        start = System.nanoTime();
+        long check = 0;
+        for (int i = 0; i < n; i++) {
+            check += map.get(keys[(int) ((i * 7919L) % n)]);
+        }
+        long lookup = System.nanoTime() - start;
+        report("HashMap<String, Integer>", n, add, lookup, bytes, print, check);
+    }
+
+    private static void offHeap(String[] keys, boolean bulk, boolean print) {
+        int n = keys.length;
+        try (OffHeapStringDictionary dict = new OffHeapStringDictionary()) {
+            long start = System.nanoTime();
+            if (bulk) {
+                for (int from = 0; from < n; from += 10_000) {
+                    String[] batch = Arrays.copyOfRange(keys, from, Math.min(n, from + 10_000));
+                    dict.idsOf(batch);
+                }
+            } else {
+                for (String key : keys) {
+                    dict.idOf(key);
+                }
+            }
+            long add = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long check = 0;
+            for (int i = 0; i < n; i++) {
+                check += dict.find(keys[(int) ((i * 7919L) % n)]);
+            }
+            long lookup = System.nanoTime() - start;
+            report(bulk ? "OffHeapStringDictionary bulk" : "OffHeapStringDictionary", n, add, lookup,
+                    dict.sizeInBytes(), print, check);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String label, int n, long add, long lookup, long bytes, boolean print, long check) {
+        if (print) {
+            System.out.println(String.format("%-30s %10.1f %10.1f %14.1f   (check %d)", label,
+                    (double) add / n, (double) lookup / n, (double) bytes / n, check));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.jstl.examples;
+
+import com.jstl.OffHeapHashMap;
+import com.jstl.OffHeapTieredMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compares an OffHeapHashMap holding every entry in memory with an
+ * OffHeapTieredMap given a fraction of that memory, which spills the rest
+ * to run files. Times puts, lookups of recently written keys (hot tier),
+ * lookups of random keys (mostly on disk) and misses, then compaction.
+ *
+ * Usage: TieredMapBenchmark [entries] [budgetMB] [directory]
+ */
+public class TieredMapBenchmark {
+    private static final int LOOKUPS = 1_000_000;
+
+    public static void main(String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 8_000_000;
+        long budget = (args.length > 1 ? Long.parseLong(args[1]) : 64) << 20;
+        Path dir = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("jstl-tiered");
+        System.out.println("=== Tiered Map Benchmark (" + entries + " entries, " + (budget >> 20)
+                + " MB budget, runs in " + dir + ") ===\n");
+
+        long start = System.nanoTime();
+        try (OffHeapHashMap map = new OffHeapHashMap(entries)) {
+            for (int i = 0; i < entries; i++) {
+                map.put(keyOf(i), i);
+            }
+            long put = System.nanoTime() - start;
+            Random random = new Random(1);
+            start = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                checksum += map.get(keyOf(random.nextInt(entries)));
+            }
+            long get = System.nanoTime() - start;
+            System.out.println(String.format("%-28s put %7.1f ns   random get %7.1f ns   (checksum %d)",
+                    "OffHeapHashMap (all memory)", (double) put / entries, (double) get / LOOKUPS, checksum));
+        }
+
+        try (OffHeapTieredMap map = new OffHeapTieredMap(dir, budget)) {
+            start = System.nanoTime();
+            for (int i = 0; i < entries; i++) {
+                map.put(keyOf(i), i);
+            }
+            long put = System.nanoTime() - start;
+            System.out.println(String.format("%-28s put %7.1f ns   %d runs, %d merges, hot %d, memory %d MB, disk %d MB",
+                    "OffHeapTieredMap", (double) put / entries, map.runCount(), map.mergeCount(), map.hotSize(),
+                    map.sizeInBytes() >> 20, map.diskBytes() >> 20));
+
+            Random random = new Random(1);
+            int recent = (int) Math.min(entries, map.hotSize());
+            start = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                checksum += map.get(keyOf(entries - 1 - random.nextInt(recent)));
+            }
+            report("recent get", System.nanoTime() - start, checksum);
+
+            random = new Random(1);
+            start = System.nanoTime();
+            checksum = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                checksum += map.get(keyOf(random.nextInt(entries)));
+            }
+            report("random get", System.nanoTime() - start, checksum);
+
+            start = System.nanoTime();
+            checksum = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                checksum += map.getOrDefault(keyOf(entries + i), 0);
+            }
+            report("miss", System.nanoTime() - start, checksum);
+
+            start = System.nanoTime();
+            map.compact();
+            System.out.println(String.format("%-28s %7.1f ms, %d run, disk %d MB", "compact",
+                    (System.nanoTime() - start) / 1e6, map.runCount(), map.diskBytes() >> 20));
+
+            random = new Random(1);
+            start = System.nanoTime();
+            checksum = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                checksum += map.get(keyOf(random.nextInt(entries)));
+            }
+            report("random get, compacted", System.nanoTime() - start, checksum);
+        } finally {
+            if (args.length <= 2) {
+                Files.deleteIfExists(dir);
+            }
+        }
+    }
+
+    private static void report(String label, long nanos, long checksum) {
+        System.out.println(String.format("  %-26s %7.1f ns   (checksum %d)", label, (double) nanos / LOOKUPS, checksum));
+    }
+
+    // Odd multiplier, so distinct i give distinct, well spread keys
+    private static long keyOf(int i) {
+        return i * 0x9E3779B97F4A7C15L;
+    }
+}